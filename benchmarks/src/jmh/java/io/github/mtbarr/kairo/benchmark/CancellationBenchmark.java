@@ -0,0 +1,93 @@
+package io.github.mtbarr.kairo.benchmark;
+
+import io.github.mtbarr.kairo.EventBus;
+import io.github.mtbarr.kairo.EventPriority;
+import io.github.mtbarr.kairo.cancellable.CancellableEvent;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares posting a cancellable event through a chain where the first subscriber cancels it
+ * against the same chain where nobody cancels it, optionally followed by monitor subscribers.
+ *
+ * @author Matheus Barreto <a href="https://github.com/mtbarr">mtbarr</a>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CancellationBenchmark {
+
+  @Param({"10", "100"})
+  private int subscribers;
+
+  /**
+   * Percentage of the subscribers after the guard that ignore cancelled events.
+   */
+  @Param({"0", "90"})
+  private int ignoringPercentage;
+
+  /**
+   * Number of subscribers in the monitor band, after every other subscriber.
+   */
+  @Param({"0", "10"})
+  private int monitors;
+
+  private EventBus eventBus;
+
+  @Setup
+  public void setUp() {
+    eventBus = new EventBus();
+    eventBus.subscribe(BenchmarkEvent.class, false, Integer.MAX_VALUE, event -> event.setCancelled(event.cancel));
+
+    int ignoring = subscribers * ignoringPercentage / 100;
+    for (int i = 0; i < subscribers; i++) {
+      eventBus.subscribe(BenchmarkEvent.class, i < ignoring, 0, BenchmarkEvent::receive);
+    }
+    for (int i = 0; i < monitors; i++) {
+      eventBus.subscribe(BenchmarkEvent.class, false, EventPriority.MONITOR, BenchmarkEvent::receive);
+    }
+  }
+
+  @Benchmark
+  public int notCancelled() {
+    BenchmarkEvent event = new BenchmarkEvent(false);
+    eventBus.post(event);
+    return event.received;
+  }
+
+  @Benchmark
+  public int cancelled() {
+    BenchmarkEvent event = new BenchmarkEvent(true);
+    eventBus.post(event);
+    return event.received;
+  }
+
+  public static class BenchmarkEvent implements CancellableEvent {
+
+    private final boolean cancel;
+    private boolean cancelled;
+    private int received;
+
+    BenchmarkEvent(boolean cancel) {
+      this.cancel = cancel;
+    }
+
+    void receive() {
+      received++;
+    }
+
+    @Override
+    public boolean isCancelled() {
+      return cancelled;
+    }
+
+    @Override
+    public void setCancelled(boolean cancelled) {
+      this.cancelled = cancelled;
+    }
+  }
+}
@@ -0,0 +1,92 @@
+package io.github.mtbarr.kairo.benchmark;
+
+import io.github.mtbarr.kairo.EventBus;
+import io.github.mtbarr.kairo.cancellable.CancellableEvent;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares posting through subscriber chains compiled into a single method handle against the interpreted loop,
+ * for plain events and for cancellable events cancelled halfway through a chain of subscribers ignoring them.
+ *
+ * @author Matheus Barreto <a href="https://github.com/mtbarr">mtbarr</a>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CompiledDispatchBenchmark {
+
+  @Param({"1", "10", "50"})
+  private int subscribers;
+
+  @Param({"false", "true"})
+  private boolean compiledDispatch;
+
+  private EventBus eventBus;
+  private PlainEvent plainEvent;
+
+  @Setup
+  public void setUp() {
+    eventBus = new EventBus();
+    eventBus.setCompiledDispatch(compiledDispatch);
+    for (int i = 0; i < subscribers; i++) {
+      eventBus.subscribe(PlainEvent.class, i, PlainEvent::receive);
+      // The middle subscriber cancels, the ones after it alternate between ignoring and receiving cancelled events.
+      int index = i;
+      eventBus.subscribe(GuardedEvent.class, i % 2 == 1, subscribers - i, event -> {
+        if (index == subscribers / 2) {
+          event.setCancelled(true);
+        }
+        event.receive();
+      });
+    }
+
+    plainEvent = new PlainEvent();
+  }
+
+  @Benchmark
+  public int post() {
+    eventBus.post(plainEvent);
+    return plainEvent.received;
+  }
+
+  @Benchmark
+  public int postCancellable() {
+    GuardedEvent event = new GuardedEvent();
+    eventBus.post(event);
+    return event.received;
+  }
+
+  public static class PlainEvent {
+
+    private int received;
+
+    void receive() {
+      received++;
+    }
+  }
+
+  public static class GuardedEvent implements CancellableEvent {
+
+    private boolean cancelled;
+    private int received;
+
+    void receive() {
+      received++;
+    }
+
+    @Override
+    public boolean isCancelled() {
+      return cancelled;
+    }
+
+    @Override
+    public void setCancelled(boolean cancelled) {
+      this.cancelled = cancelled;
+    }
+  }
+}
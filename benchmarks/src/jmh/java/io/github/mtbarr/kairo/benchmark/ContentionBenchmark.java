@@ -0,0 +1,63 @@
+package io.github.mtbarr.kairo.benchmark;
+
+import io.github.mtbarr.kairo.EventBus;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures {@link EventBus#post(Object)} throughput when many threads post the same event type to one event bus,
+ * reusing an event per thread or allocating one per post. Run with {@code -t} to change the thread count.
+ *
+ * @author Matheus Barreto <a href="https://github.com/mtbarr">mtbarr</a>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(4)
+public class ContentionBenchmark {
+
+  @Param({"1", "10"})
+  private int subscribers;
+
+  private EventBus eventBus;
+
+  @Setup
+  public void setUp() {
+    eventBus = new EventBus();
+    for (int i = 0; i < subscribers; i++) {
+      eventBus.subscribe(BenchmarkEvent.class, BenchmarkEvent::receive);
+    }
+  }
+
+  @State(Scope.Thread)
+  public static class ThreadState {
+
+    final BenchmarkEvent event = new BenchmarkEvent();
+  }
+
+  @Benchmark
+  public int reusedEvent(ThreadState state) {
+    eventBus.post(state.event);
+    return state.event.received;
+  }
+
+  @Benchmark
+  public int newEvent() {
+    BenchmarkEvent event = new BenchmarkEvent();
+    eventBus.post(event);
+    return event.received;
+  }
+
+  public static class BenchmarkEvent {
+
+    private int received;
+
+    void receive() {
+      received++;
+    }
+  }
+}
@@ -0,0 +1,101 @@
+package io.github.mtbarr.kairo.benchmark;
+
+import io.github.mtbarr.kairo.EventBus;
+import io.github.mtbarr.kairo.codec.EventCodec;
+import io.github.mtbarr.kairo.journal.DurabilityPolicy;
+import io.github.mtbarr.kairo.journal.EventJournal;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Measures the overhead of journaling a posted event per durability policy, against posting without a journal.
+ *
+ * @author Matheus Barreto <a href="https://github.com/mtbarr">mtbarr</a>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JournalBenchmark {
+
+  private static final EventCodec<PositionEvent> CODEC = new EventCodec<>() {
+    @Override
+    public void encode(PositionEvent event, ByteBuffer target) {
+      target.putLong(event.entity);
+      target.putDouble(event.x);
+      target.putDouble(event.y);
+    }
+
+    @Override
+    public PositionEvent decode(ByteBuffer source) {
+      return new PositionEvent(source.getLong(), source.getDouble(), source.getDouble());
+    }
+  };
+
+  @Param({"NONE", "ASYNC", "BATCHED", "SYNC"})
+  private String durabilityPolicy;
+
+  private Path directory;
+  private EventJournal journal;
+  private EventBus eventBus;
+  private PositionEvent event;
+
+  @Setup
+  public void setUp() throws IOException {
+    eventBus = new EventBus();
+    eventBus.subscribe(PositionEvent.class, PositionEvent::receive);
+    if (!durabilityPolicy.equals("NONE")) {
+      directory = Files.createTempDirectory("kairo-journal-benchmark");
+      journal = new EventJournal(directory, EventJournal.DEFAULT_SEGMENT_SIZE, DurabilityPolicy.valueOf(durabilityPolicy), EventJournal.DEFAULT_FLUSH_INTERVAL);
+      journal.register(PositionEvent.class, 1, CODEC, e -> e.entity);
+      eventBus.setJournal(journal);
+    }
+    event = new PositionEvent(42, 1.0, 2.0);
+  }
+
+  @TearDown
+  public void tearDown() throws IOException {
+    if (journal != null) {
+      journal.close();
+      try (Stream<Path> files = Files.walk(directory)) {
+        for (Path file : (Iterable<Path>) files.sorted(Comparator.reverseOrder())::iterator) {
+          Files.delete(file);
+        }
+      }
+    }
+  }
+
+  @Benchmark
+  public int post() {
+    eventBus.post(event);
+    return event.received;
+  }
+
+  public static class PositionEvent {
+
+    private final long entity;
+    private final double x;
+    private final double y;
+    private int received;
+
+    PositionEvent(long entity, double x, double y) {
+      this.entity = entity;
+      this.x = x;
+      this.y = y;
+    }
+
+    void receive() {
+      received++;
+    }
+  }
+}
@@ -0,0 +1,51 @@
+package io.github.mtbarr.kairo.benchmark;
+
+import io.github.mtbarr.kairo.EventBus;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the latency of {@link EventBus#post(Object)} for a growing number of functional subscribers.
+ *
+ * @author Matheus Barreto <a href="https://github.com/mtbarr">mtbarr</a>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PostBenchmark {
+
+  @Param({"0", "1", "10", "100"})
+  private int subscribers;
+
+  private EventBus eventBus;
+  private BenchmarkEvent event;
+
+  @Setup
+  public void setUp() {
+    eventBus = new EventBus();
+    for (int i = 0; i < subscribers; i++) {
+      eventBus.subscribe(BenchmarkEvent.class, i, BenchmarkEvent::receive);
+    }
+
+    event = new BenchmarkEvent();
+  }
+
+  @Benchmark
+  public int post() {
+    eventBus.post(event);
+    return event.received;
+  }
+
+  public static class BenchmarkEvent {
+
+    private int received;
+
+    void receive() {
+      received++;
+    }
+  }
+}
@@ -0,0 +1,103 @@
+package io.github.mtbarr.kairo.benchmark;
+
+import io.github.mtbarr.kairo.EventBus;
+import io.github.mtbarr.kairo.annotation.Subscribe;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures how long it takes to register a large number of listener objects, either one by one
+ * with {@link EventBus#subscribe(Object)} or at once with {@link EventBus#subscribeAll(Iterable)},
+ * with subscriptions published right away or staged and published in a single batch by the next post.
+ *
+ * @author Matheus Barreto <a href="https://github.com/mtbarr">mtbarr</a>
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class RegistrationBenchmark {
+
+  @State(Scope.Thread)
+  public static class BulkState extends ListenerState {
+
+    @Param({"10000", "100000", "1000000"})
+    private int listenerCount;
+
+    @Override
+    int listenerCount() {
+      return listenerCount;
+    }
+  }
+
+  /**
+   * Registering one by one copies the snapshot of the event type on every call,
+   * so it is only measured up to sizes that finish in a reasonable time.
+   */
+  @State(Scope.Thread)
+  public static class SingleState extends ListenerState {
+
+    @Param({"10000", "100000"})
+    private int listenerCount;
+
+    @Override
+    int listenerCount() {
+      return listenerCount;
+    }
+  }
+
+  @Benchmark
+  public EventBus subscribeAll(BulkState state) {
+    state.eventBus.subscribeAll(state.listeners);
+    state.eventBus.post(new BenchmarkEvent());
+    return state.eventBus;
+  }
+
+  @Benchmark
+  public EventBus subscribeEach(SingleState state) {
+    for (Object listener : state.listeners) {
+      state.eventBus.subscribe(listener);
+    }
+    state.eventBus.post(new BenchmarkEvent());
+    return state.eventBus;
+  }
+
+  public abstract static class ListenerState {
+
+    @Param({"false", "true"})
+    private boolean stagedRegistration;
+
+    EventBus eventBus;
+    List<Object> listeners;
+
+    abstract int listenerCount();
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+      eventBus = new EventBus();
+      eventBus.setStagedRegistration(stagedRegistration);
+      listeners = new ArrayList<>(listenerCount());
+      for (int i = 0; i < listenerCount(); i++) {
+        listeners.add(new BenchmarkListener());
+      }
+    }
+  }
+
+  public static class BenchmarkEvent {
+  }
+
+  public static class BenchmarkListener {
+
+    @Subscribe(priority = 1)
+    public void onEvent(BenchmarkEvent event) {
+    }
+
+    @Subscribe(priority = -1)
+    public void onEventLate(BenchmarkEvent event) {
+    }
+  }
+}
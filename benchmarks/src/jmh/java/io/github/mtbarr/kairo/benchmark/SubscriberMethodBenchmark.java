@@ -0,0 +1,117 @@
+package io.github.mtbarr.kairo.benchmark;
+
+import io.github.mtbarr.kairo.EventBus;
+import io.github.mtbarr.kairo.EventBusBuilder;
+import io.github.mtbarr.kairo.annotation.Subscribe;
+import io.github.mtbarr.kairo.subscriber.FunctionalSubscriberMethod;
+import io.github.mtbarr.kairo.subscriber.SubscriberMethod;
+import io.github.mtbarr.kairo.subscriber.SubscriberMethodFactory;
+import org.openjdk.jmh.annotations.*;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the cost of annotated listeners created by the reflective and the generated subscriber method
+ * factories, using functional subscribers as the baseline, both through {@link EventBus#post(Object)}
+ * and by invoking a single {@link SubscriberMethod} directly.
+ *
+ * @author Matheus Barreto <a href="https://github.com/mtbarr">mtbarr</a>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SubscriberMethodBenchmark {
+
+  @Param({"1", "10"})
+  private int subscribers;
+
+  private EventBus reflectiveEventBus;
+  private EventBus generatedEventBus;
+  private EventBus functionalEventBus;
+  private SubscriberMethod reflectiveMethod;
+  private SubscriberMethod generatedMethod;
+  private SubscriberMethod functionalMethod;
+  private BenchmarkEvent event;
+
+  @Setup
+  public void setUp() throws Throwable {
+    reflectiveEventBus = EventBusBuilder.create()
+      .withSubscriberMethodFactory(SubscriberMethodFactory.reflective())
+      .build();
+    generatedEventBus = EventBusBuilder.create()
+      .withSubscriberMethodFactory(SubscriberMethodFactory.generated())
+      .build();
+    functionalEventBus = EventBusBuilder.create().build();
+
+    for (int i = 0; i < subscribers; i++) {
+      reflectiveEventBus.subscribe(new BenchmarkListener());
+      generatedEventBus.subscribe(new BenchmarkListener());
+      functionalEventBus.subscribe(BenchmarkEvent.class, BenchmarkEvent::receive);
+    }
+
+    BenchmarkListener listener = new BenchmarkListener();
+    Method method = BenchmarkListener.class.getMethod("onEvent", BenchmarkEvent.class);
+    reflectiveMethod = SubscriberMethodFactory.reflective().create(BenchmarkEvent.class, listener, method, false, 0);
+    generatedMethod = SubscriberMethodFactory.generated().create(BenchmarkEvent.class, listener, method, false, 0);
+    functionalMethod = new FunctionalSubscriberMethod<>(BenchmarkEvent.class, BenchmarkEvent::receive, false, 0);
+
+    event = new BenchmarkEvent();
+  }
+
+  @Benchmark
+  public int reflective() {
+    reflectiveEventBus.post(event);
+    return event.received;
+  }
+
+  @Benchmark
+  public int generated() {
+    generatedEventBus.post(event);
+    return event.received;
+  }
+
+  @Benchmark
+  public int functional() {
+    functionalEventBus.post(event);
+    return event.received;
+  }
+
+  @Benchmark
+  public int invokeReflective() {
+    reflectiveMethod.invoke(event);
+    return event.received;
+  }
+
+  @Benchmark
+  public int invokeGenerated() {
+    generatedMethod.invoke(event);
+    return event.received;
+  }
+
+  @Benchmark
+  public int invokeFunctional() {
+    functionalMethod.invoke(event);
+    return event.received;
+  }
+
+  public static class BenchmarkEvent {
+
+    private int received;
+
+    void receive() {
+      received++;
+    }
+  }
+
+  public static class BenchmarkListener {
+
+    @Subscribe
+    public void onEvent(BenchmarkEvent event) {
+      event.receive();
+    }
+  }
+}
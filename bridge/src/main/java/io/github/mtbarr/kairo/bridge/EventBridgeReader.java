@@ -0,0 +1,184 @@
+package io.github.mtbarr.kairo.bridge;
+
+import io.github.mtbarr.kairo.EventBus;
+import io.github.mtbarr.kairo.codec.EventCodec;
+import io.github.mtbarr.kairo.queue.WaitStrategy;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+/**
+ * Reads the events an {@link EventBridgeWriter} in another process forwards into a memory-mapped ring file,
+ * and posts them on an event bus.
+ * <p>
+ * Events are decoded straight from the ring by the codec registered for their type id, and their room in the ring is
+ * released before they are posted. Records of type ids without a codec are skipped, so the writer may forward types
+ * this side does not care about. The ring has a single consumer: {@link #poll()} must only be called by one thread,
+ * or not at all once {@link #start(WaitStrategy)} started the reader thread.
+ *
+ * @author Matheus Barreto <a href="https://github.com/mtbarr">mtbarr</a>
+ */
+public class EventBridgeReader implements AutoCloseable {
+
+  private final EventBus eventBus;
+  private final MappedRing ring;
+  private final ByteBuffer records;
+  private final int mask;
+
+  /**
+   * The codecs by type id, replaced on registration.
+   */
+  private volatile EventCodec<?>[] codecs = new EventCodec<?>[0];
+
+  private long readPosition;
+  private long skippedEvents;
+  private volatile boolean running;
+  private Thread thread;
+
+  /**
+   * Creates a bridge reading from the given ring file, resuming after the last event read from it.
+   *
+   * @param eventBus the event bus to post the read events on.
+   * @param file the ring file, created by the writer.
+   * @throws IOException if the ring file cannot be mapped.
+   * @throws IllegalStateException if the writer did not create the ring yet.
+   */
+  public EventBridgeReader(EventBus eventBus, Path file) throws IOException {
+    if (eventBus == null) {
+      throw new NullPointerException("Event bus cannot be null.");
+    }
+
+    this.eventBus = eventBus;
+    this.ring = MappedRing.open(file);
+    this.records = ring.records();
+    this.mask = ring.capacity() - 1;
+    this.readPosition = ring.readPosition();
+  }
+
+  /**
+   * Registers the codec decoding the events of a type id, replacing any previous one.
+   *
+   * @param typeId the identifier of the type in the ring, shared with the writer.
+   * @param codec decodes the events of the type.
+   */
+  public synchronized void register(int typeId, EventCodec<?> codec) {
+    if (codec == null) {
+      throw new NullPointerException("Codec cannot be null.");
+    }
+    if (typeId < 0) {
+      throw new IllegalArgumentException("Type id cannot be negative");
+    }
+
+    EventCodec<?>[] updated = Arrays.copyOf(codecs, Math.max(codecs.length, typeId + 1));
+    updated[typeId] = codec;
+    codecs = updated;
+  }
+
+  /**
+   * Posts every event written to the ring since the last poll on the calling thread.
+   *
+   * @return the number of posted events.
+   */
+  public int poll() {
+    long writePosition = ring.writePosition();
+    int posted = 0;
+    while (readPosition < writePosition) {
+      int offset = (int) (readPosition & mask);
+      records.clear();
+      int length = records.getInt(offset);
+      int typeId = records.getInt(offset + 4);
+      readPosition += MappedRing.recordSize(length);
+      if (typeId == MappedRing.PADDING) {
+        continue;
+      }
+
+      EventCodec<?>[] codecs = this.codecs;
+      if (typeId >= codecs.length || codecs[typeId] == null) {
+        skippedEvents++;
+        ring.readPosition(readPosition);
+        continue;
+      }
+
+      records.position(offset + MappedRing.RECORD_HEADER_SIZE).limit(offset + MappedRing.RECORD_HEADER_SIZE + length);
+      Object event = codecs[typeId].decode(records);
+      // The event no longer needs its record, let the writer reuse the room while subscribers run.
+      ring.readPosition(readPosition);
+      eventBus.post(event);
+      posted++;
+    }
+    return posted;
+  }
+
+  /**
+   * Starts a daemon thread polling the ring, waiting with the given strategy while it is empty.
+   * Exceptions rethrown by the exception handler of the event bus are reported to the uncaught exception handler
+   * of the thread instead of stopping it.
+   *
+   * @param waitStrategy how the reader thread waits for events.
+   */
+  public synchronized void start(WaitStrategy waitStrategy) {
+    if (waitStrategy == null) {
+      throw new NullPointerException("Wait strategy cannot be null.");
+    }
+    if (thread != null) {
+      throw new IllegalStateException("EventBridgeReader is already started.");
+    }
+
+    running = true;
+    thread = new Thread(() -> this.run(waitStrategy), "kairo-bridge-reader");
+    thread.setDaemon(true);
+    thread.start();
+  }
+
+  private void run(WaitStrategy waitStrategy) {
+    while (running) {
+      int posted;
+      try {
+        posted = this.poll();
+      } catch (RuntimeException e) {
+        Thread thread = Thread.currentThread();
+        thread.getUncaughtExceptionHandler().uncaughtException(thread, e);
+        continue;
+      }
+
+      if (posted == 0) {
+        waitStrategy.idle();
+      }
+    }
+  }
+
+  /**
+   * Returns the number of events skipped because no codec is registered for their type id.
+   * Only meaningful on the polling thread, or once the reader thread stopped.
+   *
+   * @return the number of skipped events.
+   */
+  public long getSkippedEvents() {
+    return skippedEvents;
+  }
+
+  /**
+   * Stops the reader thread, if started, and closes the ring file. Events not read yet stay in the file.
+   *
+   * @throws IOException if the ring file cannot be closed.
+   */
+  @Override
+  public void close() throws IOException {
+    Thread thread;
+    synchronized (this) {
+      running = false;
+      thread = this.thread;
+    }
+
+    if (thread != null && thread != Thread.currentThread()) {
+      try {
+        thread.join();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+    }
+    ring.close();
+  }
+}
@@ -0,0 +1,191 @@
+package io.github.mtbarr.kairo.bridge;
+
+import io.github.mtbarr.kairo.EventBus;
+import io.github.mtbarr.kairo.EventPriority;
+import io.github.mtbarr.kairo.Subscription;
+import io.github.mtbarr.kairo.codec.EventCodec;
+import io.github.mtbarr.kairo.queue.WaitStrategy;
+
+import java.io.IOException;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Forwards the events of selected types posted on an event bus into a memory-mapped ring file, for an
+ * {@link EventBridgeReader} in another process on the same host to post them on its own event bus.
+ * <p>
+ * Forwarded events are encoded straight into the ring, in the native byte order, by the codec of their type, from a subscriber of the
+ * {@link EventPriority#MONITOR} band ignoring cancelled events, so only the events that went through the local
+ * subscribers uncancelled cross the bridge. The ring has a single producer: events posted from several threads are
+ * written one at a time. When the reader falls behind and the ring is full, posting threads wait for room with the
+ * wait strategy of the bridge.
+ *
+ * @author Matheus Barreto <a href="https://github.com/mtbarr">mtbarr</a>
+ */
+public class EventBridgeWriter implements AutoCloseable {
+
+  /**
+   * The default size of the ring, in bytes.
+   */
+  public static final int DEFAULT_CAPACITY = 1 << 20;
+
+  /**
+   * The default maximum size of a record, in bytes, its header of 8 bytes included.
+   */
+  public static final int DEFAULT_MAX_RECORD_SIZE = 4096;
+
+  private final EventBus eventBus;
+  private final MappedRing ring;
+  private final ByteBuffer records;
+  private final WaitStrategy waitStrategy;
+  private final int mask;
+  private final List<Subscription> subscriptions = new ArrayList<>();
+
+  private long writePosition;
+  private long readPositionCache;
+  private long forwardedEvents;
+  private volatile boolean closed;
+
+  /**
+   * Creates a bridge writing to the given ring file with the default capacity and maximum record size.
+   *
+   * @param eventBus the event bus to forward events from.
+   * @param file the ring file, created if it does not exist.
+   * @throws IOException if the ring file cannot be mapped.
+   */
+  public EventBridgeWriter(EventBus eventBus, Path file) throws IOException {
+    this(eventBus, file, DEFAULT_CAPACITY, DEFAULT_MAX_RECORD_SIZE, WaitStrategy.yielding());
+  }
+
+  /**
+   * Creates a bridge writing to the given ring file. An existing ring file is resumed where it was left, and
+   * must have been created with the same capacity and maximum record size.
+   *
+   * @param eventBus the event bus to forward events from.
+   * @param file the ring file, created if it does not exist.
+   * @param capacity the size of the ring in bytes, a power of two.
+   * @param maxRecordSize the maximum size of a record in bytes, a multiple of 8 of at most half the capacity.
+   * @param waitStrategy how posting threads wait for room while the ring is full.
+   * @throws IOException if the ring file cannot be mapped.
+   */
+  public EventBridgeWriter(EventBus eventBus, Path file, int capacity, int maxRecordSize, WaitStrategy waitStrategy) throws IOException {
+    if (eventBus == null) {
+      throw new NullPointerException("Event bus cannot be null.");
+    }
+    if (waitStrategy == null) {
+      throw new NullPointerException("Wait strategy cannot be null.");
+    }
+
+    this.eventBus = eventBus;
+    this.ring = MappedRing.create(file, capacity, maxRecordSize);
+    this.records = ring.records();
+    this.waitStrategy = waitStrategy;
+    this.mask = capacity - 1;
+    this.writePosition = ring.writePosition();
+    this.readPositionCache = ring.readPosition();
+  }
+
+  /**
+   * Forwards the events of a type posted on the event bus through the bridge.
+   * The reader must register the same codec under the same type id.
+   *
+   * @param type the class of the events to forward.
+   * @param typeId the identifier of the type in the ring, shared with the reader.
+   * @param codec encodes the events of the type.
+   * @param <E> the type of the events.
+   */
+  public <E> void forward(Class<E> type, int typeId, EventCodec<? super E> codec) {
+    if (type == null) {
+      throw new NullPointerException("Event type cannot be null.");
+    }
+    if (codec == null) {
+      throw new NullPointerException("Codec cannot be null.");
+    }
+    if (typeId < 0) {
+      throw new IllegalArgumentException("Type id cannot be negative");
+    }
+
+    Subscription subscription = eventBus.subscribe(type, true, EventPriority.MONITOR, event -> this.write(typeId, codec, event));
+    synchronized (this) {
+      subscriptions.add(subscription);
+    }
+  }
+
+  private synchronized <E> void write(int typeId, EventCodec<? super E> codec, E event) {
+    if (closed) {
+      throw new IllegalStateException("EventBridgeWriter is closed.");
+    }
+
+    int maxRecordSize = ring.maxRecordSize();
+    int offset = (int) (writePosition & mask);
+    int contiguous = ring.capacity() - offset;
+    records.clear();
+    if (contiguous < maxRecordSize) {
+      // The record may not fit before the end of the ring, pad up to the end and start over.
+      this.awaitRoom(contiguous);
+      records.putInt(offset, contiguous - MappedRing.RECORD_HEADER_SIZE);
+      records.putInt(offset + 4, MappedRing.PADDING);
+      writePosition += contiguous;
+      offset = 0;
+    }
+
+    this.awaitRoom(maxRecordSize);
+    records.position(offset + MappedRing.RECORD_HEADER_SIZE).limit(offset + maxRecordSize);
+    try {
+      codec.encode(event, records);
+    } catch (BufferOverflowException e) {
+      throw new IllegalArgumentException("Encoded " + event.getClass().getName() + " exceeds the max record size of " + maxRecordSize + " bytes", e);
+    }
+
+    int length = records.position() - offset - MappedRing.RECORD_HEADER_SIZE;
+    records.clear();
+    records.putInt(offset, length);
+    records.putInt(offset + 4, typeId);
+    writePosition += MappedRing.recordSize(length);
+    ring.writePosition(writePosition);
+    forwardedEvents++;
+  }
+
+  private void awaitRoom(int size) {
+    // The read position is only reloaded once the cached one says the ring is full.
+    while (writePosition + size - readPositionCache > ring.capacity()) {
+      readPositionCache = ring.readPosition();
+      if (writePosition + size - readPositionCache <= ring.capacity()) {
+        return;
+      }
+      if (closed) {
+        throw new IllegalStateException("EventBridgeWriter is closed.");
+      }
+      waitStrategy.idle();
+    }
+  }
+
+  /**
+   * Returns the number of events written to the ring.
+   *
+   * @return the number of forwarded events.
+   */
+  public synchronized long getForwardedEvents() {
+    return forwardedEvents;
+  }
+
+  /**
+   * Stops forwarding events and closes the ring file. Events already written stay in the file for the reader.
+   *
+   * @throws IOException if the ring file cannot be closed.
+   */
+  @Override
+  public void close() throws IOException {
+    closed = true;
+    synchronized (this) {
+      for (Subscription subscription : subscriptions) {
+        subscription.unsubscribe();
+      }
+      subscriptions.clear();
+      ring.close();
+    }
+  }
+}
@@ -0,0 +1,178 @@
+package io.github.mtbarr.kairo.bridge;
+
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * A single-producer, single-consumer ring of variable length records in a memory-mapped file, shared by two
+ * processes on the same host.
+ * <p>
+ * The file starts with a header holding the layout of the ring and the write and read positions, each on its own
+ * cache line since every side only writes its own. Positions are byte counts that only grow, their offset in the ring
+ * is the position masked by the capacity. Records are 8-byte aligned and start with their payload length and type id,
+ * a record of type {@link #PADDING} fills the end of the ring when the next record may not fit before it.
+ * <p>
+ * A record is written before the write position is released past it, and the reader acquires the write position
+ * before reading the records, the same ordering a ring buffer has between threads, applied to shared memory.
+ *
+ * @author Matheus Barreto <a href="https://github.com/mtbarr">mtbarr</a>
+ */
+final class MappedRing implements AutoCloseable {
+
+  /**
+   * The type id of the records filling the end of the ring.
+   */
+  static final int PADDING = -1;
+
+  static final int RECORD_HEADER_SIZE = 8;
+
+  private static final int MAGIC = 0x4B524231;
+  private static final int MAGIC_OFFSET = 0;
+  private static final int CAPACITY_OFFSET = 4;
+  private static final int MAX_RECORD_SIZE_OFFSET = 8;
+  private static final int WRITE_POSITION_OFFSET = 64;
+  private static final int READ_POSITION_OFFSET = 128;
+  private static final int HEADER_SIZE = 192;
+
+  private static final VarHandle INT = MethodHandles.byteBufferViewVarHandle(int[].class, ByteOrder.nativeOrder());
+  private static final VarHandle LONG = MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.nativeOrder());
+
+  private final FileChannel channel;
+  private final MappedByteBuffer header;
+  private final ByteBuffer records;
+  private final int capacity;
+  private final int maxRecordSize;
+
+  private MappedRing(FileChannel channel, MappedByteBuffer header, int capacity, int maxRecordSize) {
+    this.channel = channel;
+    this.header = header;
+    this.records = header.slice(HEADER_SIZE, capacity).order(ByteOrder.nativeOrder());
+    this.capacity = capacity;
+    this.maxRecordSize = maxRecordSize;
+  }
+
+  /**
+   * Maps a ring file for writing, creating it if it does not exist. An existing ring is resumed where it was left,
+   * so events not read yet survive a restart of the writer.
+   *
+   * @param file the ring file.
+   * @param capacity the size of the ring in bytes, a power of two.
+   * @param maxRecordSize the maximum size of a record in bytes, header included.
+   * @return the mapped ring.
+   * @throws IOException if the file cannot be mapped.
+   * @throws IllegalStateException if the file holds a ring with another layout.
+   */
+  static MappedRing create(Path file, int capacity, int maxRecordSize) throws IOException {
+    if (capacity < 64 || Integer.bitCount(capacity) != 1) {
+      throw new IllegalArgumentException("Capacity must be a power of two of at least 64 bytes");
+    }
+    if (maxRecordSize < 2 * RECORD_HEADER_SIZE || maxRecordSize > capacity / 2 || maxRecordSize % 8 != 0) {
+      throw new IllegalArgumentException("Max record size must be a multiple of 8 between 16 bytes and half the capacity");
+    }
+
+    FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+    try {
+      MappedByteBuffer header = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_SIZE + (long) capacity);
+      if ((int) INT.getAcquire(header, MAGIC_OFFSET) == MAGIC) {
+        if ((int) INT.get(header, CAPACITY_OFFSET) != capacity || (int) INT.get(header, MAX_RECORD_SIZE_OFFSET) != maxRecordSize) {
+          throw new IllegalStateException("Ring file " + file + " was created with another capacity or max record size.");
+        }
+      } else {
+        INT.set(header, CAPACITY_OFFSET, capacity);
+        INT.set(header, MAX_RECORD_SIZE_OFFSET, maxRecordSize);
+        LONG.set(header, WRITE_POSITION_OFFSET, 0L);
+        LONG.set(header, READ_POSITION_OFFSET, 0L);
+        // Released last, a reader seeing the magic sees the layout.
+        INT.setRelease(header, MAGIC_OFFSET, MAGIC);
+      }
+      return new MappedRing(channel, header, capacity, maxRecordSize);
+    } catch (IOException | RuntimeException e) {
+      channel.close();
+      throw e;
+    }
+  }
+
+  /**
+   * Maps an existing ring file for reading.
+   *
+   * @param file the ring file, created by the writer.
+   * @return the mapped ring.
+   * @throws IOException if the file cannot be mapped.
+   * @throws IllegalStateException if the file does not hold a ring yet.
+   */
+  static MappedRing open(Path file) throws IOException {
+    FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE);
+    try {
+      if (channel.size() < HEADER_SIZE) {
+        throw new IllegalStateException("Ring file " + file + " is not initialized.");
+      }
+
+      MappedByteBuffer header = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_SIZE);
+      if ((int) INT.getAcquire(header, MAGIC_OFFSET) != MAGIC) {
+        throw new IllegalStateException("Ring file " + file + " is not initialized.");
+      }
+
+      int capacity = (int) INT.get(header, CAPACITY_OFFSET);
+      int maxRecordSize = (int) INT.get(header, MAX_RECORD_SIZE_OFFSET);
+      return new MappedRing(channel, channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_SIZE + (long) capacity), capacity, maxRecordSize);
+    } catch (IOException | RuntimeException e) {
+      channel.close();
+      throw e;
+    }
+  }
+
+  /**
+   * Returns a new view of the records of the ring, in the native byte order, for a single side to read or write.
+   *
+   * @return the view of the records.
+   */
+  ByteBuffer records() {
+    return records.duplicate().order(ByteOrder.nativeOrder());
+  }
+
+  int capacity() {
+    return capacity;
+  }
+
+  int maxRecordSize() {
+    return maxRecordSize;
+  }
+
+  long writePosition() {
+    return (long) LONG.getAcquire(header, WRITE_POSITION_OFFSET);
+  }
+
+  void writePosition(long position) {
+    LONG.setRelease(header, WRITE_POSITION_OFFSET, position);
+  }
+
+  long readPosition() {
+    return (long) LONG.getAcquire(header, READ_POSITION_OFFSET);
+  }
+
+  void readPosition(long position) {
+    LONG.setRelease(header, READ_POSITION_OFFSET, position);
+  }
+
+  /**
+   * Returns the size a record with the given payload length takes in the ring.
+   */
+  static int recordSize(int payloadLength) {
+    return (RECORD_HEADER_SIZE + payloadLength + 7) & ~7;
+  }
+
+  /**
+   * Closes the file channel. The mapping itself is released once the ring is garbage collected.
+   */
+  @Override
+  public void close() throws IOException {
+    channel.close();
+  }
+}
@@ -0,0 +1,40 @@
+package io.github.mtbarr.kairo.bridge;
+
+import io.github.mtbarr.kairo.EventBus;
+import io.github.mtbarr.kairo.queue.WaitStrategy;
+
+import java.nio.file.Path;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The other process of {@link EventBridgeTest}: reads the price events of a ring file, checks they arrive in order
+ * and prints how many were received.
+ */
+public class BridgeReaderProcess {
+
+  public static void main(String[] args) throws Exception {
+    Path file = Path.of(args[0]);
+    int expected = Integer.parseInt(args[1]);
+
+    EventBus eventBus = new EventBus();
+    AtomicLong next = new AtomicLong();
+    AtomicLong mismatches = new AtomicLong();
+    CountDownLatch received = new CountDownLatch(expected);
+    eventBus.subscribe(PriceEvent.class, event -> {
+      if (!event.matches(next.getAndIncrement())) {
+        mismatches.incrementAndGet();
+      }
+      received.countDown();
+    });
+
+    try (EventBridgeReader reader = new EventBridgeReader(eventBus, file)) {
+      reader.register(PriceEvent.TYPE_ID, PriceEvent.CODEC);
+      reader.start(WaitStrategy.yielding());
+      boolean completed = received.await(30, TimeUnit.SECONDS);
+      System.out.println("received " + next.get() + " mismatches " + mismatches.get());
+      System.exit(completed && mismatches.get() == 0 ? 0 : 1);
+    }
+  }
+}
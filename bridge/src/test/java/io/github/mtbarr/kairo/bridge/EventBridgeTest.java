@@ -0,0 +1,179 @@
+package io.github.mtbarr.kairo.bridge;
+
+import io.github.mtbarr.kairo.EventBus;
+import io.github.mtbarr.kairo.EventPriority;
+import io.github.mtbarr.kairo.cancellable.CancellableEvent;
+import io.github.mtbarr.kairo.codec.EventCodec;
+import io.github.mtbarr.kairo.queue.WaitStrategy;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EventBridgeTest {
+
+  @Test
+  void eventsCrossToAnotherProcess() throws Exception {
+    Path file = Files.createTempFile("kairo-bridge", ".ring");
+    int events = 200_000;
+    EventBus eventBus = new EventBus();
+    AtomicReference<Process> process = new AtomicReference<>();
+    // Fails the posts instead of waiting forever if the reader process died.
+    WaitStrategy waitStrategy = () -> {
+      if (!process.get().isAlive()) {
+        throw new IllegalStateException("reader process exited");
+      }
+      Thread.yield();
+    };
+
+    try (EventBridgeWriter writer = new EventBridgeWriter(eventBus, file, 1 << 16, 256, waitStrategy)) {
+      writer.forward(PriceEvent.class, PriceEvent.TYPE_ID, PriceEvent.CODEC);
+
+      String java = Path.of(System.getProperty("java.home"), "bin", "java").toString();
+      Process reader = new ProcessBuilder(java, "-cp", System.getProperty("java.class.path"),
+        BridgeReaderProcess.class.getName(), file.toString(), String.valueOf(events))
+        .redirectErrorStream(true)
+        .start();
+      process.set(reader);
+
+      // The ring is far smaller than the events, the writer waits for the other process to keep up.
+      for (int i = 0; i < events; i++) {
+        eventBus.post(PriceEvent.of(i));
+      }
+
+      assertTrue(reader.waitFor(60, TimeUnit.SECONDS), "reader process did not exit");
+      String output = new String(reader.getInputStream().readAllBytes(), StandardCharsets.UTF_8);
+      assertEquals(0, reader.exitValue(), output);
+      assertTrue(output.contains("received " + events + " mismatches 0"), output);
+      assertEquals(events, writer.getForwardedEvents());
+    } finally {
+      Files.deleteIfExists(file);
+    }
+  }
+
+  @Test
+  void readerResumesAndSkipsUnknownTypes() throws IOException {
+    Path file = Files.createTempFile("kairo-bridge", ".ring");
+    EventBus source = new EventBus();
+    EventBus target = new EventBus();
+    List<Object> received = new ArrayList<>();
+    target.subscribe(PriceEvent.class, received::add);
+    target.subscribe(TextEvent.class, received::add);
+
+    try (EventBridgeWriter writer = new EventBridgeWriter(source, file, 1024, 64, WaitStrategy.yielding())) {
+      writer.forward(PriceEvent.class, PriceEvent.TYPE_ID, PriceEvent.CODEC);
+      writer.forward(TextEvent.class, 2, TextEvent.CODEC);
+
+      try (EventBridgeReader reader = new EventBridgeReader(target, file)) {
+        reader.register(PriceEvent.TYPE_ID, PriceEvent.CODEC);
+        // Wraps around the small ring several times, polling as it goes.
+        for (int i = 0; i < 100; i++) {
+          source.post(PriceEvent.of(i));
+          source.post(new TextEvent("text"));
+          assertEquals(1, reader.poll());
+        }
+        assertEquals(100, reader.getSkippedEvents());
+      }
+
+      source.post(PriceEvent.of(100));
+      source.post(new TextEvent("after"));
+    }
+
+    try (EventBridgeReader reader = new EventBridgeReader(target, file)) {
+      reader.register(PriceEvent.TYPE_ID, PriceEvent.CODEC);
+      reader.register(2, TextEvent.CODEC);
+      assertEquals(2, reader.poll());
+    } finally {
+      Files.deleteIfExists(file);
+    }
+
+    assertEquals(102, received.size());
+    for (int i = 0; i <= 100; i++) {
+      assertTrue(((PriceEvent) received.get(i)).matches(i));
+    }
+    assertEquals("after", ((TextEvent) received.get(101)).text);
+  }
+
+  @Test
+  void cancelledEventsAreNotForwarded() throws IOException {
+    Path file = Files.createTempFile("kairo-bridge", ".ring");
+    EventBus source = new EventBus();
+    source.subscribe(TextEvent.class, false, EventPriority.HIGH, event -> event.setCancelled(event.text.isEmpty()));
+    EventBus target = new EventBus();
+    List<String> received = new ArrayList<>();
+    target.subscribe(TextEvent.class, event -> received.add(event.text));
+
+    try (EventBridgeWriter writer = new EventBridgeWriter(source, file);
+         EventBridgeReader reader = new EventBridgeReader(target, file)) {
+      writer.forward(TextEvent.class, 2, TextEvent.CODEC);
+      reader.register(2, TextEvent.CODEC);
+
+      source.post(new TextEvent(""));
+      source.post(new TextEvent("kept"));
+      reader.poll();
+    } finally {
+      Files.deleteIfExists(file);
+    }
+
+    assertEquals(List.of("kept"), received);
+  }
+
+  @Test
+  void oversizedEventsAreRejected() throws IOException {
+    Path file = Files.createTempFile("kairo-bridge", ".ring");
+    EventBus eventBus = new EventBus();
+    try (EventBridgeWriter writer = new EventBridgeWriter(eventBus, file, 1024, 64, WaitStrategy.yielding())) {
+      writer.forward(TextEvent.class, 2, TextEvent.CODEC);
+
+      assertThrows(RuntimeException.class, () -> eventBus.post(new TextEvent("x".repeat(100))));
+      assertEquals(0, writer.getForwardedEvents());
+    } finally {
+      Files.deleteIfExists(file);
+    }
+  }
+
+  static class TextEvent implements CancellableEvent {
+
+    static final EventCodec<TextEvent> CODEC = new EventCodec<>() {
+      @Override
+      public void encode(TextEvent event, ByteBuffer target) {
+        byte[] text = event.text.getBytes(StandardCharsets.UTF_8);
+        target.putInt(text.length);
+        target.put(text);
+      }
+
+      @Override
+      public TextEvent decode(ByteBuffer source) {
+        byte[] text = new byte[source.getInt()];
+        source.get(text);
+        return new TextEvent(new String(text, StandardCharsets.UTF_8));
+      }
+    };
+
+    final String text;
+    private boolean cancelled;
+
+    TextEvent(String text) {
+      this.text = text;
+    }
+
+    @Override
+    public boolean isCancelled() {
+      return cancelled;
+    }
+
+    @Override
+    public void setCancelled(boolean cancelled) {
+      this.cancelled = cancelled;
+    }
+  }
+}
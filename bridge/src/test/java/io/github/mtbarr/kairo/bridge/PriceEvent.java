@@ -0,0 +1,50 @@
+package io.github.mtbarr.kairo.bridge;
+
+import io.github.mtbarr.kairo.codec.EventCodec;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+class PriceEvent {
+
+  static final int TYPE_ID = 1;
+
+  static final EventCodec<PriceEvent> CODEC = new EventCodec<>() {
+    @Override
+    public void encode(PriceEvent event, ByteBuffer target) {
+      byte[] symbol = event.symbol.getBytes(StandardCharsets.UTF_8);
+      target.putLong(event.sequence);
+      target.putDouble(event.price);
+      target.putShort((short) symbol.length);
+      target.put(symbol);
+    }
+
+    @Override
+    public PriceEvent decode(ByteBuffer source) {
+      long sequence = source.getLong();
+      double price = source.getDouble();
+      byte[] symbol = new byte[source.getShort()];
+      source.get(symbol);
+      return new PriceEvent(sequence, new String(symbol, StandardCharsets.UTF_8), price);
+    }
+  };
+
+  final long sequence;
+  final String symbol;
+  final double price;
+
+  PriceEvent(long sequence, String symbol, double price) {
+    this.sequence = sequence;
+    this.symbol = symbol;
+    this.price = price;
+  }
+
+  static PriceEvent of(long sequence) {
+    return new PriceEvent(sequence, "SYM" + (sequence % 10), sequence * 1.5);
+  }
+
+  boolean matches(long sequence) {
+    PriceEvent expected = of(sequence);
+    return this.sequence == sequence && symbol.equals(expected.symbol) && price == expected.price;
+  }
+}
@@ -0,0 +1,107 @@
+package io.github.mtbarr.kairo;
+
+import io.github.mtbarr.kairo.cancellable.CancellableEvent;
+import io.github.mtbarr.kairo.exception.EventInvocationException;
+import io.github.mtbarr.kairo.subscriber.SubscriberMethod;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+
+/**
+ * Dispatches the events of a concrete class to the synchronous prefix of its subscriber chain through a single
+ * method handle composed once for the chain. The handle calls every subscriber in order, with the exception handling
+ * of each subscriber and the cancellation checks of the subscribers ignoring cancelled events baked in, so posting
+ * does not loop over the chain nor call {@link SubscriberMethod#ignoreCancelled()} and check whether the event is
+ * cancellable on every post.
+ * <p>
+ * Chains are immutable, a change of subscribers resolves a new chain and compiles a new dispatcher for it.
+ *
+ * @author Matheus Barreto <a href="https://github.com/mtbarr">mtbarr</a>
+ */
+final class CompiledDispatcher {
+
+  /**
+   * The longest chain prefix compiled, longer chains would nest method handles too deeply and keep being interpreted.
+   */
+  static final int MAX_SUBSCRIBERS = 64;
+
+  private static final MethodType STEP_TYPE = MethodType.methodType(void.class, Object.class);
+  private static final MethodHandle INVOKE;
+  private static final MethodHandle IS_CANCELLED;
+  private static final MethodHandle HANDLE_EXCEPTION;
+
+  static {
+    try {
+      MethodHandles.Lookup lookup = MethodHandles.lookup();
+      INVOKE = lookup.findVirtual(SubscriberMethod.class, "invoke", STEP_TYPE);
+      IS_CANCELLED = lookup.findVirtual(CancellableEvent.class, "isCancelled", MethodType.methodType(boolean.class))
+        .asType(MethodType.methodType(boolean.class, Object.class));
+      HANDLE_EXCEPTION = lookup.findStatic(CompiledDispatcher.class, "handleException",
+        MethodType.methodType(void.class, EventBus.class, SubscriberMethod.class, Exception.class, Object.class));
+    } catch (ReflectiveOperationException e) {
+      throw new ExceptionInInitializerError(e);
+    }
+  }
+
+  private final MethodHandle handle;
+
+  private CompiledDispatcher(MethodHandle handle) {
+    this.handle = handle;
+  }
+
+  /**
+   * Compiles the dispatcher of the synchronous prefix of a subscriber chain.
+   *
+   * @param eventBus the event bus whose exception handler handles the exceptions of the subscribers.
+   * @param eventClass the concrete class of the dispatched events.
+   * @param subscribers the subscriber chain of the event class.
+   * @param to the index of the first subscriber not to invoke, exclusive.
+   * @return the compiled dispatcher, or null if the prefix is too long to be compiled.
+   */
+  static CompiledDispatcher compile(EventBus eventBus, Class<?> eventClass, SubscriberMethod[] subscribers, int to) {
+    if (to > MAX_SUBSCRIBERS) {
+      return null;
+    }
+
+    boolean cancellable = CancellableEvent.class.isAssignableFrom(eventClass);
+    MethodHandle noop = MethodHandles.empty(STEP_TYPE);
+    MethodHandle handle = noop;
+    for (int i = to - 1; i >= 0; i--) {
+      SubscriberMethod subscriber = subscribers[i];
+      MethodHandle step = MethodHandles.catchException(
+        INVOKE.bindTo(subscriber),
+        Exception.class,
+        MethodHandles.insertArguments(HANDLE_EXCEPTION, 0, eventBus, subscriber));
+
+      if (cancellable && subscriber.ignoreCancelled()) {
+        step = MethodHandles.guardWithTest(IS_CANCELLED, noop, step);
+      }
+
+      // The combiner of foldArguments runs first, so the chain is built from its last subscriber.
+      handle = handle == noop ? step : MethodHandles.foldArguments(handle, step);
+    }
+
+    return new CompiledDispatcher(handle);
+  }
+
+  /**
+   * Invokes the compiled subscribers with an event.
+   *
+   * @param event the event to dispatch, an instance of the class the dispatcher was compiled for.
+   */
+  void dispatch(Object event) {
+    try {
+      handle.invokeExact(event);
+    } catch (RuntimeException | Error e) {
+      throw e;
+    } catch (Throwable throwable) {
+      // Subscriber exceptions are handled by the composed handle, only the exception handler itself can get here.
+      throw new EventInvocationException(throwable);
+    }
+  }
+
+  private static void handleException(EventBus eventBus, SubscriberMethod subscriber, Exception exception, Object event) {
+    eventBus.getExceptionHandler().handleEventException(subscriber, event, exception);
+  }
+}
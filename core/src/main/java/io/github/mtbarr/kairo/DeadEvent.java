@@ -0,0 +1,43 @@
+package io.github.mtbarr.kairo;
+
+/**
+ * Wraps an event that was posted while no subscriber listened to its type, or matched its key or payload.
+ * Subscribe to {@code DeadEvent} to observe unhandled events, for example to log events that are posted but never
+ * consumed.
+ * Dead events are never wrapped again when nobody subscribes to them.
+ *
+ * @author Matheus Barreto <a href="https://github.com/mtbarr">mtbarr</a>
+ */
+public final class DeadEvent {
+
+  private final EventBus eventBus;
+  private final Object event;
+
+  public DeadEvent(EventBus eventBus, Object event) {
+    this.eventBus = eventBus;
+    this.event = event;
+  }
+
+  /**
+   * Returns the event bus the event was posted to.
+   *
+   * @return the event bus the event was posted to.
+   */
+  public EventBus getEventBus() {
+    return eventBus;
+  }
+
+  /**
+   * Returns the unhandled event.
+   *
+   * @return the event nobody subscribed to.
+   */
+  public Object getEvent() {
+    return event;
+  }
+
+  @Override
+  public String toString() {
+    return "DeadEvent{event=" + event + '}';
+  }
+}
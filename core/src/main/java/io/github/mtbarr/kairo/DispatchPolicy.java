@@ -0,0 +1,25 @@
+package io.github.mtbarr.kairo;
+
+/**
+ * Defines how an event posted by a subscriber, while the posting thread is already dispatching
+ * another event, is dispatched.
+ *
+ * @author Matheus Barreto <a href="https://github.com/mtbarr">mtbarr</a>
+ * @see EventBus#setDispatchPolicy(DispatchPolicy)
+ */
+public enum DispatchPolicy {
+
+  /**
+   * Dispatches nested events right away, before the posting subscriber resumes.
+   * Events cascade depth-first and every level of nesting adds to the stack of the posting thread.
+   */
+  IMMEDIATE,
+
+  /**
+   * Appends nested events to a queue of the posting thread, dispatched in order once the current event has reached
+   * all of its subscribers. Events cascade breadth-first and the stack depth stays constant however deep they nest.
+   * A failure rethrown while dispatching one of them does not discard the others: the outermost post rethrows it
+   * once every queued event was dispatched.
+   */
+  QUEUED
+}
@@ -2,17 +2,37 @@ package io.github.mtbarr.kairo;
 
 import io.github.mtbarr.kairo.annotation.Subscribe;
 import io.github.mtbarr.kairo.cancellable.CancellableEvent;
+import io.github.mtbarr.kairo.exception.EventDispatchException;
 import io.github.mtbarr.kairo.exception.EventExceptionHandler;
 import io.github.mtbarr.kairo.exception.SubscriberRegistrationException;
+import io.github.mtbarr.kairo.generic.EventType;
+import io.github.mtbarr.kairo.journal.EventJournal;
+import io.github.mtbarr.kairo.metrics.EventBusMetrics;
+import io.github.mtbarr.kairo.subscriber.AsyncSubscriberMethod;
+import io.github.mtbarr.kairo.subscriber.BatchSubscriberMethod;
+import io.github.mtbarr.kairo.subscriber.CircuitBreakerSubscriberMethod;
 import io.github.mtbarr.kairo.subscriber.FunctionalSubscriberMethod;
-import io.github.mtbarr.kairo.subscriber.ReflectiveSubscriberMethod;
+import io.github.mtbarr.kairo.subscriber.GenericSubscriberMethod;
+import io.github.mtbarr.kairo.subscriber.KeyedSubscriberMethod;
+import io.github.mtbarr.kairo.subscriber.SubscriberDescriptor;
 import io.github.mtbarr.kairo.subscriber.SubscriberMethod;
+import io.github.mtbarr.kairo.subscriber.SubscriberMethodFactory;
+import io.github.mtbarr.kairo.subscriber.SubscriberRegistrar;
+import io.github.mtbarr.kairo.subscriber.SubscriberRegistrars;
 
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
 import java.lang.reflect.Method;
+import java.time.Duration;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.BinaryOperator;
 import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
 
 /**
  * EventBus is a central mechanism for managing the registration and posting of events.
@@ -25,215 +45,1951 @@ public class EventBus {
 
   /**
    * The default exception handler that will be called when an exception occurs while invoking a subscriber method.
+   * It rethrows the exception wrapped in an {@link EventDispatchException}.
    */
-  static final EventExceptionHandler DEFAULT_EXCEPTION_HANDLER = (method, event, throwable) -> {
-    throw new RuntimeException("Error invoking subscriber method " + method + " for event " + event, throwable);
-  };
+  static final EventExceptionHandler DEFAULT_EXCEPTION_HANDLER = EventExceptionHandler.rethrowing();
 
   /**
-   * A map of event types to lists of subscriber methods that should be called when an event of that type is posted.
+   * Orders subscriber methods by descending priority.
    */
-  private final Map<Class<?>, List<SubscriberMethod>> subscribersMap;
+  private static final Comparator<SubscriberMethod> PRIORITY_ORDER = Comparator.comparingInt(SubscriberMethod::priority).reversed();
 
+  /**
+   * A map of event types to the subscriber methods that should be called when an event of that type is posted.
+   */
+  private final Map<Class<?>, SubscriberStore> subscribersMap;
+
+  /**
+   * A map of concrete event classes to the subscriber methods that receive them, already sorted by priority.
+   * Entries are resolved lazily on the first post of a class and evicted when a relevant event type changes.
+   */
+  private final Map<Class<?>, SubscriberChain> dispatchCache;
+
+  /**
+   * Index of subscribed listener objects, by identity, to the subscriber methods created for them.
+   * Updated atomically per listener, so staged subscriptions index their listeners without the registration lock.
+   */
+  private final Map<ListenerRegistration, ListenerRegistration> listenerIndex = new ConcurrentHashMap<>();
+
+  /**
+   * Receives the registrations of weakly subscribed listeners once they are collected.
+   */
+  private final ReferenceQueue<Object> collectedListeners = new ReferenceQueue<>();
+
+  /**
+   * Guards changes to the subscriber map and the resolution of dispatch cache entries.
+   * Posting only takes it when an event class is missing from the dispatch cache.
+   */
+  private final Object registrationLock = new Object();
+
+  /**
+   * Whether events are also dispatched to subscribers of their superclasses and interfaces.
+   */
+  private boolean hierarchyDispatch;
+
+  /**
+   * Whether listener objects subscribed from now on are only weakly referenced.
+   */
+  private boolean weakSubscribers;
+
+  /**
+   * The exception handler that will be called when an exception occurs while invoking a subscriber method.
+   */
+  private EventExceptionHandler exceptionHandler = DEFAULT_EXCEPTION_HANDLER;
+
+  /**
+   * The executor that runs the chain of subscribers from the first asynchronous subscriber onwards.
+   */
+  private Executor executor = ForkJoinPool.commonPool();
+
+  /**
+   * The factory used to create subscriber methods for methods annotated with {@link Subscribe}.
+   */
+  private SubscriberMethodFactory subscriberMethodFactory = SubscriberMethodFactory.reflective();
+
+  /**
+   * The metrics dispatching is recorded to, or null if metrics are disabled.
+   */
+  private EventBusMetrics metrics;
+
+  /**
+   * The pools of reusable events posted through {@link #post(Class, Consumer)}, by event type.
+   */
+  private final Map<Class<?>, EventPool<?>> eventPools = new ConcurrentHashMap<>();
+
+  /**
+   * Whether pooled events are tracked instead of reused, to detect subscribers retaining them.
+   * Enabled by default when assertions are enabled.
+   */
+  private boolean pooledEventRetentionCheck = EventBus.class.desiredAssertionStatus();
+
+  /**
+   * The last sticky events posted for each event type, replayed to new subscribers.
+   */
+  private final Map<Class<?>, StickyEventBuffer> stickyEvents = new ConcurrentHashMap<>();
+
+  /**
+   * The number of sticky events kept per event type.
+   */
+  private int stickyCapacity = 1;
+
+  /**
+   * The age after which sticky events are no longer replayed, in nanoseconds, or zero to keep them until evicted by newer ones.
+   */
+  private long stickyMaxAgeNanos;
+
+  /**
+   * The coalescers holding back posted events, by exact event type.
+   */
+  private final Map<Class<?>, EventCoalescer<?>> coalescers = new ConcurrentHashMap<>();
+
+  /**
+   * Whether any coalescer was ever registered, so posting skips the coalescer lookup otherwise.
+   */
+  private volatile boolean coalescing;
+
+  /**
+   * The subscriber methods registered in staged registration mode that are not published yet,
+   * or null if registrations are published immediately.
+   */
+  private volatile RegistrationStaging staging;
+
+  /**
+   * The interval staged registrations are published at, or null to only publish them when needed.
+   */
+  private Duration stagedRegistrationInterval;
+
+  /**
+   * Whether the synchronous prefix of every resolved subscriber chain is compiled into a single method handle.
+   */
+  private boolean compiledDispatch;
+
+  /**
+   * How events posted from within a subscriber are dispatched.
+   */
+  private DispatchPolicy dispatchPolicy = DispatchPolicy.IMMEDIATE;
+
+  /**
+   * The queue of nested events of each thread posting in {@link DispatchPolicy#QUEUED} mode, reused across posts.
+   */
+  private final ThreadLocal<PostQueue> postQueues = ThreadLocal.withInitial(PostQueue::new);
+
+  /**
+   * The journal posted events are appended to, or null if events are not journaled.
+   */
+  private EventJournal journal;
+
+  /**
+   * The number of consecutive failures disabling a subscriber subscribed from now on, or 0 to never disable them.
+   */
+  private int circuitBreakerThreshold;
+
+  /**
+   * The time subscribers disabled by their circuit breaker stay disabled for.
+   */
+  private Duration circuitBreakerCooldown;
+
+  /**
+   * The subscriber chain of {@link DeadEvent}, kept up to date on registration so an unhandled post
+   * does not need a second lookup to find out whether anyone listens to dead events.
+   */
+  private volatile SubscriberChain deadEventChain = SubscriberChain.EMPTY;
+
+  /**
+   * Constructs an EventBus with an empty subscriber map.
+   */
+  public EventBus() {
+    this.subscribersMap = new ConcurrentHashMap<>();
+    this.dispatchCache = new ConcurrentHashMap<>();
+  }
+
+  /**
+   * Sets the exception handler that will be called when an exception occurs while invoking a subscriber method.
+   *
+   * @param exceptionHandler the exception handler that will be called when an exception occurs while invoking a subscriber method.
+   */
+  public void setExceptionHandler(EventExceptionHandler exceptionHandler) {
+    this.exceptionHandler = exceptionHandler;
+  }
+
+  /**
+   * Returns the exception handler that will be called when an exception occurs while invoking a subscriber method.
+   *
+   * @return the exception handler that will be called when an exception occurs while invoking a subscriber method.
+   */
+  public EventExceptionHandler getExceptionHandler() {
+    return exceptionHandler;
+  }
+
+  /**
+   * Sets the factory used to create subscriber methods for methods annotated with {@link Subscribe}.
+   * Only affects objects subscribed after the call, and is not used for classes with a generated registrar.
+   *
+   * @param subscriberMethodFactory the factory used to create subscriber methods.
+   */
+  public void setSubscriberMethodFactory(SubscriberMethodFactory subscriberMethodFactory) {
+    this.subscriberMethodFactory = subscriberMethodFactory;
+  }
+
+  /**
+   * Returns the factory used to create subscriber methods for methods annotated with {@link Subscribe}.
+   *
+   * @return the factory used to create subscriber methods.
+   */
+  public SubscriberMethodFactory getSubscriberMethodFactory() {
+    return subscriberMethodFactory;
+  }
+
+  /**
+   * Sets the executor that invokes asynchronous subscribers, and every subscriber after them in the chain.
+   *
+   * @param executor the executor that invokes asynchronous subscribers.
+   */
+  public void setExecutor(Executor executor) {
+    this.executor = executor;
+  }
+
+  /**
+   * Returns the executor that invokes asynchronous subscribers.
+   *
+   * @return the executor that invokes asynchronous subscribers.
+   */
+  public Executor getExecutor() {
+    return executor;
+  }
+
+  /**
+   * Sets the metrics dispatching is recorded to. Subscribers are only timed while metrics are set.
+   *
+   * @param metrics the metrics to record to, or null to disable metrics.
+   */
+  public void setMetrics(EventBusMetrics metrics) {
+    this.metrics = metrics;
+  }
+
+  /**
+   * Returns the metrics dispatching is recorded to.
+   *
+   * @return the metrics of the event bus, or null if metrics are disabled.
+   */
+  public EventBusMetrics getMetrics() {
+    return metrics;
+  }
+
+  /**
+   * Sets whether pooled events are tracked instead of reused, so that posting fails once a subscriber
+   * is found retaining a pooled event after it was released. Meant for debugging, as it disables pooling.
+   *
+   * @param pooledEventRetentionCheck true to check that subscribers do not retain pooled events.
+   */
+  public void setPooledEventRetentionCheck(boolean pooledEventRetentionCheck) {
+    this.pooledEventRetentionCheck = pooledEventRetentionCheck;
+  }
+
+  /**
+   * Returns whether pooled events are checked for being retained by subscribers.
+   *
+   * @return true if the retention check is enabled, false otherwise.
+   */
+  public boolean isPooledEventRetentionCheck() {
+    return pooledEventRetentionCheck;
+  }
+
+  /**
+   * Sets the number of sticky events kept per event type. Only affects event types without sticky events yet.
+   *
+   * @param stickyCapacity the number of sticky events kept per event type, 1 to only keep the latest one.
+   */
+  public void setStickyCapacity(int stickyCapacity) {
+    if (stickyCapacity < 1) {
+      throw new IllegalArgumentException("Sticky capacity must be positive");
+    }
+    this.stickyCapacity = stickyCapacity;
+  }
+
+  /**
+   * Returns the number of sticky events kept per event type.
+   *
+   * @return the number of sticky events kept per event type.
+   */
+  public int getStickyCapacity() {
+    return stickyCapacity;
+  }
+
+  /**
+   * Sets the age after which sticky events are no longer replayed to new subscribers.
+   *
+   * @param stickyMaxAge the maximum age of replayed sticky events, or null to replay them until evicted by newer ones.
+   */
+  public void setStickyMaxAge(Duration stickyMaxAge) {
+    if (stickyMaxAge != null && stickyMaxAge.isNegative()) {
+      throw new IllegalArgumentException("Sticky max age cannot be negative");
+    }
+    this.stickyMaxAgeNanos = stickyMaxAge == null ? 0 : stickyMaxAge.toNanos();
+  }
+
+  /**
+   * Returns the age after which sticky events are no longer replayed to new subscribers.
+   *
+   * @return the maximum age of replayed sticky events, or null if they are replayed until evicted by newer ones.
+   */
+  public Duration getStickyMaxAge() {
+    return stickyMaxAgeNanos == 0 ? null : Duration.ofNanos(stickyMaxAgeNanos);
+  }
+
+  /**
+   * Sets whether events are also dispatched to subscribers of their superclasses and interfaces.
+   *
+   * @param hierarchyDispatch true to dispatch events to subscribers of every supertype, false to dispatch by exact class only.
+   */
+  public void setHierarchyDispatch(boolean hierarchyDispatch) {
+    synchronized (registrationLock) {
+      this.hierarchyDispatch = hierarchyDispatch;
+      this.dispatchCache.clear();
+      this.deadEventChain = this.resolveChain(DeadEvent.class);
+    }
+  }
+
+  /**
+   * Returns whether events are also dispatched to subscribers of their superclasses and interfaces.
+   *
+   * @return true if hierarchy dispatch is enabled, false otherwise.
+   */
+  public boolean isHierarchyDispatch() {
+    return hierarchyDispatch;
+  }
+
+  /**
+   * Sets whether the subscribers of an event class are compiled into a dispatcher the first time the event class
+   * is posted after its subscribers changed, instead of being looped over on every post.
+   * The compiled dispatcher invokes the subscribers through a single composed method handle, with the cancellation
+   * checks resolved for the event class, and is replaced as a whole when the subscribers change again.
+   * Dispatching with metrics enabled, and chains of more than 64 synchronous subscribers, stay interpreted.
+   *
+   * @param compiledDispatch true to compile subscriber chains, false to interpret them.
+   */
+  public void setCompiledDispatch(boolean compiledDispatch) {
+    synchronized (registrationLock) {
+      this.compiledDispatch = compiledDispatch;
+      this.dispatchCache.clear();
+      this.deadEventChain = this.resolveChain(DeadEvent.class);
+    }
+  }
+
+  /**
+   * Returns whether subscriber chains are compiled into dispatchers.
+   *
+   * @return true if compiled dispatch is enabled, false otherwise.
+   */
+  public boolean isCompiledDispatch() {
+    return compiledDispatch;
+  }
+
+  /**
+   * Sets how events posted from within a subscriber are dispatched. In {@link DispatchPolicy#QUEUED} mode, an event
+   * posted through {@link #post(Object)} while the calling thread is already dispatching is queued and dispatched
+   * after the current event, so cascades run breadth-first with a constant stack depth.
+   * If the exception handler rethrows a subscriber failure, the queued events are still dispatched and the first
+   * failure is rethrown by the outermost post once the queue is drained.
+   * Batched, pooled and asynchronous posts are always dispatched immediately.
+   *
+   * @param dispatchPolicy the dispatch policy of nested posts.
+   * @throws NullPointerException if the dispatch policy is null.
+   */
+  public void setDispatchPolicy(DispatchPolicy dispatchPolicy) {
+    if (dispatchPolicy == null) {
+      throw new NullPointerException("Dispatch policy cannot be null.");
+    }
+    this.dispatchPolicy = dispatchPolicy;
+  }
+
+  /**
+   * Returns how events posted from within a subscriber are dispatched.
+   *
+   * @return the dispatch policy of nested posts.
+   */
+  public DispatchPolicy getDispatchPolicy() {
+    return dispatchPolicy;
+  }
+
+  /**
+   * Sets whether listener objects subscribed after the call are only weakly referenced by the event bus.
+   * Weakly subscribed listeners that get collected are purged lazily on the next post.
+   *
+   * @param weakSubscribers true to weakly reference subscribed listener objects.
+   */
+  public void setWeakSubscribers(boolean weakSubscribers) {
+    this.weakSubscribers = weakSubscribers;
+  }
+
+  /**
+   * Returns whether subscribed listener objects are only weakly referenced by the event bus.
+   *
+   * @return true if subscribed listener objects are weakly referenced, false otherwise.
+   */
+  public boolean isWeakSubscribers() {
+    return weakSubscribers;
+  }
+
+  /**
+   * Sets the journal the events of its registered types are appended to when posted, before being dispatched.
+   *
+   * @param journal the event journal, or null to stop journaling events.
+   */
+  public void setJournal(EventJournal journal) {
+    this.journal = journal;
+  }
+
+  /**
+   * Returns the journal posted events are appended to.
+   *
+   * @return the event journal, or null if events are not journaled.
+   */
+  public EventJournal getJournal() {
+    return journal;
+  }
+
+  /**
+   * Posts the events of the journal again, from the given offset onwards, to rebuild the state of the subscribers.
+   * Events are decoded in batches and dispatched back to back on the calling thread through their subscriber chains,
+   * without being journaled again nor coalesced. Exceptions rethrown by the exception handler are reported to the
+   * uncaught exception handler of the calling thread instead of stopping the replay.
+   *
+   * @param fromOffset the offset of the first event to replay.
+   * @return the offset following the last replayed event, to resume from.
+   * @throws IllegalStateException if no journal is set.
+   */
+  public long replay(long fromOffset) {
+    EventJournal journal = this.journal;
+    if (journal == null) {
+      throw new IllegalStateException("No event journal set.");
+    }
+
+    return journal.read(fromOffset, this::dispatchDrained);
+  }
+
+  /**
+   * Appends a posted event to the journal, if there is one.
+   *
+   * @param event the posted event.
+   */
+  final void journal(Object event) {
+    EventJournal journal = this.journal;
+    if (journal != null) {
+      journal.append(event);
+    }
+  }
+
+  /**
+   * Sets the circuit breaker of the subscribers subscribed after the call. A subscriber failing the given number
+   * of times in a row is disabled and skipped until the cooldown elapsed, the failure disabling it reaches the
+   * exception handler as a {@link io.github.mtbarr.kairo.exception.SubscriberDisabledException}.
+   *
+   * @param failureThreshold the number of consecutive failures disabling a subscriber, or 0 to never disable them.
+   * @param cooldown the time disabled subscribers stay disabled for.
+   */
+  public void setCircuitBreaker(int failureThreshold, Duration cooldown) {
+    if (failureThreshold < 0) {
+      throw new IllegalArgumentException("Failure threshold cannot be negative");
+    }
+    if (failureThreshold > 0 && cooldown == null) {
+      throw new NullPointerException("Cooldown cannot be null.");
+    }
+
+    this.circuitBreakerThreshold = failureThreshold;
+    this.circuitBreakerCooldown = cooldown;
+  }
+
+  /**
+   * Returns the number of consecutive failures disabling a subscriber.
+   *
+   * @return the failure threshold of the circuit breaker, or 0 if subscribers are never disabled.
+   */
+  public int getCircuitBreakerThreshold() {
+    return circuitBreakerThreshold;
+  }
+
+  /**
+   * Returns the time subscribers disabled by their circuit breaker stay disabled for.
+   *
+   * @return the cooldown of the circuit breaker, or null if subscribers are never disabled.
+   */
+  public Duration getCircuitBreakerCooldown() {
+    return circuitBreakerCooldown;
+  }
+
+  /**
+   * Sets whether subscriptions are staged instead of being published to the subscribers of their event type
+   * right away. Staged subscriptions are buffered per registering thread and published in a single batch,
+   * sorting the subscribers of each event type once, on the next post or removal or at the staged registration
+   * interval. This keeps registration storms on a hot event type from copying its subscribers on every call.
+   * <p>
+   * A staged subscription is visible to every post that happens after the subscribe call returned, such as
+   * a later post from the same thread, exactly as an immediately published one.
+   *
+   * @param stagedRegistration true to stage subscriptions, false to publish them right away.
+   */
+  public void setStagedRegistration(boolean stagedRegistration) {
+    synchronized (registrationLock) {
+      if (stagedRegistration == (staging != null)) {
+        return;
+      }
+
+      if (stagedRegistration) {
+        staging = new RegistrationStaging();
+        staging.schedule(this, stagedRegistrationInterval);
+      } else {
+        // Clear the field before draining, so a method staged after the drain sees the change and publishes itself.
+        RegistrationStaging previous = staging;
+        staging = null;
+        this.publishStagedSubscribers(previous);
+        previous.cancel();
+      }
+    }
+  }
+
+  /**
+   * Returns whether subscriptions are staged instead of being published right away.
+   *
+   * @return true if staged registration is enabled, false otherwise.
+   */
+  public boolean isStagedRegistration() {
+    return staging != null;
+  }
+
+  /**
+   * Sets the interval staged subscriptions are published at, so posts rarely have to publish them themselves.
+   *
+   * @param stagedRegistrationInterval the publication interval, or null to only publish staged subscriptions
+   * on the next post or removal.
+   */
+  public void setStagedRegistrationInterval(Duration stagedRegistrationInterval) {
+    if (stagedRegistrationInterval != null && (stagedRegistrationInterval.isNegative() || stagedRegistrationInterval.isZero())) {
+      throw new IllegalArgumentException("Staged registration interval must be positive");
+    }
+
+    synchronized (registrationLock) {
+      this.stagedRegistrationInterval = stagedRegistrationInterval;
+      if (staging != null) {
+        staging.schedule(this, stagedRegistrationInterval);
+      }
+    }
+  }
+
+  /**
+   * Returns the interval staged subscriptions are published at.
+   *
+   * @return the publication interval, or null if staged subscriptions are only published when needed.
+   */
+  public Duration getStagedRegistrationInterval() {
+    return stagedRegistrationInterval;
+  }
+
+  /**
+   * Subscribes a functional listener for a particular type of event.
+   *
+   * @param clazz the class of the event to listen for.
+   * @param ignoreCancelled whether the subscriber should ignore cancelled events.
+   * @param priority the priority of the subscriber (higher priority subscribers are called first).
+   * @param consumer the functional handler that will process the event.
+   * @param <E> the type of event.
+   * @return the subscription, used to unsubscribe the listener.
+   */
+  public <E> Subscription subscribe(Class<E> clazz, boolean ignoreCancelled, int priority, Consumer<E> consumer) {
+    return this.sortAdd(new FunctionalSubscriberMethod<>(clazz, consumer, ignoreCancelled, priority));
+  }
+
+  /**
+   * Subscribes a functional listener for a particular type of event.
+   *
+   * @param clazz the class of the event to listen for.
+   * @param consumer the functional handler that will process the event.
+   * @param <E> the type of event.
+   * @return the subscription, used to unsubscribe the listener.
+   */
+  public <E> Subscription subscribe(Class<E> clazz, Consumer<E> consumer) {
+    return this.subscribe(clazz, false, 0, consumer);
+  }
+
+  /**
+   * Subscribes a functional listener for a particular type of event.
+   *
+   * @param clazz the class of the event to listen for.
+   * @param ignoreCancelled whether the subscriber should ignore cancelled events.
+   * @param consumer the functional handler that will process the event.
+   * @param <E> the type of event.
+   * @return the subscription, used to unsubscribe the listener.
+   */
+  public <E> Subscription subscribe(Class<E> clazz, boolean ignoreCancelled, Consumer<E> consumer) {
+    return this.subscribe(clazz, ignoreCancelled, 0, consumer);
+  }
+
+  /**
+   * Subscribes a functional listener for a particular type of event.
+   *
+   * @param clazz the class of the event to listen for.
+   * @param priority the priority of the subscriber (higher priority subscribers are called first).
+   * @param consumer the functional handler that will process the event.
+   * @param <E> the type of event.
+   * @return the subscription, used to unsubscribe the listener.
+   */
+  public <E> Subscription subscribe(Class<E> clazz, int priority, Consumer<E> consumer) {
+    return this.subscribe(clazz, false, priority, consumer);
+  }
+
+  /**
+   * Subscribes an asynchronous functional listener for a particular type of event.
+   * The listener, and every subscriber with a lower priority, is invoked on the executor of the event bus.
+   *
+   * @param clazz the class of the event to listen for.
+   * @param ignoreCancelled whether the subscriber should ignore cancelled events.
+   * @param priority the priority of the subscriber (higher priority subscribers are called first).
+   * @param consumer the functional handler that will process the event.
+   * @param <E> the type of event.
+   * @return the subscription, used to unsubscribe the listener.
+   */
+  public <E> Subscription subscribeAsync(Class<E> clazz, boolean ignoreCancelled, int priority, Consumer<E> consumer) {
+    return this.sortAdd(new AsyncSubscriberMethod(new FunctionalSubscriberMethod<>(clazz, consumer, ignoreCancelled, priority)));
+  }
+
+  /**
+   * Subscribes an asynchronous functional listener for a particular type of event.
+   *
+   * @param clazz the class of the event to listen for.
+   * @param consumer the functional handler that will process the event.
+   * @param <E> the type of event.
+   * @return the subscription, used to unsubscribe the listener.
+   */
+  public <E> Subscription subscribeAsync(Class<E> clazz, Consumer<E> consumer) {
+    return this.subscribeAsync(clazz, false, 0, consumer);
+  }
+
+  /**
+   * Subscribes a functional listener for a possibly parameterized event type. If the type is a parameterized
+   * {@link io.github.mtbarr.kairo.generic.GenericEvent}, such as {@code Envelope<OrderCreated>}, the listener only
+   * receives the events whose payload is an instance of the type argument; any other type is subscribed to as its raw class.
+   *
+   * @param type the type of the event to listen for.
+   * @param ignoreCancelled whether the subscriber should ignore cancelled events.
+   * @param priority the priority of the subscriber (higher priority subscribers are called first).
+   * @param consumer the functional handler that will process the event.
+   * @param <E> the type of event.
+   * @return the subscription, used to unsubscribe the listener.
+   */
+  @SuppressWarnings("unchecked")
+  public <E> Subscription subscribe(EventType<E> type, boolean ignoreCancelled, int priority, Consumer<E> consumer) {
+    Class<E> clazz = (Class<E>) type.getRawType();
+    return this.sortAdd(GenericSubscriberMethod.forType(new FunctionalSubscriberMethod<>(clazz, consumer, ignoreCancelled, priority), type.getType()));
+  }
+
+  /**
+   * Subscribes a functional listener for a possibly parameterized event type.
+   *
+   * @param type the type of the event to listen for.
+   * @param consumer the functional handler that will process the event.
+   * @param <E> the type of event.
+   * @return the subscription, used to unsubscribe the listener.
+   * @see #subscribe(EventType, boolean, int, Consumer)
+   */
+  public <E> Subscription subscribe(EventType<E> type, Consumer<E> consumer) {
+    return this.subscribe(type, false, 0, consumer);
+  }
+
+  /**
+   * Subscribes a functional listener for the events of a particular type whose key equals the given key.
+   * Keyed subscribers are indexed by key, so posting an event only invokes the keyed subscribers matching its key
+   * instead of every subscriber of the type. Subscribers sharing the same key function instance share an index.
+   *
+   * @param clazz the class of the event to listen for.
+   * @param ignoreCancelled whether the subscriber should ignore cancelled events.
+   * @param priority the priority of the subscriber (higher priority subscribers are called first).
+   * @param keyFunction extracts the key of an event.
+   * @param key the key of the events to receive.
+   * @param consumer the functional handler that will process the event.
+   * @param <E> the type of event.
+   * @param <K> the type of the key.
+   * @return the subscription, used to unsubscribe the listener.
+   */
+  public <E, K> Subscription subscribe(Class<E> clazz, boolean ignoreCancelled, int priority, Function<? super E, ? extends K> keyFunction, K key, Consumer<E> consumer) {
+    return this.sortAdd(new KeyedSubscriberMethod(new FunctionalSubscriberMethod<>(clazz, consumer, ignoreCancelled, priority), keyFunction, key));
+  }
+
+  /**
+   * Subscribes a functional listener for the events of a particular type whose key equals the given key.
+   *
+   * @param clazz the class of the event to listen for.
+   * @param keyFunction extracts the key of an event.
+   * @param key the key of the events to receive.
+   * @param consumer the functional handler that will process the event.
+   * @param <E> the type of event.
+   * @param <K> the type of the key.
+   * @return the subscription, used to unsubscribe the listener.
+   * @see #subscribe(Class, boolean, int, Function, Object, Consumer)
+   */
+  public <E, K> Subscription subscribe(Class<E> clazz, Function<? super E, ? extends K> keyFunction, K key, Consumer<E> consumer) {
+    return this.subscribe(clazz, false, 0, keyFunction, key, consumer);
+  }
+
+  /**
+   * Subscribes a functional listener receiving events of a particular type in batches.
+   * Every run of events of the type posted with {@link #postAll(Collection)} is delivered in a single call,
+   * events posted alone are delivered in a list of one.
+   *
+   * @param clazz the class of the events to listen for.
+   * @param ignoreCancelled whether cancelled events should be left out of the batches.
+   * @param priority the priority of the subscriber (higher priority subscribers are called first).
+   * @param consumer the functional handler that will process the batches of events.
+   * @param <E> the type of event.
+   * @return the subscription, used to unsubscribe the listener.
+   */
+  @SuppressWarnings({"unchecked", "rawtypes"})
+  public <E> Subscription subscribeBatch(Class<E> clazz, boolean ignoreCancelled, int priority, Consumer<List<E>> consumer) {
+    return this.sortAdd(new BatchSubscriberMethod(clazz, new FunctionalSubscriberMethod(List.class, consumer, ignoreCancelled, priority)));
+  }
+
+  /**
+   * Subscribes a functional listener receiving events of a particular type in batches.
+   *
+   * @param clazz the class of the events to listen for.
+   * @param consumer the functional handler that will process the batches of events.
+   * @param <E> the type of event.
+   * @return the subscription, used to unsubscribe the listener.
+   * @see #subscribeBatch(Class, boolean, int, Consumer)
+   */
+  public <E> Subscription subscribeBatch(Class<E> clazz, Consumer<List<E>> consumer) {
+    return this.subscribeBatch(clazz, false, 0, consumer);
+  }
+
+  /**
+   * Subscribes all methods of a given object that are annotated with {@link Subscribe}.
+   *
+   * @param object the subscriber object containing methods annotated with {@link Subscribe}.
+   * @throws NullPointerException if the subscriber object is null.
+   * @throws SubscriberRegistrationException if an error occurs while registering the subscriber methods.
+   */
+  public void subscribe(Object object) {
+    List<SubscriberMethod> subscriberMethods = new ArrayList<>();
+    ListenerRegistration registration = this.createRegistration(object, subscriberMethods);
+    this.sortAddAll(subscriberMethods, Collections.singletonList(registration));
+  }
+
+  /**
+   * Subscribes all methods annotated with {@link Subscribe} of every given object at once.
+   * The subscribers of each event type are sorted and published once for the whole batch, which makes
+   * registering a large number of objects much cheaper than subscribing them one by one.
+   * If any object fails to register, none of them is subscribed.
+   *
+   * @param objects the subscriber objects containing methods annotated with {@link Subscribe}.
+   * @throws NullPointerException if any subscriber object is null.
+   * @throws SubscriberRegistrationException if an error occurs while registering the subscriber methods.
+   */
+  public void subscribeAll(Iterable<?> objects) {
+    List<SubscriberMethod> subscriberMethods = new ArrayList<>();
+    List<ListenerRegistration> registrations = new ArrayList<>();
+    for (Object object : objects) {
+      registrations.add(this.createRegistration(object, subscriberMethods));
+    }
+
+    this.sortAddAll(subscriberMethods, registrations);
+  }
+
+  /**
+   * Unsubscribes all methods of a given object that were subscribed with {@link #subscribe(Object)}
+   * or {@link #subscribeAll(Iterable)}. Objects are matched by identity.
+   *
+   * @param object the subscriber object to unsubscribe.
+   * @return true if the object was subscribed, false otherwise.
+   * @throws NullPointerException if the subscriber object is null.
+   */
+  public boolean unsubscribe(Object object) {
+    if (object == null) {
+      throw new NullPointerException("Subscriber object cannot be null.");
+    }
+
+    synchronized (registrationLock) {
+      ListenerRegistration registration = listenerIndex.remove(ListenerRegistration.key(object));
+      if (registration == null) {
+        return false;
+      }
+
+      this.removeSubscriberMethods(registration.subscriberMethods);
+      return true;
+    }
+  }
+
+  /**
+   * Creates the registration of a subscriber object and collects its subscriber methods.
+   *
+   * @param object the subscriber object containing methods annotated with {@link Subscribe}.
+   * @param subscriberMethods the list the created subscriber methods are added to.
+   * @return the registration of the subscriber object.
+   */
+  private ListenerRegistration createRegistration(Object object, List<SubscriberMethod> subscriberMethods) {
+    if (object == null) {
+      throw new NullPointerException("Subscriber object cannot be null.");
+    }
+
+    ListenerRegistration registration = weakSubscribers
+      ? ListenerRegistration.weak(object, collectedListeners)
+      : ListenerRegistration.strong(object);
+
+    int from = subscriberMethods.size();
+    try {
+      this.collectSubscriberMethods(object, registration, subscriberMethods);
+    } catch (Throwable throwable) {
+      throw new SubscriberRegistrationException("Failed to register subscriber.", throwable);
+    }
+
+    if (circuitBreakerThreshold > 0) {
+      for (int i = from; i < subscriberMethods.size(); i++) {
+        subscriberMethods.set(i, this.guard(subscriberMethods.get(i)));
+      }
+    }
+
+    registration.subscriberMethods = subscriberMethods.subList(from, subscriberMethods.size()).toArray(SubscriberStore.EMPTY);
+    return registration;
+  }
+
+  /**
+   * Adds a subscriber method to the list of subscribers for its event type and sorts them by priority.
+   *
+   * @param method the subscriber method to add.
+   * @return the subscription that removes the subscriber method.
+   */
+  private Subscription sortAdd(SubscriberMethod subscriberMethod) {
+    SubscriberMethod method = circuitBreakerThreshold > 0 ? this.guard(subscriberMethod) : subscriberMethod;
+    RegistrationStaging staging = this.staging;
+    if (staging != null) {
+      staging.stage(method);
+      if (this.staging != staging) {
+        // Staged registration was toggled meanwhile, publish the method before it is stranded.
+        synchronized (registrationLock) {
+          this.publishStagedSubscribers(staging);
+        }
+      }
+    } else {
+      synchronized (registrationLock) {
+        this.getSubscribersForType(method.eventClass()).add(method);
+        this.invalidateDispatchCache(method.eventClass());
+      }
+    }
+
+    if (!stickyEvents.isEmpty()) {
+      this.replayStickyEvents(method);
+    }
+
+    return () -> {
+      synchronized (registrationLock) {
+        this.removeSubscriberMethod(method);
+      }
+    };
+  }
+
+  /**
+   * Wraps a subscriber method in a circuit breaker, inside its keyed and generic wrappers so it stays indexed.
+   *
+   * @param method the subscriber method to guard.
+   * @return the guarded subscriber method.
+   */
+  private SubscriberMethod guard(SubscriberMethod method) {
+    if (method instanceof KeyedSubscriberMethod) {
+      KeyedSubscriberMethod keyed = (KeyedSubscriberMethod) method;
+      return new KeyedSubscriberMethod(this.guard(keyed.delegate()), keyed.keyFunction(), keyed.key());
+    }
+    if (method instanceof GenericSubscriberMethod) {
+      GenericSubscriberMethod generic = (GenericSubscriberMethod) method;
+      return new GenericSubscriberMethod(this.guard(generic.delegate()), generic.payloadClass());
+    }
+
+    return new CircuitBreakerSubscriberMethod(method, circuitBreakerThreshold, circuitBreakerCooldown);
+  }
+
+  /**
+   * Adds many subscriber methods at once, sorting and publishing the subscribers of each event type a single time,
+   * and indexes the registrations of the subscriber objects they were created for.
+   *
+   * @param methods the subscriber methods to add.
+   * @param registrations the registrations of the subscriber objects.
+   */
+  private void sortAddAll(List<SubscriberMethod> methods, List<ListenerRegistration> registrations) {
+    if (methods.isEmpty()) {
+      return;
+    }
+
+    RegistrationStaging staging = this.staging;
+    if (staging != null) {
+      for (SubscriberMethod method : methods) {
+        staging.stage(method);
+      }
+      this.indexRegistrations(registrations);
+      if (this.staging != staging) {
+        // Staged registration was toggled meanwhile, publish the methods before they are stranded.
+        synchronized (registrationLock) {
+          this.publishStagedSubscribers(staging);
+        }
+      }
+    } else {
+      synchronized (registrationLock) {
+        this.addSubscriberMethods(methods);
+        this.indexRegistrations(registrations);
+      }
+    }
+
+    if (!stickyEvents.isEmpty()) {
+      for (SubscriberMethod method : methods) {
+        this.replayStickyEvents(method);
+      }
+    }
+  }
+
+  /**
+   * Indexes the registrations of subscribed listener objects, merging them with the earlier registrations
+   * of the same objects.
+   *
+   * @param registrations the registrations of the subscriber objects.
+   */
+  private void indexRegistrations(List<ListenerRegistration> registrations) {
+    for (ListenerRegistration registration : registrations) {
+      if (registration.subscriberMethods.length == 0) {
+        continue;
+      }
+
+      listenerIndex.merge(registration, registration, (existing, added) -> {
+        SubscriberMethod[] merged = Arrays.copyOf(existing.subscriberMethods, existing.subscriberMethods.length + added.subscriberMethods.length);
+        System.arraycopy(added.subscriberMethods, 0, merged, existing.subscriberMethods.length, added.subscriberMethods.length);
+        existing.subscriberMethods = merged;
+        return existing;
+      });
+    }
+  }
+
+  /**
+   * Adds subscriber methods to the subscribers of their event types, sorting and publishing the subscribers
+   * of each event type a single time. Must be called while holding the registration lock.
+   *
+   * @param methods the subscriber methods to add.
+   */
+  private void addSubscriberMethods(List<SubscriberMethod> methods) {
+    Map<Class<?>, List<SubscriberMethod>> methodsByType = new LinkedHashMap<>();
+    for (SubscriberMethod method : methods) {
+      methodsByType.computeIfAbsent(method.eventClass(), k -> new ArrayList<>()).add(method);
+    }
+
+    for (Map.Entry<Class<?>, List<SubscriberMethod>> entry : methodsByType.entrySet()) {
+      SubscriberMethod[] sorted = entry.getValue().toArray(SubscriberStore.EMPTY);
+      Arrays.sort(sorted, PRIORITY_ORDER);
+
+      this.getSubscribersForType(entry.getKey()).addAll(sorted, sorted.length);
+      this.invalidateDispatchCache(entry.getKey());
+    }
+  }
+
+  /**
+   * Publishes the staged subscriber methods, if staged registration is enabled and some are pending.
+   * Does not lock when there is nothing to publish.
+   */
+  void publishStagedSubscribers() {
+    RegistrationStaging staging = this.staging;
+    if (staging != null && staging.hasPending()) {
+      synchronized (registrationLock) {
+        this.publishStagedSubscribers(staging);
+      }
+    }
+  }
+
+  /**
+   * Publishes every subscriber method staged so far. Must be called while holding the registration lock.
+   *
+   * @param staging the staging area to publish.
+   */
+  private void publishStagedSubscribers(RegistrationStaging staging) {
+    if (!staging.hasPending()) {
+      return;
+    }
+
+    long stagedCount = staging.stagedCount();
+    List<SubscriberMethod> methods = staging.drain();
+    if (!methods.isEmpty()) {
+      this.addSubscriberMethods(methods);
+    }
+    staging.published(stagedCount);
+  }
+
+  /**
+   * Removes subscriber methods from the subscribers of their event types.
+   * Must be called while holding the registration lock.
+   *
+   * @param methods the subscriber methods to remove.
+   */
+  private void removeSubscriberMethods(SubscriberMethod[] methods) {
+    for (SubscriberMethod method : methods) {
+      this.removeSubscriberMethod(method);
+    }
+  }
+
+  /**
+   * Removes a subscriber method from the subscribers of its event type, dropping the type once it has no subscribers.
+   * Must be called while holding the registration lock.
+   *
+   * @param method the subscriber method to remove.
+   */
+  private void removeSubscriberMethod(SubscriberMethod method) {
+    if (staging != null) {
+      // The method may still be staged, publish it first so it can be removed.
+      this.publishStagedSubscribers(staging);
+    }
+
+    Class<?> type = method.eventClass();
+    SubscriberStore store = subscribersMap.get(type);
+    if (store == null || !store.remove(method)) {
+      return;
+    }
+
+    EventBusMetrics metrics = this.metrics;
+    if (metrics != null) {
+      metrics.remove(method);
+    }
+
+    if (store.isEmpty()) {
+      subscribersMap.remove(type);
+    }
+    this.invalidateDispatchCache(type);
+  }
+
+  /**
+   * Purges the subscriber methods of weakly subscribed listeners that were collected.
+   * Checking for collected listeners does not allocate nor lock when there are none.
+   */
+  private void purgeCollectedListeners() {
+    Reference<?> collected = collectedListeners.poll();
+    if (collected == null) {
+      return;
+    }
+
+    synchronized (registrationLock) {
+      do {
+        ListenerRegistration registration = (ListenerRegistration) collected;
+        listenerIndex.remove(registration);
+        this.removeSubscriberMethods(registration.subscriberMethods);
+      } while ((collected = collectedListeners.poll()) != null);
+    }
+  }
+
+  /**
+   * Counts the number of subscribers for a particular event type.
+   * @return the number of subscribers for the event type.
+   */
+  public int getSubscribersCount() {
+    this.publishStagedSubscribers();
+    return subscribersMap.size();
+  }
+
+  /**
+   * Posts an event to all registered subscribers for the event's type.
+   * Subscribers after the first asynchronous one are invoked on the executor without waiting for them.
+   * Events without subscribers are dispatched as a {@link DeadEvent} to the subscribers of dead events, if any.
+   *
+   * @param event the event object to post.
+   */
+  public void post(Object event) {
+    this.journal(event);
+    if (this.coalesce(event)) {
+      return;
+    }
+
+    if (dispatchPolicy == DispatchPolicy.QUEUED) {
+      this.dispatchQueued(event);
+      return;
+    }
+
+    this.dispatchChain(event, this.getChain(event.getClass()));
+  }
+
+  /**
+   * Dispatches the event, or queues it if the calling thread is already dispatching one. The outermost call drains
+   * the queue of the thread iteratively, so nested posts never recurse, and rethrows the first failure afterwards.
+   */
+  private void dispatchQueued(Object event) {
+    PostQueue queue = postQueues.get();
+    if (queue.dispatching) {
+      queue.events.addLast(event);
+      return;
+    }
+
+    queue.dispatching = true;
+    RuntimeException failure = null;
+    try {
+      Object next = event;
+      do {
+        try {
+          this.dispatchChain(next, this.getChain(next.getClass()));
+        } catch (RuntimeException e) {
+          // Events queued by the subscribers that succeeded are still delivered, as they would be when dispatched immediately.
+          if (failure == null) {
+            failure = e;
+          } else {
+            failure.addSuppressed(e);
+          }
+        }
+      } while ((next = queue.events.pollFirst()) != null);
+    } finally {
+      queue.dispatching = false;
+      queue.events.clear();
+    }
+
+    if (failure != null) {
+      throw failure;
+    }
+  }
+
+  /**
+   * Posts many events at once. Consecutive events of the same class are dispatched as a run: their subscriber chain
+   * is resolved once and batch subscribers receive the whole run in a single call. Every other subscriber still
+   * receives the events one by one, in order, with the same priority and cancellation semantics as {@link #post(Object)}.
+   *
+   * @param events the events to post.
+   */
+  public void postAll(Collection<?> events) {
+    this.postAll(events.toArray());
+  }
+
+  /**
+   * Posts many events at once.
+   *
+   * @param events the events to post.
+   * @see #postAll(Collection)
+   */
+  public void postAll(Object[] events) {
+    if (journal != null) {
+      for (Object event : events) {
+        this.journal(event);
+      }
+    }
+    if (coalescing) {
+      events = this.coalesceAll(events);
+    }
+
+    int start = 0;
+    while (start < events.length) {
+      Class<?> eventClass = events[start].getClass();
+      int end = start + 1;
+      while (end < events.length && events[end].getClass() == eventClass) {
+        end++;
+      }
+
+      this.dispatchRun(events, start, end, this.getChain(eventClass));
+      start = end;
+    }
+  }
+
+  /**
+   * Hands the events of coalesced types to their coalescers.
+   *
+   * @param events the posted events.
+   * @return the events that should be dispatched now.
+   */
+  private Object[] coalesceAll(Object[] events) {
+    List<Object> remaining = new ArrayList<>(events.length);
+    for (Object event : events) {
+      if (!this.coalesce(event)) {
+        remaining.add(event);
+      }
+    }
+    return remaining.size() == events.length ? events : remaining.toArray();
+  }
+
+  /**
+   * Dispatches a run of events of the same class to their resolved subscriber chain.
+   *
+   * @param events the array holding the run.
+   * @param start the index of the first event of the run, inclusive.
+   * @param end the index of the last event of the run, exclusive.
+   * @param chain the subscriber chain of the event class.
+   */
+  void dispatchRun(Object[] events, int start, int end, SubscriberChain chain) {
+    EventBusMetrics metrics = this.metrics;
+    if (metrics != null) {
+      for (int i = start; i < end; i++) {
+        metrics.recordPost(events[i].getClass());
+      }
+    }
+
+    if (chain.isEmpty()) {
+      for (int i = start; i < end; i++) {
+        this.dispatchDeadEvent(events[i]);
+      }
+      return;
+    }
+
+    if (chain.selective) {
+      // Every event of the run may match other keyed or generic subscribers, dispatch them one by one.
+      for (int i = start; i < end; i++) {
+        SubscriberChain selected = chain.select(events[i]);
+        if (selected.isEmpty()) {
+          this.dispatchDeadEvent(events[i]);
+          continue;
+        }
+
+        this.dispatchRun(events, i, i + 1, selected, 0, selected.firstAsync);
+        if (selected.hasAsyncSubscribers()) {
+          Object event = events[i];
+          executor.execute(() -> this.dispatch(event, selected, selected.firstAsync, selected.subscribers.length));
+        }
+      }
+      return;
+    }
+
+    int firstAsync = chain.firstAsync;
+    CompiledDispatcher dispatcher = chain.dispatcher;
+    if (dispatcher != null && metrics == null && !chain.hasBatchSubscribers()) {
+      for (int i = start; i < end; i++) {
+        dispatcher.dispatch(events[i]);
+      }
+    } else {
+      this.dispatchRun(events, start, end, chain, 0, firstAsync);
+    }
+
+    if (chain.hasAsyncSubscribers()) {
+      // The caller may reuse the array once this method returns.
+      Object[] run = Arrays.copyOfRange(events, start, end);
+      executor.execute(() -> this.dispatchRun(run, 0, run.length, chain, firstAsync, chain.subscribers.length));
+    }
+  }
 
   /**
-   * The exception handler that will be called when an exception occurs while invoking a subscriber method.
+   * Dispatches events drained from a queue, resolving the subscriber chain once per run of events of the same class.
+   * Exceptions rethrown by the exception handler are reported to the uncaught exception handler of the calling
+   * thread instead of stopping it. The drained slots of the batch are cleared afterwards.
+   *
+   * @param batch the array the events were drained into.
+   * @param count the number of drained events.
    */
-  private EventExceptionHandler exceptionHandler = DEFAULT_EXCEPTION_HANDLER;
+  void dispatchDrained(Object[] batch, int count) {
+    int start = 0;
+    while (start < count) {
+      // Events of the same class usually arrive in runs, resolve their chain once per run.
+      Class<?> eventClass = batch[start].getClass();
+      int end = start + 1;
+      while (end < count && batch[end].getClass() == eventClass) {
+        end++;
+      }
+
+      SubscriberChain chain = this.getChain(eventClass);
+      if (chain.hasBatchSubscribers()) {
+        this.dispatchSafely(batch, start, end, chain);
+      } else {
+        for (int i = start; i < end; i++) {
+          this.dispatchSafely(batch, i, i + 1, chain);
+        }
+      }
+      start = end;
+    }
+
+    Arrays.fill(batch, 0, count, null);
+  }
+
+  private void dispatchSafely(Object[] batch, int start, int end, SubscriberChain chain) {
+    try {
+      this.dispatchRun(batch, start, end, chain);
+    } catch (RuntimeException e) {
+      // The exception handler rethrew, report it without killing the draining thread.
+      Thread thread = Thread.currentThread();
+      thread.getUncaughtExceptionHandler().uncaughtException(thread, e);
+    }
+  }
 
   /**
-   * Constructs an EventBus with an empty subscriber map.
+   * Invokes a range of a subscriber chain for a run of events. Batch subscribers receive the run in a single call,
+   * every other subscriber between them receives the events one by one.
    */
-  public EventBus() {
-    this.subscribersMap = new ConcurrentHashMap<>();
+  private void dispatchRun(Object[] events, int start, int end, SubscriberChain chain, int from, int to) {
+    SubscriberMethod[] subscriberMethods = chain.subscribers;
+    boolean canBeCancelled = events[start] instanceof CancellableEvent;
+    int segmentStart = from;
+
+    for (int i = from; i <= to; i++) {
+      if (i < to && !subscriberMethods[i].batch()) {
+        continue;
+      }
+
+      if (segmentStart < i) {
+        for (int j = start; j < end; j++) {
+          this.dispatch(events[j], canBeCancelled, chain, segmentStart, i);
+        }
+      }
+      if (i < to) {
+        this.invokeBatch(subscriberMethods[i], events, start, end, canBeCancelled);
+      }
+      segmentStart = i + 1;
+    }
   }
 
   /**
-   * Sets the exception handler that will be called when an exception occurs while invoking a subscriber method.
+   * Invokes a batch subscriber with a run of events, leaving out the cancelled ones if it ignores cancelled events.
+   */
+  private void invokeBatch(SubscriberMethod subscriberMethod, Object[] events, int start, int end, boolean canBeCancelled) {
+    List<Object> batch = new ArrayList<>(end - start);
+    for (int i = start; i < end; i++) {
+      Object event = events[i];
+      if (!canBeCancelled || !subscriberMethod.ignoreCancelled() || !((CancellableEvent) event).isCancelled()) {
+        batch.add(event);
+      }
+    }
+
+    if (batch.isEmpty()) {
+      return;
+    }
+
+    EventBusMetrics metrics = this.metrics;
+    long invocationStart = metrics != null ? System.nanoTime() : 0;
+    try {
+      subscriberMethod.invokeBatch(batch);
+      if (metrics != null) {
+        metrics.recordInvocation(subscriberMethod, batch, System.nanoTime() - invocationStart, false);
+      }
+    } catch (Exception e) {
+      if (metrics != null) {
+        metrics.recordInvocation(subscriberMethod, batch, System.nanoTime() - invocationStart, true);
+      }
+      exceptionHandler.handleEventException(subscriberMethod, batch, e);
+    }
+  }
+
+  /**
+   * Coalesces the events of a type before they are dispatched: events posted between two flushes are merged by key,
+   * and subscribers receive at most one event per key per flush. Replaces any coalescing of the same type,
+   * flushing its pending events.
+   * <p>
+   * With a window, pending events are flushed every window on a shared daemon thread, which then invokes the
+   * subscribers. Without one, they are only flushed by {@link #flushCoalescedEvents()}, for example on every tick.
    *
-   * @param exceptionHandler the exception handler that will be called when an exception occurs while invoking a subscriber method.
+   * @param type the exact class of the coalesced events.
+   * @param keyFunction returns the key events are merged by, which cannot be null.
+   * @param merge merges the pending event of a key with a newly posted one.
+   * @param window the interval between automatic flushes, or null to only flush manually.
+   * @param <E> the type of the coalesced events.
    */
-  public void setExceptionHandler(EventExceptionHandler exceptionHandler) {
-    this.exceptionHandler = exceptionHandler;
+  public <E> void registerCoalescing(Class<E> type, Function<? super E, ?> keyFunction, BinaryOperator<E> merge, Duration window) {
+    if (type == null || keyFunction == null || merge == null) {
+      throw new NullPointerException("Coalescing type, key function and merge function cannot be null.");
+    }
+    if (window != null && (window.isNegative() || window.isZero())) {
+      throw new IllegalArgumentException("Coalescing window must be positive");
+    }
+
+    EventCoalescer<E> coalescer = new EventCoalescer<>(type, keyFunction, merge, window);
+    EventCoalescer<?> previous = coalescers.put(type, coalescer);
+    coalescing = true;
+
+    if (previous != null) {
+      previous.retire();
+      previous.flush(this::dispatchCoalesced);
+    }
+    coalescer.schedule(this);
   }
 
   /**
-   * Returns the exception handler that will be called when an exception occurs while invoking a subscriber method.
+   * Dispatches the pending coalesced events of every type.
+   */
+  public void flushCoalescedEvents() {
+    for (EventCoalescer<?> coalescer : coalescers.values()) {
+      coalescer.flush(this::dispatchCoalesced);
+    }
+  }
+
+  /**
+   * Dispatches the pending events of a coalescer from its flushing thread, if it is still registered.
+   * Exceptions rethrown by the exception handler are reported to the uncaught exception handler of the thread,
+   * so a failing subscriber neither holds back the other keys nor stops the next flushes.
    *
-   * @return the exception handler that will be called when an exception occurs while invoking a subscriber method.
+   * @param coalescer the coalescer to flush.
+   * @return true if the coalescer is registered with this event bus, false otherwise.
    */
-  public EventExceptionHandler getExceptionHandler() {
-    return exceptionHandler;
+  boolean flushCoalescedEvents(EventCoalescer<?> coalescer) {
+    if (coalescers.get(coalescer.type()) != coalescer) {
+      return false;
+    }
+
+    coalescer.flush(this::dispatchCoalescedSafely);
+    return true;
   }
 
   /**
-   * Subscribes a functional listener for a particular type of event.
+   * Hands a posted event to the coalescer of its type, if there is one.
    *
-   * @param clazz the class of the event to listen for.
-   * @param ignoreCancelled whether the subscriber should ignore cancelled events.
-   * @param priority the priority of the subscriber (higher priority subscribers are called first).
-   * @param consumer the functional handler that will process the event.
-   * @param <E> the type of event.
+   * @param event the posted event.
+   * @return true if the event is held back by a coalescer, false if it should be dispatched now.
    */
-  public <E> void subscribe(Class<E> clazz, boolean ignoreCancelled, int priority, Consumer<E> consumer) {
-    this.sortAdd(new FunctionalSubscriberMethod<>(clazz, consumer, ignoreCancelled, priority));
+  boolean coalesce(Object event) {
+    if (!coalescing) {
+      return false;
+    }
+
+    EventCoalescer<?> coalescer;
+    while ((coalescer = coalescers.get(event.getClass())) != null) {
+      if (coalescer.add(event)) {
+        if (coalescer.isRetired()) {
+          // Replaced while adding, the flush retiring the coalescer may have missed the event.
+          coalescer.flush(this::dispatchCoalesced);
+        }
+        return true;
+      }
+      // Refused by a replaced coalescer, hand the event to its replacement.
+    }
+    return false;
   }
 
   /**
-   * Subscribes a functional listener for a particular type of event.
+   * Dispatches an event released by a coalescer.
    *
-   * @param clazz the class of the event to listen for.
-   * @param consumer the functional handler that will process the event.
-   * @param <E> the type of event.
+   * @param event the coalesced event.
+   */
+  void dispatchCoalesced(Object event) {
+    this.dispatchChain(event, this.getChain(event.getClass()));
+  }
+
+  private void dispatchCoalescedSafely(Object event) {
+    try {
+      this.dispatchCoalesced(event);
+    } catch (RuntimeException e) {
+      // The exception handler rethrew, report it without abandoning the flush.
+      Thread thread = Thread.currentThread();
+      thread.getUncaughtExceptionHandler().uncaughtException(thread, e);
+    }
+  }
+
+  /**
+   * Posts an event to all registered subscribers and keeps it as a sticky event of its type,
+   * so subscribers registered later receive it as soon as they subscribe.
+   * Only the last {@link #getStickyCapacity()} sticky events of each type are kept.
+   *
+   * @param event the event object to post.
    */
-  public <E> void subscribe(Class<E> clazz, Consumer<E> consumer) {
-    this.subscribe(clazz, false, 0, consumer);
+  public void postSticky(Object event) {
+    if (event == null) {
+      throw new NullPointerException("Event cannot be null.");
+    }
+
+    StickyEventBuffer buffer = stickyEvents.get(event.getClass());
+    if (buffer == null) {
+      buffer = stickyEvents.computeIfAbsent(event.getClass(), k -> new StickyEventBuffer(stickyCapacity));
+    }
+
+    buffer.add(event, System.nanoTime());
+    this.post(event);
   }
 
   /**
-   * Subscribes a functional listener for a particular type of event.
+   * Returns the most recent sticky event of the given exact type.
    *
-   * @param clazz the class of the event to listen for.
-   * @param ignoreCancelled whether the subscriber should ignore cancelled events.
-   * @param consumer the functional handler that will process the event.
+   * @param clazz the class of the sticky event.
    * @param <E> the type of event.
+   * @return the most recent sticky event, or null if there is none or it expired.
    */
-  public <E> void subscribe(Class<E> clazz, boolean ignoreCancelled, Consumer<E> consumer) {
-    this.subscribe(clazz, ignoreCancelled, 0, consumer);
+  public <E> E getStickyEvent(Class<E> clazz) {
+    StickyEventBuffer buffer = stickyEvents.get(clazz);
+    return buffer == null ? null : clazz.cast(buffer.latest(System.nanoTime(), stickyMaxAgeNanos));
   }
 
   /**
-   * Subscribes a functional listener for a particular type of event.
+   * Returns the sticky events of the given exact type, from oldest to newest.
    *
-   * @param clazz the class of the event to listen for.
-   * @param priority the priority of the subscriber (higher priority subscribers are called first).
-   * @param consumer the functional handler that will process the event.
+   * @param clazz the class of the sticky events.
    * @param <E> the type of event.
+   * @return the sticky events that did not expire.
    */
-  public <E> void subscribe(Class<E> clazz, int priority, Consumer<E> consumer) {
-    this.subscribe(clazz, false, priority, consumer);
+  public <E> List<E> getStickyEvents(Class<E> clazz) {
+    StickyEventBuffer buffer = stickyEvents.get(clazz);
+    if (buffer == null) {
+      return Collections.emptyList();
+    }
+
+    List<E> events = new ArrayList<>();
+    for (Object event : buffer.events(System.nanoTime(), stickyMaxAgeNanos)) {
+      events.add(clazz.cast(event));
+    }
+    return events;
   }
 
   /**
-   * Subscribes all methods of a given object that are annotated with {@link Subscribe}.
+   * Removes the sticky events of the given exact type.
    *
-   * @param object the subscriber object containing methods annotated with {@link Subscribe}.
-   * @throws NullPointerException if the subscriber object is null.
-   * @throws SubscriberRegistrationException if an error occurs while registering the subscriber methods.
+   * @param clazz the class of the sticky events.
+   * @return true if the type had sticky events, false otherwise.
    */
-  public void subscribe(Object object) {
-    if (object == null) {
-      throw new NullPointerException("Subscriber object cannot be null.");
+  public boolean removeStickyEvents(Class<?> clazz) {
+    return stickyEvents.remove(clazz) != null;
+  }
+
+  /**
+   * Removes every sticky event.
+   */
+  public void clearStickyEvents() {
+    stickyEvents.clear();
+  }
+
+  /**
+   * Delivers the sticky events a new subscriber method would have received to it, oldest first.
+   * With hierarchy dispatch, sticky events of every subtype of the subscribed type are delivered.
+   *
+   * @param method the new subscriber method.
+   */
+  private void replayStickyEvents(SubscriberMethod method) {
+    long now = System.nanoTime();
+    List<Object> events;
+    if (hierarchyDispatch) {
+      events = new ArrayList<>();
+      for (Map.Entry<Class<?>, StickyEventBuffer> entry : stickyEvents.entrySet()) {
+        if (method.eventClass().isAssignableFrom(entry.getKey())) {
+          events.addAll(entry.getValue().events(now, stickyMaxAgeNanos));
+        }
+      }
+    } else {
+      StickyEventBuffer buffer = stickyEvents.get(method.eventClass());
+      if (buffer == null) {
+        return;
+      }
+      events = buffer.events(now, stickyMaxAgeNanos);
+    }
+
+    if (events.isEmpty()) {
+      return;
+    }
+
+    if (method instanceof KeyedSubscriberMethod) {
+      events.removeIf(event -> !((KeyedSubscriberMethod) method).matches(event));
+    }
+    SubscriberMethod unkeyed = method instanceof KeyedSubscriberMethod ? ((KeyedSubscriberMethod) method).delegate() : method;
+    if (unkeyed instanceof GenericSubscriberMethod) {
+      GenericSubscriberMethod generic = (GenericSubscriberMethod) unkeyed;
+      events.removeIf(event -> !generic.matches(event));
+    }
+
+    SubscriberChain chain = new SubscriberChain(new SubscriberMethod[]{method});
+    if (method.async()) {
+      executor.execute(() -> {
+        for (Object event : events) {
+          this.dispatch(event, chain, 0, 1);
+        }
+      });
+      return;
     }
 
+    for (Object event : events) {
+      this.dispatch(event, chain, 0, 1);
+    }
+  }
+
+  /**
+   * Registers a pool of reusable events for {@link #post(Class, Consumer)}, replacing any pool of the same type.
+   *
+   * @param type the exact class of the pooled events.
+   * @param factory creates new events when the pool of the posting thread is empty.
+   * @param reset clears an event once it was dispatched, before it is reused.
+   * @param <E> the type of the pooled events.
+   */
+  public <E> void registerEventPool(Class<E> type, Supplier<? extends E> factory, Consumer<? super E> reset) {
+    if (type == null || factory == null || reset == null) {
+      throw new NullPointerException("Event pool type, factory and reset cannot be null.");
+    }
+    eventPools.put(type, new EventPool<>(type, factory, reset));
+  }
+
+  /**
+   * Posts a reusable event taken from the pool of the calling thread, after letting the filler populate it.
+   * Once every subscriber was invoked the event is reset and returned to the pool, so posting does not allocate
+   * in steady state. Subscribers must therefore not keep a reference to the event after they return.
+   * <p>
+   * Events of a chain with asynchronous subscribers are not returned to the pool, since they are still
+   * in use when this method returns.
+   *
+   * @param type the exact class of the event, with a pool registered through {@link #registerEventPool}.
+   * @param filler populates the event before it is dispatched.
+   * @param <E> the type of event.
+   * @throws IllegalArgumentException if no event pool is registered for the type.
+   */
+  public <E> void post(Class<E> type, Consumer<? super E> filler) {
+    EventPool<E> pool = this.getEventPool(type);
+    boolean checkRetention = pooledEventRetentionCheck;
+    E event = pool.acquire(checkRetention);
+    SubscriberChain chain = this.getChain(event.getClass());
+
     try {
-      this.registerSubscriberMethods(object);
-    } catch (Throwable throwable) {
-      throw new SubscriberRegistrationException("Failed to register subscriber.", throwable);
+      filler.accept(event);
+      this.journal(event);
+      // Select the keyed subscribers first, they decide whether an asynchronous subscriber keeps the event.
+      chain = chain.select(event);
+      this.dispatchChain(event, chain);
+    } finally {
+      if (!chain.hasAsyncSubscribers()) {
+        pool.release(event, checkRetention);
+      }
     }
   }
 
   /**
-   * Adds a subscriber method to the list of subscribers for its event type and sorts them by priority.
+   * Returns the event pool of the given type.
    *
-   * @param method the subscriber method to add.
+   * @param type the exact class of the pooled events.
+   * @param <E> the type of the pooled events.
+   * @return the event pool.
+   * @throws IllegalArgumentException if no event pool is registered for the type.
+   */
+  @SuppressWarnings("unchecked")
+  <E> EventPool<E> getEventPool(Class<E> type) {
+    EventPool<E> pool = (EventPool<E>) eventPools.get(type);
+    if (pool == null) {
+      throw new IllegalArgumentException("No event pool registered for " + type.getName());
+    }
+    return pool;
+  }
+
+  /**
+   * Dispatches an event to a resolved subscriber chain, handing the chain over to the executor
+   * at the first asynchronous subscriber.
+   *
+   * @param event the event object to dispatch.
+   * @param chain the subscriber chain of the event class.
    */
-  private void sortAdd(SubscriberMethod method) {
-    List<SubscriberMethod> subscriberMethods = this.getSubscribersForType(method.eventClass());
-    int index = 0;
-    while (index < subscriberMethods.size() && subscriberMethods.get(index).priority() <= method.priority()) {
-      index++;
+  void dispatchChain(Object event, SubscriberChain chain) {
+    EventBusMetrics metrics = this.metrics;
+    if (metrics != null) {
+      metrics.recordPost(event.getClass());
+    }
+
+    if (chain.selective) {
+      chain = chain.select(event);
+    }
+
+    if (chain.isEmpty()) {
+      this.dispatchDeadEvent(event);
+      return;
+    }
+
+    CompiledDispatcher dispatcher = chain.dispatcher;
+    if (dispatcher != null && metrics == null) {
+      dispatcher.dispatch(event);
+    } else {
+      this.dispatch(event, chain, 0, chain.firstAsync);
     }
 
-    subscriberMethods.add(index, method);
+    if (chain.hasAsyncSubscribers()) {
+      SubscriberChain selected = chain;
+      executor.execute(() -> this.dispatch(event, selected, selected.firstAsync, selected.subscribers.length));
+    }
   }
 
   /**
-   * Counts the number of subscribers for a particular event type.
-   * @return the number of subscribers for the event type.
+   * Dispatches an event nobody subscribed to as a {@link DeadEvent}, if anyone subscribed to dead events.
+   *
+   * @param event the unhandled event.
    */
-  public int getSubscribersCount() {
-    return subscribersMap.size();
+  private void dispatchDeadEvent(Object event) {
+    SubscriberChain chain = deadEventChain;
+    if (!chain.isEmpty() && !(event instanceof DeadEvent)) {
+      this.dispatchChain(new DeadEvent(this, event), chain);
+    }
   }
 
   /**
-   * Posts an event to all registered subscribers for the event's type.
+   * Posts an event to all registered subscribers for the event's type, returning a future that completes
+   * once every subscriber, including the asynchronous ones, has been invoked.
+   * The synchronous prefix of the chain is invoked on the calling thread before this method returns.
    *
    * @param event the event object to post.
+   * @param <E> the type of event.
+   * @return a future completed with the event once every subscriber has been invoked, or exceptionally
+   * if the exception handler of the event bus rethrows an exception from an asynchronous subscriber.
    */
-  public void post(Object event) {
-    List<SubscriberMethod> subscriberMethods = subscribersMap.get(event.getClass());
-    if (subscriberMethods == null || subscriberMethods.isEmpty()) {
+  public <E> CompletableFuture<E> postAsync(E event) {
+    this.journal(event);
+    SubscriberChain chain = this.getChain(event.getClass()).select(event);
+    EventBusMetrics metrics = this.metrics;
+    if (metrics != null) {
+      metrics.recordPost(event.getClass());
+    }
+
+    if (chain.isEmpty()) {
+      this.dispatchDeadEvent(event);
+      return CompletableFuture.completedFuture(event);
+    }
+
+    CompiledDispatcher dispatcher = chain.dispatcher;
+    if (dispatcher != null && metrics == null) {
+      dispatcher.dispatch(event);
+    } else {
+      this.dispatch(event, chain, 0, chain.firstAsync);
+    }
+
+    if (!chain.hasAsyncSubscribers()) {
+      return CompletableFuture.completedFuture(event);
+    }
+
+    CompletableFuture<E> future = new CompletableFuture<>();
+    executor.execute(() -> {
+      try {
+        this.dispatch(event, chain, chain.firstAsync, chain.subscribers.length);
+        future.complete(event);
+      } catch (Throwable throwable) {
+        future.completeExceptionally(throwable);
+      }
+    });
+    return future;
+  }
+
+  /**
+   * Invokes a range of a subscriber chain in order, honoring the cancellation state of the event.
+   *
+   * @param event the event object to dispatch.
+   * @param chain the subscriber chain of the event class.
+   * @param from the index of the first subscriber to invoke, inclusive.
+   * @param to the index of the last subscriber to invoke, exclusive.
+   */
+  private void dispatch(Object event, SubscriberChain chain, int from, int to) {
+    this.dispatch(event, event instanceof CancellableEvent, chain, from, to);
+  }
+
+  /**
+   * Invokes a range of a subscriber chain in order, with the cancellable check of the event already done.
+   * Once the event is cancelled, the loop jumps to the next subscriber receiving cancelled events, and the
+   * cancellation state is no longer read after the subscribers of the read-only monitor band.
+   *
+   * @param event the event object to dispatch.
+   * @param canBeCancelled whether the event is a {@link CancellableEvent}.
+   * @param chain the subscriber chain of the event class.
+   * @param from the index of the first subscriber to invoke, inclusive.
+   * @param to the index of the last subscriber to invoke, exclusive.
+   */
+  private void dispatch(Object event, boolean canBeCancelled, SubscriberChain chain, int from, int to) {
+    EventBusMetrics metrics = this.metrics;
+    if (metrics != null) {
+      this.dispatchInstrumented(metrics, event, canBeCancelled, chain, from, to);
       return;
     }
 
-    boolean canBeCancelled = event instanceof CancellableEvent;
+    SubscriberMethod[] subscriberMethods = chain.subscribers;
+    int[] nextReceivingCancelled = chain.nextReceivingCancelled;
+    int firstMonitor = chain.firstMonitor;
     boolean cancelled = canBeCancelled && ((CancellableEvent) event).isCancelled();
 
-    for (int i = 0, size = subscriberMethods.size(); i < size; i++) {
-      SubscriberMethod subscriberMethod = subscriberMethods.get(i);
-      if (cancelled && subscriberMethod.ignoreCancelled()) {
-        continue;
+    for (int i = cancelled ? nextReceivingCancelled[from] : from; i < to; i = cancelled ? nextReceivingCancelled[i + 1] : i + 1) {
+      SubscriberMethod subscriberMethod = subscriberMethods[i];
+      try {
+        subscriberMethod.invoke(event);
+      } catch (Exception e) {
+        exceptionHandler.handleEventException(subscriberMethod, event, e);
+      }
+
+      if (canBeCancelled && i < firstMonitor) {
+        cancelled = ((CancellableEvent) event).isCancelled();
       }
+    }
+  }
 
+  /**
+   * Same as {@link #dispatch(Object, boolean, SubscriberChain, int, int)}, additionally timing every subscriber
+   * and recording the invocations and cancellations to the metrics.
+   */
+  private void dispatchInstrumented(EventBusMetrics metrics, Object event, boolean canBeCancelled, SubscriberChain chain, int from, int to) {
+    SubscriberMethod[] subscriberMethods = chain.subscribers;
+    int[] nextReceivingCancelled = chain.nextReceivingCancelled;
+    int firstMonitor = chain.firstMonitor;
+    boolean cancelled = canBeCancelled && ((CancellableEvent) event).isCancelled();
+    boolean initiallyCancelled = cancelled;
+
+    for (int i = cancelled ? nextReceivingCancelled[from] : from; i < to; i = cancelled ? nextReceivingCancelled[i + 1] : i + 1) {
+      SubscriberMethod subscriberMethod = subscriberMethods[i];
+      long start = System.nanoTime();
       try {
         subscriberMethod.invoke(event);
+        metrics.recordInvocation(subscriberMethod, event, System.nanoTime() - start, false);
       } catch (Exception e) {
+        metrics.recordInvocation(subscriberMethod, event, System.nanoTime() - start, true);
         exceptionHandler.handleEventException(subscriberMethod, event, e);
       }
 
-      if (canBeCancelled) {
+      if (canBeCancelled && i < firstMonitor) {
         cancelled = ((CancellableEvent) event).isCancelled();
       }
     }
+
+    if (cancelled && !initiallyCancelled) {
+      metrics.recordCancellation(event.getClass());
+    }
+  }
+
+  /**
+   * Returns the subscriber chain of the given concrete event class, resolving it on a dispatch cache miss.
+   *
+   * @param eventClass the concrete class of the posted event.
+   * @return the subscriber chain for the event class.
+   */
+  SubscriberChain getChain(Class<?> eventClass) {
+    if (weakSubscribers) {
+      this.purgeCollectedListeners();
+    }
+    if (staging != null) {
+      this.publishStagedSubscribers();
+    }
+
+    SubscriberChain chain = dispatchCache.get(eventClass);
+    return chain != null ? chain : this.resolveChain(eventClass);
+  }
+
+  /**
+   * Resolves and caches the subscriber chain that receives events of the given concrete class.
+   * With hierarchy dispatch, the subscribers of every supertype are merged into a single array sorted by priority.
+   *
+   * @param eventClass the concrete class of the posted event.
+   * @return the subscriber chain for the event class.
+   */
+  private SubscriberChain resolveChain(Class<?> eventClass) {
+    synchronized (registrationLock) {
+      SubscriberChain chain = dispatchCache.get(eventClass);
+      if (chain != null) {
+        return chain;
+      }
+
+      SubscriberMethod[] subscriberMethods;
+
+      if (!hierarchyDispatch) {
+        SubscriberStore store = subscribersMap.get(eventClass);
+        subscriberMethods = store == null ? SubscriberStore.EMPTY : store.snapshot();
+      } else {
+        List<SubscriberMethod> merged = new ArrayList<>();
+        for (Class<?> type : collectTypes(eventClass)) {
+          SubscriberStore store = subscribersMap.get(type);
+          if (store != null) {
+            merged.addAll(Arrays.asList(store.snapshot()));
+          }
+        }
+
+        // The sort is stable, subscribers with the same priority keep the order of the most specific type first.
+        merged.sort(PRIORITY_ORDER);
+        subscriberMethods = merged.toArray(SubscriberStore.EMPTY);
+      }
+
+      chain = SubscriberChain.of(subscriberMethods);
+      if (compiledDispatch && !chain.selective && chain.firstAsync > 0) {
+        chain.dispatcher = CompiledDispatcher.compile(this, eventClass, chain.subscribers, chain.firstAsync);
+      }
+      dispatchCache.put(eventClass, chain);
+      return chain;
+    }
+  }
+
+  /**
+   * Evicts every dispatch cache entry whose subscribers may include those of the given event type.
+   * Must be called while holding the registration lock.
+   *
+   * @param type the event type whose subscribers changed.
+   */
+  private void invalidateDispatchCache(Class<?> type) {
+    if (!hierarchyDispatch) {
+      dispatchCache.remove(type);
+    } else {
+      dispatchCache.keySet().removeIf(type::isAssignableFrom);
+    }
+
+    // Types without subscribers stay cached with an empty chain, so only the dead event chain needs refreshing here.
+    if (type == DeadEvent.class || (hierarchyDispatch && type.isAssignableFrom(DeadEvent.class))) {
+      deadEventChain = this.resolveChain(DeadEvent.class);
+    }
+  }
+
+  /**
+   * Collects the given class, its superclasses and all the interfaces they implement, most specific first.
+   *
+   * @param clazz the class to collect the types of.
+   * @return the types of the given class.
+   */
+  private static Set<Class<?>> collectTypes(Class<?> clazz) {
+    Set<Class<?>> types = new LinkedHashSet<>();
+    for (Class<?> current = clazz; current != null; current = current.getSuperclass()) {
+      types.add(current);
+    }
+
+    Deque<Class<?>> pending = new ArrayDeque<>(types);
+    while (!pending.isEmpty()) {
+      for (Class<?> anInterface : pending.poll().getInterfaces()) {
+        if (types.add(anInterface)) {
+          pending.add(anInterface);
+        }
+      }
+    }
+
+    return types;
   }
 
   /**
-   * Retrieves the list of subscriber methods for a specific event type, creating it if necessary.
+   * Retrieves the store of subscriber methods for a specific event type, creating it if necessary.
    *
    * @param clazz the class of the event type.
-   * @return the list of subscriber methods for the event type.
+   * @return the store of subscriber methods for the event type.
    */
-  private List<SubscriberMethod> getSubscribersForType(Class<?> clazz) {
-    return subscribersMap.computeIfAbsent(clazz, k -> new CopyOnWriteArrayList<>());
+  private SubscriberStore getSubscribersForType(Class<?> clazz) {
+    return subscribersMap.computeIfAbsent(clazz, k -> new SubscriberStore());
   }
 
   /**
    * Wraps all methods of a subscriber object that are annotated with {@link Subscribe}.
+   * Uses the registrar generated at compile time for the subscriber class when there is one,
+   * falling back to the cached {@link SubscriberMetadata} of the class otherwise.
    *
    * @param subscriber the object containing methods annotated with {@link Subscribe}.
+   * @param registration the registration of the subscriber object.
+   * @param subscriberMethods the list the created subscriber methods are added to.
    */
-  private void registerSubscriberMethods(Object subscriber) {
-    Method[] methods = subscriber.getClass().getDeclaredMethods();
-    for (Method method : methods) {
-      Subscribe annotation = method.getAnnotation(Subscribe.class);
-      if (annotation == null) {
-        continue;
+  private void collectSubscriberMethods(Object subscriber, ListenerRegistration registration, List<SubscriberMethod> subscriberMethods) {
+    SubscriberRegistrar registrar = SubscriberRegistrars.find(subscriber.getClass());
+    if (registrar != null) {
+      for (SubscriberDescriptor descriptor : registrar.subscribers()) {
+        subscriberMethods.add(registration.isWeak() ? descriptor.bindWeak(registration) : descriptor.bind(subscriber));
       }
+      return;
+    }
 
-      if (method.getParameterCount() != 1) {
-        throw new IllegalArgumentException("Method " + method.getName() + " must have exactly one parameter.");
+    for (SubscriberMetadata metadata : SubscriberMetadata.forClass(subscriber.getClass())) {
+      SubscriberMethod subscriberMethod = this.createSubscriberMethod(metadata.eventClass, subscriber, registration, metadata.method, metadata.ignoreCancelled, metadata.priority);
+      if (metadata.async) {
+        subscriberMethod = new AsyncSubscriberMethod(subscriberMethod);
       }
-
-      Class<?> eventClazz = method.getParameterTypes()[0];
-      this.addReflectiveMethod(eventClazz, subscriber, method, annotation.ignoreCancelled(), annotation.priority());
+      if (metadata.batch) {
+        subscriberMethod = new BatchSubscriberMethod(metadata.eventClass, subscriberMethod);
+      }
+      subscriberMethod = GenericSubscriberMethod.forType(subscriberMethod, metadata.eventType);
+      subscriberMethods.add(metadata.keyed ? KeyedSubscriberMethod.forListener(subscriberMethod, subscriber) : subscriberMethod);
     }
   }
 
   /**
-   * Adds a reflective subscriber method for a given event type.
+   * Creates a subscriber method for a given event type using the configured subscriber method factory.
    *
    * @param clazz the class of the event type.
    * @param object the subscriber object containing the method.
+   * @param registration the registration of the subscriber object, weakly referenced by weak subscriber methods.
    * @param method the method to be invoked when an event of the specified type is posted.
    * @param ignoreCancelled whether the subscriber should ignore cancelled events.
    * @param priority the priority of the subscriber (higher priority subscribers are called first).
+   * @return the created subscriber method.
    */
-  private void addReflectiveMethod(Class<?> clazz, Object object, Method method, boolean ignoreCancelled, int priority) {
+  private SubscriberMethod createSubscriberMethod(Class<?> clazz, Object object, ListenerRegistration registration, Method method, boolean ignoreCancelled, int priority) {
     try {
-      this.sortAdd(new ReflectiveSubscriberMethod(clazz, object, method, ignoreCancelled, priority));
+      if (registration.isWeak()) {
+        return subscriberMethodFactory.createWeak(clazz, registration, method, ignoreCancelled, priority);
+      }
+      return subscriberMethodFactory.create(clazz, object, method, ignoreCancelled, priority);
     } catch (Throwable throwable) {
       throw new IllegalArgumentException("Failed to create subscriber method.", throwable);
     }
   }
+
+  /**
+   * The events posted by a thread while it was dispatching in {@link DispatchPolicy#QUEUED} mode.
+   */
+  private static final class PostQueue {
+
+    private final ArrayDeque<Object> events = new ArrayDeque<>();
+    private boolean dispatching;
+  }
 }
@@ -1,6 +1,26 @@
 package io.github.mtbarr.kairo;
 
 import io.github.mtbarr.kairo.exception.EventExceptionHandler;
+import io.github.mtbarr.kairo.journal.EventJournal;
+import io.github.mtbarr.kairo.metrics.EventBusMetrics;
+import io.github.mtbarr.kairo.queue.BackpressurePolicy;
+import io.github.mtbarr.kairo.queue.WaitStrategy;
+import io.github.mtbarr.kairo.subscriber.SubscriberMethodFactory;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.BinaryOperator;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
 
 
 /**
@@ -10,6 +30,29 @@ import io.github.mtbarr.kairo.exception.EventExceptionHandler;
 public class EventBusBuilder {
 
   private EventExceptionHandler exceptionHandler = EventBus.DEFAULT_EXCEPTION_HANDLER;
+  private SubscriberMethodFactory subscriberMethodFactory = SubscriberMethodFactory.reflective();
+  private boolean hierarchyDispatch;
+  private boolean weakSubscribers;
+  private Executor executor = ForkJoinPool.commonPool();
+  private EventBusMetrics metrics;
+  private final List<Consumer<EventBus>> eventPools = new ArrayList<>();
+  private Boolean pooledEventRetentionCheck;
+  private int stickyCapacity = 1;
+  private Duration stickyMaxAge;
+  private final List<Consumer<EventBus>> coalescings = new ArrayList<>();
+  private boolean stagedRegistration;
+  private boolean compiledDispatch;
+  private DispatchPolicy dispatchPolicy = DispatchPolicy.IMMEDIATE;
+  private Duration stagedRegistrationInterval;
+  private EventJournal journal;
+  private int circuitBreakerThreshold;
+  private Duration circuitBreakerCooldown;
+  private int queueCapacity = 8192;
+  private int batchSize = 256;
+  private WaitStrategy waitStrategy = WaitStrategy.park(50_000);
+  private BackpressurePolicy backpressurePolicy = BackpressurePolicy.BLOCK;
+  private int partitionCount = Runtime.getRuntime().availableProcessors();
+  private final List<Consumer<PartitionedEventBus>> partitionKeys = new ArrayList<>();
 
   /**
    * Builds and returns a new instance of EventBus with the specified configurations.
@@ -17,8 +60,58 @@ public class EventBusBuilder {
    * @return a configured EventBus instance.
    */
   public EventBus build() {
-    EventBus eventBus = new EventBus();
+    return configure(new EventBus());
+  }
+
+  /**
+   * Builds and returns a new instance of QueuedEventBus with the specified configurations,
+   * starting its dispatcher thread.
+   *
+   * @return a configured QueuedEventBus instance.
+   */
+  public QueuedEventBus buildQueued() {
+    return configure(new QueuedEventBus(queueCapacity, batchSize, waitStrategy, backpressurePolicy));
+  }
+
+  /**
+   * Builds and returns a new instance of PartitionedEventBus with the specified configurations,
+   * starting its worker threads. The queue capacity, batch size, wait strategy and backpressure policy
+   * apply to every partition.
+   *
+   * @return a configured PartitionedEventBus instance.
+   */
+  public PartitionedEventBus buildPartitioned() {
+    PartitionedEventBus eventBus = configure(new PartitionedEventBus(partitionCount, queueCapacity, batchSize, waitStrategy, backpressurePolicy));
+    for (Consumer<PartitionedEventBus> partitionKey : partitionKeys) {
+      partitionKey.accept(eventBus);
+    }
+    return eventBus;
+  }
+
+  private <T extends EventBus> T configure(T eventBus) {
     eventBus.setExceptionHandler(exceptionHandler);
+    eventBus.setSubscriberMethodFactory(subscriberMethodFactory);
+    eventBus.setHierarchyDispatch(hierarchyDispatch);
+    eventBus.setWeakSubscribers(weakSubscribers);
+    eventBus.setCompiledDispatch(compiledDispatch);
+    eventBus.setDispatchPolicy(dispatchPolicy);
+    eventBus.setCircuitBreaker(circuitBreakerThreshold, circuitBreakerCooldown);
+    eventBus.setJournal(journal);
+    eventBus.setExecutor(executor);
+    eventBus.setMetrics(metrics);
+    eventBus.setStickyCapacity(stickyCapacity);
+    eventBus.setStickyMaxAge(stickyMaxAge);
+    eventBus.setStagedRegistrationInterval(stagedRegistrationInterval);
+    eventBus.setStagedRegistration(stagedRegistration);
+    if (pooledEventRetentionCheck != null) {
+      eventBus.setPooledEventRetentionCheck(pooledEventRetentionCheck);
+    }
+    for (Consumer<EventBus> eventPool : eventPools) {
+      eventPool.accept(eventBus);
+    }
+    for (Consumer<EventBus> coalescing : coalescings) {
+      coalescing.accept(eventBus);
+    }
     return eventBus;
   }
 
@@ -36,6 +129,401 @@ public class EventBusBuilder {
     return this;
   }
 
+  /**
+   * Sets the factory used to create subscriber methods for methods annotated with
+   * {@link io.github.mtbarr.kairo.annotation.Subscribe}.
+   *
+   * @param subscriberMethodFactory the subscriber method factory to set.
+   * @return the builder instance for method chaining.
+   * @see SubscriberMethodFactory#generated()
+   */
+  public EventBusBuilder withSubscriberMethodFactory(SubscriberMethodFactory subscriberMethodFactory) {
+    if (subscriberMethodFactory == null) {
+      throw new IllegalArgumentException("SubscriberMethodFactory cannot be null");
+    }
+    this.subscriberMethodFactory = subscriberMethodFactory;
+    return this;
+  }
+
+  /**
+   * Sets whether events are also dispatched to subscribers of their superclasses and interfaces,
+   * for example to subscribers of {@link io.github.mtbarr.kairo.cancellable.CancellableEvent}.
+   *
+   * @param hierarchyDispatch true to enable hierarchy dispatch.
+   * @return the builder instance for method chaining.
+   */
+  public EventBusBuilder withHierarchyDispatch(boolean hierarchyDispatch) {
+    this.hierarchyDispatch = hierarchyDispatch;
+    return this;
+  }
+
+  /**
+   * Sets whether listener objects subscribed with {@link EventBus#subscribe(Object)} are only weakly referenced,
+   * so they are unsubscribed automatically once they are no longer reachable.
+   *
+   * @param weakSubscribers true to weakly reference subscribed listener objects.
+   * @return the builder instance for method chaining.
+   */
+  public EventBusBuilder withWeakSubscribers(boolean weakSubscribers) {
+    this.weakSubscribers = weakSubscribers;
+    return this;
+  }
+
+  /**
+   * Sets whether the subscribers of each event class are compiled into a single dispatcher instead of being
+   * looped over on every post.
+   *
+   * @param compiledDispatch true to compile subscriber chains.
+   * @return the builder instance for method chaining.
+   * @see EventBus#setCompiledDispatch(boolean)
+   */
+  public EventBusBuilder withCompiledDispatch(boolean compiledDispatch) {
+    this.compiledDispatch = compiledDispatch;
+    return this;
+  }
+
+  /**
+   * Sets how events posted from within a subscriber are dispatched.
+   *
+   * @param dispatchPolicy the dispatch policy of nested posts.
+   * @return the builder instance for method chaining.
+   * @see EventBus#setDispatchPolicy(DispatchPolicy)
+   */
+  public EventBusBuilder withDispatchPolicy(DispatchPolicy dispatchPolicy) {
+    if (dispatchPolicy == null) {
+      throw new IllegalArgumentException("DispatchPolicy cannot be null");
+    }
+    this.dispatchPolicy = dispatchPolicy;
+    return this;
+  }
+
+  /**
+   * Sets an exception handler logging at most the given number of subscriber failures per interval to the
+   * {@code io.github.mtbarr.kairo.EventBus} logger, instead of rethrowing them.
+   *
+   * @param maxLogsPerInterval the maximum number of failures logged per interval.
+   * @param interval the interval the number of logged failures is limited over.
+   * @return the builder instance for method chaining.
+   * @see EventExceptionHandler#rateLimited(System.Logger, int, Duration)
+   */
+  public EventBusBuilder withRateLimitedExceptionLogging(int maxLogsPerInterval, Duration interval) {
+    if (maxLogsPerInterval < 1) {
+      throw new IllegalArgumentException("Max logs per interval must be positive");
+    }
+    if (interval == null || interval.isNegative() || interval.isZero()) {
+      throw new IllegalArgumentException("Interval must be positive");
+    }
+    this.exceptionHandler = EventExceptionHandler.rateLimited(System.getLogger(EventBus.class.getName()), maxLogsPerInterval, interval);
+    return this;
+  }
+
+  /**
+   * Sets the journal the events of its registered types are appended to when posted.
+   *
+   * @param journal the event journal.
+   * @return the builder instance for method chaining.
+   * @see EventBus#setJournal(EventJournal)
+   */
+  public EventBusBuilder withJournal(EventJournal journal) {
+    if (journal == null) {
+      throw new IllegalArgumentException("Journal cannot be null");
+    }
+    this.journal = journal;
+    return this;
+  }
+
+  /**
+   * Sets the circuit breaker of every subscriber, disabling a subscriber for the cooldown after the given number
+   * of consecutive failures.
+   *
+   * @param failureThreshold the number of consecutive failures disabling a subscriber.
+   * @param cooldown the time disabled subscribers stay disabled for.
+   * @return the builder instance for method chaining.
+   * @see EventBus#setCircuitBreaker(int, Duration)
+   */
+  public EventBusBuilder withCircuitBreaker(int failureThreshold, Duration cooldown) {
+    if (failureThreshold < 1) {
+      throw new IllegalArgumentException("Failure threshold must be positive");
+    }
+    if (cooldown == null || cooldown.isNegative() || cooldown.isZero()) {
+      throw new IllegalArgumentException("Cooldown must be positive");
+    }
+    this.circuitBreakerThreshold = failureThreshold;
+    this.circuitBreakerCooldown = cooldown;
+    return this;
+  }
+
+  /**
+   * Sets whether subscriptions are staged per registering thread and published in batches,
+   * instead of copying the subscribers of their event type on every call.
+   *
+   * @param stagedRegistration true to stage subscriptions.
+   * @return the builder instance for method chaining.
+   * @see EventBus#setStagedRegistration(boolean)
+   */
+  public EventBusBuilder withStagedRegistration(boolean stagedRegistration) {
+    this.stagedRegistration = stagedRegistration;
+    return this;
+  }
+
+  /**
+   * Sets the interval staged subscriptions are published at, in addition to the next post publishing them.
+   *
+   * @param stagedRegistrationInterval the publication interval.
+   * @return the builder instance for method chaining.
+   */
+  public EventBusBuilder withStagedRegistrationInterval(Duration stagedRegistrationInterval) {
+    if (stagedRegistrationInterval == null || stagedRegistrationInterval.isNegative() || stagedRegistrationInterval.isZero()) {
+      throw new IllegalArgumentException("Staged registration interval must be positive");
+    }
+    this.stagedRegistrationInterval = stagedRegistrationInterval;
+    return this;
+  }
+
+  /**
+   * Records dispatch metrics of the event bus to the given metrics.
+   * Without metrics, subscribers are not timed and dispatching records nothing.
+   *
+   * @param metrics the metrics to record to.
+   * @return the builder instance for method chaining.
+   */
+  public EventBusBuilder withMetrics(EventBusMetrics metrics) {
+    if (metrics == null) {
+      throw new IllegalArgumentException("Metrics cannot be null");
+    }
+    this.metrics = metrics;
+    return this;
+  }
+
+  /**
+   * Registers a pool of reusable events, posted with {@link EventBus#post(Class, java.util.function.Consumer)}.
+   *
+   * @param type the exact class of the pooled events.
+   * @param factory creates new events when the pool of the posting thread is empty.
+   * @param reset clears an event once it was dispatched, before it is reused.
+   * @param <E> the type of the pooled events.
+   * @return the builder instance for method chaining.
+   */
+  public <E> EventBusBuilder withEventPool(Class<E> type, Supplier<? extends E> factory, Consumer<? super E> reset) {
+    if (type == null || factory == null || reset == null) {
+      throw new IllegalArgumentException("Event pool type, factory and reset cannot be null");
+    }
+    this.eventPools.add(eventBus -> eventBus.registerEventPool(type, factory, reset));
+    return this;
+  }
+
+  /**
+   * Sets whether pooled events are tracked instead of reused, to detect subscribers retaining them.
+   * Defaults to whether assertions are enabled.
+   *
+   * @param pooledEventRetentionCheck true to check that subscribers do not retain pooled events.
+   * @return the builder instance for method chaining.
+   */
+  public EventBusBuilder withPooledEventRetentionCheck(boolean pooledEventRetentionCheck) {
+    this.pooledEventRetentionCheck = pooledEventRetentionCheck;
+    return this;
+  }
+
+  /**
+   * Sets the number of sticky events kept per event type and replayed to new subscribers. Defaults to 1, the latest one.
+   *
+   * @param stickyCapacity the number of sticky events kept per event type.
+   * @return the builder instance for method chaining.
+   */
+  public EventBusBuilder withStickyCapacity(int stickyCapacity) {
+    if (stickyCapacity < 1) {
+      throw new IllegalArgumentException("Sticky capacity must be positive");
+    }
+    this.stickyCapacity = stickyCapacity;
+    return this;
+  }
+
+  /**
+   * Sets the age after which sticky events are no longer replayed to new subscribers.
+   * By default, sticky events are replayed until newer ones evict them.
+   *
+   * @param stickyMaxAge the maximum age of replayed sticky events.
+   * @return the builder instance for method chaining.
+   */
+  public EventBusBuilder withStickyMaxAge(Duration stickyMaxAge) {
+    if (stickyMaxAge == null || stickyMaxAge.isNegative() || stickyMaxAge.isZero()) {
+      throw new IllegalArgumentException("Sticky max age must be positive");
+    }
+    this.stickyMaxAge = stickyMaxAge;
+    return this;
+  }
+
+  /**
+   * Coalesces the events of a type, keeping only the latest event posted for each key between two flushes.
+   *
+   * @param type the exact class of the coalesced events.
+   * @param keyFunction returns the key events are merged by.
+   * @param window the interval between automatic flushes, or null to only flush with {@link EventBus#flushCoalescedEvents()}.
+   * @param <E> the type of the coalesced events.
+   * @return the builder instance for method chaining.
+   * @see EventBus#registerCoalescing(Class, Function, BinaryOperator, Duration)
+   */
+  public <E> EventBusBuilder withCoalescing(Class<E> type, Function<? super E, ?> keyFunction, Duration window) {
+    return this.withCoalescing(type, keyFunction, (pending, latest) -> latest, window);
+  }
+
+  /**
+   * Coalesces the events of a type, merging the events posted for each key between two flushes.
+   *
+   * @param type the exact class of the coalesced events.
+   * @param keyFunction returns the key events are merged by.
+   * @param merge merges the pending event of a key with a newly posted one.
+   * @param window the interval between automatic flushes, or null to only flush with {@link EventBus#flushCoalescedEvents()}.
+   * @param <E> the type of the coalesced events.
+   * @return the builder instance for method chaining.
+   * @see EventBus#registerCoalescing(Class, Function, BinaryOperator, Duration)
+   */
+  public <E> EventBusBuilder withCoalescing(Class<E> type, Function<? super E, ?> keyFunction, BinaryOperator<E> merge, Duration window) {
+    if (type == null || keyFunction == null || merge == null) {
+      throw new IllegalArgumentException("Coalescing type, key function and merge function cannot be null");
+    }
+    if (window != null && (window.isNegative() || window.isZero())) {
+      throw new IllegalArgumentException("Coalescing window must be positive");
+    }
+    this.coalescings.add(eventBus -> eventBus.registerCoalescing(type, keyFunction, merge, window));
+    return this;
+  }
+
+  /**
+   * Sets the executor that invokes asynchronous subscribers, and every subscriber after them in the chain.
+   * Defaults to the common fork join pool.
+   *
+   * @param executor the executor to set.
+   * @return the builder instance for method chaining.
+   */
+  public EventBusBuilder withExecutor(Executor executor) {
+    if (executor == null) {
+      throw new IllegalArgumentException("Executor cannot be null");
+    }
+    this.executor = executor;
+    return this;
+  }
+
+  /**
+   * Invokes asynchronous subscribers on a new virtual thread per posted event.
+   * Requires a Java runtime with virtual threads (Java 21 or newer).
+   *
+   * @return the builder instance for method chaining.
+   * @throws UnsupportedOperationException if the runtime does not support virtual threads.
+   */
+  public EventBusBuilder withVirtualThreadExecutor() {
+    return this.withExecutor(newVirtualThreadPerTaskExecutor());
+  }
+
+  /**
+   * Creates a virtual thread per task executor without linking against Java 21 APIs,
+   * so the library keeps running on older runtimes.
+   */
+  private static ExecutorService newVirtualThreadPerTaskExecutor() {
+    MethodHandle factory;
+    try {
+      factory = MethodHandles.publicLookup().findStatic(Executors.class, "newVirtualThreadPerTaskExecutor", MethodType.methodType(ExecutorService.class));
+    } catch (NoSuchMethodException | IllegalAccessException e) {
+      throw new UnsupportedOperationException("Virtual threads are not supported by this Java runtime", e);
+    }
+
+    try {
+      return (ExecutorService) factory.invokeExact();
+    } catch (Throwable throwable) {
+      throw new UnsupportedOperationException("Failed to create a virtual thread executor", throwable);
+    }
+  }
+
+  /**
+   * Sets the minimum capacity of the queue of a {@link QueuedEventBus}, rounded up to the next power of two.
+   *
+   * @param queueCapacity the queue capacity to set.
+   * @return the builder instance for method chaining.
+   */
+  public EventBusBuilder withQueueCapacity(int queueCapacity) {
+    if (queueCapacity < 1) {
+      throw new IllegalArgumentException("Queue capacity must be positive");
+    }
+    this.queueCapacity = queueCapacity;
+    return this;
+  }
+
+  /**
+   * Sets the maximum number of events the dispatcher of a {@link QueuedEventBus} drains at once.
+   *
+   * @param batchSize the batch size to set.
+   * @return the builder instance for method chaining.
+   */
+  public EventBusBuilder withBatchSize(int batchSize) {
+    if (batchSize < 1) {
+      throw new IllegalArgumentException("Batch size must be positive");
+    }
+    this.batchSize = batchSize;
+    return this;
+  }
+
+  /**
+   * Sets how the dispatcher of a {@link QueuedEventBus} waits for events, and how producers
+   * wait for room with {@link BackpressurePolicy#BLOCK}.
+   *
+   * @param waitStrategy the wait strategy to set.
+   * @return the builder instance for method chaining.
+   */
+  public EventBusBuilder withWaitStrategy(WaitStrategy waitStrategy) {
+    if (waitStrategy == null) {
+      throw new IllegalArgumentException("WaitStrategy cannot be null");
+    }
+    this.waitStrategy = waitStrategy;
+    return this;
+  }
+
+  /**
+   * Sets what happens to events posted while the queue of a {@link QueuedEventBus} is full.
+   *
+   * @param backpressurePolicy the backpressure policy to set.
+   * @return the builder instance for method chaining.
+   */
+  public EventBusBuilder withBackpressurePolicy(BackpressurePolicy backpressurePolicy) {
+    if (backpressurePolicy == null) {
+      throw new IllegalArgumentException("BackpressurePolicy cannot be null");
+    }
+    this.backpressurePolicy = backpressurePolicy;
+    return this;
+  }
+
+  /**
+   * Sets the number of partitions of a {@link PartitionedEventBus}, each dispatched by its own worker thread.
+   * Defaults to the number of available processors.
+   *
+   * @param partitionCount the partition count to set.
+   * @return the builder instance for method chaining.
+   */
+  public EventBusBuilder withPartitionCount(int partitionCount) {
+    if (partitionCount < 1) {
+      throw new IllegalArgumentException("Partition count must be positive");
+    }
+    this.partitionCount = partitionCount;
+    return this;
+  }
+
+  /**
+   * Sets the function extracting the partition key of the events of a type dispatched by a {@link PartitionedEventBus}.
+   * Events with equal keys are dispatched in the order they were posted.
+   *
+   * @param type the exact class of the events.
+   * @param keyFunction returns the partition key of an event.
+   * @param <E> the type of the events.
+   * @return the builder instance for method chaining.
+   * @see PartitionedEventBus#registerPartitionKey(Class, Function)
+   */
+  public <E> EventBusBuilder withPartitionKey(Class<E> type, Function<? super E, ?> keyFunction) {
+    if (type == null || keyFunction == null) {
+      throw new IllegalArgumentException("Event type and key function cannot be null");
+    }
+    this.partitionKeys.add(eventBus -> eventBus.registerPartitionKey(type, keyFunction));
+    return this;
+  }
+
   /**
    * Returns a new instance of the EventBusBuilder.
    *
@@ -44,4 +532,4 @@ public class EventBusBuilder {
   public static EventBusBuilder create() {
     return new EventBusBuilder();
   }
-}
\ No newline at end of file
+}
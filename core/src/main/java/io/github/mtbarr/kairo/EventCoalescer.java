@@ -0,0 +1,155 @@
+package io.github.mtbarr.kairo;
+
+import java.lang.ref.WeakReference;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BinaryOperator;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Holds back the events of a single type posted between two flushes, merging the ones that share a key,
+ * so subscribers receive at most one event per key per flush.
+ *
+ * @param <E> the type of the coalesced events.
+ * @author Matheus Barreto <a href="https://github.com/mtbarr">mtbarr</a>
+ */
+final class EventCoalescer<E> {
+
+  private final Class<E> type;
+  private final Function<? super E, ?> keyFunction;
+  private final BinaryOperator<E> merge;
+  private final Duration window;
+  private final Map<Object, E> pending = new ConcurrentHashMap<>();
+
+  /**
+   * Whether another coalescer replaced this one, so it refuses new events.
+   */
+  private volatile boolean retired;
+
+  EventCoalescer(Class<E> type, Function<? super E, ?> keyFunction, BinaryOperator<E> merge, Duration window) {
+    this.type = type;
+    this.keyFunction = keyFunction;
+    this.merge = merge;
+    this.window = window;
+  }
+
+  Class<E> type() {
+    return type;
+  }
+
+  /**
+   * Adds a posted event, merging it with the pending event of the same key.
+   * An event added while the coalescer is being retired may be missed by its last flush, so the caller must
+   * flush it again when it turns out to be {@link #isRetired() retired} after adding.
+   *
+   * @param event the posted event, an instance of the coalesced type.
+   * @return true if the event was added, false if the coalescer is retired and refused it.
+   */
+  boolean add(Object event) {
+    if (retired) {
+      return false;
+    }
+
+    E typedEvent = type.cast(event);
+    Object key = keyFunction.apply(typedEvent);
+    if (key == null) {
+      throw new NullPointerException("Coalescing key of " + type.getName() + " cannot be null.");
+    }
+
+    pending.merge(key, typedEvent, merge);
+    return true;
+  }
+
+  /**
+   * Retires the coalescer once another one replaced it, so it refuses the next events.
+   */
+  void retire() {
+    retired = true;
+  }
+
+  boolean isRetired() {
+    return retired;
+  }
+
+  /**
+   * Removes the pending events and hands them to the publisher. Every pending event is published once,
+   * even if several threads flush concurrently.
+   *
+   * @param publisher dispatches the pending events.
+   */
+  void flush(Consumer<Object> publisher) {
+    for (Object key : pending.keySet()) {
+      E event = pending.remove(key);
+      if (event != null) {
+        publisher.accept(event);
+      }
+    }
+  }
+
+  /**
+   * Flushes the coalescer of the event bus every window, until the event bus is collected or the coalescer replaced.
+   * Does nothing if the coalescer has no window, and is only flushed on {@link EventBus#flushCoalescedEvents()}.
+   *
+   * @param eventBus the event bus the coalescer is registered with.
+   */
+  void schedule(EventBus eventBus) {
+    if (window == null) {
+      return;
+    }
+
+    FlushTask task = new FlushTask(eventBus, this);
+    long period = window.toNanos();
+    task.future = FlushScheduler.SCHEDULER.scheduleAtFixedRate(task, period, period, TimeUnit.NANOSECONDS);
+  }
+
+  private static final class FlushTask implements Runnable {
+
+    private final WeakReference<EventBus> eventBus;
+    private final EventCoalescer<?> coalescer;
+    private volatile ScheduledFuture<?> future;
+
+    private FlushTask(EventBus eventBus, EventCoalescer<?> coalescer) {
+      this.eventBus = new WeakReference<>(eventBus);
+      this.coalescer = coalescer;
+    }
+
+    @Override
+    public void run() {
+      EventBus bus = eventBus.get();
+      boolean registered;
+      try {
+        registered = bus != null && bus.flushCoalescedEvents(coalescer);
+      } catch (RuntimeException e) {
+        // A task throwing would silently cancel every next flush, report the failure and keep the schedule.
+        Thread thread = Thread.currentThread();
+        thread.getUncaughtExceptionHandler().uncaughtException(thread, e);
+        return;
+      }
+
+      if (!registered) {
+        ScheduledFuture<?> scheduled = future;
+        if (scheduled != null) {
+          scheduled.cancel(false);
+        }
+      }
+    }
+  }
+
+  /**
+   * Holds the daemon thread flushing coalescers with a window, started on first use.
+   */
+  private static final class FlushScheduler {
+
+    private static final ScheduledExecutorService SCHEDULER = Executors.newSingleThreadScheduledExecutor(runnable -> {
+      Thread thread = new Thread(runnable, "kairo-coalescing-flusher");
+      thread.setDaemon(true);
+      return thread;
+    });
+  }
+}
@@ -0,0 +1,140 @@
+package io.github.mtbarr.kairo;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.ref.WeakReference;
+import java.util.ArrayDeque;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Per-thread pool of reusable event instances of a single type, used by {@link EventBus#post(Class, Consumer)}.
+ * Every thread keeps its own free list, so acquiring and releasing an event neither locks nor allocates
+ * once the pool is warm. Nested posts of the same type take another instance from the free list.
+ * <p>
+ * With the retention check enabled, released events are not reused but tracked through weak references,
+ * and acquiring an event fails once a released event survived a garbage collection, meaning a subscriber kept it.
+ *
+ * @param <E> the type of the pooled events.
+ * @author Matheus Barreto <a href="https://github.com/mtbarr">mtbarr</a>
+ */
+final class EventPool<E> {
+
+  /**
+   * The maximum number of free events kept per thread.
+   */
+  private static final int MAX_FREE = 16;
+
+  /**
+   * The maximum number of released events tracked by the retention check.
+   */
+  private static final int MAX_TRACKED = 1024;
+
+  private static final List<GarbageCollectorMXBean> COLLECTORS = ManagementFactory.getGarbageCollectorMXBeans();
+
+  private final Class<E> type;
+  private final Supplier<? extends E> factory;
+  private final Consumer<? super E> reset;
+  private final ThreadLocal<ArrayDeque<E>> free = ThreadLocal.withInitial(ArrayDeque::new);
+  private final ArrayDeque<ReleasedEvent> released = new ArrayDeque<>();
+
+  EventPool(Class<E> type, Supplier<? extends E> factory, Consumer<? super E> reset) {
+    this.type = type;
+    this.factory = factory;
+    this.reset = reset;
+  }
+
+  /**
+   * Returns a free event of the calling thread, creating one if there is none.
+   *
+   * @param checkRetention whether to verify that released events were not retained.
+   * @return the event to fill and post.
+   * @throws IllegalStateException if the retention check found a retained event.
+   */
+  E acquire(boolean checkRetention) {
+    if (checkRetention) {
+      this.checkRetention();
+      return this.create();
+    }
+
+    E event = free.get().pollFirst();
+    return event != null ? event : this.create();
+  }
+
+  /**
+   * Resets an event and returns it to the free list of the calling thread.
+   *
+   * @param event the event to release.
+   * @param checkRetention whether to track the event instead of reusing it.
+   */
+  void release(E event, boolean checkRetention) {
+    reset.accept(event);
+
+    if (checkRetention) {
+      synchronized (released) {
+        if (released.size() == MAX_TRACKED) {
+          released.pollFirst();
+        }
+        released.addLast(new ReleasedEvent(event, collectionCount()));
+      }
+      return;
+    }
+
+    ArrayDeque<E> events = free.get();
+    if (events.size() < MAX_FREE) {
+      events.addFirst(event);
+    }
+  }
+
+  /**
+   * Creates a new event that is not taken from the pool.
+   *
+   * @return the new event.
+   */
+  E create() {
+    E event = factory.get();
+    if (event == null) {
+      throw new NullPointerException("Event pool factory of " + type.getName() + " returned null.");
+    }
+    return event;
+  }
+
+  private void checkRetention() {
+    long collectionCount = collectionCount();
+    synchronized (released) {
+      ReleasedEvent oldest;
+      while ((oldest = released.peekFirst()) != null) {
+        if (oldest.get() != null) {
+          // A collection that was running when the event got released may not have seen it unreachable yet.
+          if (collectionCount <= oldest.collectionCount + 1) {
+            return;
+          }
+
+          released.pollFirst();
+          throw new IllegalStateException("Pooled event of type " + type.getName() + " is still referenced after being released, a subscriber must not retain it.");
+        }
+
+        released.pollFirst();
+      }
+    }
+  }
+
+  private static long collectionCount() {
+    long count = 0;
+    for (GarbageCollectorMXBean collector : COLLECTORS) {
+      count += Math.max(0, collector.getCollectionCount());
+    }
+    return count;
+  }
+
+  private static final class ReleasedEvent extends WeakReference<Object> {
+
+    private final long collectionCount;
+
+    ReleasedEvent(Object event, long collectionCount) {
+      super(event);
+      this.collectionCount = collectionCount;
+    }
+  }
+}
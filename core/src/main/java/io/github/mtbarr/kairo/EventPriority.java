@@ -0,0 +1,28 @@
+package io.github.mtbarr.kairo;
+
+/**
+ * The priority bands of subscribers, from the first to the last invoked. Any priority can be used, the bands are
+ * spaced so subscribers can still be ordered within a band, such as {@code EventPriority.HIGH + 1}.
+ * <p>
+ * The {@link #MONITOR} band is invoked last and is read-only: monitor subscribers observe the outcome of the event
+ * and must neither modify nor cancel it. The event bus reads the cancellation state of an event once before the
+ * monitor band instead of after every monitor subscriber.
+ *
+ * @author Matheus Barreto <a href="https://github.com/mtbarr">mtbarr</a>
+ */
+public final class EventPriority {
+
+  public static final int HIGHEST = 2000;
+  public static final int HIGH = 1000;
+  public static final int NORMAL = 0;
+  public static final int LOW = -1000;
+  public static final int LOWEST = -2000;
+
+  /**
+   * The read-only band invoked after every other subscriber.
+   */
+  public static final int MONITOR = Integer.MIN_VALUE;
+
+  private EventPriority() {
+  }
+}
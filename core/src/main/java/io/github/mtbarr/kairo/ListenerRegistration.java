@@ -0,0 +1,71 @@
+package io.github.mtbarr.kairo;
+
+import io.github.mtbarr.kairo.subscriber.SubscriberMethod;
+
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+
+/**
+ * Links a listener object to the subscriber methods created for it, so the listener can be unsubscribed
+ * without scanning every event type. Registrations are compared by the identity of their listener.
+ * <p>
+ * A weak registration only weakly references its listener and is enqueued once the listener is collected.
+ * A strong registration also holds the listener strongly, so it is never cleared.
+ *
+ * @author Matheus Barreto <a href="https://github.com/mtbarr">mtbarr</a>
+ */
+final class ListenerRegistration extends WeakReference<Object> {
+
+  private final int hash;
+  private final Object strongListener;
+
+  /**
+   * The subscriber methods created for the listener, only updated while merging it into the listener index.
+   */
+  SubscriberMethod[] subscriberMethods = SubscriberStore.EMPTY;
+
+  private ListenerRegistration(Object listener, ReferenceQueue<Object> queue, boolean weak) {
+    super(listener, queue);
+    this.hash = System.identityHashCode(listener);
+    this.strongListener = weak ? null : listener;
+  }
+
+  static ListenerRegistration strong(Object listener) {
+    return new ListenerRegistration(listener, null, false);
+  }
+
+  static ListenerRegistration weak(Object listener, ReferenceQueue<Object> queue) {
+    return new ListenerRegistration(listener, queue, true);
+  }
+
+  /**
+   * Creates a registration only meant to look up the registration of a listener.
+   */
+  static ListenerRegistration key(Object listener) {
+    return new ListenerRegistration(listener, null, true);
+  }
+
+  boolean isWeak() {
+    return strongListener == null;
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+
+    if (!(o instanceof ListenerRegistration)) {
+      return false;
+    }
+
+    // Cleared registrations only equal themselves, so they can still be removed from the index.
+    Object listener = get();
+    return listener != null && listener == ((ListenerRegistration) o).get();
+  }
+
+  @Override
+  public int hashCode() {
+    return hash;
+  }
+}
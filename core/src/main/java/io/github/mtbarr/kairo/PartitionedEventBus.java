@@ -0,0 +1,416 @@
+package io.github.mtbarr.kairo;
+
+import io.github.mtbarr.kairo.partition.OrderFreeEvent;
+import io.github.mtbarr.kairo.partition.PartitionedEvent;
+import io.github.mtbarr.kairo.queue.BackpressurePolicy;
+import io.github.mtbarr.kairo.queue.MpscRingBuffer;
+import io.github.mtbarr.kairo.queue.WaitStrategy;
+
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * An EventBus that dispatches posted events in parallel on a fixed number of partitions, each drained by its own
+ * worker thread, while keeping the events sharing a partition key in the order they were posted.
+ * <p>
+ * The partition key of an event is its {@link PartitionedEvent#partitionKey()}, the result of the key function
+ * registered for its class, or its class itself, so events of the same class stay ordered by default.
+ * Events marked as {@link OrderFreeEvent} are not ordered with any other event: they are spread over the partitions
+ * and workers that have nothing left to dispatch steal them from busier partitions.
+ * <p>
+ * Every worker drains its queue in batches through the usual priority-sorted subscriber chains. Only
+ * {@link #post(Object)} goes through the partitions, {@link #postAsync(Object)} dispatches on the calling thread
+ * like a regular EventBus.
+ *
+ * @author Matheus Barreto <a href="https://github.com/mtbarr">mtbarr</a>
+ */
+public class PartitionedEventBus extends EventBus implements AutoCloseable {
+
+  private final Partition[] partitions;
+  private final int batchSize;
+  private final WaitStrategy waitStrategy;
+  private final BackpressurePolicy backpressurePolicy;
+  private final Map<Class<?>, Function<Object, ?>> partitionKeys = new ConcurrentHashMap<>();
+  private final LongAdder droppedEvents = new LongAdder();
+  private final LongAdder stolenEvents = new LongAdder();
+  private final Thread[] workers;
+
+  private volatile boolean running = true;
+
+  /**
+   * Constructs a PartitionedEventBus and starts its worker threads.
+   *
+   * @param partitionCount the number of partitions, each drained by its own worker thread.
+   * @param capacity the minimum capacity of the queue of each partition, rounded up to the next power of two.
+   * @param batchSize the maximum number of events a worker drains at once.
+   * @param waitStrategy how workers wait for events, and producers wait for room with {@link BackpressurePolicy#BLOCK}.
+   * @param backpressurePolicy what happens to events posted while the queue of their partition is full.
+   * {@link BackpressurePolicy#CALLER_RUNS} only applies to {@link OrderFreeEvent}s, other events wait for room
+   * like with {@link BackpressurePolicy#BLOCK} so they stay ordered. When waiting for room, a worker posting to its
+   * own partition dispatches the event inline instead, and a worker posting to another full partition fails with an
+   * {@link IllegalStateException}, as workers waiting on each other could deadlock.
+   */
+  public PartitionedEventBus(int partitionCount, int capacity, int batchSize, WaitStrategy waitStrategy, BackpressurePolicy backpressurePolicy) {
+    if (partitionCount < 1) {
+      throw new IllegalArgumentException("Partition count must be positive");
+    }
+    if (batchSize < 1) {
+      throw new IllegalArgumentException("Batch size must be positive");
+    }
+
+    this.partitions = new Partition[partitionCount];
+    for (int i = 0; i < partitionCount; i++) {
+      partitions[i] = new Partition(capacity);
+    }
+    this.batchSize = batchSize;
+    this.waitStrategy = waitStrategy;
+    this.backpressurePolicy = backpressurePolicy;
+
+    this.workers = new Thread[partitionCount];
+    for (int i = 0; i < partitionCount; i++) {
+      int index = i;
+      workers[i] = new Thread(() -> this.runWorker(index), "kairo-partition-worker-" + i);
+      workers[i].setDaemon(true);
+      workers[i].start();
+    }
+  }
+
+  /**
+   * Registers the function extracting the partition key of the events of a type, replacing any previous one.
+   * Only applies to events of exactly the given class that do not implement {@link PartitionedEvent}.
+   *
+   * @param type the exact class of the events.
+   * @param keyFunction returns the partition key of an event, which cannot be null.
+   * @param <E> the type of the events.
+   */
+  @SuppressWarnings("unchecked")
+  public <E> void registerPartitionKey(Class<E> type, Function<? super E, ?> keyFunction) {
+    if (type == null) {
+      throw new NullPointerException("Event type cannot be null.");
+    }
+    if (keyFunction == null) {
+      throw new NullPointerException("Key function cannot be null.");
+    }
+
+    partitionKeys.put(type, (Function<Object, ?>) keyFunction);
+  }
+
+  /**
+   * Queues an event in its partition, to be dispatched by the worker of the partition.
+   * When the queue is full, the event is handled according to the backpressure policy.
+   *
+   * @param event the event object to post.
+   * @throws IllegalStateException if the event bus is closed.
+   */
+  @Override
+  public void post(Object event) {
+    if (event == null) {
+      throw new NullPointerException("Event cannot be null.");
+    }
+
+    this.journal(event);
+    if (!this.coalesce(event)) {
+      this.enqueue(event);
+    }
+  }
+
+  /**
+   * Queues an event released by a coalescer, instead of dispatching it on the flushing thread.
+   *
+   * @param event the coalesced event.
+   */
+  @Override
+  void dispatchCoalesced(Object event) {
+    this.enqueue(event);
+  }
+
+  /**
+   * Queues many events at once, each in its own partition.
+   *
+   * @param events the events to post.
+   */
+  @Override
+  public void postAll(Object[] events) {
+    for (Object event : events) {
+      this.post(event);
+    }
+  }
+
+  /**
+   * Queues a new event of a pooled type, after letting the filler populate it.
+   * Queued events outlive the call and are dispatched on another thread, so they are never returned to the pool.
+   *
+   * @param type the exact class of the event, with a pool registered through {@link #registerEventPool}.
+   * @param filler populates the event before it is queued.
+   * @param <E> the type of event.
+   * @throws IllegalArgumentException if no event pool is registered for the type.
+   */
+  @Override
+  public <E> void post(Class<E> type, Consumer<? super E> filler) {
+    E event = this.getEventPool(type).create();
+    filler.accept(event);
+    this.post(event);
+  }
+
+  private void enqueue(Object event) {
+    this.ensureRunning();
+    boolean orderFree = event instanceof OrderFreeEvent;
+    int index = orderFree ? ThreadLocalRandom.current().nextInt(partitions.length) : this.partitionOf(event);
+    Partition partition = partitions[index];
+    if (partition.offer(event, orderFree)) {
+      return;
+    }
+
+    BackpressurePolicy policy = backpressurePolicy;
+    if (policy == BackpressurePolicy.BLOCK || (policy == BackpressurePolicy.CALLER_RUNS && !orderFree)) {
+      Thread current = Thread.currentThread();
+      if (current == workers[index]) {
+        // The worker cannot wait for itself to make room, and as the only dispatcher of the key it may run the event.
+        this.dispatchChain(event, this.getChain(event.getClass()));
+        return;
+      }
+      if (this.isWorker(current)) {
+        throw new IllegalStateException("Partition " + index + " is full, a partition worker cannot wait for another partition to make room");
+      }
+      // Dispatching on the caller would overtake the queued events of the key, wait for room instead.
+      policy = BackpressurePolicy.BLOCK;
+    }
+
+    switch (policy) {
+      case BLOCK:
+        do {
+          waitStrategy.idle();
+          this.ensureRunning();
+        } while (!partition.offer(event, orderFree));
+        break;
+      case DROP_OLDEST:
+        do {
+          if (partition.poll(orderFree) != null) {
+            droppedEvents.increment();
+          }
+        } while (!partition.offer(event, orderFree));
+        break;
+      case DROP_NEWEST:
+        droppedEvents.increment();
+        break;
+      case CALLER_RUNS:
+        this.dispatchChain(event, this.getChain(event.getClass()));
+        break;
+    }
+  }
+
+  private boolean isWorker(Thread thread) {
+    for (Thread worker : workers) {
+      if (worker == thread) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Returns the index of the partition the given event is dispatched in, unless it is an {@link OrderFreeEvent}.
+   *
+   * @param event the event to find the partition of.
+   * @return the index of the partition of the event.
+   * @throws NullPointerException if the partition key of the event is null.
+   */
+  public int partitionOf(Object event) {
+    Object key;
+    if (event instanceof PartitionedEvent) {
+      key = ((PartitionedEvent) event).partitionKey();
+    } else {
+      Function<Object, ?> keyFunction = partitionKeys.get(event.getClass());
+      key = keyFunction != null ? keyFunction.apply(event) : event.getClass();
+    }
+
+    if (key == null) {
+      throw new NullPointerException("Partition key of " + event.getClass().getName() + " cannot be null.");
+    }
+
+    int hash = key.hashCode();
+    return Math.floorMod(hash ^ (hash >>> 16), partitions.length);
+  }
+
+  /**
+   * Returns the number of partitions, and of worker threads.
+   *
+   * @return the number of partitions.
+   */
+  public int getPartitionCount() {
+    return partitions.length;
+  }
+
+  /**
+   * Returns an estimate of the number of events waiting in the queue of a partition.
+   *
+   * @param partition the index of the partition.
+   * @return the number of queued events of the partition.
+   */
+  public int getQueueDepth(int partition) {
+    return partitions[partition].depth();
+  }
+
+  /**
+   * Returns an estimate of the number of events waiting in the queue of every partition.
+   *
+   * @return the number of queued events, indexed by partition.
+   */
+  public int[] getQueueDepths() {
+    int[] depths = new int[partitions.length];
+    for (int i = 0; i < depths.length; i++) {
+      depths[i] = partitions[i].depth();
+    }
+    return depths;
+  }
+
+  /**
+   * Returns the number of order-free events dispatched by another worker than the one of their partition.
+   *
+   * @return the number of stolen events.
+   */
+  public long getStolenEvents() {
+    return stolenEvents.sum();
+  }
+
+  /**
+   * Returns the number of events discarded because the queue of their partition was full.
+   *
+   * @return the number of dropped events.
+   */
+  public long getDroppedEvents() {
+    return droppedEvents.sum();
+  }
+
+  /**
+   * Stops accepting events and waits for the workers to dispatch every queued event.
+   * Events posted concurrently with this call may be rejected or left undispatched.
+   */
+  @Override
+  public void close() {
+    running = false;
+    for (Thread worker : workers) {
+      if (Thread.currentThread() == worker) {
+        continue;
+      }
+
+      try {
+        worker.join();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        return;
+      }
+    }
+  }
+
+  private void ensureRunning() {
+    if (!running) {
+      throw new IllegalStateException("PartitionedEventBus is closed.");
+    }
+  }
+
+  private void runWorker(int index) {
+    Partition partition = partitions[index];
+    Object[] batch = new Object[batchSize];
+    while (true) {
+      int count = partition.ordered.drain(batch, batchSize);
+      count += partition.drainOrderFree(batch, count, batchSize - count);
+      if (count == 0) {
+        count = this.steal(index, batch);
+      }
+
+      if (count > 0) {
+        this.dispatchDrained(batch, count);
+      } else if (running) {
+        waitStrategy.idle();
+      } else if (partition.isEmpty()) {
+        return;
+      }
+    }
+  }
+
+  /**
+   * Takes up to half of the order-free events of the first other partition that has any.
+   * Only called by a worker whose own partition is empty.
+   */
+  private int steal(int thief, Object[] batch) {
+    for (int i = 1; i < partitions.length; i++) {
+      Partition victim = partitions[(thief + i) % partitions.length];
+      int pending = victim.orderFreeCount.get();
+      if (pending == 0) {
+        continue;
+      }
+
+      int count = victim.drainOrderFree(batch, 0, Math.min(batchSize, (pending + 1) / 2));
+      if (count > 0) {
+        stolenEvents.add(count);
+        return count;
+      }
+    }
+    return 0;
+  }
+
+  /**
+   * The queues of a partition: a single-consumer ring buffer for ordered events, drained by the worker of the
+   * partition only, and a multi-consumer queue for order-free events, which other workers may steal from.
+   */
+  private static final class Partition {
+
+    private final MpscRingBuffer<Object> ordered;
+    private final Queue<Object> orderFree = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger orderFreeCount = new AtomicInteger();
+
+    private Partition(int capacity) {
+      this.ordered = new MpscRingBuffer<>(capacity);
+    }
+
+    private boolean offer(Object event, boolean orderFree) {
+      if (!orderFree) {
+        return ordered.offer(event);
+      }
+
+      if (orderFreeCount.incrementAndGet() > ordered.capacity()) {
+        orderFreeCount.decrementAndGet();
+        return false;
+      }
+      this.orderFree.offer(event);
+      return true;
+    }
+
+    private Object poll(boolean orderFree) {
+      if (!orderFree) {
+        return ordered.poll();
+      }
+
+      Object event = this.orderFree.poll();
+      if (event != null) {
+        orderFreeCount.decrementAndGet();
+      }
+      return event;
+    }
+
+    private int drainOrderFree(Object[] target, int offset, int limit) {
+      int count = 0;
+      Object event;
+      while (count < limit && (event = this.poll(true)) != null) {
+        target[offset + count++] = event;
+      }
+      return count;
+    }
+
+    private int depth() {
+      return ordered.size() + orderFreeCount.get();
+    }
+
+    private boolean isEmpty() {
+      return ordered.isEmpty() && orderFreeCount.get() == 0;
+    }
+  }
+}
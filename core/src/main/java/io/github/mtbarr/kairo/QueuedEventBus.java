@@ -0,0 +1,203 @@
+package io.github.mtbarr.kairo;
+
+import io.github.mtbarr.kairo.queue.BackpressurePolicy;
+import io.github.mtbarr.kairo.queue.MpscRingBuffer;
+import io.github.mtbarr.kairo.queue.WaitStrategy;
+
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * An EventBus that queues posted events in a bounded, lock-free ring buffer and dispatches them
+ * on a single dedicated thread, so many producer threads can post without contending with each other.
+ * <p>
+ * The dispatcher drains events in batches and resolves the subscriber chain once per run of events
+ * of the same class. Only {@link #post(Object)} goes through the queue, {@link #postAsync(Object)}
+ * dispatches on the calling thread like a regular EventBus.
+ *
+ * @author Matheus Barreto <a href="https://github.com/mtbarr">mtbarr</a>
+ */
+public class QueuedEventBus extends EventBus implements AutoCloseable {
+
+  private final MpscRingBuffer<Object> buffer;
+  private final int batchSize;
+  private final WaitStrategy waitStrategy;
+  private final BackpressurePolicy backpressurePolicy;
+  private final LongAdder droppedEvents = new LongAdder();
+  private final Thread dispatcher;
+
+  private volatile boolean running = true;
+
+  /**
+   * Constructs a QueuedEventBus and starts its dispatcher thread.
+   *
+   * @param capacity the minimum capacity of the queue, rounded up to the next power of two.
+   * @param batchSize the maximum number of events the dispatcher drains at once.
+   * @param waitStrategy how the dispatcher waits for events, and producers wait for room with {@link BackpressurePolicy#BLOCK}.
+   * @param backpressurePolicy what happens to events posted while the queue is full.
+   * With {@link BackpressurePolicy#BLOCK}, events posted by subscribers on the dispatcher thread while the queue
+   * is full are dispatched inline, since the dispatcher cannot wait for itself to make room.
+   */
+  public QueuedEventBus(int capacity, int batchSize, WaitStrategy waitStrategy, BackpressurePolicy backpressurePolicy) {
+    if (batchSize < 1) {
+      throw new IllegalArgumentException("Batch size must be positive");
+    }
+
+    this.buffer = new MpscRingBuffer<>(capacity);
+    this.batchSize = batchSize;
+    this.waitStrategy = waitStrategy;
+    this.backpressurePolicy = backpressurePolicy;
+    this.dispatcher = new Thread(this::runDispatcher, "kairo-event-dispatcher");
+    this.dispatcher.setDaemon(true);
+    this.dispatcher.start();
+  }
+
+  /**
+   * Queues an event to be dispatched on the dispatcher thread.
+   * When the queue is full, the event is handled according to the backpressure policy.
+   *
+   * @param event the event object to post.
+   * @throws IllegalStateException if the event bus is closed.
+   */
+  @Override
+  public void post(Object event) {
+    if (event == null) {
+      throw new NullPointerException("Event cannot be null.");
+    }
+
+    this.journal(event);
+    if (!this.coalesce(event)) {
+      this.enqueue(event);
+    }
+  }
+
+  /**
+   * Queues an event released by a coalescer, instead of dispatching it on the flushing thread.
+   *
+   * @param event the coalesced event.
+   */
+  @Override
+  void dispatchCoalesced(Object event) {
+    this.enqueue(event);
+  }
+
+  private void enqueue(Object event) {
+    this.ensureRunning();
+    if (buffer.offer(event)) {
+      return;
+    }
+
+    BackpressurePolicy policy = backpressurePolicy;
+    if (policy == BackpressurePolicy.BLOCK && Thread.currentThread() == dispatcher) {
+      // A subscriber posting into the full queue would wait for itself to drain it, dispatch the event inline instead.
+      policy = BackpressurePolicy.CALLER_RUNS;
+    }
+
+    switch (policy) {
+      case BLOCK:
+        do {
+          waitStrategy.idle();
+          this.ensureRunning();
+        } while (!buffer.offer(event));
+        break;
+      case DROP_OLDEST:
+        do {
+          if (buffer.poll() != null) {
+            droppedEvents.increment();
+          }
+        } while (!buffer.offer(event));
+        break;
+      case DROP_NEWEST:
+        droppedEvents.increment();
+        break;
+      case CALLER_RUNS:
+        this.dispatchChain(event, this.getChain(event.getClass()));
+        break;
+    }
+  }
+
+  /**
+   * Queues many events at once. The dispatcher thread still groups consecutive events of the same class into runs,
+   * so batch subscribers receive them in a single call when they are drained together.
+   *
+   * @param events the events to post.
+   */
+  @Override
+  public void postAll(Object[] events) {
+    for (Object event : events) {
+      this.post(event);
+    }
+  }
+
+  /**
+   * Queues a new event of a pooled type, after letting the filler populate it.
+   * Queued events outlive the call and are dispatched on another thread, so they are never returned to the pool.
+   *
+   * @param type the exact class of the event, with a pool registered through {@link #registerEventPool}.
+   * @param filler populates the event before it is queued.
+   * @param <E> the type of event.
+   * @throws IllegalArgumentException if no event pool is registered for the type.
+   */
+  @Override
+  public <E> void post(Class<E> type, Consumer<? super E> filler) {
+    E event = this.getEventPool(type).create();
+    filler.accept(event);
+    this.post(event);
+  }
+
+  /**
+   * Returns the number of events discarded because the queue was full.
+   *
+   * @return the number of dropped events.
+   */
+  public long getDroppedEvents() {
+    return droppedEvents.sum();
+  }
+
+  /**
+   * Returns an estimate of the number of events waiting in the queue.
+   *
+   * @return the number of queued events.
+   */
+  public int getQueuedEvents() {
+    return buffer.size();
+  }
+
+  /**
+   * Stops accepting events and waits for the dispatcher to dispatch every queued event.
+   * Events posted concurrently with this call may be rejected or left undispatched.
+   */
+  @Override
+  public void close() {
+    running = false;
+    if (Thread.currentThread() == dispatcher) {
+      return;
+    }
+
+    try {
+      dispatcher.join();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  private void ensureRunning() {
+    if (!running) {
+      throw new IllegalStateException("QueuedEventBus is closed.");
+    }
+  }
+
+  private void runDispatcher() {
+    Object[] batch = new Object[batchSize];
+    while (true) {
+      int count = buffer.drain(batch, batchSize);
+      if (count > 0) {
+        this.dispatchDrained(batch, count);
+      } else if (running) {
+        waitStrategy.idle();
+      } else if (buffer.isEmpty()) {
+        return;
+      }
+    }
+  }
+}
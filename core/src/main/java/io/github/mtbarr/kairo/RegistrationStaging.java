@@ -0,0 +1,175 @@
+package io.github.mtbarr.kairo;
+
+import io.github.mtbarr.kairo.subscriber.SubscriberMethod;
+
+import java.lang.ref.WeakReference;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Buffers the subscriber methods registered in staged registration mode, until the event bus publishes them
+ * into its subscriber stores in a single batch. Registering threads are spread over stripes by thread id,
+ * so concurrent registrations neither copy the subscriber snapshots nor contend on a single lock.
+ * <p>
+ * Every staged method increments the staged count after being added to its stripe, and the event bus records the
+ * count it read before draining once the drained methods are published. A reader seeing a published count at least
+ * equal to the staged count it read therefore sees every method staged before it.
+ *
+ * @author Matheus Barreto <a href="https://github.com/mtbarr">mtbarr</a>
+ */
+final class RegistrationStaging {
+
+  private final Stripe[] stripes;
+  private final int mask;
+  private final AtomicLong staged = new AtomicLong();
+  private volatile long published;
+  private ScheduledFuture<?> scheduled;
+
+  RegistrationStaging() {
+    int count = 1;
+    while (count < Runtime.getRuntime().availableProcessors() * 2) {
+      count <<= 1;
+    }
+
+    this.stripes = new Stripe[count];
+    for (int i = 0; i < count; i++) {
+      stripes[i] = new Stripe();
+    }
+    this.mask = count - 1;
+  }
+
+  /**
+   * Adds a subscriber method to the stripe of the calling thread.
+   *
+   * @param method the subscriber method to stage.
+   */
+  void stage(SubscriberMethod method) {
+    Stripe stripe = stripes[(int) Thread.currentThread().getId() & mask];
+    synchronized (stripe) {
+      stripe.methods.add(method);
+    }
+    staged.incrementAndGet();
+  }
+
+  /**
+   * Indicates whether methods were staged since the last publication.
+   *
+   * @return true if some staged methods are not published yet.
+   */
+  boolean hasPending() {
+    return published < staged.get();
+  }
+
+  /**
+   * Returns the number of methods staged so far, to be passed to {@link #published(long)} once the methods
+   * drained afterwards are published.
+   *
+   * @return the number of staged methods.
+   */
+  long stagedCount() {
+    return staged.get();
+  }
+
+  /**
+   * Removes the staged methods of every stripe.
+   *
+   * @return the staged methods, in no particular order.
+   */
+  List<SubscriberMethod> drain() {
+    List<SubscriberMethod> drained = new ArrayList<>();
+    for (Stripe stripe : stripes) {
+      synchronized (stripe) {
+        drained.addAll(stripe.methods);
+        stripe.methods.clear();
+      }
+    }
+    return drained;
+  }
+
+  /**
+   * Records that every method staged before the given count was published.
+   * Must be called while holding the registration lock of the event bus.
+   *
+   * @param stagedCount the staged count read before draining.
+   */
+  void published(long stagedCount) {
+    if (stagedCount > published) {
+      published = stagedCount;
+    }
+  }
+
+  /**
+   * Publishes the staged methods of the event bus periodically, replacing any previous schedule.
+   * Must be called while holding the registration lock of the event bus.
+   *
+   * @param eventBus the event bus to publish the staged methods of, weakly referenced by the task.
+   * @param interval the publication interval, or null to only publish on the next post.
+   */
+  void schedule(EventBus eventBus, Duration interval) {
+    this.cancel();
+    if (interval == null) {
+      return;
+    }
+
+    PublishTask task = new PublishTask(eventBus);
+    long period = interval.toNanos();
+    scheduled = task.future = PublishScheduler.SCHEDULER.scheduleAtFixedRate(task, period, period, TimeUnit.NANOSECONDS);
+  }
+
+  /**
+   * Stops publishing the staged methods periodically.
+   * Must be called while holding the registration lock of the event bus.
+   */
+  void cancel() {
+    if (scheduled != null) {
+      scheduled.cancel(false);
+      scheduled = null;
+    }
+  }
+
+  private static final class Stripe {
+
+    private final List<SubscriberMethod> methods = new ArrayList<>();
+  }
+
+  private static final class PublishTask implements Runnable {
+
+    private final WeakReference<EventBus> eventBus;
+    private volatile ScheduledFuture<?> future;
+
+    private PublishTask(EventBus eventBus) {
+      this.eventBus = new WeakReference<>(eventBus);
+    }
+
+    @Override
+    public void run() {
+      EventBus bus = eventBus.get();
+      if (bus != null) {
+        bus.publishStagedSubscribers();
+      } else {
+        ScheduledFuture<?> scheduled = future;
+        if (scheduled != null) {
+          scheduled.cancel(false);
+        }
+      }
+    }
+  }
+
+  /**
+   * Holds the scheduler shared by every event bus publishing staged registrations periodically.
+   */
+  private static final class PublishScheduler {
+
+    private static final ScheduledExecutorService SCHEDULER = Executors.newSingleThreadScheduledExecutor(runnable -> {
+      Thread thread = new Thread(runnable, "kairo-registration-publisher");
+      thread.setDaemon(true);
+      return thread;
+    });
+  }
+}
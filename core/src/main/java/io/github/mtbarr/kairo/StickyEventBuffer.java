@@ -0,0 +1,98 @@
+package io.github.mtbarr.kairo;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Lock-free ring of the last sticky events posted for a single event type.
+ * Writers claim a sequence number and publish into its slot, a slot is only replaced by a newer event,
+ * so a slow writer never overwrites the event of a faster one.
+ *
+ * @author Matheus Barreto <a href="https://github.com/mtbarr">mtbarr</a>
+ */
+final class StickyEventBuffer {
+
+  private final AtomicReferenceArray<StickyEvent> slots;
+  private final AtomicLong sequence = new AtomicLong();
+  private final int capacity;
+
+  StickyEventBuffer(int capacity) {
+    this.capacity = capacity;
+    this.slots = new AtomicReferenceArray<>(capacity);
+  }
+
+  /**
+   * Adds an event, evicting the oldest one once the buffer is full.
+   *
+   * @param event the event to add.
+   * @param timestamp the {@link System#nanoTime()} the event was posted at.
+   */
+  void add(Object event, long timestamp) {
+    long eventSequence = sequence.getAndIncrement();
+    StickyEvent stickyEvent = new StickyEvent(event, timestamp, eventSequence);
+    int index = (int) (eventSequence % capacity);
+
+    StickyEvent current;
+    do {
+      current = slots.get(index);
+      if (current != null && current.sequence > eventSequence) {
+        return;
+      }
+    } while (!slots.compareAndSet(index, current, stickyEvent));
+  }
+
+  /**
+   * Returns the buffered events from oldest to newest, evicting the ones older than the maximum age.
+   *
+   * @param now the current {@link System#nanoTime()}.
+   * @param maxAgeNanos the maximum age of the returned events, or zero for no limit.
+   * @return the buffered events.
+   */
+  List<Object> events(long now, long maxAgeNanos) {
+    long end = sequence.get();
+    List<Object> events = new ArrayList<>((int) Math.min(end, capacity));
+
+    for (long i = Math.max(0, end - capacity); i < end; i++) {
+      int index = (int) (i % capacity);
+      StickyEvent stickyEvent = slots.get(index);
+      if (stickyEvent == null || stickyEvent.sequence != i) {
+        continue;
+      }
+
+      if (maxAgeNanos > 0 && now - stickyEvent.timestamp > maxAgeNanos) {
+        slots.compareAndSet(index, stickyEvent, null);
+        continue;
+      }
+
+      events.add(stickyEvent.event);
+    }
+
+    return events;
+  }
+
+  /**
+   * Returns the newest buffered event, unless it is older than the maximum age.
+   *
+   * @param now the current {@link System#nanoTime()}.
+   * @param maxAgeNanos the maximum age of the returned event, or zero for no limit.
+   * @return the newest event, or null if there is none.
+   */
+  Object latest(long now, long maxAgeNanos) {
+    List<Object> events = this.events(now, maxAgeNanos);
+    return events.isEmpty() ? null : events.get(events.size() - 1);
+  }
+
+  private static final class StickyEvent {
+    private final Object event;
+    private final long timestamp;
+    private final long sequence;
+
+    private StickyEvent(Object event, long timestamp, long sequence) {
+      this.event = event;
+      this.timestamp = timestamp;
+      this.sequence = sequence;
+    }
+  }
+}
@@ -0,0 +1,381 @@
+package io.github.mtbarr.kairo;
+
+import io.github.mtbarr.kairo.generic.GenericEvent;
+import io.github.mtbarr.kairo.subscriber.GenericSubscriberMethod;
+import io.github.mtbarr.kairo.subscriber.KeyedSubscriberMethod;
+import io.github.mtbarr.kairo.subscriber.SubscriberMethod;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * The resolved subscribers of a concrete event class, sorted by descending priority,
+ * together with the data precomputed from them that the post path needs.
+ * <p>
+ * Keyed subscribers are left out of the subscribers and indexed by key instead: for every key, the index holds
+ * the chain of the unkeyed subscribers merged with the keyed subscribers of that key, so a post only invokes
+ * the subscribers matching its key.
+ * <p>
+ * Generic subscribers, filtering {@link GenericEvent}s by payload type, are left out as well: the chain of the
+ * subscribers matching a payload class is resolved on the first post of a payload of that class and cached.
+ * <p>
+ * Once an event is cancelled, the subscribers ignoring cancelled events are skipped through precomputed skip
+ * pointers instead of being visited one by one, and the subscribers of the {@link EventPriority#MONITOR} band
+ * at the end of the chain are invoked without reading the cancellation state of the event again.
+ *
+ * @author Matheus Barreto <a href="https://github.com/mtbarr">mtbarr</a>
+ */
+final class SubscriberChain {
+
+  static final SubscriberChain EMPTY = new SubscriberChain(SubscriberStore.EMPTY);
+
+  /**
+   * The subscribers of the event class, must not be modified.
+   */
+  final SubscriberMethod[] subscribers;
+
+  /**
+   * The index of the first asynchronous subscriber, or the number of subscribers if every subscriber is synchronous.
+   * Subscribers before it form the synchronous prefix of the chain.
+   */
+  final int firstAsync;
+
+  /**
+   * For every index, the index of the first subscriber from it onwards that receives cancelled events,
+   * or the number of subscribers if there is none. Holds one more entry than the subscribers, so
+   * {@code nextReceivingCancelled[subscribers.length]} is the number of subscribers.
+   */
+  final int[] nextReceivingCancelled;
+
+  /**
+   * The index of the first subscriber of the {@link EventPriority#MONITOR} band, or the number of subscribers
+   * if there is none. Monitor subscribers have the lowest priority, so they form the suffix of the chain.
+   */
+  final int firstMonitor;
+
+  /**
+   * Whether any subscriber receives events in batches.
+   */
+  final boolean batch;
+
+  /**
+   * The indexes of the keyed subscribers, one per key function, or null if there are no keyed subscribers.
+   */
+  final KeyIndex[] keyIndexes;
+
+  /**
+   * The generic subscribers by payload class, or null if there are no generic subscribers.
+   */
+  final PayloadIndex payloadIndex;
+
+  /**
+   * Whether the subscribers receiving an event depend on the event, so it must be {@link #select(Object) selected}
+   * before being dispatched.
+   */
+  final boolean selective;
+
+  /**
+   * Every subscriber of the event class, keyed ones included, or null if there are no keyed subscribers.
+   */
+  private final SubscriberMethod[] sorted;
+
+  /**
+   * With several key functions, the chains selected so far by the matching key of every key function, null where
+   * a key function matched no subscriber. Only holds combinations of registered keys, so it stays bounded.
+   */
+  private final Map<List<Object>, SubscriberChain> combinations;
+
+  /**
+   * The compiled dispatcher of the synchronous prefix, or null if the chain is interpreted.
+   * Set once, before the chain is published to the dispatch cache.
+   */
+  CompiledDispatcher dispatcher;
+
+  SubscriberChain(SubscriberMethod[] subscribers) {
+    this(subscribers, null, null, null);
+  }
+
+  private SubscriberChain(SubscriberMethod[] subscribers, KeyIndex[] keyIndexes, SubscriberMethod[] sorted, PayloadIndex payloadIndex) {
+    this.subscribers = subscribers;
+    this.keyIndexes = keyIndexes;
+    this.sorted = sorted;
+    this.payloadIndex = payloadIndex;
+    this.selective = keyIndexes != null || payloadIndex != null;
+    this.combinations = keyIndexes != null && keyIndexes.length > 1 && payloadIndex == null ? new ConcurrentHashMap<>() : null;
+
+    int index = 0;
+    while (index < subscribers.length && !subscribers[index].async()) {
+      index++;
+    }
+    this.firstAsync = index;
+
+    int[] nextReceivingCancelled = new int[subscribers.length + 1];
+    nextReceivingCancelled[subscribers.length] = subscribers.length;
+    for (int i = subscribers.length - 1; i >= 0; i--) {
+      nextReceivingCancelled[i] = subscribers[i].ignoreCancelled() ? nextReceivingCancelled[i + 1] : i;
+    }
+    this.nextReceivingCancelled = nextReceivingCancelled;
+
+    int firstMonitor = subscribers.length;
+    while (firstMonitor > 0 && subscribers[firstMonitor - 1].priority() == EventPriority.MONITOR) {
+      firstMonitor--;
+    }
+    this.firstMonitor = firstMonitor;
+
+    boolean batch = false;
+    for (SubscriberMethod subscriber : subscribers) {
+      batch |= subscriber.batch();
+    }
+    this.batch = batch;
+  }
+
+  /**
+   * Creates the chain of the given subscribers, indexing the keyed and generic ones.
+   *
+   * @param sorted the subscribers, sorted by descending priority.
+   * @return the subscriber chain.
+   */
+  static SubscriberChain of(SubscriberMethod[] sorted) {
+    if (sorted.length == 0) {
+      return EMPTY;
+    }
+
+    List<SubscriberMethod> nonGeneric = new ArrayList<>(sorted.length);
+    for (SubscriberMethod subscriber : sorted) {
+      if (generic(subscriber) == null) {
+        nonGeneric.add(subscriber);
+      }
+    }
+
+    if (nonGeneric.size() == sorted.length) {
+      return indexKeys(sorted);
+    }
+
+    SubscriberChain nonGenericChain = indexKeys(nonGeneric.toArray(SubscriberStore.EMPTY));
+    return new SubscriberChain(nonGenericChain.subscribers, nonGenericChain.keyIndexes, nonGenericChain.sorted, new PayloadIndex(sorted, nonGenericChain));
+  }
+
+  /**
+   * Returns the generic subscriber method of a subscriber, possibly wrapped in a keyed one, or null if it is not generic.
+   */
+  private static GenericSubscriberMethod generic(SubscriberMethod subscriber) {
+    if (subscriber instanceof KeyedSubscriberMethod) {
+      subscriber = ((KeyedSubscriberMethod) subscriber).delegate();
+    }
+    return subscriber instanceof GenericSubscriberMethod ? (GenericSubscriberMethod) subscriber : null;
+  }
+
+  /**
+   * Creates the chain of the given subscribers, indexing the keyed ones. Generic subscribers are kept as they are.
+   */
+  private static SubscriberChain indexKeys(SubscriberMethod[] sorted) {
+    if (sorted.length == 0) {
+      return EMPTY;
+    }
+
+    List<SubscriberMethod> unkeyed = new ArrayList<>(sorted.length);
+    Map<Function<Object, ?>, Map<Object, List<SubscriberMethod>>> keyed = new IdentityHashMap<>();
+    for (SubscriberMethod subscriber : sorted) {
+      if (subscriber instanceof KeyedSubscriberMethod) {
+        KeyedSubscriberMethod keyedSubscriber = (KeyedSubscriberMethod) subscriber;
+        keyed.computeIfAbsent(keyedSubscriber.keyFunction(), k -> new LinkedHashMap<>())
+          .computeIfAbsent(keyedSubscriber.key(), k -> new ArrayList<>())
+          .add(subscriber);
+      } else {
+        unkeyed.add(subscriber);
+      }
+    }
+
+    if (keyed.isEmpty()) {
+      return new SubscriberChain(sorted);
+    }
+
+    Map<SubscriberMethod, Integer> positions = new IdentityHashMap<>();
+    for (int i = 0; i < sorted.length; i++) {
+      positions.put(sorted[i], i);
+    }
+
+    KeyIndex[] keyIndexes = new KeyIndex[keyed.size()];
+    int index = 0;
+    for (Map.Entry<Function<Object, ?>, Map<Object, List<SubscriberMethod>>> entry : keyed.entrySet()) {
+      Map<Object, SubscriberMethod[]> keyedSubscribers = new HashMap<>();
+      Map<Object, SubscriberChain> chains = new HashMap<>();
+      for (Map.Entry<Object, List<SubscriberMethod>> keyEntry : entry.getValue().entrySet()) {
+        keyedSubscribers.put(keyEntry.getKey(), keyEntry.getValue().toArray(SubscriberStore.EMPTY));
+        chains.put(keyEntry.getKey(), new SubscriberChain(merge(unkeyed, keyEntry.getValue(), positions)));
+      }
+      keyIndexes[index++] = new KeyIndex(entry.getKey(), keyedSubscribers, chains);
+    }
+
+    return new SubscriberChain(unkeyed.toArray(SubscriberStore.EMPTY), keyIndexes, sorted, null);
+  }
+
+  /**
+   * Merges two lists of subscribers taken from the same sorted array, keeping the order of the array.
+   */
+  private static SubscriberMethod[] merge(List<SubscriberMethod> first, List<SubscriberMethod> second, Map<SubscriberMethod, Integer> positions) {
+    SubscriberMethod[] merged = new SubscriberMethod[first.size() + second.size()];
+    int i = 0;
+    int j = 0;
+    for (int k = 0; k < merged.length; k++) {
+      if (j == second.size() || (i < first.size() && positions.get(first.get(i)) < positions.get(second.get(j)))) {
+        merged[k] = first.get(i++);
+      } else {
+        merged[k] = second.get(j++);
+      }
+    }
+    return merged;
+  }
+
+  /**
+   * Returns the chain of the subscribers receiving the given event: the unkeyed subscribers and the keyed
+   * subscribers matching its key, among the generic subscribers matching its payload, if any.
+   * An event no subscriber matches selects the {@link #EMPTY empty} chain, so it is dispatched as a dead event.
+   *
+   * @param event the posted event.
+   * @return the chain to dispatch the event to.
+   */
+  SubscriberChain select(Object event) {
+    if (payloadIndex != null) {
+      // The resolved chain has no payload index, it only selects the keyed subscribers.
+      return payloadIndex.chain(event).select(event);
+    }
+
+    if (keyIndexes == null) {
+      return this;
+    }
+
+    if (keyIndexes.length == 1) {
+      KeyIndex keyIndex = keyIndexes[0];
+      Object key = keyIndex.keyFunction.apply(event);
+      SubscriberChain chain = key == null ? null : keyIndex.chains.get(key);
+      return chain != null ? chain : this.unmatched();
+    }
+
+    // Several key functions on the same event type, reuse the chain selected by the same matching keys.
+    Object[] keys = null;
+    for (int i = 0; i < keyIndexes.length; i++) {
+      Object key = keyIndexes[i].keyFunction.apply(event);
+      if (key != null && keyIndexes[i].keyedSubscribers.containsKey(key)) {
+        if (keys == null) {
+          keys = new Object[keyIndexes.length];
+        }
+        keys[i] = key;
+      }
+    }
+
+    if (keys == null) {
+      return this.unmatched();
+    }
+
+    List<Object> combination = Arrays.asList(keys);
+    SubscriberChain chain = combinations.get(combination);
+    return chain != null ? chain : combinations.computeIfAbsent(combination, this::resolve);
+  }
+
+  /**
+   * Resolves the chain of the unkeyed subscribers and the keyed subscribers matching the given keys,
+   * filtering the whole chain to keep the registration order.
+   */
+  private SubscriberChain resolve(List<Object> combination) {
+    Map<SubscriberMethod, Boolean> matching = new IdentityHashMap<>();
+    for (int i = 0; i < keyIndexes.length; i++) {
+      Object key = combination.get(i);
+      if (key != null) {
+        for (SubscriberMethod keyedSubscriber : keyIndexes[i].keyedSubscribers.get(key)) {
+          matching.put(keyedSubscriber, Boolean.TRUE);
+        }
+      }
+    }
+
+    List<SubscriberMethod> selected = new ArrayList<>(subscribers.length + matching.size());
+    for (SubscriberMethod subscriber : sorted) {
+      if (!(subscriber instanceof KeyedSubscriberMethod) || matching.containsKey(subscriber)) {
+        selected.add(subscriber);
+      }
+    }
+    return new SubscriberChain(selected.toArray(SubscriberStore.EMPTY));
+  }
+
+  /**
+   * Returns the chain of the events matching no keyed subscriber, the empty chain if there are only keyed subscribers.
+   */
+  private SubscriberChain unmatched() {
+    return subscribers.length == 0 ? EMPTY : this;
+  }
+
+  boolean isEmpty() {
+    return subscribers.length == 0 && !selective;
+  }
+
+  boolean hasAsyncSubscribers() {
+    return firstAsync < subscribers.length;
+  }
+
+  boolean hasBatchSubscribers() {
+    return batch;
+  }
+
+  /**
+   * The keyed subscribers sharing a key function, by key.
+   */
+  static final class KeyIndex {
+
+    private final Function<Object, ?> keyFunction;
+    private final Map<Object, SubscriberMethod[]> keyedSubscribers;
+    private final Map<Object, SubscriberChain> chains;
+
+    private KeyIndex(Function<Object, ?> keyFunction, Map<Object, SubscriberMethod[]> keyedSubscribers, Map<Object, SubscriberChain> chains) {
+      this.keyFunction = keyFunction;
+      this.keyedSubscribers = keyedSubscribers;
+      this.chains = chains;
+    }
+  }
+
+  /**
+   * The chains of the subscribers matching each payload class posted so far, resolved on first use.
+   */
+  static final class PayloadIndex {
+
+    private final SubscriberMethod[] sorted;
+    private final SubscriberChain nonGeneric;
+    private final Map<Class<?>, SubscriberChain> chains = new ConcurrentHashMap<>();
+
+    private PayloadIndex(SubscriberMethod[] sorted, SubscriberChain nonGeneric) {
+      this.sorted = sorted;
+      this.nonGeneric = nonGeneric;
+    }
+
+    /**
+     * Returns the chain of the non-generic subscribers and the generic subscribers matching the payload of the event.
+     */
+    SubscriberChain chain(Object event) {
+      Object payload = event instanceof GenericEvent ? ((GenericEvent<?>) event).payload() : null;
+      if (payload == null) {
+        return nonGeneric;
+      }
+
+      Class<?> payloadClass = payload.getClass();
+      SubscriberChain chain = chains.get(payloadClass);
+      return chain != null ? chain : chains.computeIfAbsent(payloadClass, this::resolve);
+    }
+
+    private SubscriberChain resolve(Class<?> payloadClass) {
+      List<SubscriberMethod> matching = new ArrayList<>(sorted.length);
+      for (SubscriberMethod subscriber : sorted) {
+        GenericSubscriberMethod generic = generic(subscriber);
+        if (generic == null || generic.payloadClass().isAssignableFrom(payloadClass)) {
+          matching.add(subscriber);
+        }
+      }
+      return indexKeys(matching.toArray(SubscriberStore.EMPTY));
+    }
+  }
+}
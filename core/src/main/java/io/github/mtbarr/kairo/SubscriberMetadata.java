@@ -0,0 +1,128 @@
+package io.github.mtbarr.kairo;
+
+import io.github.mtbarr.kairo.annotation.Subscribe;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Parsed {@link Subscribe} metadata of a single listener method.
+ * The metadata of a listener class is scanned once and cached, so registering more instances of the same class
+ * only has to bind the subscriber methods to the new receiver.
+ *
+ * @author Matheus Barreto <a href="https://github.com/mtbarr">mtbarr</a>
+ */
+final class SubscriberMetadata {
+
+  private static final SubscriberMetadata[] EMPTY = new SubscriberMetadata[0];
+
+  private static final ClassValue<SubscriberMetadata[]> CACHE = new ClassValue<>() {
+    @Override
+    protected SubscriberMetadata[] computeValue(Class<?> type) {
+      return scan(type);
+    }
+  };
+
+  final Method method;
+  final Class<?> eventClass;
+  final Type eventType;
+  final boolean ignoreCancelled;
+  final int priority;
+  final boolean async;
+  final boolean batch;
+  final boolean keyed;
+
+  private SubscriberMetadata(Method method, Class<?> eventClass, Type eventType, Subscribe annotation) {
+    this.method = method;
+    this.eventClass = eventClass;
+    this.eventType = eventType;
+    this.ignoreCancelled = annotation.ignoreCancelled();
+    this.priority = annotation.priority();
+    this.async = annotation.async();
+    this.batch = annotation.batch();
+    this.keyed = annotation.keyed();
+  }
+
+  /**
+   * Returns the subscriber metadata of a listener class, scanning it on first use.
+   *
+   * @param type the listener class.
+   * @return the subscriber metadata of the class, including the subscriber methods declared by its superclasses.
+   * @throws IllegalArgumentException if a subscriber method does not have exactly one parameter,
+   * or a batch subscriber method does not take a list of events.
+   */
+  static SubscriberMetadata[] forClass(Class<?> type) {
+    return CACHE.get(type);
+  }
+
+  /**
+   * Scans a listener class and its superclasses for methods annotated with {@link Subscribe}.
+   * A method overridden by a subclass is only registered once, and only if the overriding method is annotated itself.
+   *
+   * @param type the listener class.
+   * @return the subscriber metadata of the class.
+   */
+  private static SubscriberMetadata[] scan(Class<?> type) {
+    List<SubscriberMetadata> metadata = new ArrayList<>();
+    Set<List<Object>> overridden = new HashSet<>();
+
+    for (Class<?> current = type; current != null && current != Object.class; current = current.getSuperclass()) {
+      for (Method method : current.getDeclaredMethods()) {
+        if (method.isBridge() || method.isSynthetic()) {
+          continue;
+        }
+
+        int modifiers = method.getModifiers();
+        if (!Modifier.isPrivate(modifiers) && !Modifier.isStatic(modifiers)
+          && !overridden.add(List.of(method.getName(), Arrays.asList(method.getParameterTypes())))) {
+          continue;
+        }
+
+        Subscribe annotation = method.getAnnotation(Subscribe.class);
+        if (annotation == null) {
+          continue;
+        }
+
+        if (method.getParameterCount() != 1) {
+          throw new IllegalArgumentException("Method " + method.getName() + " must have exactly one parameter.");
+        }
+
+        Type eventType = annotation.batch() ? batchEventType(method) : method.getGenericParameterTypes()[0];
+        Class<?> eventClass = annotation.batch() ? batchEventClass(eventType) : method.getParameterTypes()[0];
+        metadata.add(new SubscriberMetadata(method, eventClass, eventType, annotation));
+      }
+    }
+
+    return metadata.isEmpty() ? EMPTY : metadata.toArray(EMPTY);
+  }
+
+  /**
+   * Returns the event type of a batch subscriber method, the element type of its {@code List<E>} parameter.
+   *
+   * @param method the batch subscriber method.
+   * @return the type of the events in the batches, a class or a parameterized type.
+   */
+  private static Type batchEventType(Method method) {
+    Type parameterType = method.getGenericParameterTypes()[0];
+    if (parameterType instanceof ParameterizedType) {
+      ParameterizedType listType = (ParameterizedType) parameterType;
+      Type elementType = listType.getActualTypeArguments()[0];
+      if (listType.getRawType() == List.class && (elementType instanceof Class || elementType instanceof ParameterizedType)) {
+        return elementType;
+      }
+    }
+
+    throw new IllegalArgumentException("Batch subscriber method " + method.getName() + " must take a List of events.");
+  }
+
+  private static Class<?> batchEventClass(Type eventType) {
+    return eventType instanceof ParameterizedType ? (Class<?>) ((ParameterizedType) eventType).getRawType() : (Class<?>) eventType;
+  }
+}
@@ -0,0 +1,126 @@
+package io.github.mtbarr.kairo;
+
+import io.github.mtbarr.kairo.subscriber.SubscriberMethod;
+
+/**
+ * Holds the subscriber methods of a single event type as an immutable array sorted by descending priority.
+ * Every change publishes a new array, so readers can iterate a snapshot without locking.
+ * Changes must be serialized by the caller.
+ *
+ * @author Matheus Barreto <a href="https://github.com/mtbarr">mtbarr</a>
+ */
+final class SubscriberStore {
+
+  static final SubscriberMethod[] EMPTY = new SubscriberMethod[0];
+
+  private volatile SubscriberMethod[] subscribers = EMPTY;
+
+  /**
+   * Returns the current snapshot of subscriber methods, sorted by descending priority.
+   *
+   * @return the current snapshot, must not be modified.
+   */
+  SubscriberMethod[] snapshot() {
+    return subscribers;
+  }
+
+  /**
+   * Inserts a subscriber method after every subscriber with the same or a higher priority.
+   *
+   * @param method the subscriber method to insert.
+   */
+  void add(SubscriberMethod method) {
+    SubscriberMethod[] current = subscribers;
+    int index = insertionPoint(current, method.priority());
+
+    SubscriberMethod[] updated = new SubscriberMethod[current.length + 1];
+    System.arraycopy(current, 0, updated, 0, index);
+    updated[index] = method;
+    System.arraycopy(current, index, updated, index + 1, current.length - index);
+    subscribers = updated;
+  }
+
+  /**
+   * Merges subscriber methods already sorted by descending priority into the store with a single copy.
+   * Existing subscribers keep precedence over added ones with the same priority.
+   *
+   * @param methods the subscriber methods to merge, sorted by descending priority.
+   * @param count the number of methods to merge from the start of the array.
+   */
+  void addAll(SubscriberMethod[] methods, int count) {
+    SubscriberMethod[] current = subscribers;
+    SubscriberMethod[] updated = new SubscriberMethod[current.length + count];
+
+    int i = 0;
+    int j = 0;
+    int k = 0;
+    while (i < current.length && j < count) {
+      updated[k++] = current[i].priority() >= methods[j].priority() ? current[i++] : methods[j++];
+    }
+
+    System.arraycopy(current, i, updated, k, current.length - i);
+    System.arraycopy(methods, j, updated, k + current.length - i, count - j);
+    subscribers = updated;
+  }
+
+  /**
+   * Removes a subscriber method, compared by identity.
+   *
+   * @param method the subscriber method to remove.
+   * @return true if the subscriber method was removed, false if it was not in the store.
+   */
+  boolean remove(SubscriberMethod method) {
+    SubscriberMethod[] current = subscribers;
+    int index = indexOf(current, method);
+    if (index < 0) {
+      return false;
+    }
+
+    if (current.length == 1) {
+      subscribers = EMPTY;
+      return true;
+    }
+
+    SubscriberMethod[] updated = new SubscriberMethod[current.length - 1];
+    System.arraycopy(current, 0, updated, 0, index);
+    System.arraycopy(current, index + 1, updated, index, current.length - index - 1);
+    subscribers = updated;
+    return true;
+  }
+
+  boolean isEmpty() {
+    return subscribers.length == 0;
+  }
+
+  /**
+   * Finds a subscriber method by identity, only scanning the subscribers with the same priority.
+   */
+  private static int indexOf(SubscriberMethod[] subscribers, SubscriberMethod method) {
+    int priority = method.priority();
+    for (int i = insertionPoint(subscribers, priority) - 1; i >= 0 && subscribers[i].priority() == priority; i--) {
+      if (subscribers[i] == method) {
+        return i;
+      }
+    }
+
+    return -1;
+  }
+
+  /**
+   * Finds the index after the last subscriber whose priority is the same or higher than the given one.
+   */
+  private static int insertionPoint(SubscriberMethod[] subscribers, int priority) {
+    int low = 0;
+    int high = subscribers.length;
+    while (low < high) {
+      int middle = (low + high) >>> 1;
+      if (subscribers[middle].priority() >= priority) {
+        low = middle + 1;
+      } else {
+        high = middle;
+      }
+    }
+
+    return low;
+  }
+}
@@ -0,0 +1,15 @@
+package io.github.mtbarr.kairo;
+
+/**
+ * Handle of a functional subscriber, returned when it is subscribed to an {@link EventBus}.
+ *
+ * @author Matheus Barreto <a href="https://github.com/mtbarr">mtbarr</a>
+ */
+@FunctionalInterface
+public interface Subscription {
+
+  /**
+   * Removes the subscriber from the event bus. Does nothing if it was already removed.
+   */
+  void unsubscribe();
+}
@@ -23,8 +23,37 @@ public @interface Subscribe {
   /**
    * Defines the priority of the subscriber.
    * higher priority subscribers will be invoked before lower priority subscribers.
+   * The bands of {@link io.github.mtbarr.kairo.EventPriority} can be used as priorities.
    *
    * @return the priority of the subscriber.
    */
   int priority() default 0;
-}
\ No newline at end of file
+
+  /**
+   * Indicates whether the subscriber should be invoked asynchronously.
+   * if set to true, the subscriber and every subscriber with a lower priority will be invoked,
+   * in order, on the executor of the event bus instead of the posting thread.
+   *
+   * @return true if the subscriber should be invoked asynchronously, false otherwise.
+   */
+  boolean async() default false;
+
+  /**
+   * Indicates whether the subscriber receives events in batches.
+   * if set to true, the method must take a {@code List<E>} parameter, and is subscribed to events of type {@code E}.
+   * Events posted together with {@code postAll} are delivered in a single call, events posted alone in a list of one.
+   *
+   * @return true if the subscriber receives batches of events, false otherwise.
+   */
+  boolean batch() default false;
+
+  /**
+   * Indicates whether the subscriber only receives the events with the key of its listener.
+   * if set to true, the listener must implement {@link io.github.mtbarr.kairo.keyed.KeyedListener} and the event
+   * {@link io.github.mtbarr.kairo.keyed.KeyedEvent}, the subscriber is then only invoked for the events whose key
+   * equals the key of the listener.
+   *
+   * @return true if the subscriber only receives the events with the key of its listener, false otherwise.
+   */
+  boolean keyed() default false;
+}
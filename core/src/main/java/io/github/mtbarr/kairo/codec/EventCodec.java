@@ -0,0 +1,33 @@
+package io.github.mtbarr.kairo.codec;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Compact binary codec of the events of a class, used to write events outside of the process, such as to an event
+ * journal or the ring file of an event bridge.
+ * <p>
+ * Codecs write and read the target storage directly when it is memory-mapped, without an intermediate copy, so the
+ * buffers are only valid during the call and decoded events must copy whatever they keep.
+ *
+ * @param <E> the type of the events.
+ * @author Matheus Barreto <a href="https://github.com/mtbarr">mtbarr</a>
+ */
+public interface EventCodec<E> {
+
+  /**
+   * Writes an event from the position of the buffer onwards.
+   *
+   * @param event the event to encode.
+   * @param target the buffer to write to, limited to the room available for the event.
+   * @throws java.nio.BufferOverflowException if the encoded event does not fit in the buffer.
+   */
+  void encode(E event, ByteBuffer target);
+
+  /**
+   * Reads an event written by {@link #encode}, from the position to the limit of the buffer.
+   *
+   * @param source the buffer holding the encoded event.
+   * @return the decoded event.
+   */
+  E decode(ByteBuffer source);
+}
@@ -0,0 +1,35 @@
+package io.github.mtbarr.kairo.exception;
+
+import io.github.mtbarr.kairo.subscriber.SubscriberMethod;
+
+/**
+ * Thrown by the default exception handler of the event bus when a subscriber method fails.
+ * The message is only built when requested and the exception does not fill in a stack trace of its own,
+ * so a subscriber failing on a hot event type does not pay for either on every failure.
+ *
+ * @author Matheus Barreto <a href="https://github.com/mtbarr">mtbarr</a>
+ */
+public class EventDispatchException extends RuntimeException {
+
+  private final transient SubscriberMethod method;
+  private final transient Object event;
+
+  public EventDispatchException(SubscriberMethod method, Object event, Throwable cause) {
+    super(null, cause, false, false);
+    this.method = method;
+    this.event = event;
+  }
+
+  public SubscriberMethod getMethod() {
+    return method;
+  }
+
+  public Object getEvent() {
+    return event;
+  }
+
+  @Override
+  public String getMessage() {
+    return "Error invoking subscriber method " + method + " for event " + event;
+  }
+}
@@ -4,6 +4,8 @@ package io.github.mtbarr.kairo.exception;
 
 import io.github.mtbarr.kairo.subscriber.SubscriberMethod;
 
+import java.time.Duration;
+
 /**
  * Represents an exception that occurs when an event handler encounters an exception.
  * @author Matheus Barreto <a href="https://github.com/mtbarr">mtbarr</a>
@@ -18,4 +20,28 @@ public interface EventExceptionHandler {
    * @param throwable the exception that occurred.
    */
   void handleEventException(SubscriberMethod method, Object event, Throwable throwable);
+
+  /**
+   * Rethrows every failure wrapped in an {@link EventDispatchException}, stopping the post.
+   * This is the default exception handler of the event bus.
+   *
+   * @return the rethrowing exception handler.
+   */
+  static EventExceptionHandler rethrowing() {
+    return (method, event, throwable) -> {
+      throw new EventDispatchException(method, event, throwable);
+    };
+  }
+
+  /**
+   * Logs at most the given number of failures per interval and drops the others, letting the post continue.
+   *
+   * @param logger the logger failures are logged to.
+   * @param maxLogsPerInterval the maximum number of failures logged per interval.
+   * @param interval the interval the number of logged failures is limited over.
+   * @return the rate limited logging exception handler.
+   */
+  static EventExceptionHandler rateLimited(System.Logger logger, int maxLogsPerInterval, Duration interval) {
+    return new RateLimitedExceptionHandler(logger, maxLogsPerInterval, interval);
+  }
 }
@@ -1,8 +1,20 @@
 package io.github.mtbarr.kairo.exception;
 
+/**
+ * Wraps a checked exception thrown by a subscriber method. The wrapper does not fill in a stack trace of its own,
+ * the stack trace of the cause already shows where the subscriber failed.
+ *
+ * @author Matheus Barreto <a href="https://github.com/mtbarr">mtbarr</a>
+ */
 public class EventInvocationException extends RuntimeException {
 
   public EventInvocationException(Throwable cause) {
-    super(cause);
+    super(null, cause, false, false);
+  }
+
+  @Override
+  public String getMessage() {
+    Throwable cause = this.getCause();
+    return cause == null ? null : cause.toString();
   }
 }
@@ -0,0 +1,33 @@
+package io.github.mtbarr.kairo.exception;
+
+import java.time.Duration;
+
+/**
+ * Reported to the exception handler instead of the failure that made a subscriber reach its consecutive failure
+ * threshold, once its circuit breaker disabled it. The subscriber is skipped until the cooldown elapsed.
+ *
+ * @author Matheus Barreto <a href="https://github.com/mtbarr">mtbarr</a>
+ */
+public class SubscriberDisabledException extends RuntimeException {
+
+  private final Duration cooldown;
+
+  public SubscriberDisabledException(Throwable cause, Duration cooldown) {
+    super(null, cause, false, false);
+    this.cooldown = cooldown;
+  }
+
+  /**
+   * Returns the time the subscriber stays disabled for.
+   *
+   * @return the cooldown of the circuit breaker.
+   */
+  public Duration getCooldown() {
+    return cooldown;
+  }
+
+  @Override
+  public String getMessage() {
+    return "Subscriber disabled for " + cooldown + " after consecutive failures, last failure: " + this.getCause();
+  }
+}
@@ -0,0 +1,66 @@
+package io.github.mtbarr.kairo.generic;
+
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+
+/**
+ * Captures a parameterized event type, which a {@link Class} cannot represent, to subscribe functional listeners to it.
+ * Create it as an anonymous subclass, so the type argument is kept in its generic superclass:
+ * <pre>{@code
+ * eventBus.subscribe(new EventType<Envelope<OrderCreated>>() {}, envelope -> ...);
+ * }</pre>
+ *
+ * @param <T> the captured event type.
+ * @author Matheus Barreto <a href="https://github.com/mtbarr">mtbarr</a>
+ */
+public abstract class EventType<T> {
+
+  private final Type type;
+  private final Class<? super T> rawType;
+
+  /**
+   * Captures the type argument of the subclass.
+   *
+   * @throws IllegalStateException if the subclass does not declare the type argument of its superclass.
+   * @throws IllegalArgumentException if the type argument is neither a class nor a parameterized type.
+   */
+  @SuppressWarnings("unchecked")
+  protected EventType() {
+    Type superclass = this.getClass().getGenericSuperclass();
+    if (!(superclass instanceof ParameterizedType) || ((ParameterizedType) superclass).getRawType() != EventType.class) {
+      throw new IllegalStateException("EventType must be created with a type argument, such as new EventType<Envelope<OrderCreated>>() {}.");
+    }
+
+    this.type = ((ParameterizedType) superclass).getActualTypeArguments()[0];
+    if (type instanceof Class) {
+      this.rawType = (Class<? super T>) type;
+    } else if (type instanceof ParameterizedType) {
+      this.rawType = (Class<? super T>) ((ParameterizedType) type).getRawType();
+    } else {
+      throw new IllegalArgumentException("Event type " + type.getTypeName() + " must be a class or a parameterized type.");
+    }
+  }
+
+  /**
+   * Returns the captured event type.
+   *
+   * @return the captured event type.
+   */
+  public Type getType() {
+    return type;
+  }
+
+  /**
+   * Returns the class of the captured event type, without its type arguments.
+   *
+   * @return the raw class of the event type.
+   */
+  public Class<? super T> getRawType() {
+    return rawType;
+  }
+
+  @Override
+  public String toString() {
+    return type.getTypeName();
+  }
+}
@@ -0,0 +1,20 @@
+package io.github.mtbarr.kairo.generic;
+
+/**
+ * Represents an event wrapping a payload, such as an envelope or a message, whose single type parameter is the type
+ * of its payload. Subscribers declaring a parameterized event type, like {@code Envelope<OrderCreated>}, only receive
+ * the events whose payload is an instance of the type argument. The event bus resolves the matching subscribers once
+ * per payload class, instead of invoking every subscriber of the raw type and letting each of them filter the payload.
+ *
+ * @param <T> the type of the payload.
+ * @author Matheus Barreto <a href="https://github.com/mtbarr">mtbarr</a>
+ */
+public interface GenericEvent<T> {
+
+  /**
+   * Returns the payload of the event.
+   *
+   * @return the payload of the event, or null if it has none.
+   */
+  T payload();
+}
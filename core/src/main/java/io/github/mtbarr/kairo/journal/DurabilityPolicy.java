@@ -0,0 +1,28 @@
+package io.github.mtbarr.kairo.journal;
+
+/**
+ * When the events appended to an {@link EventJournal} are written and forced to the storage device.
+ *
+ * @author Matheus Barreto <a href="https://github.com/mtbarr">mtbarr</a>
+ */
+public enum DurabilityPolicy {
+
+  /**
+   * Every event is written and forced before its post continues. Nothing posted is lost, at the cost of
+   * a write and an fsync per event.
+   */
+  SYNC,
+
+  /**
+   * Events are buffered and written, then forced together once per flush interval. A crash loses at most
+   * the events of the last interval, the fsync is shared by every event of the interval.
+   */
+  BATCHED,
+
+  /**
+   * Events are buffered and written once per flush interval, and only forced when a segment is rolled or
+   * the journal closed. A crash of the process loses at most the events of the last interval,
+   * a crash of the host whatever the operating system did not write back yet.
+   */
+  ASYNC
+}
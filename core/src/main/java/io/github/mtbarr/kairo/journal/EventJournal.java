@@ -0,0 +1,675 @@
+package io.github.mtbarr.kairo.journal;
+
+import io.github.mtbarr.kairo.codec.EventCodec;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.ObjIntConsumer;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+/**
+ * An append-only log of the events of selected types posted on an event bus, replayed to rebuild the state of
+ * the subscribers after a restart.
+ * <p>
+ * Every journaled event gets the next offset of the journal and is appended, encoded by the codec of its type, to
+ * the active segment file of the journal directory. Once the active segment reaches the segment size, a new segment
+ * starting at the next offset becomes the active one. Appends are buffered and written according to the
+ * {@link DurabilityPolicy}, the records carry a checksum so a record torn by a crash is dropped on the next open.
+ * <p>
+ * Segments are memory-mapped to be read, so replaying does not make a system call per event. Compaction rewrites
+ * the sealed segments, the ones before the active segment, keeping only the latest event of every key for the types registered with a
+ * key function.
+ *
+ * @author Matheus Barreto <a href="https://github.com/mtbarr">mtbarr</a>
+ */
+public class EventJournal implements AutoCloseable {
+
+  public static final long DEFAULT_SEGMENT_SIZE = 64L << 20;
+  public static final Duration DEFAULT_FLUSH_INTERVAL = Duration.ofMillis(10);
+
+  /**
+   * The largest segment size, segments are mapped as a whole and indexed with ints.
+   */
+  public static final long MAX_SEGMENT_SIZE = 1L << 30;
+
+  /**
+   * The size of the header of a record: payload length, type id, offset and checksum of the payload.
+   */
+  static final int RECORD_HEADER_SIZE = 20;
+
+  /**
+   * The size of the append buffer, which also bounds the size of a record.
+   */
+  private static final int BUFFER_SIZE = 1 << 18;
+  private static final int REPLAY_BATCH_SIZE = 1024;
+  private static final String COMPACTING_SUFFIX = ".compacting";
+
+  private final Path directory;
+  private final long segmentSize;
+  private final DurabilityPolicy durabilityPolicy;
+  private final Map<Class<?>, Registration<?>> registrations = new ConcurrentHashMap<>();
+  private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+  private final CRC32C checksum = new CRC32C();
+  private final Object compactionLock = new Object();
+  private final ScheduledFuture<?> flushTask;
+
+  /**
+   * The registrations by type id, replaced on registration.
+   */
+  private volatile Registration<?>[] typeIds = new Registration<?>[0];
+
+  /**
+   * The segments by ascending base offset, the last one being the active segment. Replaced on every change.
+   */
+  private volatile List<Segment> segments;
+
+  private FileChannel channel;
+  private long segmentPosition;
+  private long nextOffset;
+  private boolean unforced;
+  private boolean closed;
+  private IOException failure;
+
+  /**
+   * Opens the journal of the given directory with the default segment size, batched durability and flush interval.
+   *
+   * @param directory the directory of the segment files, created if it does not exist.
+   * @throws IOException if the journal cannot be opened.
+   */
+  public EventJournal(Path directory) throws IOException {
+    this(directory, DEFAULT_SEGMENT_SIZE, DurabilityPolicy.BATCHED, DEFAULT_FLUSH_INTERVAL);
+  }
+
+  /**
+   * Opens the journal of the given directory, recovering the segments left by a previous run.
+   *
+   * @param directory the directory of the segment files, created if it does not exist.
+   * @param segmentSize the size a segment is rolled at, in bytes.
+   * @param durabilityPolicy when appended events are written and forced to the storage device.
+   * @param flushInterval how often buffered events are written, and forced with {@link DurabilityPolicy#BATCHED}.
+   * @throws IOException if the journal cannot be opened.
+   */
+  public EventJournal(Path directory, long segmentSize, DurabilityPolicy durabilityPolicy, Duration flushInterval) throws IOException {
+    if (directory == null || durabilityPolicy == null || flushInterval == null) {
+      throw new NullPointerException("Directory, durability policy and flush interval cannot be null.");
+    }
+    if (segmentSize < 1 || segmentSize > MAX_SEGMENT_SIZE || flushInterval.isNegative() || flushInterval.isZero()) {
+      throw new IllegalArgumentException("Segment size and flush interval must be positive, segment size at most 1 GiB");
+    }
+
+    this.directory = directory;
+    this.segmentSize = segmentSize;
+    this.durabilityPolicy = durabilityPolicy;
+    this.recover();
+
+    long period = flushInterval.toNanos();
+    this.flushTask = durabilityPolicy == DurabilityPolicy.SYNC
+      ? null
+      : FlushScheduler.SCHEDULER.scheduleAtFixedRate(this::flushScheduled, period, period, TimeUnit.NANOSECONDS);
+  }
+
+  /**
+   * Journals the events of exactly the given class.
+   *
+   * @param type the class of the events to journal.
+   * @param typeId the identifier of the type in the segment files, which must stay the same across runs.
+   * @param codec encodes and decodes the events of the type.
+   * @param <E> the type of the events.
+   */
+  public <E> void register(Class<E> type, int typeId, EventCodec<E> codec) {
+    this.register(type, typeId, codec, null);
+  }
+
+  /**
+   * Journals the events of exactly the given class, compacting them down to the latest event of every key.
+   *
+   * @param type the class of the events to journal.
+   * @param typeId the identifier of the type in the segment files, which must stay the same across runs.
+   * @param codec encodes and decodes the events of the type.
+   * @param keyFunction returns the key of an event, or null to never compact the events of the type.
+   * @param <E> the type of the events.
+   */
+  public synchronized <E> void register(Class<E> type, int typeId, EventCodec<E> codec, Function<? super E, ?> keyFunction) {
+    if (type == null) {
+      throw new NullPointerException("Event type cannot be null.");
+    }
+    if (codec == null) {
+      throw new NullPointerException("Codec cannot be null.");
+    }
+    if (typeId < 0) {
+      throw new IllegalArgumentException("Type id cannot be negative");
+    }
+    if (typeId < typeIds.length && typeIds[typeId] != null && typeIds[typeId].type != type) {
+      throw new IllegalArgumentException("Type id " + typeId + " is already registered for " + typeIds[typeId].type.getName());
+    }
+
+    Registration<E> registration = new Registration<>(type, typeId, codec, keyFunction);
+    Registration<?>[] updated = Arrays.copyOf(typeIds, Math.max(typeIds.length, typeId + 1));
+    updated[typeId] = registration;
+    typeIds = updated;
+    registrations.put(type, registration);
+  }
+
+  /**
+   * Appends an event to the journal if its class is registered.
+   *
+   * @param event the posted event.
+   * @return true if the event was journaled, false if its class is not registered.
+   * @throws UncheckedIOException if the journal cannot be written.
+   */
+  public boolean append(Object event) {
+    Registration<?> registration = registrations.get(event.getClass());
+    if (registration == null) {
+      return false;
+    }
+
+    synchronized (this) {
+      try {
+        this.write(registration, event);
+      } catch (IOException e) {
+        throw new UncheckedIOException("Failed to append " + event.getClass().getName() + " to the journal.", e);
+      }
+    }
+    return true;
+  }
+
+  private void write(Registration<?> registration, Object event) throws IOException {
+    this.ensureOpen();
+    if (segmentPosition + buffer.position() >= segmentSize) {
+      this.rollSegment();
+    }
+
+    int start = buffer.position();
+    if (!this.encode(registration, event, start)) {
+      this.drain();
+      start = 0;
+      if (!this.encode(registration, event, start)) {
+        throw new IllegalArgumentException("Encoded " + event.getClass().getName() + " exceeds the journal buffer of " + BUFFER_SIZE + " bytes");
+      }
+    }
+
+    int end = buffer.position();
+    buffer.limit(end).position(start + RECORD_HEADER_SIZE);
+    checksum.reset();
+    checksum.update(buffer);
+    buffer.limit(buffer.capacity());
+
+    buffer.putInt(start, end - start - RECORD_HEADER_SIZE);
+    buffer.putInt(start + 4, registration.typeId);
+    buffer.putLong(start + 8, nextOffset++);
+    buffer.putInt(start + 16, (int) checksum.getValue());
+
+    if (durabilityPolicy == DurabilityPolicy.SYNC) {
+      this.drain();
+      this.force();
+    }
+  }
+
+  @SuppressWarnings("unchecked")
+  private <E> boolean encode(Registration<E> registration, Object event, int start) {
+    if (buffer.capacity() - start < RECORD_HEADER_SIZE) {
+      return false;
+    }
+
+    buffer.position(start + RECORD_HEADER_SIZE);
+    try {
+      registration.codec.encode((E) event, buffer);
+      return true;
+    } catch (BufferOverflowException e) {
+      buffer.limit(buffer.capacity()).position(start);
+      return false;
+    } catch (RuntimeException e) {
+      // Drop the partially encoded record, the next append would otherwise write after it.
+      buffer.limit(buffer.capacity()).position(start);
+      throw e;
+    }
+  }
+
+  /**
+   * Writes the buffered records to the active segment.
+   */
+  private void drain() throws IOException {
+    if (buffer.position() == 0) {
+      return;
+    }
+
+    buffer.flip();
+    while (buffer.hasRemaining()) {
+      segmentPosition += channel.write(buffer);
+    }
+    buffer.clear();
+    unforced = true;
+  }
+
+  private void force() throws IOException {
+    if (unforced) {
+      channel.force(false);
+      unforced = false;
+    }
+  }
+
+  /**
+   * Seals the active segment and starts a new one at the next offset, so the next compaction covers every event
+   * journaled so far. Segments are otherwise rolled once they reach the segment size.
+   *
+   * @throws IOException if the segments cannot be written.
+   */
+  public synchronized void roll() throws IOException {
+    this.ensureOpen();
+    if (segmentPosition + buffer.position() > 0) {
+      this.rollSegment();
+    }
+  }
+
+  private void rollSegment() throws IOException {
+    this.drain();
+    this.force();
+    channel.close();
+
+    Segment segment = Segment.in(directory, nextOffset);
+    channel = FileChannel.open(segment.file, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+    segmentPosition = 0;
+
+    List<Segment> updated = new ArrayList<>(segments);
+    updated.add(segment);
+    segments = Collections.unmodifiableList(updated);
+  }
+
+  private synchronized void flushScheduled() {
+    if (closed || failure != null) {
+      return;
+    }
+
+    try {
+      this.drain();
+      if (durabilityPolicy == DurabilityPolicy.BATCHED) {
+        this.force();
+      }
+    } catch (IOException e) {
+      // Reported by the next append, a scheduled task has nobody to throw to.
+      failure = e;
+    }
+  }
+
+  /**
+   * Writes and forces every appended event to the storage device, whatever the durability policy.
+   *
+   * @throws IOException if the journal cannot be written.
+   */
+  public synchronized void flush() throws IOException {
+    this.ensureOpen();
+    this.drain();
+    this.force();
+  }
+
+  /**
+   * Reads the journaled events from the given offset onwards, in order, decoding them in batches.
+   * Records of types that are no longer registered are skipped.
+   *
+   * @param fromOffset the offset of the first event to read.
+   * @param batchConsumer receives every batch of decoded events and their count, and may clear the batch.
+   * @return the offset following the last read event, or the given offset if no event was read.
+   * @throws UncheckedIOException if the journal cannot be read.
+   */
+  public long read(long fromOffset, ObjIntConsumer<Object[]> batchConsumer) {
+    List<Segment> segments;
+    long activeLength;
+    synchronized (this) {
+      try {
+        this.ensureOpen();
+        this.drain();
+      } catch (IOException e) {
+        throw new UncheckedIOException("Failed to write the journal before reading it.", e);
+      }
+      segments = this.segments;
+      activeLength = segmentPosition;
+    }
+
+    Reader reader = new Reader(fromOffset, batchConsumer);
+    for (int i = 0; i < segments.size(); i++) {
+      boolean active = i == segments.size() - 1;
+      if (!active && segments.get(i + 1).baseOffset <= fromOffset) {
+        continue;
+      }
+
+      MappedByteBuffer records = map(segments.get(i), active ? activeLength : -1);
+      if (records != null) {
+        reader.read(records);
+      }
+    }
+    reader.flush();
+    return reader.nextOffset;
+  }
+
+  /**
+   * Maps a segment to be read, up to the given length or the whole file if the length is negative.
+   *
+   * @return the mapped records, or null if the segment is empty or was removed by a compaction.
+   */
+  private static MappedByteBuffer map(Segment segment, long length) {
+    try (FileChannel channel = FileChannel.open(segment.file, StandardOpenOption.READ)) {
+      long size = length < 0 ? channel.size() : Math.min(length, channel.size());
+      return size == 0 ? null : channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+    } catch (NoSuchFileException e) {
+      return null;
+    } catch (IOException e) {
+      throw new UncheckedIOException("Failed to map journal segment " + segment.file, e);
+    }
+  }
+
+  /**
+   * Rewrites the segments before the active one, keeping only the latest event of every key for the types
+   * registered with a key function. Segments left empty are deleted. Appending continues during compaction.
+   *
+   * @return the number of removed events.
+   * @throws IOException if the segments cannot be rewritten.
+   */
+  public long compact() throws IOException {
+    synchronized (compactionLock) {
+      List<Segment> segments;
+      long activeLength;
+      synchronized (this) {
+        this.ensureOpen();
+        this.drain();
+        segments = this.segments;
+        activeLength = segmentPosition;
+      }
+      if (segments.size() < 2) {
+        return 0;
+      }
+
+      // The latest offset of every key, over the whole journal so a key updated in the active segment is compacted too.
+      Map<Integer, Map<Object, Long>> latestOffsets = new HashMap<>();
+      for (int i = 0; i < segments.size(); i++) {
+        MappedByteBuffer records = map(segments.get(i), i == segments.size() - 1 ? activeLength : -1);
+        if (records == null) {
+          continue;
+        }
+
+        for (int position = 0; position < records.limit(); position = next(records, position)) {
+          Object key = this.keyOf(records, position);
+          if (key != null) {
+            latestOffsets.computeIfAbsent(records.getInt(position + 4), k -> new HashMap<>()).put(key, records.getLong(position + 8));
+          }
+        }
+      }
+
+      long removed = 0;
+      List<Segment> deleted = new ArrayList<>();
+      for (Segment segment : segments.subList(0, segments.size() - 1)) {
+        MappedByteBuffer records = map(segment, -1);
+        if (records == null) {
+          continue;
+        }
+
+        Path compacted = segment.file.resolveSibling(segment.file.getFileName() + COMPACTING_SUFFIX);
+        long segmentRemoved = 0;
+        long kept = 0;
+        try (FileChannel target = FileChannel.open(compacted, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+          for (int position = 0; position < records.limit(); position = next(records, position)) {
+            Object key = this.keyOf(records, position);
+            if (key != null && latestOffsets.get(records.getInt(position + 4)).get(key) != records.getLong(position + 8)) {
+              segmentRemoved++;
+              continue;
+            }
+
+            ByteBuffer record = records.duplicate().position(position).limit(next(records, position));
+            while (record.hasRemaining()) {
+              target.write(record);
+            }
+            kept++;
+          }
+          target.force(false);
+        }
+
+        if (segmentRemoved == 0) {
+          Files.delete(compacted);
+        } else if (kept == 0) {
+          Files.delete(compacted);
+          Files.delete(segment.file);
+          deleted.add(segment);
+        } else {
+          Files.move(compacted, segment.file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        }
+        removed += segmentRemoved;
+      }
+
+      if (!deleted.isEmpty()) {
+        synchronized (this) {
+          List<Segment> updated = new ArrayList<>(this.segments);
+          updated.removeAll(deleted);
+          this.segments = Collections.unmodifiableList(updated);
+        }
+      }
+      return removed;
+    }
+  }
+
+  /**
+   * Returns the key of the record at the given position, or null if its type is not compacted.
+   */
+  private Object keyOf(MappedByteBuffer records, int position) {
+    Registration<?> registration = this.registration(records.getInt(position + 4));
+    if (registration == null || registration.keyFunction == null) {
+      return null;
+    }
+
+    ByteBuffer payload = records.duplicate().position(position + RECORD_HEADER_SIZE).limit(next(records, position));
+    return registration.keyOf(payload);
+  }
+
+  private Registration<?> registration(int typeId) {
+    Registration<?>[] typeIds = this.typeIds;
+    return typeId >= 0 && typeId < typeIds.length ? typeIds[typeId] : null;
+  }
+
+  private static int next(ByteBuffer records, int position) {
+    return position + RECORD_HEADER_SIZE + records.getInt(position);
+  }
+
+  /**
+   * Opens the segments of the directory, truncating the active one after its last intact record.
+   */
+  private void recover() throws IOException {
+    Files.createDirectories(directory);
+    List<Segment> found = new ArrayList<>();
+    try (Stream<Path> files = Files.list(directory)) {
+      for (Path file : (Iterable<Path>) files::iterator) {
+        if (file.getFileName().toString().endsWith(COMPACTING_SUFFIX)) {
+          // Left by a compaction interrupted before replacing its segment, which is still intact.
+          Files.delete(file);
+        } else if (Segment.isSegment(file)) {
+          found.add(Segment.of(file));
+        }
+      }
+    }
+    found.sort(Comparator.comparingLong(segment -> segment.baseOffset));
+    if (found.isEmpty()) {
+      found.add(Segment.in(directory, 0));
+    }
+
+    Segment active = found.get(found.size() - 1);
+    channel = FileChannel.open(active.file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+    long size = channel.size();
+    long position = 0;
+    nextOffset = active.baseOffset;
+    if (size > 0) {
+      MappedByteBuffer records = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+      CRC32C recordChecksum = new CRC32C();
+      while (position + RECORD_HEADER_SIZE <= size) {
+        int length = records.getInt((int) position);
+        if (length < 0 || position + RECORD_HEADER_SIZE + length > size) {
+          break;
+        }
+
+        ByteBuffer payload = records.duplicate().position((int) position + RECORD_HEADER_SIZE).limit((int) position + RECORD_HEADER_SIZE + length);
+        recordChecksum.reset();
+        recordChecksum.update(payload);
+        if ((int) recordChecksum.getValue() != records.getInt((int) position + 16)) {
+          break;
+        }
+
+        nextOffset = records.getLong((int) position + 8) + 1;
+        position += RECORD_HEADER_SIZE + length;
+      }
+      channel.truncate(position);
+    }
+
+    channel.position(position);
+    segmentPosition = position;
+    segments = Collections.unmodifiableList(found);
+  }
+
+  private void ensureOpen() throws IOException {
+    if (closed) {
+      throw new IllegalStateException("EventJournal is closed.");
+    }
+    if (failure != null) {
+      throw new IOException("A previous write of the journal failed.", failure);
+    }
+  }
+
+  /**
+   * Returns the offset the next journaled event gets.
+   *
+   * @return the next offset.
+   */
+  public synchronized long getNextOffset() {
+    return nextOffset;
+  }
+
+  /**
+   * Returns the number of segment files, the active one included.
+   *
+   * @return the number of segments.
+   */
+  public int getSegmentCount() {
+    return segments.size();
+  }
+
+  /**
+   * Writes and forces every appended event, then closes the active segment.
+   *
+   * @throws IOException if the journal cannot be written.
+   */
+  @Override
+  public synchronized void close() throws IOException {
+    if (closed) {
+      return;
+    }
+
+    if (flushTask != null) {
+      flushTask.cancel(false);
+    }
+    try {
+      if (failure == null) {
+        this.drain();
+        this.force();
+      }
+    } finally {
+      closed = true;
+      channel.close();
+    }
+  }
+
+  /**
+   * Decodes records into batches handed to the batch consumer.
+   */
+  private final class Reader {
+
+    private final long fromOffset;
+    private final ObjIntConsumer<Object[]> batchConsumer;
+    private final Object[] batch = new Object[REPLAY_BATCH_SIZE];
+    private int count;
+    private long nextOffset;
+
+    private Reader(long fromOffset, ObjIntConsumer<Object[]> batchConsumer) {
+      this.fromOffset = fromOffset;
+      this.batchConsumer = batchConsumer;
+      this.nextOffset = fromOffset;
+    }
+
+    private void read(MappedByteBuffer records) {
+      int limit = records.limit();
+      for (int position = 0; position < limit; position = next(records, position)) {
+        long offset = records.getLong(position + 8);
+        if (offset < fromOffset) {
+          continue;
+        }
+
+        Registration<?> registration = registration(records.getInt(position + 4));
+        if (registration != null) {
+          records.position(position + RECORD_HEADER_SIZE).limit(next(records, position));
+          batch[count++] = registration.codec.decode(records);
+          records.limit(limit);
+          if (count == batch.length) {
+            this.flush();
+          }
+        }
+        nextOffset = offset + 1;
+      }
+    }
+
+    private void flush() {
+      if (count > 0) {
+        batchConsumer.accept(batch, count);
+        count = 0;
+      }
+    }
+  }
+
+  private static final class Registration<E> {
+
+    private final Class<E> type;
+    private final int typeId;
+    private final EventCodec<E> codec;
+    private final Function<? super E, ?> keyFunction;
+
+    private Registration(Class<E> type, int typeId, EventCodec<E> codec, Function<? super E, ?> keyFunction) {
+      this.type = type;
+      this.typeId = typeId;
+      this.codec = codec;
+      this.keyFunction = keyFunction;
+    }
+
+    private Object keyOf(ByteBuffer payload) {
+      return keyFunction.apply(codec.decode(payload));
+    }
+  }
+
+  /**
+   * Holds the scheduler shared by every journal flushing its buffered events periodically.
+   */
+  private static final class FlushScheduler {
+
+    private static final ScheduledExecutorService SCHEDULER = Executors.newSingleThreadScheduledExecutor(runnable -> {
+      Thread thread = new Thread(runnable, "kairo-journal-flusher");
+      thread.setDaemon(true);
+      return thread;
+    });
+  }
+}
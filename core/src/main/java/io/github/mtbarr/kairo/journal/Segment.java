@@ -0,0 +1,34 @@
+package io.github.mtbarr.kairo.journal;
+
+import java.nio.file.Path;
+
+/**
+ * A segment file of the journal, holding the records from its base offset up to the base offset of the next one.
+ *
+ * @author Matheus Barreto <a href="https://github.com/mtbarr">mtbarr</a>
+ */
+final class Segment {
+
+  static final String SUFFIX = ".log";
+
+  final long baseOffset;
+  final Path file;
+
+  Segment(long baseOffset, Path file) {
+    this.baseOffset = baseOffset;
+    this.file = file;
+  }
+
+  static Segment in(Path directory, long baseOffset) {
+    return new Segment(baseOffset, directory.resolve(String.format("%020d%s", baseOffset, SUFFIX)));
+  }
+
+  static boolean isSegment(Path file) {
+    String name = file.getFileName().toString();
+    return name.length() == 20 + SUFFIX.length() && name.endsWith(SUFFIX) && name.chars().limit(20).allMatch(Character::isDigit);
+  }
+
+  static Segment of(Path file) {
+    return new Segment(Long.parseLong(file.getFileName().toString().substring(0, 20)), file);
+  }
+}
@@ -0,0 +1,26 @@
+package io.github.mtbarr.kairo.keyed;
+
+import java.util.function.Function;
+
+/**
+ * Represents an event carrying a key, such as the world or the entity it happened in.
+ * Methods annotated with {@code @Subscribe(keyed = true)} only receive the events whose key equals the key of their
+ * {@link KeyedListener}, which the event bus looks up in a hash index instead of invoking every subscriber.
+ *
+ * @param <K> the type of the key.
+ * @author Matheus Barreto <a href="https://github.com/mtbarr">mtbarr</a>
+ */
+public interface KeyedEvent<K> {
+
+  /**
+   * The key function shared by every annotated keyed subscriber, so they are all indexed together.
+   */
+  Function<KeyedEvent<?>, Object> KEY_FUNCTION = KeyedEvent::eventKey;
+
+  /**
+   * Returns the key of the event.
+   *
+   * @return the key of the event.
+   */
+  K eventKey();
+}
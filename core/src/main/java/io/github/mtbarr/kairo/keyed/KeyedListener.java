@@ -0,0 +1,17 @@
+package io.github.mtbarr.kairo.keyed;
+
+/**
+ * Represents a listener whose methods annotated with {@code @Subscribe(keyed = true)} only receive the
+ * {@link KeyedEvent}s with the same key. The key is read once, when the listener is subscribed.
+ *
+ * @author Matheus Barreto <a href="https://github.com/mtbarr">mtbarr</a>
+ */
+public interface KeyedListener {
+
+  /**
+   * Returns the key of the events the keyed subscriber methods of this listener receive.
+   *
+   * @return the key of the listener, which cannot be null.
+   */
+  Object listenerKey();
+}
@@ -0,0 +1,143 @@
+package io.github.mtbarr.kairo.metrics;
+
+import io.github.mtbarr.kairo.subscriber.SubscriberMethod;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Collects dispatch metrics of an event bus: post and cancellation counts per event type, and invocation counts,
+ * exception counts and latency histograms per subscriber method.
+ * All counters are striped {@link LongAdder}s, so posting from many threads does not contend on them.
+ * <p>
+ * Metrics are collected once registered with {@link io.github.mtbarr.kairo.EventBusBuilder#withMetrics(EventBusMetrics)},
+ * an event bus without metrics does not time its subscribers.
+ *
+ * @author Matheus Barreto <a href="https://github.com/mtbarr">mtbarr</a>
+ */
+public final class EventBusMetrics {
+
+  private final Map<Class<?>, EventTypeCounters> eventTypes = new ConcurrentHashMap<>();
+  private final Map<SubscriberMethod, SubscriberCounters> subscribers = new ConcurrentHashMap<>();
+  private final long slowSubscriberThresholdNanos;
+  private final SlowSubscriberListener slowSubscriberListener;
+
+  /**
+   * Creates metrics without slow subscriber notifications.
+   */
+  public EventBusMetrics() {
+    this.slowSubscriberThresholdNanos = Long.MAX_VALUE;
+    this.slowSubscriberListener = null;
+  }
+
+  /**
+   * Creates metrics that notify a listener whenever a subscriber takes at least the given threshold.
+   *
+   * @param slowSubscriberThreshold the duration from which a subscriber invocation is considered slow.
+   * @param slowSubscriberListener the listener to notify of slow subscriber invocations.
+   */
+  public EventBusMetrics(Duration slowSubscriberThreshold, SlowSubscriberListener slowSubscriberListener) {
+    if (slowSubscriberThreshold == null || slowSubscriberThreshold.isNegative()) {
+      throw new IllegalArgumentException("Slow subscriber threshold cannot be null or negative");
+    }
+    if (slowSubscriberListener == null) {
+      throw new IllegalArgumentException("Slow subscriber listener cannot be null");
+    }
+    this.slowSubscriberThresholdNanos = slowSubscriberThreshold.toNanos();
+    this.slowSubscriberListener = slowSubscriberListener;
+  }
+
+  /**
+   * Records a posted event.
+   *
+   * @param eventClass the concrete class of the posted event.
+   */
+  public void recordPost(Class<?> eventClass) {
+    this.eventType(eventClass).posts.increment();
+  }
+
+  /**
+   * Records a posted event that was cancelled by a subscriber.
+   *
+   * @param eventClass the concrete class of the cancelled event.
+   */
+  public void recordCancellation(Class<?> eventClass) {
+    this.eventType(eventClass).cancellations.increment();
+  }
+
+  /**
+   * Records an invocation of a subscriber, notifying the slow subscriber listener if it exceeded the threshold.
+   *
+   * @param subscriberMethod the invoked subscriber method.
+   * @param event the event the subscriber was invoked with.
+   * @param durationNanos how long the invocation took, in nanoseconds.
+   * @param failed whether the invocation threw an exception.
+   */
+  public void recordInvocation(SubscriberMethod subscriberMethod, Object event, long durationNanos, boolean failed) {
+    SubscriberCounters counters = subscribers.get(subscriberMethod);
+    if (counters == null) {
+      counters = subscribers.computeIfAbsent(subscriberMethod, k -> new SubscriberCounters());
+    }
+
+    counters.invocations.increment();
+    if (failed) {
+      counters.exceptions.increment();
+    }
+    counters.latency.record(durationNanos);
+
+    if (durationNanos >= slowSubscriberThresholdNanos) {
+      slowSubscriberListener.onSlowSubscriber(subscriberMethod, event, durationNanos);
+    }
+  }
+
+  /**
+   * Discards the metrics of a subscriber method that was unsubscribed, so they do not keep its listener reachable.
+   *
+   * @param subscriberMethod the unsubscribed subscriber method.
+   */
+  public void remove(SubscriberMethod subscriberMethod) {
+    subscribers.remove(subscriberMethod);
+  }
+
+  /**
+   * Takes a snapshot of the collected metrics.
+   *
+   * @return the metrics snapshot.
+   */
+  public MetricsSnapshot snapshot() {
+    Map<Class<?>, EventTypeSnapshot> eventTypeSnapshots = new HashMap<>();
+    for (Map.Entry<Class<?>, EventTypeCounters> entry : eventTypes.entrySet()) {
+      EventTypeCounters counters = entry.getValue();
+      eventTypeSnapshots.put(entry.getKey(), new EventTypeSnapshot(entry.getKey(), counters.posts.sum(), counters.cancellations.sum()));
+    }
+
+    Map<SubscriberMethod, SubscriberSnapshot> subscriberSnapshots = new HashMap<>();
+    for (Map.Entry<SubscriberMethod, SubscriberCounters> entry : subscribers.entrySet()) {
+      SubscriberCounters counters = entry.getValue();
+      subscriberSnapshots.put(entry.getKey(), new SubscriberSnapshot(entry.getKey(),
+        counters.invocations.sum(), counters.exceptions.sum(), counters.latency.snapshot()));
+    }
+
+    return new MetricsSnapshot(Collections.unmodifiableMap(eventTypeSnapshots), Collections.unmodifiableMap(subscriberSnapshots));
+  }
+
+  private EventTypeCounters eventType(Class<?> eventClass) {
+    EventTypeCounters counters = eventTypes.get(eventClass);
+    return counters != null ? counters : eventTypes.computeIfAbsent(eventClass, k -> new EventTypeCounters());
+  }
+
+  private static final class EventTypeCounters {
+    private final LongAdder posts = new LongAdder();
+    private final LongAdder cancellations = new LongAdder();
+  }
+
+  private static final class SubscriberCounters {
+    private final LongAdder invocations = new LongAdder();
+    private final LongAdder exceptions = new LongAdder();
+    private final LatencyHistogram latency = new LatencyHistogram();
+  }
+}
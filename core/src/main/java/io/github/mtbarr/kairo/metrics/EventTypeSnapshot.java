@@ -0,0 +1,47 @@
+package io.github.mtbarr.kairo.metrics;
+
+/**
+ * Snapshot of the post and cancellation counts of an event type.
+ *
+ * @author Matheus Barreto <a href="https://github.com/mtbarr">mtbarr</a>
+ */
+public final class EventTypeSnapshot {
+
+  private final Class<?> eventClass;
+  private final long posts;
+  private final long cancellations;
+
+  EventTypeSnapshot(Class<?> eventClass, long posts, long cancellations) {
+    this.eventClass = eventClass;
+    this.posts = posts;
+    this.cancellations = cancellations;
+  }
+
+  /**
+   * @return the concrete class of the posted events.
+   */
+  public Class<?> getEventClass() {
+    return eventClass;
+  }
+
+  /**
+   * @return the number of posted events.
+   */
+  public long getPosts() {
+    return posts;
+  }
+
+  /**
+   * @return the number of posted events that were cancelled by a subscriber.
+   */
+  public long getCancellations() {
+    return cancellations;
+  }
+
+  /**
+   * @return the fraction of posted events that were cancelled, between 0 and 1.
+   */
+  public double getCancellationRate() {
+    return posts == 0 ? 0 : (double) cancellations / posts;
+  }
+}
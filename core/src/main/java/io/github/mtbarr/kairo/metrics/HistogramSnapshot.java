@@ -0,0 +1,74 @@
+package io.github.mtbarr.kairo.metrics;
+
+/**
+ * Immutable snapshot of a {@link LatencyHistogram}.
+ *
+ * @author Matheus Barreto <a href="https://github.com/mtbarr">mtbarr</a>
+ */
+public final class HistogramSnapshot {
+
+  private final long[] counts;
+  private final long count;
+  private final long total;
+  private final long max;
+
+  HistogramSnapshot(long[] counts, long count, long total, long max) {
+    this.counts = counts;
+    this.count = count;
+    this.total = total;
+    this.max = max;
+  }
+
+  /**
+   * @return the number of recorded values.
+   */
+  public long getCount() {
+    return count;
+  }
+
+  /**
+   * @return the largest recorded value, or zero if no value was recorded.
+   */
+  public long getMax() {
+    return max;
+  }
+
+  /**
+   * @return the mean of the recorded values, or zero if no value was recorded.
+   */
+  public double getMean() {
+    return count == 0 ? 0 : (double) total / count;
+  }
+
+  /**
+   * Returns the value below which the given percentage of the recorded values fall,
+   * within the precision of the histogram buckets.
+   *
+   * @param percentile the percentile, between 0 and 100.
+   * @return the value at the percentile, or zero if no value was recorded.
+   */
+  public long getValueAtPercentile(double percentile) {
+    if (percentile < 0 || percentile > 100) {
+      throw new IllegalArgumentException("Percentile must be between 0 and 100");
+    }
+
+    long recorded = 0;
+    for (long bucketCount : counts) {
+      recorded += bucketCount;
+    }
+    if (recorded == 0) {
+      return 0;
+    }
+
+    long rank = Math.max(1, (long) Math.ceil(percentile / 100 * recorded));
+    long seen = 0;
+    for (int i = 0; i < counts.length; i++) {
+      seen += counts[i];
+      if (seen >= rank) {
+        return Math.min(LatencyHistogram.bucketUpperBound(i), max);
+      }
+    }
+
+    return max;
+  }
+}
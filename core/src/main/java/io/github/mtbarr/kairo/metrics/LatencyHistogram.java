@@ -0,0 +1,105 @@
+package io.github.mtbarr.kairo.metrics;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Concurrent latency histogram with logarithmic buckets, in the style of HdrHistogram.
+ * Every power of two is split into {@value #SUB_BUCKETS} linear buckets, so recorded values keep a relative precision
+ * of 12.5%. Buckets are striped {@link LongAdder}s created on first use, so concurrent recording does not contend.
+ *
+ * @author Matheus Barreto <a href="https://github.com/mtbarr">mtbarr</a>
+ */
+public final class LatencyHistogram {
+
+  static final int SUB_BUCKET_BITS = 3;
+  static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+
+  /**
+   * The magnitude of the largest tracked value, 2^46 nanoseconds is about 19 hours. Larger values land in the last bucket.
+   */
+  private static final int MAX_MAGNITUDE = 46;
+  static final int BUCKETS = (MAX_MAGNITUDE - SUB_BUCKET_BITS + 2) * SUB_BUCKETS;
+
+  private final AtomicReferenceArray<LongAdder> buckets = new AtomicReferenceArray<>(BUCKETS);
+  private final LongAdder count = new LongAdder();
+  private final LongAdder total = new LongAdder();
+  private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+  /**
+   * Records a value.
+   *
+   * @param value the value to record, negative values are recorded as zero.
+   */
+  public void record(long value) {
+    if (value < 0) {
+      value = 0;
+    }
+
+    int index = bucketIndex(value);
+    LongAdder bucket = buckets.get(index);
+    if (bucket == null) {
+      bucket = new LongAdder();
+      if (!buckets.compareAndSet(index, null, bucket)) {
+        bucket = buckets.get(index);
+      }
+    }
+
+    bucket.increment();
+    count.increment();
+    total.add(value);
+    max.accumulate(value);
+  }
+
+  /**
+   * Takes a snapshot of the recorded values. Values recorded while the snapshot is taken may be partially included.
+   *
+   * @return the histogram snapshot.
+   */
+  public HistogramSnapshot snapshot() {
+    long[] counts = new long[BUCKETS];
+    for (int i = 0; i < BUCKETS; i++) {
+      LongAdder bucket = buckets.get(i);
+      if (bucket != null) {
+        counts[i] = bucket.sum();
+      }
+    }
+
+    return new HistogramSnapshot(counts, count.sum(), total.sum(), max.get());
+  }
+
+  static int bucketIndex(long value) {
+    if (value < SUB_BUCKETS) {
+      return (int) value;
+    }
+
+    int magnitude = 63 - Long.numberOfLeadingZeros(value);
+    if (magnitude > MAX_MAGNITUDE) {
+      return BUCKETS - 1;
+    }
+
+    int shift = magnitude - SUB_BUCKET_BITS;
+    return (shift + 1) * SUB_BUCKETS + (int) (value >>> shift) - SUB_BUCKETS;
+  }
+
+  /**
+   * Returns the largest value that lands in the given bucket.
+   */
+  static long bucketUpperBound(int index) {
+    if (index >= BUCKETS - 1) {
+      return Long.MAX_VALUE;
+    }
+
+    return bucketLowerBound(index + 1) - 1;
+  }
+
+  private static long bucketLowerBound(int index) {
+    if (index < SUB_BUCKETS) {
+      return index;
+    }
+
+    int shift = index / SUB_BUCKETS - 1;
+    return (long) (SUB_BUCKETS + index % SUB_BUCKETS) << shift;
+  }
+}
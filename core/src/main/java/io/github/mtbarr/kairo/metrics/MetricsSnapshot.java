@@ -0,0 +1,35 @@
+package io.github.mtbarr.kairo.metrics;
+
+import io.github.mtbarr.kairo.subscriber.SubscriberMethod;
+
+import java.util.Map;
+
+/**
+ * Point in time snapshot of {@link EventBusMetrics}, meant to be exported to JMX or a metrics registry.
+ *
+ * @author Matheus Barreto <a href="https://github.com/mtbarr">mtbarr</a>
+ */
+public final class MetricsSnapshot {
+
+  private final Map<Class<?>, EventTypeSnapshot> eventTypes;
+  private final Map<SubscriberMethod, SubscriberSnapshot> subscribers;
+
+  MetricsSnapshot(Map<Class<?>, EventTypeSnapshot> eventTypes, Map<SubscriberMethod, SubscriberSnapshot> subscribers) {
+    this.eventTypes = eventTypes;
+    this.subscribers = subscribers;
+  }
+
+  /**
+   * @return the metrics of every posted event type, by concrete event class.
+   */
+  public Map<Class<?>, EventTypeSnapshot> getEventTypes() {
+    return eventTypes;
+  }
+
+  /**
+   * @return the metrics of every invoked subscriber method that is still subscribed.
+   */
+  public Map<SubscriberMethod, SubscriberSnapshot> getSubscribers() {
+    return subscribers;
+  }
+}
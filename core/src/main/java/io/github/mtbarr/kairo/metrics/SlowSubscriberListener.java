@@ -0,0 +1,22 @@
+package io.github.mtbarr.kairo.metrics;
+
+import io.github.mtbarr.kairo.subscriber.SubscriberMethod;
+
+/**
+ * Listener notified when a subscriber takes longer than the slow subscriber threshold of {@link EventBusMetrics}.
+ * It is called on the thread that invoked the subscriber, right after the subscriber returns.
+ *
+ * @author Matheus Barreto <a href="https://github.com/mtbarr">mtbarr</a>
+ */
+@FunctionalInterface
+public interface SlowSubscriberListener {
+
+  /**
+   * Called when a subscriber exceeded the slow subscriber threshold.
+   *
+   * @param subscriberMethod the slow subscriber method.
+   * @param event the event the subscriber was invoked with.
+   * @param durationNanos how long the subscriber took, in nanoseconds.
+   */
+  void onSlowSubscriber(SubscriberMethod subscriberMethod, Object event, long durationNanos);
+}
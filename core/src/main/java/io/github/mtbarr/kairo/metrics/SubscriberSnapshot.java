@@ -0,0 +1,51 @@
+package io.github.mtbarr.kairo.metrics;
+
+import io.github.mtbarr.kairo.subscriber.SubscriberMethod;
+
+/**
+ * Snapshot of the invocation counts and latencies of a subscriber method.
+ *
+ * @author Matheus Barreto <a href="https://github.com/mtbarr">mtbarr</a>
+ */
+public final class SubscriberSnapshot {
+
+  private final SubscriberMethod subscriberMethod;
+  private final long invocations;
+  private final long exceptions;
+  private final HistogramSnapshot latency;
+
+  SubscriberSnapshot(SubscriberMethod subscriberMethod, long invocations, long exceptions, HistogramSnapshot latency) {
+    this.subscriberMethod = subscriberMethod;
+    this.invocations = invocations;
+    this.exceptions = exceptions;
+    this.latency = latency;
+  }
+
+  /**
+   * @return the subscriber method.
+   */
+  public SubscriberMethod getSubscriberMethod() {
+    return subscriberMethod;
+  }
+
+  /**
+   * @return the number of times the subscriber was invoked.
+   */
+  public long getInvocations() {
+    return invocations;
+  }
+
+  /**
+   * @return the number of invocations that threw an exception.
+   */
+  public long getExceptions() {
+    return exceptions;
+  }
+
+  /**
+   * @return the latency histogram of the invocations, in nanoseconds.
+   */
+  public HistogramSnapshot getLatency() {
+    return latency;
+  }
+}
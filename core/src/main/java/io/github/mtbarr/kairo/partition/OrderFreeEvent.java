@@ -0,0 +1,10 @@
+package io.github.mtbarr.kairo.partition;
+
+/**
+ * Marks an event that does not need to be ordered with any other event, so any idle worker of a
+ * {@link io.github.mtbarr.kairo.PartitionedEventBus} may steal and dispatch it.
+ *
+ * @author Matheus Barreto <a href="https://github.com/mtbarr">mtbarr</a>
+ */
+public interface OrderFreeEvent {
+}
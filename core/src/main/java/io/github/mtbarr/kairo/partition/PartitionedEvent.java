@@ -0,0 +1,18 @@
+package io.github.mtbarr.kairo.partition;
+
+/**
+ * Represents an event carrying the key of the partition it is dispatched in by a
+ * {@link io.github.mtbarr.kairo.PartitionedEventBus}. Events with equal keys, such as the events of a player,
+ * are dispatched by the same worker in the order they were posted.
+ *
+ * @author Matheus Barreto <a href="https://github.com/mtbarr">mtbarr</a>
+ */
+public interface PartitionedEvent {
+
+  /**
+   * Returns the partition key of the event.
+   *
+   * @return the partition key, which cannot be null.
+   */
+  Object partitionKey();
+}
@@ -0,0 +1,34 @@
+package io.github.mtbarr.kairo.queue;
+
+/**
+ * Defines what happens to an event posted while the queue of a
+ * {@link io.github.mtbarr.kairo.QueuedEventBus} is full.
+ *
+ * @author Matheus Barreto <a href="https://github.com/mtbarr">mtbarr</a>
+ */
+public enum BackpressurePolicy {
+
+  /**
+   * Waits, using the wait strategy of the event bus, until the queue has room for the event.
+   */
+  BLOCK,
+
+  /**
+   * Discards the oldest queued event to make room for the posted one.
+   */
+  DROP_OLDEST,
+
+  /**
+   * Discards the posted event.
+   */
+  DROP_NEWEST,
+
+  /**
+   * Dispatches the posted event on the calling thread, bypassing the queue.
+   * A {@link io.github.mtbarr.kairo.PartitionedEventBus} only does so for
+   * {@link io.github.mtbarr.kairo.partition.OrderFreeEvent}s: any other event would overtake the queued events
+   * sharing its partition key, so it waits for room as with {@link #BLOCK} instead, unless it is posted by the
+   * worker of its own partition, which dispatches it inline.
+   */
+  CALLER_RUNS
+}
@@ -0,0 +1,154 @@
+package io.github.mtbarr.kairo.queue;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+
+/**
+ * A bounded, lock-free ring buffer for many producers and a single consumer.
+ * Every slot carries a sequence number that tells producers and the consumer whether the slot is free or filled,
+ * so neither side ever takes a lock. The consumer side claims slots with a CAS as well, which allows producers
+ * to evict the oldest element when the buffer is full.
+ *
+ * @param <E> the type of elements held in the buffer.
+ * @author Matheus Barreto <a href="https://github.com/mtbarr">mtbarr</a>
+ */
+public final class MpscRingBuffer<E> {
+
+  private static final VarHandle SEQUENCE = MethodHandles.arrayElementVarHandle(long[].class);
+  private static final VarHandle HEAD;
+  private static final VarHandle TAIL;
+
+  static {
+    try {
+      MethodHandles.Lookup lookup = MethodHandles.lookup();
+      HEAD = lookup.findVarHandle(MpscRingBuffer.class, "head", long.class);
+      TAIL = lookup.findVarHandle(MpscRingBuffer.class, "tail", long.class);
+    } catch (ReflectiveOperationException e) {
+      throw new ExceptionInInitializerError(e);
+    }
+  }
+
+  private final int mask;
+  private final long[] sequences;
+  private final Object[] elements;
+
+  private volatile long head;
+  private volatile long tail;
+
+  /**
+   * Creates a ring buffer that holds up to the given capacity, rounded up to the next power of two.
+   * The buffer holds at least two elements, with a single slot a freed slot and a filled slot share the same sequence.
+   *
+   * @param capacity the minimum capacity of the buffer.
+   */
+  public MpscRingBuffer(int capacity) {
+    if (capacity < 1 || capacity > 1 << 30) {
+      throw new IllegalArgumentException("Capacity must be between 1 and 2^30");
+    }
+
+    int size = Math.max(2, Integer.highestOneBit(capacity));
+    if (size < capacity) {
+      size <<= 1;
+    }
+
+    this.mask = size - 1;
+    this.sequences = new long[size];
+    this.elements = new Object[size];
+    for (int i = 0; i < size; i++) {
+      sequences[i] = i;
+    }
+  }
+
+  /**
+   * Adds an element to the buffer.
+   *
+   * @param element the element to add, must not be null.
+   * @return true if the element was added, false if the buffer is full.
+   */
+  public boolean offer(E element) {
+    while (true) {
+      long position = tail;
+      int index = (int) position & mask;
+      long difference = (long) SEQUENCE.getAcquire(sequences, index) - position;
+      if (difference == 0) {
+        if (TAIL.compareAndSet(this, position, position + 1)) {
+          elements[index] = element;
+          SEQUENCE.setRelease(sequences, index, position + 1);
+          return true;
+        }
+      } else if (difference < 0) {
+        return false;
+      }
+    }
+  }
+
+  /**
+   * Removes the oldest element of the buffer.
+   *
+   * @return the oldest element, or null if the buffer is empty.
+   */
+  @SuppressWarnings("unchecked")
+  public E poll() {
+    while (true) {
+      long position = head;
+      int index = (int) position & mask;
+      long difference = (long) SEQUENCE.getAcquire(sequences, index) - (position + 1);
+      if (difference == 0) {
+        if (HEAD.compareAndSet(this, position, position + 1)) {
+          Object element = elements[index];
+          elements[index] = null;
+          SEQUENCE.setRelease(sequences, index, position + mask + 1);
+          return (E) element;
+        }
+      } else if (difference < 0) {
+        return null;
+      }
+    }
+  }
+
+  /**
+   * Moves up to the given number of elements, oldest first, into the given array.
+   *
+   * @param target the array to move the elements into, starting at index zero.
+   * @param limit the maximum number of elements to move.
+   * @return the number of elements moved.
+   */
+  public int drain(Object[] target, int limit) {
+    int count = 0;
+    while (count < limit) {
+      E element = poll();
+      if (element == null) {
+        break;
+      }
+      target[count++] = element;
+    }
+    return count;
+  }
+
+  /**
+   * Indicates whether the buffer currently holds no elements.
+   *
+   * @return true if the buffer is empty, false otherwise.
+   */
+  public boolean isEmpty() {
+    return size() == 0;
+  }
+
+  /**
+   * Returns an estimate of the number of elements in the buffer.
+   *
+   * @return the number of elements in the buffer.
+   */
+  public int size() {
+    return (int) Math.max(0, Math.min(tail - head, capacity()));
+  }
+
+  /**
+   * Returns the capacity of the buffer.
+   *
+   * @return the capacity of the buffer.
+   */
+  public int capacity() {
+    return mask + 1;
+  }
+}
@@ -0,0 +1,49 @@
+package io.github.mtbarr.kairo.queue;
+
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Decides how a thread waits when it cannot make progress on a ring buffer,
+ * either the dispatcher of an empty buffer or a producer blocked on a full buffer.
+ *
+ * @author Matheus Barreto <a href="https://github.com/mtbarr">mtbarr</a>
+ */
+@FunctionalInterface
+public interface WaitStrategy {
+
+  /**
+   * Waits for a short while before the caller retries.
+   */
+  void idle();
+
+  /**
+   * Busy spins, giving the lowest latency at the cost of a fully used core.
+   *
+   * @return the spinning wait strategy.
+   */
+  static WaitStrategy spin() {
+    return Thread::onSpinWait;
+  }
+
+  /**
+   * Yields the processor to other threads between retries.
+   *
+   * @return the yielding wait strategy.
+   */
+  static WaitStrategy yielding() {
+    return Thread::yield;
+  }
+
+  /**
+   * Parks the thread for the given time between retries, trading latency for an idle core.
+   *
+   * @param nanos the time to park the thread for, in nanoseconds.
+   * @return the parking wait strategy.
+   */
+  static WaitStrategy park(long nanos) {
+    if (nanos <= 0) {
+      throw new IllegalArgumentException("Park time must be positive");
+    }
+    return () -> LockSupport.parkNanos(nanos);
+  }
+}
@@ -0,0 +1,41 @@
+package io.github.mtbarr.kairo.subscriber;
+
+/**
+ * Marks a subscriber method as asynchronous.
+ * The event bus invokes it, and every subscriber after it in the chain, on its executor.
+ *
+ * @author Matheus Barreto <a href="https://github.com/mtbarr">mtbarr</a>
+ */
+public class AsyncSubscriberMethod implements SubscriberMethod {
+
+  private final SubscriberMethod delegate;
+
+  public AsyncSubscriberMethod(SubscriberMethod delegate) {
+    this.delegate = delegate;
+  }
+
+  @Override
+  public Class<?> eventClass() {
+    return delegate.eventClass();
+  }
+
+  @Override
+  public void invoke(Object event) {
+    delegate.invoke(event);
+  }
+
+  @Override
+  public boolean ignoreCancelled() {
+    return delegate.ignoreCancelled();
+  }
+
+  @Override
+  public int priority() {
+    return delegate.priority();
+  }
+
+  @Override
+  public boolean async() {
+    return true;
+  }
+}
@@ -0,0 +1,61 @@
+package io.github.mtbarr.kairo.subscriber;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Subscriber method receiving events in batches.
+ * The delegate is invoked with a {@link List} of events of the subscribed type: every run of events posted together
+ * with {@code postAll}, or a list of one for events posted alone.
+ *
+ * @author Matheus Barreto <a href="https://github.com/mtbarr">mtbarr</a>
+ */
+public class BatchSubscriberMethod implements SubscriberMethod {
+
+  private final Class<?> clazz;
+  private final SubscriberMethod delegate;
+
+  /**
+   * @param clazz the class of the events in the batches.
+   * @param delegate the subscriber method invoked with the list of events.
+   */
+  public BatchSubscriberMethod(Class<?> clazz, SubscriberMethod delegate) {
+    this.clazz = clazz;
+    this.delegate = delegate;
+  }
+
+  @Override
+  public Class<?> eventClass() {
+    return clazz;
+  }
+
+  @Override
+  public void invoke(Object event) {
+    delegate.invoke(Collections.singletonList(event));
+  }
+
+  @Override
+  public void invokeBatch(List<?> events) {
+    delegate.invoke(events);
+  }
+
+  @Override
+  public boolean ignoreCancelled() {
+    return delegate.ignoreCancelled();
+  }
+
+  @Override
+  public int priority() {
+    return delegate.priority();
+  }
+
+  @Override
+  public boolean async() {
+    return delegate.async();
+  }
+
+  @Override
+  public boolean batch() {
+    return true;
+  }
+}
@@ -0,0 +1,142 @@
+package io.github.mtbarr.kairo.subscriber;
+
+import io.github.mtbarr.kairo.exception.SubscriberDisabledException;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Subscriber method that disables its delegate after a number of consecutive failures, skipping it until a cooldown
+ * elapsed. The failure disabling the subscriber is rethrown as a {@link SubscriberDisabledException}, so the
+ * exception handler of the event bus learns about it. Once the cooldown elapsed the subscriber is invoked again,
+ * and a single failure disables it for another cooldown while a success closes the breaker.
+ *
+ * @author Matheus Barreto <a href="https://github.com/mtbarr">mtbarr</a>
+ */
+public class CircuitBreakerSubscriberMethod implements SubscriberMethod {
+
+  private final SubscriberMethod delegate;
+  private final int failureThreshold;
+  private final Duration cooldown;
+  private final long cooldownNanos;
+  private final AtomicInteger consecutiveFailures = new AtomicInteger();
+
+  /**
+   * The {@link System#nanoTime()} the subscriber is enabled again at, only meaningful while disabled.
+   */
+  private volatile long disabledUntil;
+  private volatile boolean disabled;
+
+  /**
+   * @param delegate the subscriber method to guard.
+   * @param failureThreshold the number of consecutive failures disabling the subscriber.
+   * @param cooldown the time the subscriber stays disabled for.
+   */
+  public CircuitBreakerSubscriberMethod(SubscriberMethod delegate, int failureThreshold, Duration cooldown) {
+    if (failureThreshold < 1) {
+      throw new IllegalArgumentException("Failure threshold must be positive");
+    }
+    this.delegate = delegate;
+    this.failureThreshold = failureThreshold;
+    this.cooldown = cooldown;
+    this.cooldownNanos = cooldown.toNanos();
+  }
+
+  public SubscriberMethod delegate() {
+    return delegate;
+  }
+
+  /**
+   * Indicates whether the subscriber is currently skipped.
+   *
+   * @return true if the subscriber is disabled and its cooldown has not elapsed yet.
+   */
+  public boolean isDisabled() {
+    return disabled && System.nanoTime() - disabledUntil < 0;
+  }
+
+  @Override
+  public void invoke(Object event) {
+    if (!this.enabled()) {
+      return;
+    }
+
+    try {
+      delegate.invoke(event);
+    } catch (RuntimeException e) {
+      throw this.failed(e);
+    }
+    this.succeeded();
+  }
+
+  @Override
+  public void invokeBatch(List<?> events) {
+    if (!this.enabled()) {
+      return;
+    }
+
+    try {
+      delegate.invokeBatch(events);
+    } catch (RuntimeException e) {
+      throw this.failed(e);
+    }
+    this.succeeded();
+  }
+
+  private boolean enabled() {
+    if (!disabled) {
+      return true;
+    }
+    if (System.nanoTime() - disabledUntil < 0) {
+      return false;
+    }
+
+    // Half open: the next failure disables the subscriber again right away.
+    consecutiveFailures.set(failureThreshold - 1);
+    disabled = false;
+    return true;
+  }
+
+  private RuntimeException failed(RuntimeException exception) {
+    if (consecutiveFailures.incrementAndGet() < failureThreshold) {
+      return exception;
+    }
+
+    disabledUntil = System.nanoTime() + cooldownNanos;
+    disabled = true;
+    return new SubscriberDisabledException(exception, cooldown);
+  }
+
+  private void succeeded() {
+    // Only write when needed, the common path of a healthy subscriber stays a single read.
+    if (consecutiveFailures.get() != 0) {
+      consecutiveFailures.set(0);
+    }
+  }
+
+  @Override
+  public Class<?> eventClass() {
+    return delegate.eventClass();
+  }
+
+  @Override
+  public boolean ignoreCancelled() {
+    return delegate.ignoreCancelled();
+  }
+
+  @Override
+  public int priority() {
+    return delegate.priority();
+  }
+
+  @Override
+  public boolean async() {
+    return delegate.async();
+  }
+
+  @Override
+  public boolean batch() {
+    return delegate.batch();
+  }
+}
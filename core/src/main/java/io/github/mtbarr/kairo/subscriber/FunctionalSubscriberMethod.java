@@ -29,12 +29,14 @@ public class FunctionalSubscriberMethod<E> implements SubscriberMethod {
   }
 
   @Override
+  @SuppressWarnings("unchecked")
   public void invoke(Object event) {
     if (!clazz.isInstance(event)) {
       throw new IllegalArgumentException("Event is not an instance of " + clazz.getName());
     }
 
-    consumer.accept(clazz.cast(event));
+    // The type was checked above, Class#cast would only check it again.
+    consumer.accept((E) event);
   }
 
   @Override
@@ -0,0 +1,53 @@
+package io.github.mtbarr.kairo.subscriber;
+
+import io.github.mtbarr.kairo.exception.EventInvocationException;
+
+
+/**
+ * Represents a subscriber method that is invoked through a generated {@link SubscriberInvoker}.
+ *
+ * @author Matheus Barreto <a href="https://github.com/mtbarr">mtbarr</a>
+ */
+public class GeneratedSubscriberMethod implements SubscriberMethod {
+
+  private final Class<?> clazz;
+  private final Object object;
+  private final SubscriberInvoker invoker;
+  private final boolean ignoreCancelled;
+  private final int priority;
+
+  public GeneratedSubscriberMethod(Class<?> clazz, Object object, SubscriberInvoker invoker, boolean ignoreCancelled, int priority) {
+    this.clazz = clazz;
+    this.object = object;
+    this.invoker = invoker;
+    this.ignoreCancelled = ignoreCancelled;
+    this.priority = priority;
+  }
+
+  @Override
+  public Class<?> eventClass() {
+    return clazz;
+  }
+
+  @Override
+  public void invoke(Object event) {
+    try {
+      invoker.invoke(object, event);
+    } catch (RuntimeException | Error e) {
+      // Unchecked exceptions reach the exception handler as thrown, only checked ones need a wrapper.
+      throw e;
+    } catch (Throwable throwable) {
+      throw new EventInvocationException(throwable);
+    }
+  }
+
+  @Override
+  public boolean ignoreCancelled() {
+    return ignoreCancelled;
+  }
+
+  @Override
+  public int priority() {
+    return priority;
+  }
+}
@@ -0,0 +1,103 @@
+package io.github.mtbarr.kairo.subscriber;
+
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.ref.Reference;
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+
+/**
+ * Subscriber method factory that spins a {@link SubscriberInvoker} class per subscriber method with
+ * {@link LambdaMetafactory}, so the listener is called directly instead of through a non-constant method handle.
+ * Invokers are cached per declaring class, registering more instances of a listener class does not generate new classes.
+ *
+ * @author Matheus Barreto <a href="https://github.com/mtbarr">mtbarr</a>
+ */
+final class GeneratedSubscriberMethodFactory implements SubscriberMethodFactory {
+
+  static final GeneratedSubscriberMethodFactory INSTANCE = new GeneratedSubscriberMethodFactory();
+
+  private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+  private static final MethodType INVOKED_TYPE = MethodType.methodType(SubscriberInvoker.class);
+  private static final MethodType INVOKE_TYPE = MethodType.methodType(void.class, Object.class, Object.class);
+
+  private final ClassValue<Map<Method, SubscriberInvoker>> invokers = new ClassValue<>() {
+    @Override
+    protected Map<Method, SubscriberInvoker> computeValue(Class<?> type) {
+      return new ConcurrentHashMap<>();
+    }
+  };
+
+  private GeneratedSubscriberMethodFactory() {
+  }
+
+  @Override
+  public SubscriberMethod create(Class<?> clazz, Object object, Method method, boolean ignoreCancelled, int priority) throws Throwable {
+    SubscriberInvoker invoker = this.getInvoker(method);
+    if (invoker == null) {
+      return ReflectiveSubscriberMethodFactory.INSTANCE.create(clazz, object, method, ignoreCancelled, priority);
+    }
+
+    return new GeneratedSubscriberMethod(clazz, object, invoker, ignoreCancelled, priority);
+  }
+
+  @Override
+  public SubscriberMethod createWeak(Class<?> clazz, Reference<?> reference, Method method, boolean ignoreCancelled, int priority) throws Throwable {
+    SubscriberInvoker invoker = this.getInvoker(method);
+    if (invoker == null) {
+      return ReflectiveSubscriberMethodFactory.INSTANCE.createWeak(clazz, reference, method, ignoreCancelled, priority);
+    }
+
+    return new WeakSubscriberMethod(clazz, reference, invoker, ignoreCancelled, priority);
+  }
+
+  /**
+   * Returns the generated invoker of a method, generating it on first use.
+   *
+   * @param method the method to invoke.
+   * @return the generated invoker, or null if the method cannot be linked directly.
+   */
+  private SubscriberInvoker getInvoker(Method method) {
+    Map<Method, SubscriberInvoker> classInvokers = invokers.get(method.getDeclaringClass());
+    SubscriberInvoker invoker = classInvokers.get(method);
+    if (invoker != null) {
+      return invoker;
+    }
+
+    try {
+      invoker = generate(method);
+    } catch (Throwable throwable) {
+      return null;
+    }
+
+    SubscriberInvoker previous = classInvokers.putIfAbsent(method, invoker);
+    return previous != null ? previous : invoker;
+  }
+
+  private static SubscriberInvoker generate(Method method) throws Throwable {
+    MethodHandles.Lookup lookup = MethodHandles.privateLookupIn(method.getDeclaringClass(), LOOKUP);
+
+    // The invoker is defined as a nestmate of the listener class, which requires full privilege access.
+    // Listeners loaded in another module (e.g. by a plugin class loader) keep using the reflective path.
+    if (!lookup.hasFullPrivilegeAccess()) {
+      throw new IllegalAccessException("No full privilege access to " + method.getDeclaringClass().getName());
+    }
+
+    MethodHandle target = lookup.unreflect(method);
+    CallSite callSite = LambdaMetafactory.metafactory(
+      lookup,
+      "invoke",
+      INVOKED_TYPE,
+      INVOKE_TYPE,
+      target,
+      target.type().changeReturnType(void.class)
+    );
+
+    return (SubscriberInvoker) callSite.getTarget().invokeExact();
+  }
+}
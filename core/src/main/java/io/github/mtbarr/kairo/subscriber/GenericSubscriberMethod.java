@@ -0,0 +1,131 @@
+package io.github.mtbarr.kairo.subscriber;
+
+import io.github.mtbarr.kairo.generic.GenericEvent;
+
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.lang.reflect.TypeVariable;
+import java.lang.reflect.WildcardType;
+import java.util.List;
+
+/**
+ * Subscriber method that only receives the {@link GenericEvent}s whose payload is an instance of its payload class.
+ * The event bus resolves the generic subscribers matching a payload class once and caches them.
+ *
+ * @author Matheus Barreto <a href="https://github.com/mtbarr">mtbarr</a>
+ */
+public class GenericSubscriberMethod implements SubscriberMethod {
+
+  private final SubscriberMethod delegate;
+  private final Class<?> payloadClass;
+
+  /**
+   * @param delegate the subscriber method invoked with the matching events.
+   * @param payloadClass the class the payload of the events to receive must be an instance of.
+   */
+  public GenericSubscriberMethod(SubscriberMethod delegate, Class<?> payloadClass) {
+    if (payloadClass == null) {
+      throw new NullPointerException("Payload class cannot be null.");
+    }
+    if (!GenericEvent.class.isAssignableFrom(delegate.eventClass())) {
+      throw new IllegalArgumentException("Generic subscriber event " + delegate.eventClass().getName() + " must implement GenericEvent.");
+    }
+    this.delegate = delegate;
+    this.payloadClass = payloadClass;
+  }
+
+  /**
+   * Creates the subscriber method of a possibly parameterized event type. Only parameterized {@link GenericEvent}
+   * types with a single type argument narrower than {@code Object}, such as {@code Envelope<OrderCreated>}, filter
+   * events by payload; any other type is subscribed to as its raw class.
+   *
+   * @param delegate the subscriber method invoked with the matching events.
+   * @param eventType the declared event type of the subscriber.
+   * @return the generic subscriber method, or the delegate if the event type does not filter payloads.
+   */
+  public static SubscriberMethod forType(SubscriberMethod delegate, Type eventType) {
+    if (!(eventType instanceof ParameterizedType) || !GenericEvent.class.isAssignableFrom(delegate.eventClass())) {
+      return delegate;
+    }
+
+    Type[] arguments = ((ParameterizedType) eventType).getActualTypeArguments();
+    if (arguments.length != 1) {
+      return delegate;
+    }
+
+    Class<?> payloadClass = erasure(arguments[0]);
+    return payloadClass == Object.class ? delegate : new GenericSubscriberMethod(delegate, payloadClass);
+  }
+
+  /**
+   * Returns the class the payloads of a type argument are instances of, the upper bound of wildcards and type variables.
+   */
+  private static Class<?> erasure(Type type) {
+    if (type instanceof Class) {
+      return (Class<?>) type;
+    }
+    if (type instanceof ParameterizedType) {
+      return erasure(((ParameterizedType) type).getRawType());
+    }
+    if (type instanceof WildcardType) {
+      return erasure(((WildcardType) type).getUpperBounds()[0]);
+    }
+    if (type instanceof TypeVariable) {
+      return erasure(((TypeVariable<?>) type).getBounds()[0]);
+    }
+    return Object.class;
+  }
+
+  public SubscriberMethod delegate() {
+    return delegate;
+  }
+
+  public Class<?> payloadClass() {
+    return payloadClass;
+  }
+
+  /**
+   * Indicates whether the subscriber receives the given event.
+   *
+   * @param event the event to check.
+   * @return true if the payload of the event is an instance of the payload class of the subscriber.
+   */
+  public boolean matches(Object event) {
+    return payloadClass.isInstance(((GenericEvent<?>) event).payload());
+  }
+
+  @Override
+  public Class<?> eventClass() {
+    return delegate.eventClass();
+  }
+
+  @Override
+  public void invoke(Object event) {
+    delegate.invoke(event);
+  }
+
+  @Override
+  public void invokeBatch(List<?> events) {
+    delegate.invokeBatch(events);
+  }
+
+  @Override
+  public boolean ignoreCancelled() {
+    return delegate.ignoreCancelled();
+  }
+
+  @Override
+  public int priority() {
+    return delegate.priority();
+  }
+
+  @Override
+  public boolean async() {
+    return delegate.async();
+  }
+
+  @Override
+  public boolean batch() {
+    return delegate.batch();
+  }
+}
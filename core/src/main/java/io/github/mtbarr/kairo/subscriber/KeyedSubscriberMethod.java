@@ -0,0 +1,112 @@
+package io.github.mtbarr.kairo.subscriber;
+
+import io.github.mtbarr.kairo.keyed.KeyedEvent;
+import io.github.mtbarr.kairo.keyed.KeyedListener;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Subscriber method that only receives the events whose key, extracted by the key function, equals its key.
+ * The event bus indexes keyed subscribers by key, subscribers sharing the same key function instance share an index.
+ *
+ * @author Matheus Barreto <a href="https://github.com/mtbarr">mtbarr</a>
+ */
+public class KeyedSubscriberMethod implements SubscriberMethod {
+
+  private final SubscriberMethod delegate;
+  private final Function<Object, ?> keyFunction;
+  private final Object key;
+
+  /**
+   * @param delegate the subscriber method invoked with the matching events.
+   * @param keyFunction extracts the key of an event of the subscribed type.
+   * @param key the key of the events to receive.
+   */
+  @SuppressWarnings("unchecked")
+  public KeyedSubscriberMethod(SubscriberMethod delegate, Function<?, ?> keyFunction, Object key) {
+    if (keyFunction == null || key == null) {
+      throw new NullPointerException("Key function and key cannot be null.");
+    }
+    this.delegate = delegate;
+    this.keyFunction = (Function<Object, ?>) keyFunction;
+    this.key = key;
+  }
+
+  /**
+   * Creates the keyed subscriber method of a {@link KeyedListener}, keyed by {@link KeyedEvent#eventKey()}.
+   *
+   * @param delegate the subscriber method invoked with the matching events.
+   * @param listener the listener declaring the subscriber method.
+   * @return the keyed subscriber method.
+   * @throws IllegalArgumentException if the listener is not a {@link KeyedListener}
+   * or the subscribed event type is not a {@link KeyedEvent}.
+   */
+  public static KeyedSubscriberMethod forListener(SubscriberMethod delegate, Object listener) {
+    if (!(listener instanceof KeyedListener)) {
+      throw new IllegalArgumentException("Keyed subscriber listener " + listener.getClass().getName() + " must implement KeyedListener.");
+    }
+    if (!KeyedEvent.class.isAssignableFrom(delegate.eventClass())) {
+      throw new IllegalArgumentException("Keyed subscriber event " + delegate.eventClass().getName() + " must implement KeyedEvent.");
+    }
+
+    return new KeyedSubscriberMethod(delegate, KeyedEvent.KEY_FUNCTION, ((KeyedListener) listener).listenerKey());
+  }
+
+  public SubscriberMethod delegate() {
+    return delegate;
+  }
+
+  public Function<Object, ?> keyFunction() {
+    return keyFunction;
+  }
+
+  public Object key() {
+    return key;
+  }
+
+  /**
+   * Indicates whether the subscriber receives the given event.
+   *
+   * @param event the event to check.
+   * @return true if the key of the event equals the key of the subscriber.
+   */
+  public boolean matches(Object event) {
+    return key.equals(keyFunction.apply(event));
+  }
+
+  @Override
+  public Class<?> eventClass() {
+    return delegate.eventClass();
+  }
+
+  @Override
+  public void invoke(Object event) {
+    delegate.invoke(event);
+  }
+
+  @Override
+  public void invokeBatch(List<?> events) {
+    delegate.invokeBatch(events);
+  }
+
+  @Override
+  public boolean ignoreCancelled() {
+    return delegate.ignoreCancelled();
+  }
+
+  @Override
+  public int priority() {
+    return delegate.priority();
+  }
+
+  @Override
+  public boolean async() {
+    return delegate.async();
+  }
+
+  @Override
+  public boolean batch() {
+    return delegate.batch();
+  }
+}
@@ -28,6 +28,13 @@ public class ReflectiveSubscriberMethod implements SubscriberMethod {
     this.handle = LOOKUP.unreflect(method).bindTo(object);
   }
 
+  public ReflectiveSubscriberMethod(Class<?> clazz, MethodHandle handle, boolean ignoreCancelled, int priority) {
+    this.clazz = clazz;
+    this.ignoreCancelled = ignoreCancelled;
+    this.priority = priority;
+    this.handle = handle;
+  }
+
   @Override
   public Class<?> eventClass() {
     return clazz;
@@ -37,6 +44,8 @@ public class ReflectiveSubscriberMethod implements SubscriberMethod {
   public void invoke(Object event) {
     try {
       handle.invoke(event);
+    } catch (RuntimeException | Error e) {
+      throw e;
     } catch (Throwable throwable) {
       throw new EventInvocationException(throwable);
     }
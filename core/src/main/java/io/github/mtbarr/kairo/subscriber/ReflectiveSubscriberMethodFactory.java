@@ -0,0 +1,64 @@
+package io.github.mtbarr.kairo.subscriber;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.ref.Reference;
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+
+/**
+ * Subscriber method factory that invokes subscriber methods through a {@link MethodHandle}.
+ * The unbound handle of every method is cached per declaring class, so registering more instances of a listener class
+ * only binds the handle to the new receiver.
+ *
+ * @author Matheus Barreto <a href="https://github.com/mtbarr">mtbarr</a>
+ */
+final class ReflectiveSubscriberMethodFactory implements SubscriberMethodFactory {
+
+  static final ReflectiveSubscriberMethodFactory INSTANCE = new ReflectiveSubscriberMethodFactory();
+
+  private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+  private static final MethodType INVOKE_TYPE = MethodType.methodType(void.class, Object.class, Object.class);
+
+  private final ClassValue<Map<Method, MethodHandle>> handles = new ClassValue<>() {
+    @Override
+    protected Map<Method, MethodHandle> computeValue(Class<?> type) {
+      return new ConcurrentHashMap<>();
+    }
+  };
+
+  private ReflectiveSubscriberMethodFactory() {
+  }
+
+  @Override
+  public SubscriberMethod create(Class<?> clazz, Object object, Method method, boolean ignoreCancelled, int priority) throws Throwable {
+    return new ReflectiveSubscriberMethod(clazz, this.getHandle(method).bindTo(object), ignoreCancelled, priority);
+  }
+
+  @Override
+  public SubscriberMethod createWeak(Class<?> clazz, Reference<?> reference, Method method, boolean ignoreCancelled, int priority) throws Throwable {
+    return new WeakSubscriberMethod(clazz, reference, SubscriberInvoker.reflective(this.getHandle(method)), ignoreCancelled, priority);
+  }
+
+  /**
+   * Returns the unbound handle of a method, unreflecting it on first use.
+   *
+   * @param method the method to invoke.
+   * @return the handle of the method, of type {@code (Object,Object)void}.
+   * @throws IllegalAccessException if the method is not accessible.
+   */
+  private MethodHandle getHandle(Method method) throws IllegalAccessException {
+    Map<Method, MethodHandle> classHandles = handles.get(method.getDeclaringClass());
+    MethodHandle handle = classHandles.get(method);
+    if (handle != null) {
+      return handle;
+    }
+
+    handle = LOOKUP.unreflect(method).asType(INVOKE_TYPE);
+    MethodHandle previous = classHandles.putIfAbsent(method, handle);
+    return previous != null ? previous : handle;
+  }
+}
@@ -0,0 +1,109 @@
+package io.github.mtbarr.kairo.subscriber;
+
+import java.lang.ref.Reference;
+
+/**
+ * Describes a subscriber method independently of any listener instance: the event it is subscribed to,
+ * an unbound invoker and its subscription options. Binding a descriptor to a listener creates its subscriber method.
+ *
+ * @author Matheus Barreto <a href="https://github.com/mtbarr">mtbarr</a>
+ */
+public final class SubscriberDescriptor {
+
+  private final Class<?> eventClass;
+  private final SubscriberInvoker invoker;
+  private final boolean ignoreCancelled;
+  private final int priority;
+  private final boolean async;
+  private final boolean batch;
+  private final boolean keyed;
+  private final Class<?> payloadClass;
+
+  public SubscriberDescriptor(Class<?> eventClass, SubscriberInvoker invoker, boolean ignoreCancelled, int priority, boolean async) {
+    this(eventClass, invoker, ignoreCancelled, priority, async, false, false);
+  }
+
+  public SubscriberDescriptor(Class<?> eventClass, SubscriberInvoker invoker, boolean ignoreCancelled, int priority, boolean async, boolean batch) {
+    this(eventClass, invoker, ignoreCancelled, priority, async, batch, false);
+  }
+
+  public SubscriberDescriptor(Class<?> eventClass, SubscriberInvoker invoker, boolean ignoreCancelled, int priority, boolean async, boolean batch, boolean keyed) {
+    this(eventClass, invoker, ignoreCancelled, priority, async, batch, keyed, null);
+  }
+
+  public SubscriberDescriptor(Class<?> eventClass, SubscriberInvoker invoker, boolean ignoreCancelled, int priority, boolean async, boolean batch, boolean keyed, Class<?> payloadClass) {
+    this.eventClass = eventClass;
+    this.invoker = invoker;
+    this.ignoreCancelled = ignoreCancelled;
+    this.priority = priority;
+    this.async = async;
+    this.batch = batch;
+    this.keyed = keyed;
+    this.payloadClass = payloadClass;
+  }
+
+  /**
+   * Creates the subscriber method of the given listener.
+   *
+   * @param listener the listener object declaring the method.
+   * @return the subscriber method.
+   */
+  public SubscriberMethod bind(Object listener) {
+    return this.wrap(new GeneratedSubscriberMethod(eventClass, listener, invoker, ignoreCancelled, priority), listener);
+  }
+
+  /**
+   * Creates the subscriber method of a weakly referenced listener.
+   *
+   * @param reference the reference to the listener object declaring the method.
+   * @return the subscriber method.
+   */
+  public SubscriberMethod bindWeak(Reference<?> reference) {
+    return this.wrap(new WeakSubscriberMethod(eventClass, reference, invoker, ignoreCancelled, priority), reference.get());
+  }
+
+  private SubscriberMethod wrap(SubscriberMethod subscriberMethod, Object listener) {
+    if (async) {
+      subscriberMethod = new AsyncSubscriberMethod(subscriberMethod);
+    }
+    if (batch) {
+      subscriberMethod = new BatchSubscriberMethod(eventClass, subscriberMethod);
+    }
+    if (payloadClass != null) {
+      subscriberMethod = new GenericSubscriberMethod(subscriberMethod, payloadClass);
+    }
+    return keyed ? KeyedSubscriberMethod.forListener(subscriberMethod, listener) : subscriberMethod;
+  }
+
+  public Class<?> eventClass() {
+    return eventClass;
+  }
+
+  public SubscriberInvoker invoker() {
+    return invoker;
+  }
+
+  public boolean ignoreCancelled() {
+    return ignoreCancelled;
+  }
+
+  public int priority() {
+    return priority;
+  }
+
+  public boolean async() {
+    return async;
+  }
+
+  public boolean batch() {
+    return batch;
+  }
+
+  public boolean keyed() {
+    return keyed;
+  }
+
+  public Class<?> payloadClass() {
+    return payloadClass;
+  }
+}
@@ -0,0 +1,50 @@
+package io.github.mtbarr.kairo.subscriber;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+
+/**
+ * Invokes a subscriber method on a listener instance.
+ * Implementations are typically generated at runtime so that the call to the listener is a direct, inlinable call.
+ *
+ * @author Matheus Barreto <a href="https://github.com/mtbarr">mtbarr</a>
+ */
+@FunctionalInterface
+public interface SubscriberInvoker {
+
+  /**
+   * Invokes the subscriber method on the given listener.
+   *
+   * @param listener the object declaring the subscriber method.
+   * @param event the event to invoke the subscriber method with.
+   * @throws Throwable any exception thrown by the subscriber method.
+   */
+  void invoke(Object listener, Object event) throws Throwable;
+
+  /**
+   * Creates an invoker that calls the given method through an unbound {@link MethodHandle}.
+   *
+   * @param method the method to invoke.
+   * @return the reflective invoker.
+   * @throws IllegalAccessException if the method is not accessible.
+   */
+  static SubscriberInvoker reflective(Method method) throws IllegalAccessException {
+    return reflective(MethodHandles.lookup().unreflect(method)
+      .asType(MethodType.methodType(void.class, Object.class, Object.class)));
+  }
+
+  /**
+   * Creates an invoker that calls the given unbound {@link MethodHandle}.
+   *
+   * @param handle the method handle to invoke, of type {@code (Object,Object)void}.
+   * @return the reflective invoker.
+   */
+  static SubscriberInvoker reflective(MethodHandle handle) {
+    // A block body makes the call site type (Object,Object)void, an expression body would expect an Object result.
+    return (listener, event) -> {
+      handle.invokeExact(listener, event);
+    };
+  }
+}
@@ -1,5 +1,7 @@
 package io.github.mtbarr.kairo.subscriber;
 
+import java.util.List;
+
 /**
  * Represents a subscriber method.
  *
@@ -20,6 +22,15 @@ public interface SubscriberMethod {
    */
   void invoke(Object event);
 
+  /**
+   * Invokes the subscriber method with a batch of events. Only called on subscribers whose {@link #batch()} is true.
+   *
+   * @param events the events to invoke the subscriber method with.
+   */
+  default void invokeBatch(List<?> events) {
+    this.invoke(events);
+  }
+
   /**
    * Indicates whether the subscriber should ignore cancelled events.
    *
@@ -34,4 +45,24 @@ public interface SubscriberMethod {
    * @return the priority of the subscriber.
    */
   int priority();
-}
\ No newline at end of file
+
+  /**
+   * Indicates whether the subscriber should be invoked asynchronously.
+   * Asynchronous subscribers, and every subscriber after them in the chain, are invoked on the event bus executor.
+   *
+   * @return true if the subscriber should be invoked asynchronously, false otherwise.
+   */
+  default boolean async() {
+    return false;
+  }
+
+  /**
+   * Indicates whether the subscriber receives events in batches, as a {@link java.util.List} of events.
+   * Batch subscribers are implemented by {@link BatchSubscriberMethod}.
+   *
+   * @return true if the subscriber receives batches of events, false otherwise.
+   */
+  default boolean batch() {
+    return false;
+  }
+}
@@ -0,0 +1,63 @@
+package io.github.mtbarr.kairo.subscriber;
+
+import java.lang.ref.Reference;
+import java.lang.reflect.Method;
+
+/**
+ * Creates the {@link SubscriberMethod} used to dispatch events to a method annotated with
+ * {@link io.github.mtbarr.kairo.annotation.Subscribe}.
+ *
+ * @author Matheus Barreto <a href="https://github.com/mtbarr">mtbarr</a>
+ */
+@FunctionalInterface
+public interface SubscriberMethodFactory {
+
+  /**
+   * Creates a subscriber method for the given listener method.
+   *
+   * @param clazz the class of the event the method is subscribed to.
+   * @param object the listener object declaring the method.
+   * @param method the method to be invoked when an event of the specified type is posted.
+   * @param ignoreCancelled whether the subscriber should ignore cancelled events.
+   * @param priority the priority of the subscriber.
+   * @return the subscriber method.
+   * @throws Throwable if the subscriber method cannot be created.
+   */
+  SubscriberMethod create(Class<?> clazz, Object object, Method method, boolean ignoreCancelled, int priority) throws Throwable;
+
+  /**
+   * Creates a subscriber method that only weakly references its listener object.
+   * By default, the listener method is invoked through an unbound {@link java.lang.invoke.MethodHandle}.
+   *
+   * @param clazz the class of the event the method is subscribed to.
+   * @param reference the reference to the listener object declaring the method.
+   * @param method the method to be invoked when an event of the specified type is posted.
+   * @param ignoreCancelled whether the subscriber should ignore cancelled events.
+   * @param priority the priority of the subscriber.
+   * @return the subscriber method.
+   * @throws Throwable if the subscriber method cannot be created.
+   */
+  default SubscriberMethod createWeak(Class<?> clazz, Reference<?> reference, Method method, boolean ignoreCancelled, int priority) throws Throwable {
+    return new WeakSubscriberMethod(clazz, reference, SubscriberInvoker.reflective(method), ignoreCancelled, priority);
+  }
+
+  /**
+   * Returns a factory that invokes subscriber methods through a bound {@link java.lang.invoke.MethodHandle}.
+   * Unbound handles are cached per method, creating a subscriber method only binds the listener object.
+   *
+   * @return the reflective subscriber method factory.
+   */
+  static SubscriberMethodFactory reflective() {
+    return ReflectiveSubscriberMethodFactory.INSTANCE;
+  }
+
+  /**
+   * Returns a factory that generates a dedicated invoker class for every subscriber method,
+   * falling back to {@link #reflective()} when the method cannot be linked directly.
+   *
+   * @return the generated subscriber method factory.
+   */
+  static SubscriberMethodFactory generated() {
+    return GeneratedSubscriberMethodFactory.INSTANCE;
+  }
+}
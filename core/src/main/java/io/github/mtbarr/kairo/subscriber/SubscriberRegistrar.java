@@ -0,0 +1,21 @@
+package io.github.mtbarr.kairo.subscriber;
+
+import java.util.List;
+
+/**
+ * Lists the subscriber methods of a listener class without reflection.
+ * Implementations are generated at compile time by the kairo annotation processor, one per class
+ * declaring methods annotated with {@link io.github.mtbarr.kairo.annotation.Subscribe}.
+ *
+ * @author Matheus Barreto <a href="https://github.com/mtbarr">mtbarr</a>
+ * @see SubscriberRegistrars
+ */
+public interface SubscriberRegistrar {
+
+  /**
+   * Returns the descriptors of the subscriber methods declared by the listener class.
+   *
+   * @return the subscriber descriptors of the listener class.
+   */
+  List<SubscriberDescriptor> subscribers();
+}
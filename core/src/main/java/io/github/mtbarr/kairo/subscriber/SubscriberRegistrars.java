@@ -0,0 +1,71 @@
+package io.github.mtbarr.kairo.subscriber;
+
+/**
+ * Locates the {@link SubscriberRegistrar} generated at compile time for a listener class.
+ * The registrar of {@code com.example.Outer$Listener} is {@code com.example.Outer_Listener_KairoRegistrar}.
+ *
+ * @author Matheus Barreto <a href="https://github.com/mtbarr">mtbarr</a>
+ */
+public final class SubscriberRegistrars {
+
+  /**
+   * The suffix appended to the name of a listener class to name its registrar.
+   */
+  public static final String SUFFIX = "_KairoRegistrar";
+
+  private static final ClassValue<SubscriberRegistrar> REGISTRARS = new ClassValue<>() {
+    @Override
+    protected SubscriberRegistrar computeValue(Class<?> type) {
+      return load(type);
+    }
+  };
+
+  private SubscriberRegistrars() {
+  }
+
+  /**
+   * Returns the registrar generated for the given listener class. The lookup is cached per class.
+   *
+   * @param listenerClass the listener class.
+   * @return the generated registrar, or null if none was generated for the class.
+   */
+  public static SubscriberRegistrar find(Class<?> listenerClass) {
+    return REGISTRARS.get(listenerClass);
+  }
+
+  /**
+   * Returns the name of the registrar generated for the given listener class.
+   *
+   * @param listenerClass the listener class.
+   * @return the binary name of the registrar.
+   */
+  public static String registrarName(Class<?> listenerClass) {
+    String packageName = listenerClass.getPackageName();
+    String simpleBinaryName = packageName.isEmpty() ? listenerClass.getName() : listenerClass.getName().substring(packageName.length() + 1);
+    String registrarSimpleName = simpleBinaryName.replace('$', '_') + SUFFIX;
+    return packageName.isEmpty() ? registrarSimpleName : packageName + "." + registrarSimpleName;
+  }
+
+  private static SubscriberRegistrar load(Class<?> listenerClass) {
+    if (listenerClass.isArray() || listenerClass.isPrimitive() || listenerClass.isHidden()) {
+      return null;
+    }
+
+    Class<?> registrarClass;
+    try {
+      registrarClass = Class.forName(registrarName(listenerClass), true, listenerClass.getClassLoader());
+    } catch (ClassNotFoundException e) {
+      return null;
+    }
+
+    if (!SubscriberRegistrar.class.isAssignableFrom(registrarClass)) {
+      return null;
+    }
+
+    try {
+      return (SubscriberRegistrar) registrarClass.getDeclaredConstructor().newInstance();
+    } catch (ReflectiveOperationException e) {
+      throw new IllegalStateException("Failed to instantiate subscriber registrar " + registrarClass.getName(), e);
+    }
+  }
+}
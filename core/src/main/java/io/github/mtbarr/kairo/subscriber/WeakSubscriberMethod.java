@@ -0,0 +1,62 @@
+package io.github.mtbarr.kairo.subscriber;
+
+import io.github.mtbarr.kairo.exception.EventInvocationException;
+
+import java.lang.ref.Reference;
+
+
+/**
+ * Represents a subscriber method that only weakly references its listener object,
+ * so subscribing the listener does not keep it reachable.
+ * Once the listener is collected, invoking the subscriber method does nothing.
+ *
+ * @author Matheus Barreto <a href="https://github.com/mtbarr">mtbarr</a>
+ */
+public class WeakSubscriberMethod implements SubscriberMethod {
+
+  private final Class<?> clazz;
+  private final Reference<?> reference;
+  private final SubscriberInvoker invoker;
+  private final boolean ignoreCancelled;
+  private final int priority;
+
+  public WeakSubscriberMethod(Class<?> clazz, Reference<?> reference, SubscriberInvoker invoker, boolean ignoreCancelled, int priority) {
+    this.clazz = clazz;
+    this.reference = reference;
+    this.invoker = invoker;
+    this.ignoreCancelled = ignoreCancelled;
+    this.priority = priority;
+  }
+
+  @Override
+  public Class<?> eventClass() {
+    return clazz;
+  }
+
+  @Override
+  public void invoke(Object event) {
+    Object listener = reference.get();
+    if (listener == null) {
+      // The listener was collected but the event bus has not purged this subscriber yet.
+      return;
+    }
+
+    try {
+      invoker.invoke(listener, event);
+    } catch (RuntimeException | Error e) {
+      throw e;
+    } catch (Throwable throwable) {
+      throw new EventInvocationException(throwable);
+    }
+  }
+
+  @Override
+  public boolean ignoreCancelled() {
+    return ignoreCancelled;
+  }
+
+  @Override
+  public int priority() {
+    return priority;
+  }
+}
@@ -0,0 +1,112 @@
+package io.github.mtbarr.kairo;
+
+import io.github.mtbarr.kairo.annotation.Subscribe;
+import io.github.mtbarr.kairo.cancellable.CancellableEvent;
+import io.github.mtbarr.kairo.exception.SubscriberRegistrationException;
+import io.github.mtbarr.kairo.subscriber.SubscriberRegistrars;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BatchPostTest {
+
+  @Test
+  void postAllDispatchesEveryEventInOrder() {
+    EventBus eventBus = new EventBus();
+    List<Object> received = new ArrayList<>();
+    eventBus.subscribe(ItemEvent.class, received::add);
+    eventBus.subscribe(String.class, received::add);
+
+    ItemEvent first = new ItemEvent(1);
+    ItemEvent second = new ItemEvent(2);
+    eventBus.postAll(List.of(first, "between", second));
+
+    assertEquals(List.of(first, "between", second), received);
+  }
+
+  @Test
+  void batchSubscriberReceivesEachRunInOneCall() {
+    EventBus eventBus = new EventBus();
+    List<List<ItemEvent>> batches = new ArrayList<>();
+    eventBus.subscribeBatch(ItemEvent.class, batches::add);
+
+    eventBus.postAll(new Object[]{new ItemEvent(1), new ItemEvent(2), "other", new ItemEvent(3)});
+    eventBus.post(new ItemEvent(4));
+
+    assertEquals(3, batches.size());
+    assertEquals(2, batches.get(0).size());
+    assertEquals(1, batches.get(1).size());
+    assertEquals(4, batches.get(2).get(0).value);
+  }
+
+  @Test
+  void cancellationIsPreservedPerEvent() {
+    EventBus eventBus = new EventBus();
+    List<Integer> received = new ArrayList<>();
+    List<Integer> batched = new ArrayList<>();
+    eventBus.subscribe(ItemEvent.class, false, 10, event -> event.setCancelled(event.value % 2 == 0));
+    eventBus.subscribe(ItemEvent.class, true, 5, event -> received.add(event.value));
+    eventBus.subscribeBatch(ItemEvent.class, true, 0, events -> events.forEach(event -> batched.add(event.value)));
+
+    eventBus.postAll(List.of(new ItemEvent(1), new ItemEvent(2), new ItemEvent(3)));
+
+    assertEquals(List.of(1, 3), received);
+    assertEquals(List.of(1, 3), batched);
+  }
+
+  @Test
+  void annotatedBatchSubscriberReceivesRuns() {
+    EventBus eventBus = new EventBus();
+    BatchListener listener = new BatchListener();
+    eventBus.subscribe(listener);
+
+    eventBus.postAll(List.of(new ItemEvent(1), new ItemEvent(2)));
+
+    assertNotNull(SubscriberRegistrars.find(BatchListener.class));
+    assertEquals(List.of(2), listener.batchSizes);
+  }
+
+  @Test
+  void batchSubscriberWithoutListParameterThrowsException() {
+    EventBus eventBus = new EventBus();
+    assertThrows(SubscriberRegistrationException.class, () -> eventBus.subscribe(new InvalidBatchListener()));
+  }
+
+  static class ItemEvent implements CancellableEvent {
+    private final int value;
+    private boolean cancelled;
+
+    ItemEvent(int value) {
+      this.value = value;
+    }
+
+    @Override
+    public void setCancelled(boolean cancelled) {
+      this.cancelled = cancelled;
+    }
+
+    @Override
+    public boolean isCancelled() {
+      return cancelled;
+    }
+  }
+
+  public static class BatchListener {
+    private final List<Integer> batchSizes = new ArrayList<>();
+
+    @Subscribe(batch = true)
+    public void onItems(List<ItemEvent> events) {
+      batchSizes.add(events.size());
+    }
+  }
+
+  public static class InvalidBatchListener {
+
+    @Subscribe(batch = true)
+    public void onItem(ItemEvent event) {
+    }
+  }
+}
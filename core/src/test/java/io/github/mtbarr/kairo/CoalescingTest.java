@@ -0,0 +1,159 @@
+package io.github.mtbarr.kairo;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CoalescingTest {
+
+  @Test
+  void latestEventPerKeyIsDispatchedOnFlush() {
+    EventBus eventBus = EventBusBuilder.create()
+      .withCoalescing(PositionEvent.class, event -> event.entity, null)
+      .build();
+    List<String> received = new ArrayList<>();
+    eventBus.subscribe(PositionEvent.class, event -> received.add(event.entity + "=" + event.x));
+
+    eventBus.post(new PositionEvent("a", 1));
+    eventBus.post(new PositionEvent("b", 1));
+    eventBus.post(new PositionEvent("a", 2));
+    eventBus.post(new PositionEvent("a", 3));
+    assertTrue(received.isEmpty());
+
+    eventBus.flushCoalescedEvents();
+    received.sort(null);
+    assertEquals(List.of("a=3", "b=1"), received);
+
+    eventBus.flushCoalescedEvents();
+    assertEquals(2, received.size());
+  }
+
+  @Test
+  void pendingEventsAreMerged() {
+    EventBus eventBus = EventBusBuilder.create()
+      .withCoalescing(PositionEvent.class, event -> event.entity,
+        (pending, latest) -> new PositionEvent(latest.entity, pending.x + latest.x), null)
+      .build();
+    List<Integer> received = new ArrayList<>();
+    eventBus.subscribe(PositionEvent.class, event -> received.add(event.x));
+
+    for (int i = 1; i <= 4; i++) {
+      eventBus.post(new PositionEvent("a", i));
+    }
+    eventBus.flushCoalescedEvents();
+
+    assertEquals(List.of(10), received);
+  }
+
+  @Test
+  void otherEventTypesAreNotCoalesced() {
+    EventBus eventBus = EventBusBuilder.create()
+      .withCoalescing(PositionEvent.class, event -> event.entity, null)
+      .build();
+    List<String> received = new ArrayList<>();
+    eventBus.subscribe(String.class, received::add);
+
+    eventBus.post("immediate");
+
+    assertEquals(List.of("immediate"), received);
+  }
+
+  @Test
+  void pendingEventsAreFlushedEveryWindow() throws InterruptedException {
+    EventBus eventBus = EventBusBuilder.create()
+      .withCoalescing(PositionEvent.class, event -> event.entity, Duration.ofMillis(10))
+      .build();
+    CountDownLatch latch = new CountDownLatch(1);
+    List<Integer> received = new CopyOnWriteArrayList<>();
+    eventBus.subscribe(PositionEvent.class, event -> {
+      received.add(event.x);
+      if (event.x == 2) {
+        latch.countDown();
+      }
+    });
+
+    eventBus.post(new PositionEvent("a", 1));
+    eventBus.post(new PositionEvent("a", 2));
+
+    // A flush may fall between the two posts, but the latest event is always delivered last.
+    assertTrue(latch.await(5, TimeUnit.SECONDS));
+    assertEquals(2, (int) received.get(received.size() - 1));
+  }
+
+  @Test
+  void failingSubscribersDoNotStopTheScheduledFlushes() throws InterruptedException {
+    EventBus eventBus = EventBusBuilder.create()
+      .withCoalescing(PositionEvent.class, event -> event.entity, Duration.ofMillis(10))
+      .build();
+    CountDownLatch latch = new CountDownLatch(1);
+    List<String> received = new CopyOnWriteArrayList<>();
+    eventBus.subscribe(PositionEvent.class, event -> {
+      received.add(event.entity);
+      if (event.entity.equals("failing")) {
+        throw new IllegalStateException("failure");
+      }
+      if (event.entity.equals("last")) {
+        latch.countDown();
+      }
+    });
+
+    List<Throwable> reported = new CopyOnWriteArrayList<>();
+    Thread.UncaughtExceptionHandler previous = Thread.getDefaultUncaughtExceptionHandler();
+    Thread.setDefaultUncaughtExceptionHandler((thread, throwable) -> reported.add(throwable));
+    try {
+      eventBus.post(new PositionEvent("failing", 1));
+      eventBus.post(new PositionEvent("other", 1));
+      Thread.sleep(50);
+      eventBus.post(new PositionEvent("last", 1));
+
+      assertTrue(latch.await(5, TimeUnit.SECONDS));
+    } finally {
+      Thread.setDefaultUncaughtExceptionHandler(previous);
+    }
+
+    assertTrue(received.containsAll(List.of("failing", "other", "last")));
+    assertEquals(1, reported.size());
+  }
+
+  @Test
+  void eventsPostedWhileReplacingCoalescingAreNotLost() throws InterruptedException {
+    EventBus eventBus = new EventBus();
+    eventBus.registerCoalescing(PositionEvent.class, event -> event.entity, (pending, latest) -> latest, null);
+    Set<String> received = ConcurrentHashMap.newKeySet();
+    eventBus.subscribe(PositionEvent.class, event -> received.add(event.entity));
+
+    int events = 100_000;
+    Thread poster = new Thread(() -> {
+      for (int i = 0; i < events; i++) {
+        eventBus.post(new PositionEvent(Integer.toString(i), i));
+      }
+    });
+    poster.start();
+    while (poster.isAlive()) {
+      eventBus.registerCoalescing(PositionEvent.class, event -> event.entity, (pending, latest) -> latest, null);
+    }
+    poster.join();
+    eventBus.flushCoalescedEvents();
+
+    assertEquals(events, received.size());
+  }
+
+  static class PositionEvent {
+    private final String entity;
+    private final int x;
+
+    PositionEvent(String entity, int x) {
+      this.entity = entity;
+      this.x = x;
+    }
+  }
+}
@@ -0,0 +1,118 @@
+package io.github.mtbarr.kairo;
+
+import io.github.mtbarr.kairo.cancellable.CancellableEvent;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CompiledDispatchTest {
+
+  @Test
+  void compiledChainsKeepPriorityOrder() {
+    EventBus eventBus = EventBusBuilder.create().withCompiledDispatch(true).build();
+    List<String> received = new ArrayList<>();
+    eventBus.subscribe(TestEvent.class, 0, event -> received.add("low"));
+    eventBus.subscribe(TestEvent.class, 10, event -> received.add("high"));
+
+    eventBus.post(new TestEvent());
+
+    assertEquals(List.of("high", "low"), received);
+    assertNotNull(eventBus.getChain(TestEvent.class).dispatcher);
+  }
+
+  @Test
+  void compiledChainsSkipCancelledEventsForIgnoringSubscribers() {
+    EventBus eventBus = EventBusBuilder.create().withCompiledDispatch(true).build();
+    List<String> received = new ArrayList<>();
+    eventBus.subscribe(CancellableTestEvent.class, true, 20, event -> received.add("ignoring-first"));
+    eventBus.subscribe(CancellableTestEvent.class, false, 10, event -> {
+      received.add("cancelling");
+      event.setCancelled(true);
+    });
+    eventBus.subscribe(CancellableTestEvent.class, true, 5, event -> received.add("ignoring"));
+    eventBus.subscribe(CancellableTestEvent.class, false, 0, event -> received.add("monitor"));
+
+    eventBus.post(new CancellableTestEvent());
+    CancellableTestEvent cancelled = new CancellableTestEvent();
+    cancelled.setCancelled(true);
+    eventBus.post(cancelled);
+
+    assertEquals(List.of("ignoring-first", "cancelling", "monitor", "cancelling", "monitor"), received);
+  }
+
+  @Test
+  void subscriberExceptionsAreHandledAndTheChainContinues() {
+    List<Throwable> handled = new ArrayList<>();
+    EventBus eventBus = EventBusBuilder.create()
+      .withCompiledDispatch(true)
+      .withExceptionHandler((method, event, throwable) -> handled.add(throwable))
+      .build();
+    List<String> received = new ArrayList<>();
+    eventBus.subscribe(TestEvent.class, 10, event -> {
+      throw new IllegalStateException("failure");
+    });
+    eventBus.subscribe(TestEvent.class, 0, event -> received.add("after"));
+
+    eventBus.post(new TestEvent());
+
+    assertEquals(List.of("after"), received);
+    assertEquals(1, handled.size());
+    assertEquals("failure", handled.get(0).getMessage());
+
+    eventBus.setExceptionHandler((method, event, throwable) -> {
+      throw new IllegalArgumentException(throwable);
+    });
+    assertThrows(IllegalArgumentException.class, () -> eventBus.post(new TestEvent()));
+  }
+
+  @Test
+  void chainsAreRecompiledWhenSubscribersChange() {
+    EventBus eventBus = EventBusBuilder.create().withCompiledDispatch(true).build();
+    List<String> received = new ArrayList<>();
+    Subscription first = eventBus.subscribe(TestEvent.class, event -> received.add("first"));
+    eventBus.post(new TestEvent());
+    CompiledDispatcher dispatcher = eventBus.getChain(TestEvent.class).dispatcher;
+
+    eventBus.subscribe(TestEvent.class, event -> received.add("second"));
+    first.unsubscribe();
+    eventBus.post(new TestEvent());
+
+    assertEquals(List.of("first", "second"), received);
+    assertNotSame(dispatcher, eventBus.getChain(TestEvent.class).dispatcher);
+  }
+
+  @Test
+  void longChainsStayInterpreted() {
+    EventBus eventBus = EventBusBuilder.create().withCompiledDispatch(true).build();
+    int[] received = new int[1];
+    for (int i = 0; i <= CompiledDispatcher.MAX_SUBSCRIBERS; i++) {
+      eventBus.subscribe(TestEvent.class, event -> received[0]++);
+    }
+
+    eventBus.post(new TestEvent());
+
+    assertEquals(CompiledDispatcher.MAX_SUBSCRIBERS + 1, received[0]);
+    assertNull(eventBus.getChain(TestEvent.class).dispatcher);
+  }
+
+  static class TestEvent {
+  }
+
+  static class CancellableTestEvent implements CancellableEvent {
+
+    private boolean cancelled;
+
+    @Override
+    public boolean isCancelled() {
+      return cancelled;
+    }
+
+    @Override
+    public void setCancelled(boolean cancelled) {
+      this.cancelled = cancelled;
+    }
+  }
+}
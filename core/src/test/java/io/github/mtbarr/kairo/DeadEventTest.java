@@ -0,0 +1,75 @@
+package io.github.mtbarr.kairo;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DeadEventTest {
+
+  @Test
+  void unhandledEventsAreDispatchedAsDeadEvents() {
+    EventBus eventBus = new EventBus();
+    List<Object> dead = new ArrayList<>();
+    eventBus.subscribe(DeadEvent.class, event -> dead.add(event.getEvent()));
+
+    UnhandledEvent event = new UnhandledEvent();
+    eventBus.post(event);
+    eventBus.postAll(List.of(new UnhandledEvent(), new UnhandledEvent()));
+    eventBus.postAsync(event).join();
+
+    assertEquals(4, dead.size());
+    assertSame(event, dead.get(0));
+  }
+
+  @Test
+  void subscribingInvalidatesTheCachedMiss() {
+    EventBus eventBus = new EventBus();
+    List<Object> dead = new ArrayList<>();
+    List<Object> handled = new ArrayList<>();
+
+    eventBus.post(new UnhandledEvent());
+    eventBus.subscribe(DeadEvent.class, event -> dead.add(event.getEvent()));
+    eventBus.post(new UnhandledEvent());
+
+    Subscription subscription = eventBus.subscribe(UnhandledEvent.class, handled::add);
+    eventBus.post(new UnhandledEvent());
+    subscription.unsubscribe();
+    eventBus.post(new UnhandledEvent());
+
+    assertEquals(2, dead.size());
+    assertEquals(1, handled.size());
+  }
+
+  @Test
+  void deadEventsAreNotWrappedAgain() {
+    EventBus eventBus = new EventBus();
+    List<Object> dead = new ArrayList<>();
+    Subscription subscription = eventBus.subscribe(DeadEvent.class, dead::add);
+    subscription.unsubscribe();
+
+    eventBus.post(new UnhandledEvent());
+    eventBus.post(new DeadEvent(eventBus, new UnhandledEvent()));
+
+    assertTrue(dead.isEmpty());
+  }
+
+  @Test
+  void objectSubscribersHandleEveryEventWithHierarchyDispatch() {
+    EventBus eventBus = EventBusBuilder.create().withHierarchyDispatch(true).build();
+    List<Object> dead = new ArrayList<>();
+    eventBus.subscribe(DeadEvent.class, event -> dead.add(event.getEvent()));
+
+    eventBus.post(new UnhandledEvent());
+    eventBus.subscribe(Object.class, event -> {
+    });
+    eventBus.post(new UnhandledEvent());
+
+    assertEquals(1, dead.size());
+  }
+
+  static class UnhandledEvent {
+  }
+}
@@ -0,0 +1,103 @@
+package io.github.mtbarr.kairo;
+
+import io.github.mtbarr.kairo.exception.EventDispatchException;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DispatchPolicyTest {
+
+  @Test
+  void immediateDispatchCascadesDepthFirst() {
+    EventBus eventBus = new EventBus();
+    List<String> received = cascade(eventBus);
+
+    eventBus.post(new TestEvent("root"));
+
+    assertEquals(List.of("root:first", "a:first", "a:second", "b:first", "b:second", "root:second"), received);
+  }
+
+  @Test
+  void queuedDispatchCascadesBreadthFirst() {
+    EventBus eventBus = EventBusBuilder.create().withDispatchPolicy(DispatchPolicy.QUEUED).build();
+    List<String> received = cascade(eventBus);
+
+    eventBus.post(new TestEvent("root"));
+
+    assertEquals(List.of("root:first", "root:second", "a:first", "a:second", "b:first", "b:second"), received);
+  }
+
+  @Test
+  void queuedDispatchKeepsTheStackDepthConstant() {
+    EventBus eventBus = EventBusBuilder.create().withDispatchPolicy(DispatchPolicy.QUEUED).build();
+    int[] depth = new int[2];
+    eventBus.subscribe(Integer.class, remaining -> {
+      int current = Thread.currentThread().getStackTrace().length;
+      if (depth[0] == 0) {
+        depth[0] = current;
+      }
+      depth[1] = Math.max(depth[1], current);
+      if (remaining > 0) {
+        eventBus.post(remaining - 1);
+      }
+    });
+
+    eventBus.post(100_000);
+
+    assertEquals(depth[0], depth[1]);
+  }
+
+  @Test
+  void queuedEventsAreDispatchedWhenTheOutermostPostFails() {
+    EventBus eventBus = EventBusBuilder.create().withDispatchPolicy(DispatchPolicy.QUEUED).build();
+    List<String> received = new ArrayList<>();
+    eventBus.subscribe(TestEvent.class, 10, event -> {
+      received.add(event.name);
+      if (event.name.equals("root")) {
+        eventBus.post(new TestEvent("nested"));
+      }
+    });
+    eventBus.subscribe(TestEvent.class, 0, event -> {
+      if (!event.name.equals("next")) {
+        throw new IllegalStateException(event.name);
+      }
+    });
+
+    EventDispatchException failure = assertThrows(EventDispatchException.class, () -> eventBus.post(new TestEvent("root")));
+    assertEquals("root", failure.getCause().getMessage());
+    eventBus.post(new TestEvent("next"));
+
+    assertEquals(List.of("root", "nested", "next"), received);
+  }
+
+  @Test
+  void dispatchPolicyCannotBeNull() {
+    assertThrows(NullPointerException.class, () -> new EventBus().setDispatchPolicy(null));
+    assertThrows(IllegalArgumentException.class, () -> EventBusBuilder.create().withDispatchPolicy(null));
+  }
+
+  private static List<String> cascade(EventBus eventBus) {
+    List<String> received = new ArrayList<>();
+    eventBus.subscribe(TestEvent.class, 10, event -> {
+      received.add(event.name + ":first");
+      if (event.name.equals("root")) {
+        eventBus.post(new TestEvent("a"));
+        eventBus.post(new TestEvent("b"));
+      }
+    });
+    eventBus.subscribe(TestEvent.class, 0, event -> received.add(event.name + ":second"));
+    return received;
+  }
+
+  static class TestEvent {
+
+    private final String name;
+
+    TestEvent(String name) {
+      this.name = name;
+    }
+  }
+}
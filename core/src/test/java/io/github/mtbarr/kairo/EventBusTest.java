@@ -3,11 +3,17 @@ package io.github.mtbarr.kairo;
 import io.github.mtbarr.kairo.annotation.Subscribe;
 import io.github.mtbarr.kairo.cancellable.CancellableEvent;
 import io.github.mtbarr.kairo.exception.SubscriberRegistrationException;
+import io.github.mtbarr.kairo.subscriber.GeneratedSubscriberMethod;
+import io.github.mtbarr.kairo.subscriber.SubscriberMethodFactory;
+import io.github.mtbarr.kairo.subscriber.SubscriberRegistrars;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.lang.ref.WeakReference;
+import java.lang.reflect.Method;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -112,6 +118,250 @@ class EventBusTest {
     assertFalse(listener.isEventHandled());
   }
 
+  @Test
+  void generatedFactoryCreatesGeneratedSubscriberMethod() throws Throwable {
+    FailingEventListener listener = new FailingEventListener();
+    Method method = FailingEventListener.class.getDeclaredMethod("onTestEvent", TestEvent.class);
+
+    assertInstanceOf(GeneratedSubscriberMethod.class, SubscriberMethodFactory.generated().create(TestEvent.class, listener, method, false, 0));
+  }
+
+  @Test
+  void postEventWithGeneratedSubscriberMethods() {
+    EventBus generatedEventBus = EventBusBuilder.create()
+      .withSubscriberMethodFactory(SubscriberMethodFactory.generated())
+      .build();
+
+    TestEventListener listener = new TestEventListener();
+    generatedEventBus.subscribe(listener);
+    generatedEventBus.post(new TestEvent());
+
+    assertTrue(listener.isEventHandled());
+  }
+
+  @Test
+  void generatedSubscriberMethodExceptionReachesHandler() {
+    List<Throwable> failures = new ArrayList<>();
+    EventBus generatedEventBus = EventBusBuilder.create()
+      .withSubscriberMethodFactory(SubscriberMethodFactory.generated())
+      .withExceptionHandler((method, event, throwable) -> failures.add(throwable))
+      .build();
+
+    generatedEventBus.subscribe(new FailingEventListener());
+    generatedEventBus.post(new TestEvent());
+
+    assertEquals(1, failures.size());
+    assertInstanceOf(IllegalStateException.class, failures.get(0));
+  }
+
+  @Test
+  void postEventInPriorityOrder() {
+    List<Integer> order = new ArrayList<>();
+    eventBus.subscribe(TestEvent.class, 1, event -> order.add(1));
+    eventBus.subscribe(TestEvent.class, 10, event -> order.add(10));
+    eventBus.subscribe(TestEvent.class, 5, event -> order.add(5));
+
+    eventBus.post(new TestEvent());
+
+    assertEquals(List.of(10, 5, 1), order);
+  }
+
+  @Test
+  void postEventDoesNotReachSupertypeSubscribersByDefault() {
+    AtomicInteger counter = new AtomicInteger();
+    eventBus.subscribe(CancellableEvent.class, event -> counter.incrementAndGet());
+
+    eventBus.post(new CancellableTestEvent());
+
+    assertEquals(0, counter.get());
+  }
+
+  @Test
+  void postEventToSupertypeSubscribersWithHierarchyDispatch() {
+    EventBus hierarchyEventBus = EventBusBuilder.create().withHierarchyDispatch(true).build();
+    List<String> order = new ArrayList<>();
+    hierarchyEventBus.subscribe(Object.class, -5, event -> order.add("object"));
+    hierarchyEventBus.subscribe(CancellableEvent.class, 10, event -> order.add("cancellable"));
+    hierarchyEventBus.subscribe(CancellableTestEvent.class, event -> order.add("exact"));
+
+    hierarchyEventBus.post(new CancellableTestEvent());
+
+    assertEquals(List.of("cancellable", "exact", "object"), order);
+  }
+
+  @Test
+  void hierarchyDispatchCacheIsInvalidatedOnSubscribe() {
+    EventBus hierarchyEventBus = EventBusBuilder.create().withHierarchyDispatch(true).build();
+    AtomicInteger counter = new AtomicInteger();
+    hierarchyEventBus.post(new CancellableTestEvent());
+
+    hierarchyEventBus.subscribe(CancellableEvent.class, event -> counter.incrementAndGet());
+    hierarchyEventBus.post(new CancellableTestEvent());
+
+    assertEquals(1, counter.get());
+  }
+
+  @Test
+  void subscribeAllMergesSubscribersByPriority() {
+    List<String> order = new ArrayList<>();
+    eventBus.subscribe(TestEvent.class, event -> order.add("functional"));
+    eventBus.subscribeAll(List.of(new RecordingEventListener("a", order), new RecordingEventListener("b", order)));
+
+    eventBus.post(new TestEvent());
+
+    assertEquals(List.of("a-high", "b-high", "functional", "a-low", "b-low"), order);
+  }
+
+  @Test
+  void subscribeAllWithNullObjectThrowsException() {
+    List<Object> listeners = new ArrayList<>();
+    listeners.add(new TestEventListener());
+    listeners.add(null);
+
+    assertThrows(NullPointerException.class, () -> eventBus.subscribeAll(listeners));
+    assertEquals(0, eventBus.getSubscribersCount());
+  }
+
+  @Test
+  void asyncSubscribersRunOnExecutorAfterSynchronousPrefix() {
+    List<Runnable> tasks = new ArrayList<>();
+    EventBus asyncEventBus = EventBusBuilder.create().withExecutor(tasks::add).build();
+    List<String> order = new ArrayList<>();
+    asyncEventBus.subscribe(TestEvent.class, 10, event -> order.add("sync"));
+    asyncEventBus.subscribeAsync(TestEvent.class, event -> order.add("async"));
+    asyncEventBus.subscribe(TestEvent.class, -10, event -> order.add("after-async"));
+
+    asyncEventBus.post(new TestEvent());
+    assertEquals(List.of("sync"), order);
+
+    tasks.forEach(Runnable::run);
+    assertEquals(List.of("sync", "async", "after-async"), order);
+  }
+
+  @Test
+  void postAsyncCompletesAfterAsyncSubscribers() {
+    List<Runnable> tasks = new ArrayList<>();
+    EventBus asyncEventBus = EventBusBuilder.create().withExecutor(tasks::add).build();
+    AsyncEventListener listener = new AsyncEventListener();
+    asyncEventBus.subscribe(listener);
+
+    CancellableTestEvent event = new CancellableTestEvent();
+    CompletableFuture<CancellableTestEvent> future = asyncEventBus.postAsync(event);
+    assertTrue(event.isCancelled());
+    assertFalse(future.isDone());
+
+    tasks.forEach(Runnable::run);
+    assertSame(event, future.join());
+    assertFalse(listener.isIgnoringHandled());
+    assertTrue(listener.isReceivingHandled());
+  }
+
+  @Test
+  void postAsyncWithoutAsyncSubscribersIsCompleted() {
+    eventBus.subscribe(TestEvent.class, event -> {});
+
+    assertTrue(eventBus.postAsync(new TestEvent()).isDone());
+  }
+
+  @Test
+  void unsubscribeObjectStopsDelivery() {
+    TestEventListener listener = new TestEventListener();
+    eventBus.subscribe(listener);
+
+    assertTrue(eventBus.unsubscribe(listener));
+    eventBus.post(new TestEvent());
+
+    assertFalse(listener.isEventHandled());
+    assertEquals(0, eventBus.getSubscribersCount());
+  }
+
+  @Test
+  void unsubscribeKeepsOtherListeners() {
+    TestEventListener removed = new TestEventListener();
+    TestEventListener kept = new TestEventListener();
+    eventBus.subscribeAll(List.of(removed, kept));
+
+    eventBus.unsubscribe(removed);
+    eventBus.post(new TestEvent());
+
+    assertFalse(removed.isEventHandled());
+    assertTrue(kept.isEventHandled());
+  }
+
+  @Test
+  void unsubscribeUnknownObjectReturnsFalse() {
+    assertFalse(eventBus.unsubscribe(new TestEventListener()));
+  }
+
+  @Test
+  void subscriptionUnsubscribesFunctionalListener() {
+    AtomicInteger counter = new AtomicInteger();
+    Subscription subscription = eventBus.subscribe(TestEvent.class, event -> counter.incrementAndGet());
+    eventBus.post(new TestEvent());
+
+    subscription.unsubscribe();
+    subscription.unsubscribe();
+    eventBus.post(new TestEvent());
+
+    assertEquals(1, counter.get());
+  }
+
+  @Test
+  void weakSubscribersArePurgedOnceCollected() throws InterruptedException {
+    EventBus weakEventBus = EventBusBuilder.create().withWeakSubscribers(true).build();
+    TestEventListener listener = new TestEventListener();
+    WeakReference<TestEventListener> reference = new WeakReference<>(listener);
+    weakEventBus.subscribe(listener);
+
+    weakEventBus.post(new TestEvent());
+    assertTrue(listener.isEventHandled());
+
+    listener = null;
+    for (int i = 0; i < 50 && weakEventBus.getSubscribersCount() > 0; i++) {
+      System.gc();
+      Thread.sleep(10);
+      weakEventBus.post(new TestEvent());
+    }
+
+    assertNull(reference.get());
+    assertEquals(0, weakEventBus.getSubscribersCount());
+  }
+
+  @Test
+  void generatedRegistrarIsFoundForAccessibleListeners() {
+    assertNotNull(SubscriberRegistrars.find(TestEventListener.class));
+    assertNull(SubscriberRegistrars.find(FailingEventListener.class));
+    assertEquals(2, SubscriberRegistrars.find(RecordingEventListener.class).subscribers().size());
+  }
+
+  @Test
+  void subscribeDiscoversSuperclassSubscribers() {
+    InheritingEventListener listener = new InheritingEventListener();
+    eventBus.subscribe(listener);
+    eventBus.post(new TestEvent());
+
+    assertNull(SubscriberRegistrars.find(InheritingEventListener.class));
+    assertTrue(listener.isEventHandled());
+  }
+
+  @Test
+  void generatedRegistrarIncludesInheritedSubscribers() {
+    DerivedEventListener listener = new DerivedEventListener();
+    eventBus.subscribe(listener);
+    eventBus.post(new TestEvent());
+    eventBus.post(new PriorityEvent());
+
+    assertEquals(2, SubscriberRegistrars.find(DerivedEventListener.class).subscribers().size());
+    assertTrue(listener.isEventHandled());
+    assertTrue(listener.priorityEventHandled);
+  }
+
+  @Test
+  void overridingMethodWithoutSubscribeIsNotSubscribed() {
+    eventBus.subscribe(new OverridingEventListener());
+    assertEquals(0, eventBus.getSubscribersCount());
+  }
+
   // Helper classes for testing
   static class TestEvent {
   }
@@ -184,4 +434,79 @@ class EventBusTest {
       return eventHandled;
     }
   }
+
+  public static class FailingEventListener {
+    @Subscribe
+    private void onTestEvent(TestEvent event) {
+      throw new IllegalStateException("failing listener");
+    }
+  }
+
+  public static class RecordingEventListener {
+    private final String name;
+    private final List<String> order;
+
+    public RecordingEventListener(String name, List<String> order) {
+      this.name = name;
+      this.order = order;
+    }
+
+    @Subscribe(priority = 10)
+    public void onTestEventHigh(TestEvent event) {
+      order.add(name + "-high");
+    }
+
+    @Subscribe(priority = -10)
+    public void onTestEventLow(TestEvent event) {
+      order.add(name + "-low");
+    }
+  }
+
+  public static class AsyncEventListener {
+    private boolean ignoringHandled = false;
+    private boolean receivingHandled = false;
+
+    @Subscribe(priority = 10)
+    public void onCancellableEvent(CancellableTestEvent event) {
+      event.setCancelled(true);
+    }
+
+    @Subscribe(async = true, ignoreCancelled = true)
+    public void onCancellableEventIgnoring(CancellableTestEvent event) {
+      ignoringHandled = true;
+    }
+
+    @Subscribe(async = true, priority = -10)
+    public void onCancellableEventReceiving(CancellableTestEvent event) {
+      receivingHandled = true;
+    }
+
+    public boolean isIgnoringHandled() {
+      return ignoringHandled;
+    }
+
+    public boolean isReceivingHandled() {
+      return receivingHandled;
+    }
+  }
+
+  public static class InheritingEventListener extends TestEventListener {
+  }
+
+  public static class DerivedEventListener extends TestEventListener {
+    private boolean priorityEventHandled;
+
+    @Subscribe
+    public void onPriorityEvent(PriorityEvent event) {
+      priorityEventHandled = true;
+    }
+  }
+
+  public static class OverridingEventListener extends TestEventListener {
+
+    @Override
+    public void onTestEvent(TestEvent event) {
+      super.onTestEvent(event);
+    }
+  }
 }
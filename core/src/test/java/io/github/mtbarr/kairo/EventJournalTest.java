@@ -0,0 +1,254 @@
+package io.github.mtbarr.kairo;
+
+import io.github.mtbarr.kairo.codec.EventCodec;
+import io.github.mtbarr.kairo.journal.DurabilityPolicy;
+import io.github.mtbarr.kairo.journal.EventJournal;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EventJournalTest {
+
+  @Test
+  void journaledEventsAreReplayedAfterRestart() throws IOException {
+    Path directory = Files.createTempDirectory("kairo-journal");
+    try {
+      try (EventJournal journal = this.open(directory, EventJournal.DEFAULT_SEGMENT_SIZE, DurabilityPolicy.BATCHED)) {
+        EventBus eventBus = EventBusBuilder.create().withJournal(journal).build();
+        for (int i = 0; i < 10; i++) {
+          eventBus.post(new BalanceEvent("account" + (i % 3), i));
+        }
+        eventBus.post("not journaled");
+        assertEquals(10, journal.getNextOffset());
+      }
+
+      try (EventJournal journal = this.open(directory, EventJournal.DEFAULT_SEGMENT_SIZE, DurabilityPolicy.BATCHED)) {
+        EventBus eventBus = EventBusBuilder.create().withJournal(journal).build();
+        List<Long> received = new ArrayList<>();
+        eventBus.subscribe(BalanceEvent.class, event -> received.add(event.balance));
+
+        assertEquals(10, eventBus.replay(0));
+        assertEquals(List.of(0L, 1L, 2L, 3L, 4L, 5L, 6L, 7L, 8L, 9L), received);
+
+        received.clear();
+        assertEquals(10, eventBus.replay(7));
+        assertEquals(List.of(7L, 8L, 9L), received);
+
+        // Replayed events are not journaled again.
+        assertEquals(10, journal.getNextOffset());
+      }
+    } finally {
+      delete(directory);
+    }
+  }
+
+  @Test
+  void segmentsRollAndReplayInOrder() throws IOException {
+    Path directory = Files.createTempDirectory("kairo-journal");
+    try (EventJournal journal = this.open(directory, 512, DurabilityPolicy.ASYNC)) {
+      EventBus eventBus = EventBusBuilder.create().withJournal(journal).build();
+      for (int i = 0; i < 5000; i++) {
+        eventBus.post(new BalanceEvent("account", i));
+      }
+      assertTrue(journal.getSegmentCount() > 10, "segments should roll");
+
+      EventBus replayed = new EventBus();
+      replayed.setJournal(journal);
+      long[] expected = {0};
+      int[] outOfOrder = {0};
+      replayed.subscribe(BalanceEvent.class, event -> {
+        if (event.balance != expected[0]++) {
+          outOfOrder[0]++;
+        }
+      });
+
+      assertEquals(5000, replayed.replay(0));
+      assertEquals(5000, expected[0]);
+      assertEquals(0, outOfOrder[0]);
+    } finally {
+      delete(directory);
+    }
+  }
+
+  @Test
+  void compactionKeepsTheLatestEventOfEveryKey() throws IOException {
+    Path directory = Files.createTempDirectory("kairo-journal");
+    try (EventJournal journal = this.open(directory, 256, DurabilityPolicy.ASYNC)) {
+      journal.register(AuditEvent.class, 2, AuditEvent.CODEC);
+      EventBus eventBus = EventBusBuilder.create().withJournal(journal).build();
+      for (int i = 0; i < 300; i++) {
+        eventBus.post(new BalanceEvent("account" + (i % 5), i));
+        if (i % 100 == 0) {
+          eventBus.post(new AuditEvent(i));
+        }
+      }
+      journal.roll();
+      int segments = journal.getSegmentCount();
+
+      long removed = journal.compact();
+
+      assertEquals(295, removed);
+      assertTrue(journal.getSegmentCount() < segments, "emptied segments should be deleted");
+
+      EventBus replayed = new EventBus();
+      replayed.setJournal(journal);
+      List<String> received = new ArrayList<>();
+      replayed.subscribe(BalanceEvent.class, event -> received.add(event.account + "=" + event.balance));
+      replayed.subscribe(AuditEvent.class, event -> received.add("audit" + event.sequence));
+      assertEquals(300 + 3, replayed.replay(0));
+      assertEquals(List.of("audit0", "audit100", "audit200",
+        "account0=295", "account1=296", "account2=297", "account3=298", "account4=299"), received);
+    } finally {
+      delete(directory);
+    }
+  }
+
+  @Test
+  void tornRecordsAreDroppedOnOpen() throws IOException {
+    Path directory = Files.createTempDirectory("kairo-journal");
+    try {
+      try (EventJournal journal = this.open(directory, EventJournal.DEFAULT_SEGMENT_SIZE, DurabilityPolicy.SYNC)) {
+        EventBus eventBus = EventBusBuilder.create().withJournal(journal).build();
+        eventBus.post(new BalanceEvent("account", 1));
+        eventBus.post(new BalanceEvent("account", 2));
+      }
+
+      Path segment;
+      try (Stream<Path> files = Files.list(directory)) {
+        segment = files.findFirst().orElseThrow();
+      }
+      // A record header promising more bytes than were written before the crash.
+      Files.write(segment, new byte[]{100, 0, 0, 0, 1, 0, 0, 0, 2}, StandardOpenOption.APPEND);
+
+      try (EventJournal journal = this.open(directory, EventJournal.DEFAULT_SEGMENT_SIZE, DurabilityPolicy.SYNC)) {
+        assertEquals(2, journal.getNextOffset());
+        EventBus eventBus = EventBusBuilder.create().withJournal(journal).build();
+        eventBus.post(new BalanceEvent("account", 3));
+
+        List<Long> received = new ArrayList<>();
+        eventBus.subscribe(BalanceEvent.class, event -> received.add(event.balance));
+        assertEquals(3, eventBus.replay(0));
+        assertEquals(List.of(1L, 2L, 3L), received);
+      }
+    } finally {
+      delete(directory);
+    }
+  }
+
+  @Test
+  void syncJournalIsReadableWithoutFlushing() throws IOException {
+    Path directory = Files.createTempDirectory("kairo-journal");
+    try (EventJournal journal = this.open(directory, EventJournal.DEFAULT_SEGMENT_SIZE, DurabilityPolicy.SYNC)) {
+      EventBus eventBus = EventBusBuilder.create().withJournal(journal).build();
+      eventBus.post(new BalanceEvent("account", 1));
+
+      long size;
+      try (Stream<Path> files = Files.list(directory)) {
+        size = Files.size(files.findFirst().orElseThrow());
+      }
+      assertTrue(size > 0, "the event should be written when the post returns");
+    } finally {
+      delete(directory);
+    }
+  }
+
+  @Test
+  void failedEncodingLeavesNoRecordBehind() throws IOException {
+    Path directory = Files.createTempDirectory("kairo-journal");
+    try {
+      try (EventJournal journal = this.open(directory, EventJournal.DEFAULT_SEGMENT_SIZE, DurabilityPolicy.SYNC)) {
+        journal.append(new BalanceEvent("account", 1));
+        // The codec writes the balance, then fails on the missing account.
+        assertThrows(NullPointerException.class, () -> journal.append(new BalanceEvent(null, 2)));
+        journal.append(new BalanceEvent("account", 3));
+
+        List<Long> read = new ArrayList<>();
+        journal.read(0, (batch, count) -> {
+          for (int i = 0; i < count; i++) {
+            read.add(((BalanceEvent) batch[i]).balance);
+          }
+        });
+        assertEquals(List.of(1L, 3L), read);
+      }
+
+      try (EventJournal journal = this.open(directory, EventJournal.DEFAULT_SEGMENT_SIZE, DurabilityPolicy.SYNC)) {
+        assertEquals(2, journal.getNextOffset());
+      }
+    } finally {
+      delete(directory);
+    }
+  }
+
+  private EventJournal open(Path directory, long segmentSize, DurabilityPolicy durabilityPolicy) throws IOException {
+    EventJournal journal = new EventJournal(directory, segmentSize, durabilityPolicy, Duration.ofMillis(5));
+    journal.register(BalanceEvent.class, 1, BalanceEvent.CODEC, event -> event.account);
+    return journal;
+  }
+
+  private static void delete(Path directory) throws IOException {
+    try (Stream<Path> files = Files.walk(directory)) {
+      for (Path file : (Iterable<Path>) files.sorted(Comparator.reverseOrder())::iterator) {
+        Files.delete(file);
+      }
+    }
+  }
+
+  static class BalanceEvent {
+
+    static final EventCodec<BalanceEvent> CODEC = new EventCodec<>() {
+      @Override
+      public void encode(BalanceEvent event, ByteBuffer target) {
+        target.putLong(event.balance);
+        target.put(event.account.getBytes());
+      }
+
+      @Override
+      public BalanceEvent decode(ByteBuffer source) {
+        long balance = source.getLong();
+        byte[] account = new byte[source.remaining()];
+        source.get(account);
+        return new BalanceEvent(new String(account), balance);
+      }
+    };
+
+    final String account;
+    final long balance;
+
+    BalanceEvent(String account, long balance) {
+      this.account = account;
+      this.balance = balance;
+    }
+  }
+
+  static class AuditEvent {
+
+    static final EventCodec<AuditEvent> CODEC = new EventCodec<>() {
+      @Override
+      public void encode(AuditEvent event, ByteBuffer target) {
+        target.putInt(event.sequence);
+      }
+
+      @Override
+      public AuditEvent decode(ByteBuffer source) {
+        return new AuditEvent(source.getInt());
+      }
+    };
+
+    final int sequence;
+
+    AuditEvent(int sequence) {
+      this.sequence = sequence;
+    }
+  }
+}
@@ -0,0 +1,211 @@
+package io.github.mtbarr.kairo;
+
+import io.github.mtbarr.kairo.annotation.Subscribe;
+import io.github.mtbarr.kairo.exception.EventDispatchException;
+import io.github.mtbarr.kairo.exception.EventExceptionHandler;
+import io.github.mtbarr.kairo.exception.EventInvocationException;
+import io.github.mtbarr.kairo.exception.RateLimitedExceptionHandler;
+import io.github.mtbarr.kairo.exception.SubscriberDisabledException;
+import io.github.mtbarr.kairo.keyed.KeyedEvent;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.ResourceBundle;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ExceptionStrategyTest {
+
+  @Test
+  void defaultHandlerRethrowsStacklessWrapper() {
+    EventBus eventBus = new EventBus();
+    IllegalStateException failure = new IllegalStateException("failure");
+    eventBus.subscribe(TestEvent.class, event -> {
+      throw failure;
+    });
+
+    EventDispatchException exception = assertThrows(EventDispatchException.class, () -> eventBus.post(new TestEvent()));
+
+    assertSame(failure, exception.getCause());
+    assertEquals(0, exception.getStackTrace().length);
+    assertTrue(exception.getMessage().startsWith("Error invoking subscriber method"));
+  }
+
+  @Test
+  void reflectiveSubscribersOnlyWrapCheckedExceptions() {
+    List<Throwable> handled = new ArrayList<>();
+    EventBus eventBus = EventBusBuilder.create()
+      .withExceptionHandler((method, event, throwable) -> handled.add(throwable))
+      .build();
+    eventBus.subscribe(new FailingListener());
+
+    eventBus.post(new TestEvent());
+    eventBus.post("checked");
+
+    assertEquals(2, handled.size());
+    assertInstanceOf(IllegalStateException.class, handled.get(0));
+    EventInvocationException wrapper = assertInstanceOf(EventInvocationException.class, handled.get(1));
+    assertInstanceOf(IOException.class, wrapper.getCause());
+    assertEquals(0, wrapper.getStackTrace().length);
+  }
+
+  @Test
+  void rateLimitedHandlerSuppressesFailuresOverTheLimit() throws InterruptedException {
+    RecordingLogger logger = new RecordingLogger();
+    RateLimitedExceptionHandler handler = (RateLimitedExceptionHandler) EventExceptionHandler.rateLimited(logger, 3, Duration.ofMillis(200));
+    EventBus eventBus = EventBusBuilder.create().withExceptionHandler(handler).build();
+    eventBus.subscribe(TestEvent.class, event -> {
+      throw new IllegalStateException("failure");
+    });
+
+    for (int i = 0; i < 100; i++) {
+      eventBus.post(new TestEvent());
+    }
+
+    assertEquals(3, logger.messages.size());
+    assertEquals(97, handler.getSuppressedCount());
+
+    Thread.sleep(250);
+    eventBus.post(new TestEvent());
+
+    assertEquals(4, logger.messages.size());
+    assertTrue(logger.messages.get(3).contains("97 failures suppressed"), logger.messages.get(3));
+    assertEquals(0, handler.getSuppressedCount());
+  }
+
+  @Test
+  void circuitBreakerDisablesFailingSubscribersUntilCooldown() throws InterruptedException {
+    List<Throwable> handled = new ArrayList<>();
+    EventBus eventBus = EventBusBuilder.create()
+      .withCircuitBreaker(3, Duration.ofMillis(100))
+      .withExceptionHandler((method, event, throwable) -> handled.add(throwable))
+      .build();
+    int[] invocations = new int[1];
+    eventBus.subscribe(TestEvent.class, event -> {
+      invocations[0]++;
+      throw new IllegalStateException("failure");
+    });
+
+    for (int i = 0; i < 10; i++) {
+      eventBus.post(new TestEvent());
+    }
+
+    assertEquals(3, invocations[0]);
+    assertEquals(3, handled.size());
+    assertInstanceOf(IllegalStateException.class, handled.get(1));
+    SubscriberDisabledException disabled = assertInstanceOf(SubscriberDisabledException.class, handled.get(2));
+    assertEquals(Duration.ofMillis(100), disabled.getCooldown());
+
+    Thread.sleep(150);
+    eventBus.post(new TestEvent());
+    eventBus.post(new TestEvent());
+
+    // Re-enabled after the cooldown, then disabled again by its first failure.
+    assertEquals(4, invocations[0]);
+    assertInstanceOf(SubscriberDisabledException.class, handled.get(3));
+  }
+
+  @Test
+  void circuitBreakerResetsOnSuccess() {
+    List<Throwable> handled = new ArrayList<>();
+    EventBus eventBus = EventBusBuilder.create()
+      .withCircuitBreaker(2, Duration.ofMinutes(1))
+      .withExceptionHandler((method, event, throwable) -> handled.add(throwable))
+      .build();
+    int[] invocations = new int[1];
+    eventBus.subscribe(TestEvent.class, event -> {
+      if (invocations[0]++ % 2 == 0) {
+        throw new IllegalStateException("failure");
+      }
+    });
+
+    for (int i = 0; i < 10; i++) {
+      eventBus.post(new TestEvent());
+    }
+
+    assertEquals(10, invocations[0]);
+    assertEquals(5, handled.size());
+    for (Throwable throwable : handled) {
+      assertInstanceOf(IllegalStateException.class, throwable);
+    }
+  }
+
+  @Test
+  void circuitBreakerKeepsKeyedSubscribersIndexed() {
+    EventBus eventBus = EventBusBuilder.create()
+      .withCircuitBreaker(1, Duration.ofMinutes(1))
+      .withExceptionHandler((method, event, throwable) -> { })
+      .build();
+    List<String> received = new ArrayList<>();
+    Function<KeyedTestEvent, Object> key = KeyedTestEvent::eventKey;
+    eventBus.subscribe(KeyedTestEvent.class, key, "a", event -> received.add("a"));
+    eventBus.subscribe(KeyedTestEvent.class, key, "b", event -> {
+      throw new IllegalStateException("failure");
+    });
+
+    eventBus.post(new KeyedTestEvent("a"));
+    eventBus.post(new KeyedTestEvent("b"));
+    eventBus.post(new KeyedTestEvent("a"));
+
+    assertEquals(List.of("a", "a"), received);
+  }
+
+  static class TestEvent {
+  }
+
+  static class KeyedTestEvent implements KeyedEvent<String> {
+
+    private final String key;
+
+    KeyedTestEvent(String key) {
+      this.key = key;
+    }
+
+    @Override
+    public String eventKey() {
+      return key;
+    }
+  }
+
+  public static class FailingListener {
+
+    @Subscribe
+    public void onTestEvent(TestEvent event) {
+      throw new IllegalStateException("unchecked");
+    }
+
+    @Subscribe
+    public void onString(String event) throws IOException {
+      throw new IOException("checked");
+    }
+  }
+
+  static class RecordingLogger implements System.Logger {
+
+    final List<String> messages = new ArrayList<>();
+
+    @Override
+    public String getName() {
+      return "test";
+    }
+
+    @Override
+    public boolean isLoggable(Level level) {
+      return true;
+    }
+
+    @Override
+    public void log(Level level, ResourceBundle bundle, String msg, Throwable thrown) {
+      messages.add(msg);
+    }
+
+    @Override
+    public void log(Level level, ResourceBundle bundle, String format, Object... params) {
+      messages.add(format);
+    }
+  }
+}
@@ -0,0 +1,150 @@
+package io.github.mtbarr.kairo;
+
+import io.github.mtbarr.kairo.annotation.Subscribe;
+import io.github.mtbarr.kairo.generic.EventType;
+import io.github.mtbarr.kairo.generic.GenericEvent;
+import io.github.mtbarr.kairo.subscriber.FunctionalSubscriberMethod;
+import io.github.mtbarr.kairo.subscriber.GenericSubscriberMethod;
+import io.github.mtbarr.kairo.subscriber.SubscriberMethod;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GenericEventTest {
+
+  @Test
+  void annotatedSubscribersOnlyReceiveMatchingPayloads() {
+    EventBus eventBus = new EventBus();
+    OrderListener listener = new OrderListener();
+    eventBus.subscribe(listener);
+
+    eventBus.post(new Envelope<>(new OrderCreated()));
+    eventBus.post(new Envelope<>(new OrderCancelled()));
+    eventBus.post(new Envelope<>("text"));
+
+    assertEquals(List.of("created", "order", "any", "cancelled", "order", "any", "any"), listener.received);
+  }
+
+  @Test
+  void scannedParameterTypesResolveThePayloadClass() {
+    Map<String, Class<?>> payloadClasses = new HashMap<>();
+    for (SubscriberMetadata metadata : SubscriberMetadata.forClass(OrderListener.class)) {
+      SubscriberMethod method = GenericSubscriberMethod.forType(new FunctionalSubscriberMethod<>(metadata.eventClass, event -> {}, false, 0), metadata.eventType);
+      payloadClasses.put(metadata.method.getName(), method instanceof GenericSubscriberMethod ? ((GenericSubscriberMethod) method).payloadClass() : null);
+    }
+
+    assertEquals(OrderCreated.class, payloadClasses.get("onCreated"));
+    assertEquals(OrderCancelled.class, payloadClasses.get("onCancelled"));
+    assertEquals(Order.class, payloadClasses.get("onOrder"));
+    assertNull(payloadClasses.get("onAny"));
+  }
+
+  @Test
+  void eventTypeSubscribersOnlyReceiveMatchingPayloads() {
+    EventBus eventBus = new EventBus();
+    List<Object> received = new ArrayList<>();
+    eventBus.subscribe(new EventType<Envelope<OrderCancelled>>() {}, envelope -> received.add(envelope.payload()));
+
+    OrderCancelled cancelled = new OrderCancelled();
+    eventBus.post(new Envelope<>(new OrderCreated()));
+    eventBus.post(new Envelope<>(cancelled));
+    eventBus.post(new Envelope<>(null));
+
+    assertEquals(List.of(cancelled), received);
+  }
+
+  @Test
+  void unmatchedPayloadsAreDeadEvents() {
+    EventBus eventBus = new EventBus();
+    List<Object> dead = new ArrayList<>();
+    eventBus.subscribe(DeadEvent.class, event -> dead.add(event.getEvent()));
+    eventBus.subscribe(new EventType<Envelope<OrderCreated>>() {}, envelope -> {});
+
+    Envelope<OrderCancelled> envelope = new Envelope<>(new OrderCancelled());
+    eventBus.post(new Envelope<>(new OrderCreated()));
+    eventBus.post(envelope);
+
+    assertEquals(List.of(envelope), dead);
+
+    dead.clear();
+    eventBus.postAll(List.of(new Envelope<>(new OrderCreated()), envelope));
+    assertEquals(List.of(envelope), dead);
+  }
+
+  @Test
+  void payloadResolutionIsCachedUntilSubscribersChange() {
+    EventBus eventBus = new EventBus();
+    Subscription subscription = eventBus.subscribe(new EventType<Envelope<Order>>() {}, envelope -> {});
+    Envelope<OrderCreated> envelope = new Envelope<>(new OrderCreated());
+
+    SubscriberChain chain = eventBus.getChain(Envelope.class);
+    SubscriberChain resolved = chain.select(envelope);
+    assertSame(resolved, chain.select(new Envelope<>(new OrderCreated())));
+    assertEquals(1, resolved.subscribers.length);
+
+    subscription.unsubscribe();
+    assertTrue(eventBus.getChain(Envelope.class).select(envelope).isEmpty());
+  }
+
+  @Test
+  void eventTypeRequiresATypeArgument() {
+    assertThrows(IllegalStateException.class, RawEventType::new);
+  }
+
+  @SuppressWarnings("rawtypes")
+  static class RawEventType extends EventType {
+  }
+
+  static class Envelope<T> implements GenericEvent<T> {
+
+    private final T payload;
+
+    Envelope(T payload) {
+      this.payload = payload;
+    }
+
+    @Override
+    public T payload() {
+      return payload;
+    }
+  }
+
+  static class Order {
+  }
+
+  static class OrderCreated extends Order {
+  }
+
+  static class OrderCancelled extends Order {
+  }
+
+  static class OrderListener {
+
+    final List<String> received = new ArrayList<>();
+
+    @Subscribe(priority = 30)
+    public void onCreated(Envelope<OrderCreated> envelope) {
+      received.add("created");
+    }
+
+    @Subscribe(priority = 30)
+    public void onCancelled(Envelope<OrderCancelled> envelope) {
+      received.add("cancelled");
+    }
+
+    @Subscribe(priority = 20)
+    public void onOrder(Envelope<? extends Order> envelope) {
+      received.add("order");
+    }
+
+    @Subscribe(priority = 10)
+    public void onAny(Envelope<?> envelope) {
+      received.add("any");
+    }
+  }
+}
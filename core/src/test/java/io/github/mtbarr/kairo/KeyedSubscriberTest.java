@@ -0,0 +1,170 @@
+package io.github.mtbarr.kairo;
+
+import io.github.mtbarr.kairo.annotation.Subscribe;
+import io.github.mtbarr.kairo.exception.SubscriberRegistrationException;
+import io.github.mtbarr.kairo.keyed.KeyedEvent;
+import io.github.mtbarr.kairo.keyed.KeyedListener;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class KeyedSubscriberTest {
+
+  private static final Function<WorldEvent, String> WORLD = event -> event.world;
+
+  @Test
+  void onlyMatchingKeyedSubscribersAreInvoked() {
+    EventBus eventBus = new EventBus();
+    List<String> received = new ArrayList<>();
+    eventBus.subscribe(WorldEvent.class, WORLD, "nether", event -> received.add("nether:" + event.world));
+    eventBus.subscribe(WorldEvent.class, WORLD, "end", event -> received.add("end:" + event.world));
+    eventBus.subscribe(WorldEvent.class, event -> received.add("any:" + event.world));
+
+    eventBus.post(new WorldEvent("nether"));
+    eventBus.post(new WorldEvent("overworld"));
+
+    assertEquals(List.of("nether:nether", "any:nether", "any:overworld"), received);
+  }
+
+  @Test
+  void keyedAndUnkeyedSubscribersKeepPriorityOrder() {
+    EventBus eventBus = new EventBus();
+    List<String> received = new ArrayList<>();
+    eventBus.subscribe(WorldEvent.class, false, 0, event -> received.add("unkeyed-low"));
+    eventBus.subscribe(WorldEvent.class, false, 5, WORLD, "nether", event -> received.add("keyed-mid"));
+    eventBus.subscribe(WorldEvent.class, false, 10, event -> received.add("unkeyed-high"));
+    eventBus.subscribe(WorldEvent.class, false, 5, event -> event.world.length(), 6, event -> received.add("length"));
+
+    eventBus.post(new WorldEvent("nether"));
+
+    assertEquals(List.of("unkeyed-high", "keyed-mid", "length", "unkeyed-low"), received);
+  }
+
+  @Test
+  void chainsSelectedBySeveralKeyFunctionsAreCached() {
+    EventBus eventBus = new EventBus();
+    List<String> received = new ArrayList<>();
+    eventBus.subscribe(WorldEvent.class, WORLD, "nether", event -> received.add("nether"));
+    eventBus.subscribe(WorldEvent.class, event -> event.world.length(), 3, event -> received.add("length"));
+
+    SubscriberChain chain = eventBus.getChain(WorldEvent.class);
+    SubscriberChain selected = chain.select(new WorldEvent("end"));
+    assertSame(selected, chain.select(new WorldEvent("end")));
+    assertSame(selected, chain.select(new WorldEvent("sky")));
+    assertNotSame(selected, chain.select(new WorldEvent("nether")));
+
+    eventBus.post(new WorldEvent("end"));
+    eventBus.post(new WorldEvent("nether"));
+    eventBus.post(new WorldEvent("overworld"));
+    assertEquals(List.of("length", "nether"), received);
+  }
+
+  @Test
+  void keyedSubscriptionCanBeCancelled() {
+    EventBus eventBus = new EventBus();
+    List<String> received = new ArrayList<>();
+    Subscription subscription = eventBus.subscribe(WorldEvent.class, WORLD, "nether", event -> received.add(event.world));
+
+    eventBus.post(new WorldEvent("nether"));
+    subscription.unsubscribe();
+    eventBus.post(new WorldEvent("nether"));
+
+    assertEquals(List.of("nether"), received);
+  }
+
+  @Test
+  void annotatedKeyedListenersReceiveEventsWithTheirKey() {
+    EventBus eventBus = new EventBus();
+    WorldListener nether = new WorldListener("nether");
+    WorldListener end = new WorldListener("end");
+    eventBus.subscribe(nether);
+    eventBus.subscribe(end);
+
+    eventBus.post(new WorldEvent("nether"));
+    eventBus.postAll(List.of(new WorldEvent("end"), new WorldEvent("nether")));
+
+    assertEquals(List.of("nether", "nether"), nether.received);
+    assertEquals(List.of("end"), end.received);
+    assertEquals(3, nether.all);
+  }
+
+  @Test
+  void unmatchedKeysAreDeadEvents() {
+    EventBus eventBus = new EventBus();
+    List<Object> dead = new ArrayList<>();
+    eventBus.subscribe(DeadEvent.class, event -> dead.add(event.getEvent()));
+    eventBus.subscribe(WorldEvent.class, WORLD, "nether", event -> {});
+
+    WorldEvent overworld = new WorldEvent("overworld");
+    WorldEvent end = new WorldEvent("end");
+    eventBus.post(new WorldEvent("nether"));
+    eventBus.post(overworld);
+    eventBus.postAll(List.of(new WorldEvent("nether"), end));
+    assertEquals(List.of(overworld, end), dead);
+
+    dead.clear();
+    eventBus.subscribe(WorldEvent.class, event -> event.world.length(), 3, event -> {});
+    eventBus.post(new WorldEvent("end"));
+    eventBus.post(overworld);
+    assertEquals(List.of(overworld), dead);
+  }
+
+  @Test
+  void keyedListenerMustImplementKeyedListener() {
+    EventBus eventBus = new EventBus();
+    assertThrows(SubscriberRegistrationException.class, () -> eventBus.subscribe(new NotKeyedListener()));
+  }
+
+  static class WorldEvent implements KeyedEvent<String> {
+
+    final String world;
+
+    WorldEvent(String world) {
+      this.world = world;
+    }
+
+    @Override
+    public String eventKey() {
+      return world;
+    }
+  }
+
+  public static class WorldListener implements KeyedListener {
+
+    final String world;
+    final List<String> received = new ArrayList<>();
+    int all;
+
+    WorldListener(String world) {
+      this.world = world;
+    }
+
+    @Override
+    public Object listenerKey() {
+      return world;
+    }
+
+    @Subscribe(keyed = true)
+    public void onWorld(WorldEvent event) {
+      received.add(event.world);
+    }
+
+    @Subscribe
+    public void onAnyWorld(WorldEvent event) {
+      if (world.equals("nether")) {
+        all++;
+      }
+    }
+  }
+
+  public static class NotKeyedListener {
+
+    @Subscribe(keyed = true)
+    public void onWorld(WorldEvent event) {
+    }
+  }
+}
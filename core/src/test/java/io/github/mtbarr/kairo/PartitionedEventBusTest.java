@@ -0,0 +1,277 @@
+package io.github.mtbarr.kairo;
+
+import io.github.mtbarr.kairo.partition.OrderFreeEvent;
+import io.github.mtbarr.kairo.partition.PartitionedEvent;
+import io.github.mtbarr.kairo.queue.BackpressurePolicy;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PartitionedEventBusTest {
+
+  @Test
+  void eventsWithTheSameKeyAreDispatchedInOrder() throws InterruptedException {
+    PartitionedEventBus eventBus = EventBusBuilder.create().withPartitionCount(4).buildPartitioned();
+    int players = 8;
+    int eventsPerPlayer = 10_000;
+    Map<Integer, Integer> lastSequences = new ConcurrentHashMap<>();
+    Set<String> workers = ConcurrentHashMap.newKeySet();
+    AtomicInteger outOfOrder = new AtomicInteger();
+    eventBus.subscribe(PlayerEvent.class, event -> {
+      Integer previous = lastSequences.put(event.player, event.sequence);
+      if (event.sequence != (previous == null ? 0 : previous + 1)) {
+        outOfOrder.incrementAndGet();
+      }
+      workers.add(Thread.currentThread().getName());
+    });
+
+    Thread[] producers = new Thread[players];
+    for (int p = 0; p < players; p++) {
+      int player = p;
+      producers[p] = new Thread(() -> {
+        for (int i = 0; i < eventsPerPlayer; i++) {
+          eventBus.post(new PlayerEvent(player, i));
+        }
+      });
+      producers[p].start();
+    }
+    for (Thread producer : producers) {
+      producer.join();
+    }
+    eventBus.close();
+
+    assertEquals(0, outOfOrder.get());
+    for (int player = 0; player < players; player++) {
+      assertEquals(Integer.valueOf(eventsPerPlayer - 1), lastSequences.get(player));
+    }
+    assertTrue(workers.size() > 1, "events should be dispatched by several workers");
+  }
+
+  @Test
+  void idleWorkersStealOrderFreeEvents() throws InterruptedException {
+    PartitionedEventBus eventBus = EventBusBuilder.create().withPartitionCount(2).buildPartitioned();
+    CountDownLatch blocked = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    eventBus.subscribe(PlayerEvent.class, event -> {
+      blocked.countDown();
+      awaitQuietly(release);
+    });
+
+    int events = 200;
+    CountDownLatch dispatched = new CountDownLatch(events);
+    eventBus.subscribe(TelemetryEvent.class, event -> dispatched.countDown());
+
+    eventBus.post(new PlayerEvent(0, 0));
+    assertTrue(blocked.await(5, TimeUnit.SECONDS));
+    for (int i = 0; i < events; i++) {
+      eventBus.post(new TelemetryEvent());
+    }
+
+    // Half of the events land on the blocked partition, only stealing lets them through.
+    assertTrue(dispatched.await(5, TimeUnit.SECONDS));
+    assertTrue(eventBus.getStolenEvents() > 0);
+
+    release.countDown();
+    eventBus.close();
+  }
+
+  @Test
+  void queueDepthsAreReportedPerPartition() throws InterruptedException {
+    PartitionedEventBus eventBus = EventBusBuilder.create().withPartitionCount(3).buildPartitioned();
+    CountDownLatch blocked = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    eventBus.subscribe(PlayerEvent.class, event -> {
+      blocked.countDown();
+      awaitQuietly(release);
+    });
+
+    PlayerEvent first = new PlayerEvent(7, 0);
+    eventBus.post(first);
+    assertTrue(blocked.await(5, TimeUnit.SECONDS));
+    for (int i = 1; i <= 5; i++) {
+      eventBus.post(new PlayerEvent(7, i));
+    }
+
+    int partition = eventBus.partitionOf(first);
+    int[] depths = eventBus.getQueueDepths();
+    assertEquals(3, depths.length);
+    assertEquals(5, depths[partition]);
+    assertEquals(5, eventBus.getQueueDepth(partition));
+
+    release.countDown();
+    eventBus.close();
+    assertEquals(0, eventBus.getQueueDepth(partition));
+  }
+
+  @Test
+  void registeredKeyFunctionsSelectThePartition() {
+    PartitionedEventBus eventBus = EventBusBuilder.create()
+      .withPartitionCount(16)
+      .withPartitionKey(ChatEvent.class, event -> event.channel)
+      .buildPartitioned();
+
+    assertEquals(eventBus.partitionOf(new ChatEvent("global")), eventBus.partitionOf(new ChatEvent("global")));
+    assertEquals(eventBus.partitionOf(new PlayerEvent(3, 0)), eventBus.partitionOf(new PlayerEvent(3, 1)));
+    eventBus.close();
+    assertThrows(IllegalStateException.class, () -> eventBus.post(new ChatEvent("global")));
+  }
+
+  @Test
+  void callerRunsOnlyAppliesToOrderFreeEvents() throws InterruptedException {
+    PartitionedEventBus eventBus = EventBusBuilder.create()
+      .withPartitionCount(1)
+      .withQueueCapacity(4)
+      .withBackpressurePolicy(BackpressurePolicy.CALLER_RUNS)
+      .buildPartitioned();
+    CountDownLatch blocked = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    List<Integer> sequences = new CopyOnWriteArrayList<>();
+    Set<String> playerThreads = ConcurrentHashMap.newKeySet();
+    Set<String> telemetryThreads = ConcurrentHashMap.newKeySet();
+    eventBus.subscribe(PlayerEvent.class, event -> {
+      sequences.add(event.sequence);
+      playerThreads.add(Thread.currentThread().getName());
+      blocked.countDown();
+      awaitQuietly(release);
+    });
+    eventBus.subscribe(TelemetryEvent.class, event -> telemetryThreads.add(Thread.currentThread().getName()));
+
+    eventBus.post(new PlayerEvent(0, 0));
+    assertTrue(blocked.await(5, TimeUnit.SECONDS));
+    for (int i = 0; i <= 4; i++) {
+      eventBus.post(new TelemetryEvent());
+    }
+    assertTrue(telemetryThreads.contains(Thread.currentThread().getName()), "overflowing order free events run on the caller");
+
+    // The ordered queue overflows, the producer waits for room instead of overtaking the queued events.
+    Thread producer = new Thread(() -> {
+      for (int i = 1; i <= 10; i++) {
+        eventBus.post(new PlayerEvent(0, i));
+      }
+    }, "producer");
+    producer.start();
+    Thread.sleep(50);
+    release.countDown();
+    producer.join();
+    eventBus.close();
+
+    assertEquals(List.of(0, 1, 2, 3, 4, 5, 6, 7, 8, 9, 10), sequences);
+    assertEquals(Set.of("kairo-partition-worker-0"), playerThreads);
+  }
+
+  @Test
+  void workersPostingIntoTheirFullPartitionDispatchInline() throws InterruptedException {
+    for (BackpressurePolicy policy : List.of(BackpressurePolicy.BLOCK, BackpressurePolicy.CALLER_RUNS)) {
+      PartitionedEventBus eventBus = EventBusBuilder.create()
+        .withPartitionCount(1)
+        .withQueueCapacity(4)
+        .withBackpressurePolicy(policy)
+        .buildPartitioned();
+      CountDownLatch dispatched = new CountDownLatch(16);
+      eventBus.subscribe(PlayerEvent.class, event -> dispatched.countDown());
+      eventBus.subscribe(ChatEvent.class, event -> {
+        for (int i = 0; i < 16; i++) {
+          eventBus.post(new PlayerEvent(0, i));
+        }
+      });
+
+      eventBus.post(new ChatEvent("global"));
+
+      assertTrue(dispatched.await(3, TimeUnit.SECONDS), policy + " should not hang");
+      eventBus.close();
+    }
+  }
+
+  @Test
+  void workersPostingIntoAnotherFullPartitionFailFast() throws InterruptedException {
+    PartitionedEventBus eventBus = EventBusBuilder.create()
+      .withPartitionCount(2)
+      .withQueueCapacity(2)
+      .withExceptionHandler((method, event, throwable) -> {})
+      .buildPartitioned();
+    PlayerEvent blocking = new PlayerEvent(0, 0);
+    int blockedPartition = eventBus.partitionOf(blocking);
+    int player = 1;
+    while (eventBus.partitionOf(new PlayerEvent(player, 0)) == blockedPartition) {
+      player++;
+    }
+    int otherPlayer = player;
+
+    CountDownLatch blocked = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    AtomicReference<Throwable> failure = new AtomicReference<>();
+    CountDownLatch failed = new CountDownLatch(1);
+    eventBus.subscribe(PlayerEvent.class, event -> {
+      if (event.player == 0 && event.sequence == 0) {
+        blocked.countDown();
+        awaitQuietly(release);
+      }
+    });
+    eventBus.subscribe(ChatEvent.class, event -> {
+      try {
+        for (int i = 1; i <= 16; i++) {
+          eventBus.post(new PlayerEvent(0, i));
+        }
+      } catch (IllegalStateException e) {
+        failure.set(e);
+        failed.countDown();
+      }
+    });
+    eventBus.registerPartitionKey(ChatEvent.class, event -> otherPlayer);
+
+    eventBus.post(blocking);
+    assertTrue(blocked.await(5, TimeUnit.SECONDS));
+    eventBus.post(new ChatEvent("global"));
+
+    assertTrue(failed.await(3, TimeUnit.SECONDS));
+    assertInstanceOf(IllegalStateException.class, failure.get());
+    release.countDown();
+    eventBus.close();
+  }
+
+  private static void awaitQuietly(CountDownLatch latch) {
+    try {
+      latch.await(10, TimeUnit.SECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  static class PlayerEvent implements PartitionedEvent {
+
+    final int player;
+    final int sequence;
+
+    PlayerEvent(int player, int sequence) {
+      this.player = player;
+      this.sequence = sequence;
+    }
+
+    @Override
+    public Object partitionKey() {
+      return player;
+    }
+  }
+
+  static class TelemetryEvent implements OrderFreeEvent {
+  }
+
+  static class ChatEvent {
+
+    final String channel;
+
+    ChatEvent(String channel) {
+      this.channel = channel;
+    }
+  }
+}
@@ -0,0 +1,117 @@
+package io.github.mtbarr.kairo;
+
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PooledEventTest {
+
+  private static EventBusBuilder pooledBuilder() {
+    return EventBusBuilder.create()
+      .withEventPool(PositionEvent.class, PositionEvent::new, PositionEvent::reset)
+      .withPooledEventRetentionCheck(false);
+  }
+
+  @Test
+  void pooledEventIsResetAndReused() {
+    EventBus eventBus = pooledBuilder().build();
+    List<Integer> identities = new ArrayList<>();
+    List<Long> positions = new ArrayList<>();
+    eventBus.subscribe(PositionEvent.class, event -> {
+      identities.add(System.identityHashCode(event));
+      positions.add(event.x + event.y);
+    });
+
+    eventBus.post(PositionEvent.class, event -> event.x = 1);
+    eventBus.post(PositionEvent.class, event -> event.y = 2);
+
+    assertEquals(identities.get(0), identities.get(1));
+    assertEquals(List.of(1L, 2L), positions);
+  }
+
+  @Test
+  void nestedPostsUseAnotherInstance() {
+    EventBus eventBus = pooledBuilder().build();
+    List<Long> positions = new ArrayList<>();
+    eventBus.subscribe(PositionEvent.class, event -> {
+      if (event.x == 1) {
+        eventBus.post(PositionEvent.class, nested -> nested.x = 2);
+      }
+      positions.add(event.x);
+    });
+
+    eventBus.post(PositionEvent.class, event -> event.x = 1);
+
+    assertEquals(List.of(2L, 1L), positions);
+  }
+
+  @Test
+  void postWithoutEventPoolThrowsException() {
+    EventBus eventBus = new EventBus();
+    assertThrows(IllegalArgumentException.class, () -> eventBus.post(PositionEvent.class, event -> event.x = 1));
+  }
+
+  @Test
+  void retentionCheckDetectsRetainedEvents() throws InterruptedException {
+    EventBus eventBus = pooledBuilder().withPooledEventRetentionCheck(true).build();
+    List<PositionEvent> retained = new ArrayList<>();
+    eventBus.subscribe(PositionEvent.class, retained::add);
+
+    eventBus.post(PositionEvent.class, event -> event.x = 1);
+
+    IllegalStateException exception = null;
+    for (int i = 0; i < 50 && exception == null; i++) {
+      System.gc();
+      Thread.sleep(10);
+      try {
+        eventBus.post(PositionEvent.class, event -> event.x = 1);
+      } catch (IllegalStateException e) {
+        exception = e;
+      }
+    }
+
+    assertNotNull(exception);
+  }
+
+  @Test
+  void steadyStatePostDoesNotAllocate() {
+    EventBus eventBus = pooledBuilder().build();
+    long[] sum = new long[1];
+    eventBus.subscribe(PositionEvent.class, event -> sum[0] += event.x);
+
+    com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+    long threadId = Thread.currentThread().getId();
+    int posts = 100_000;
+
+    for (int i = 0; i < posts; i++) {
+      eventBus.post(PositionEvent.class, PooledEventTest::fill);
+    }
+
+    long before = threads.getThreadAllocatedBytes(threadId);
+    for (int i = 0; i < posts; i++) {
+      eventBus.post(PositionEvent.class, PooledEventTest::fill);
+    }
+    long allocated = threads.getThreadAllocatedBytes(threadId) - before;
+
+    assertEquals(2L * posts, sum[0]);
+    assertTrue(allocated < posts, "allocated " + allocated + " bytes for " + posts + " posts");
+  }
+
+  private static void fill(PositionEvent event) {
+    event.x = 1;
+  }
+
+  static class PositionEvent {
+    long x;
+    long y;
+
+    void reset() {
+      x = 0;
+      y = 0;
+    }
+  }
+}
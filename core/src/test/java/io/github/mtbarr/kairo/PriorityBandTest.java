@@ -0,0 +1,124 @@
+package io.github.mtbarr.kairo;
+
+import io.github.mtbarr.kairo.cancellable.CancellableEvent;
+import io.github.mtbarr.kairo.metrics.EventBusMetrics;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PriorityBandTest {
+
+  @Test
+  void bandsAreInvokedFromHighestToMonitor() {
+    EventBus eventBus = new EventBus();
+    List<String> received = new ArrayList<>();
+    eventBus.subscribe(TestEvent.class, EventPriority.MONITOR, event -> received.add("monitor"));
+    eventBus.subscribe(TestEvent.class, EventPriority.LOWEST, event -> received.add("lowest"));
+    eventBus.subscribe(TestEvent.class, EventPriority.NORMAL, event -> received.add("normal"));
+    eventBus.subscribe(TestEvent.class, EventPriority.HIGH + 1, event -> received.add("high+1"));
+    eventBus.subscribe(TestEvent.class, EventPriority.HIGHEST, event -> received.add("highest"));
+    eventBus.subscribe(TestEvent.class, EventPriority.HIGH, event -> received.add("high"));
+
+    eventBus.post(new TestEvent());
+
+    assertEquals(List.of("highest", "high+1", "high", "normal", "lowest", "monitor"), received);
+  }
+
+  @Test
+  void skipPointersLeadToTheNextSubscriberReceivingCancelledEvents() {
+    EventBus eventBus = new EventBus();
+    eventBus.subscribe(CancellableTestEvent.class, false, 50, event -> { });
+    eventBus.subscribe(CancellableTestEvent.class, true, 40, event -> { });
+    eventBus.subscribe(CancellableTestEvent.class, true, 30, event -> { });
+    eventBus.subscribe(CancellableTestEvent.class, false, 20, event -> { });
+    eventBus.subscribe(CancellableTestEvent.class, true, 10, event -> { });
+    eventBus.subscribe(CancellableTestEvent.class, false, EventPriority.MONITOR, event -> { });
+
+    SubscriberChain chain = eventBus.getChain(CancellableTestEvent.class);
+
+    assertArrayEquals(new int[]{0, 3, 3, 3, 5, 5, 6}, chain.nextReceivingCancelled);
+    assertEquals(5, chain.firstMonitor);
+  }
+
+  @Test
+  void cancelledEventsOnlyReachSubscribersReceivingThem() {
+    EventBus eventBus = new EventBus();
+    List<String> received = new ArrayList<>();
+    eventBus.subscribe(CancellableTestEvent.class, false, EventPriority.HIGHEST, event -> {
+      received.add("guard");
+      event.setCancelled(event.cancel);
+    });
+    for (int i = 0; i < 5; i++) {
+      int index = i;
+      eventBus.subscribe(CancellableTestEvent.class, true, EventPriority.NORMAL, event -> received.add("ignoring" + index));
+    }
+    eventBus.subscribe(CancellableTestEvent.class, false, EventPriority.LOW, event -> {
+      received.add("uncancel");
+      event.setCancelled(false);
+    });
+    eventBus.subscribe(CancellableTestEvent.class, true, EventPriority.LOWEST, event -> received.add("after-uncancel"));
+
+    eventBus.post(new CancellableTestEvent(true));
+
+    assertEquals(List.of("guard", "uncancel", "after-uncancel"), received);
+  }
+
+  @Test
+  void monitorBandReadsTheCancellationStateOnce() {
+    EventBus eventBus = new EventBus();
+    List<String> received = new ArrayList<>();
+    eventBus.subscribe(CancellableTestEvent.class, false, EventPriority.NORMAL, event -> event.setCancelled(event.cancel));
+    eventBus.subscribe(CancellableTestEvent.class, true, EventPriority.MONITOR, event -> received.add("ignoring-monitor"));
+    eventBus.subscribe(CancellableTestEvent.class, false, EventPriority.MONITOR, event -> {
+      received.add("monitor");
+      // Monitors are read-only, a cancellation here is not seen by the monitors after it.
+      event.setCancelled(true);
+    });
+    eventBus.subscribe(CancellableTestEvent.class, true, EventPriority.MONITOR, event -> received.add("late-monitor"));
+
+    eventBus.post(new CancellableTestEvent(true));
+    eventBus.post(new CancellableTestEvent(false));
+
+    assertEquals(List.of("monitor", "ignoring-monitor", "monitor", "late-monitor"), received);
+  }
+
+  @Test
+  void instrumentedDispatchSkipsTheSameSubscribers() {
+    EventBusMetrics metrics = new EventBusMetrics();
+    EventBus eventBus = EventBusBuilder.create().withMetrics(metrics).build();
+    List<String> received = new ArrayList<>();
+    eventBus.subscribe(CancellableTestEvent.class, false, EventPriority.HIGH, event -> event.setCancelled(true));
+    eventBus.subscribe(CancellableTestEvent.class, true, EventPriority.NORMAL, event -> received.add("ignoring"));
+    eventBus.subscribe(CancellableTestEvent.class, false, EventPriority.MONITOR, event -> received.add("monitor"));
+
+    eventBus.post(new CancellableTestEvent(true));
+
+    assertEquals(List.of("monitor"), received);
+  }
+
+  static class TestEvent {
+  }
+
+  static class CancellableTestEvent implements CancellableEvent {
+
+    final boolean cancel;
+    private boolean cancelled;
+
+    CancellableTestEvent(boolean cancel) {
+      this.cancel = cancel;
+    }
+
+    @Override
+    public boolean isCancelled() {
+      return cancelled;
+    }
+
+    @Override
+    public void setCancelled(boolean cancelled) {
+      this.cancelled = cancelled;
+    }
+  }
+}
@@ -0,0 +1,208 @@
+package io.github.mtbarr.kairo;
+
+import io.github.mtbarr.kairo.queue.BackpressurePolicy;
+import io.github.mtbarr.kairo.queue.MpscRingBuffer;
+import io.github.mtbarr.kairo.queue.WaitStrategy;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class QueuedEventBusTest {
+
+  @Test
+  void ringBufferRejectsWhenFull() {
+    MpscRingBuffer<Integer> buffer = new MpscRingBuffer<>(3);
+    assertEquals(4, buffer.capacity());
+
+    for (int i = 0; i < 4; i++) {
+      assertTrue(buffer.offer(i));
+    }
+    assertFalse(buffer.offer(4));
+
+    assertEquals(0, (int) buffer.poll());
+    assertTrue(buffer.offer(4));
+    assertEquals(4, buffer.size());
+  }
+
+  @Test
+  void dispatchesEventsInPostOrder() {
+    List<Integer> received = new CopyOnWriteArrayList<>();
+    QueuedEventBus eventBus = EventBusBuilder.create().withBatchSize(4).buildQueued();
+    eventBus.subscribe(NumberEvent.class, event -> received.add(event.number));
+    eventBus.subscribe(OtherEvent.class, event -> received.add(-1));
+
+    List<Integer> expected = new ArrayList<>();
+    for (int i = 0; i < 100; i++) {
+      eventBus.post(new NumberEvent(i));
+      expected.add(i);
+      if (i % 10 == 0) {
+        eventBus.post(new OtherEvent());
+        expected.add(-1);
+      }
+    }
+    eventBus.close();
+
+    assertEquals(expected, received);
+  }
+
+  @Test
+  void dispatchesEventsFromManyProducers() throws InterruptedException {
+    AtomicInteger received = new AtomicInteger();
+    QueuedEventBus eventBus = EventBusBuilder.create()
+      .withQueueCapacity(64)
+      .withWaitStrategy(WaitStrategy.yielding())
+      .buildQueued();
+    eventBus.subscribe(NumberEvent.class, event -> received.incrementAndGet());
+
+    Thread[] producers = new Thread[4];
+    for (int i = 0; i < producers.length; i++) {
+      producers[i] = new Thread(() -> {
+        for (int j = 0; j < 10_000; j++) {
+          eventBus.post(new NumberEvent(j));
+        }
+      });
+      producers[i].start();
+    }
+    for (Thread producer : producers) {
+      producer.join();
+    }
+    eventBus.close();
+
+    assertEquals(40_000, received.get());
+  }
+
+  @Test
+  void dropNewestDiscardsEventsWhenFull() throws InterruptedException {
+    CountDownLatch blocked = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    List<Integer> received = new CopyOnWriteArrayList<>();
+    QueuedEventBus eventBus = EventBusBuilder.create()
+      .withQueueCapacity(2)
+      .withBackpressurePolicy(BackpressurePolicy.DROP_NEWEST)
+      .buildQueued();
+    eventBus.subscribe(NumberEvent.class, event -> {
+      received.add(event.number);
+      blocked.countDown();
+      await(release);
+    });
+
+    eventBus.post(new NumberEvent(0));
+    assertTrue(blocked.await(5, TimeUnit.SECONDS));
+    for (int i = 1; i <= 4; i++) {
+      eventBus.post(new NumberEvent(i));
+    }
+    release.countDown();
+    eventBus.close();
+
+    assertEquals(List.of(0, 1, 2), received);
+    assertEquals(2, eventBus.getDroppedEvents());
+  }
+
+  @Test
+  void dropOldestDiscardsQueuedEventsWhenFull() throws InterruptedException {
+    CountDownLatch blocked = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    List<Integer> received = new CopyOnWriteArrayList<>();
+    QueuedEventBus eventBus = EventBusBuilder.create()
+      .withQueueCapacity(2)
+      .withBackpressurePolicy(BackpressurePolicy.DROP_OLDEST)
+      .buildQueued();
+    eventBus.subscribe(NumberEvent.class, event -> {
+      received.add(event.number);
+      blocked.countDown();
+      await(release);
+    });
+
+    eventBus.post(new NumberEvent(0));
+    assertTrue(blocked.await(5, TimeUnit.SECONDS));
+    for (int i = 1; i <= 4; i++) {
+      eventBus.post(new NumberEvent(i));
+    }
+    release.countDown();
+    eventBus.close();
+
+    assertEquals(List.of(0, 3, 4), received);
+    assertEquals(2, eventBus.getDroppedEvents());
+  }
+
+  @Test
+  void callerRunsDispatchesOnPostingThreadWhenFull() throws InterruptedException {
+    CountDownLatch blocked = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    Thread caller = Thread.currentThread();
+    AtomicInteger callerRuns = new AtomicInteger();
+    QueuedEventBus eventBus = EventBusBuilder.create()
+      .withQueueCapacity(2)
+      .withBackpressurePolicy(BackpressurePolicy.CALLER_RUNS)
+      .buildQueued();
+    eventBus.subscribe(NumberEvent.class, event -> {
+      if (Thread.currentThread() == caller) {
+        callerRuns.incrementAndGet();
+        return;
+      }
+      blocked.countDown();
+      await(release);
+    });
+
+    eventBus.post(new NumberEvent(0));
+    assertTrue(blocked.await(5, TimeUnit.SECONDS));
+    for (int i = 1; i <= 3; i++) {
+      eventBus.post(new NumberEvent(i));
+    }
+    release.countDown();
+    eventBus.close();
+
+    assertEquals(1, callerRuns.get());
+  }
+
+  @Test
+  void subscribersPostingIntoAFullQueueDoNotBlockTheDispatcher() throws InterruptedException {
+    QueuedEventBus eventBus = EventBusBuilder.create().withQueueCapacity(4).buildQueued();
+    CountDownLatch dispatched = new CountDownLatch(16);
+    eventBus.subscribe(NumberEvent.class, event -> dispatched.countDown());
+    eventBus.subscribe(OtherEvent.class, event -> {
+      for (int i = 0; i < 16; i++) {
+        eventBus.post(new NumberEvent(i));
+      }
+    });
+
+    eventBus.post(new OtherEvent());
+
+    assertTrue(dispatched.await(3, TimeUnit.SECONDS));
+    eventBus.close();
+  }
+
+  @Test
+  void postAfterCloseThrowsException() {
+    QueuedEventBus eventBus = EventBusBuilder.create().buildQueued();
+    eventBus.close();
+
+    assertThrows(IllegalStateException.class, () -> eventBus.post(new OtherEvent()));
+  }
+
+  private static void await(CountDownLatch latch) {
+    try {
+      latch.await(5, TimeUnit.SECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  static class NumberEvent {
+    private final int number;
+
+    NumberEvent(int number) {
+      this.number = number;
+    }
+  }
+
+  static class OtherEvent {
+  }
+}
@@ -0,0 +1,234 @@
+package io.github.mtbarr.kairo;
+
+import io.github.mtbarr.kairo.annotation.Subscribe;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StagedRegistrationTest {
+
+  @Test
+  void stagedSubscribersAreSortedByPriority() {
+    EventBus eventBus = EventBusBuilder.create().withStagedRegistration(true).build();
+    List<String> received = new ArrayList<>();
+    eventBus.subscribe(ProbeEvent.class, 0, event -> received.add("low"));
+    eventBus.subscribe(ProbeEvent.class, 10, event -> received.add("high"));
+    eventBus.subscribe(ProbeEvent.class, 5, event -> received.add("mid"));
+
+    eventBus.post(new ProbeEvent(0));
+    eventBus.subscribe(ProbeEvent.class, 7, event -> received.add("late"));
+    eventBus.post(new ProbeEvent(0));
+
+    assertEquals(List.of("high", "mid", "low", "high", "late", "mid", "low"), received);
+  }
+
+  @Test
+  void stagedSubscribersCanBeRemovedBeforeBeingPublished() {
+    EventBus eventBus = EventBusBuilder.create().withStagedRegistration(true).build();
+    ProbeListener listener = new ProbeListener();
+    List<Integer> received = new ArrayList<>();
+    Subscription subscription = eventBus.subscribe(ProbeEvent.class, event -> received.add(event.id));
+
+    eventBus.subscribe(listener);
+    assertTrue(eventBus.unsubscribe(listener));
+    subscription.unsubscribe();
+    eventBus.post(new ProbeEvent(1));
+
+    assertEquals(0, listener.received.get());
+    assertTrue(received.isEmpty());
+    assertEquals(0, eventBus.getSubscribersCount());
+  }
+
+  @Test
+  void disablingStagedRegistrationPublishesPendingSubscribers() {
+    EventBus eventBus = EventBusBuilder.create().withStagedRegistration(true).build();
+    AtomicInteger received = new AtomicInteger();
+    eventBus.subscribe(ProbeEvent.class, event -> received.incrementAndGet());
+
+    eventBus.setStagedRegistration(false);
+    eventBus.post(new ProbeEvent(0));
+
+    assertFalse(eventBus.isStagedRegistration());
+    assertEquals(1, received.get());
+  }
+
+  @Test
+  void subscriptionsAreVisibleToPostsAfterSubscribeReturns() throws Exception {
+    EventBus eventBus = EventBusBuilder.create().withStagedRegistration(true).build();
+    int threads = 8;
+    int subscriptionsPerThread = 250;
+    int total = threads * subscriptionsPerThread;
+    AtomicIntegerArray hits = new AtomicIntegerArray(total);
+    AtomicReference<Throwable> failure = new AtomicReference<>();
+    AtomicBoolean running = new AtomicBoolean(true);
+    CyclicBarrier start = new CyclicBarrier(threads + 1);
+    CountDownLatch done = new CountDownLatch(threads);
+
+    // Posts unrelated probes concurrently, publishing staged subscribers from another thread.
+    Thread poster = new Thread(() -> {
+      while (running.get()) {
+        eventBus.post(new ProbeEvent(-1));
+      }
+    });
+    poster.start();
+
+    for (int t = 0; t < threads; t++) {
+      int thread = t;
+      new Thread(() -> {
+        try {
+          start.await();
+          for (int i = 0; i < subscriptionsPerThread; i++) {
+            int id = thread * subscriptionsPerThread + i;
+            Subscription subscription = eventBus.subscribe(ProbeEvent.class, i % 7, event -> {
+              if (event.id == id) {
+                hits.incrementAndGet(id);
+              }
+            });
+
+            eventBus.post(new ProbeEvent(id));
+            if (hits.get(id) != 1) {
+              throw new AssertionError("Subscriber " + id + " missed a post after subscribing");
+            }
+
+            if (i % 2 == 1) {
+              subscription.unsubscribe();
+              eventBus.post(new ProbeEvent(id));
+              if (hits.get(id) != 1) {
+                throw new AssertionError("Subscriber " + id + " received a post after unsubscribing");
+              }
+            }
+          }
+        } catch (Throwable throwable) {
+          failure.compareAndSet(null, throwable);
+        } finally {
+          done.countDown();
+        }
+      }).start();
+    }
+
+    start.await();
+    done.await();
+    running.set(false);
+    poster.join();
+
+    if (failure.get() != null) {
+      fail(failure.get());
+    }
+
+    AtomicInteger invoked = new AtomicInteger();
+    eventBus.subscribe(ProbeEvent.class, Integer.MIN_VALUE, event -> invoked.incrementAndGet());
+    for (int id = 0; id < total; id++) {
+      eventBus.post(new ProbeEvent(id));
+      assertEquals(id % 2 == 0 ? 2 : 1, hits.get(id));
+    }
+    assertEquals(total, invoked.get());
+    assertEquals(total / 2 + 1, eventBus.getChain(ProbeEvent.class).subscribers.length);
+  }
+
+  @Test
+  void subscriptionsSurviveTogglingStagedRegistration() throws InterruptedException {
+    EventBus eventBus = new EventBus();
+    int threads = 4;
+    int subscriptionsPerThread = 2_000;
+    AtomicInteger received = new AtomicInteger();
+    List<ProbeListener> listeners = new ArrayList<>();
+    for (int i = 0; i < threads * subscriptionsPerThread / 2; i++) {
+      listeners.add(new ProbeListener());
+    }
+
+    Thread[] registering = new Thread[threads];
+    for (int t = 0; t < threads; t++) {
+      int offset = t * subscriptionsPerThread / 2;
+      registering[t] = new Thread(() -> {
+        for (int i = 0; i < subscriptionsPerThread / 2; i++) {
+          eventBus.subscribe(ProbeEvent.class, event -> received.incrementAndGet());
+          eventBus.subscribe(listeners.get(offset + i));
+        }
+      });
+      registering[t].start();
+    }
+
+    boolean staged = false;
+    while (Arrays.stream(registering).anyMatch(Thread::isAlive)) {
+      staged = !staged;
+      eventBus.setStagedRegistration(staged);
+    }
+    for (Thread thread : registering) {
+      thread.join();
+    }
+    eventBus.setStagedRegistration(false);
+
+    eventBus.post(new ProbeEvent(0));
+    assertEquals(threads * subscriptionsPerThread / 2, received.get());
+    assertTrue(listeners.stream().allMatch(listener -> listener.received.get() == 1));
+  }
+
+  @Test
+  void listenersCanBeStagedConcurrently() throws InterruptedException {
+    EventBus eventBus = EventBusBuilder.create().withStagedRegistration(true).build();
+    int threads = 4;
+    int listenersPerThread = 1_000;
+    ProbeListener shared = new ProbeListener();
+    ProbeListener[][] listeners = new ProbeListener[threads][listenersPerThread];
+
+    Thread[] registering = new Thread[threads];
+    for (int t = 0; t < threads; t++) {
+      ProbeListener[] own = listeners[t];
+      registering[t] = new Thread(() -> {
+        for (int i = 0; i < own.length; i++) {
+          own[i] = new ProbeListener();
+          eventBus.subscribe(own[i]);
+          eventBus.subscribe(shared);
+          if (i % 2 == 1) {
+            assertTrue(eventBus.unsubscribe(own[i]));
+          }
+        }
+      });
+      registering[t].start();
+    }
+    for (Thread thread : registering) {
+      thread.join();
+    }
+
+    eventBus.post(new ProbeEvent(0));
+    for (ProbeListener[] own : listeners) {
+      for (int i = 0; i < own.length; i++) {
+        assertEquals(i % 2 == 0 ? 1 : 0, own[i].received.get());
+      }
+    }
+    assertEquals(threads * listenersPerThread, shared.received.get());
+
+    assertTrue(eventBus.unsubscribe(shared));
+    eventBus.post(new ProbeEvent(1));
+    assertEquals(threads * listenersPerThread, shared.received.get());
+  }
+
+  static class ProbeEvent {
+
+    final int id;
+
+    ProbeEvent(int id) {
+      this.id = id;
+    }
+  }
+
+  public static class ProbeListener {
+
+    final AtomicInteger received = new AtomicInteger();
+
+    @Subscribe
+    public void onProbe(ProbeEvent event) {
+      received.incrementAndGet();
+    }
+  }
+}
@@ -0,0 +1,102 @@
+package io.github.mtbarr.kairo;
+
+import io.github.mtbarr.kairo.annotation.Subscribe;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StickyEventTest {
+
+  @Test
+  void latestStickyEventIsDeliveredOnSubscribe() {
+    EventBus eventBus = new EventBus();
+    eventBus.postSticky(new ConfigEvent("first"));
+    eventBus.postSticky(new ConfigEvent("second"));
+
+    List<String> received = new ArrayList<>();
+    eventBus.subscribe(ConfigEvent.class, event -> received.add(event.value));
+
+    assertEquals(List.of("second"), received);
+    assertEquals("second", eventBus.getStickyEvent(ConfigEvent.class).value);
+  }
+
+  @Test
+  void stickyEventsAreDeliveredToSubscribedObjects() {
+    EventBus eventBus = new EventBus();
+    eventBus.postSticky(new ConfigEvent("config"));
+
+    ConfigListener listener = new ConfigListener();
+    eventBus.subscribe(listener);
+    eventBus.post(new ConfigEvent("update"));
+
+    assertEquals(List.of("config", "update"), listener.received);
+  }
+
+  @Test
+  void stickyCapacityKeepsTheLastEvents() {
+    EventBus eventBus = EventBusBuilder.create().withStickyCapacity(3).build();
+    for (int i = 0; i < 5; i++) {
+      eventBus.postSticky(new ConfigEvent("event" + i));
+    }
+
+    List<String> received = new ArrayList<>();
+    eventBus.subscribe(ConfigEvent.class, event -> received.add(event.value));
+
+    assertEquals(List.of("event2", "event3", "event4"), received);
+    assertEquals(3, eventBus.getStickyEvents(ConfigEvent.class).size());
+  }
+
+  @Test
+  void expiredStickyEventsAreNotReplayed() throws InterruptedException {
+    EventBus eventBus = EventBusBuilder.create().withStickyMaxAge(Duration.ofMillis(10)).build();
+    eventBus.postSticky(new ConfigEvent("config"));
+    Thread.sleep(50);
+
+    List<String> received = new ArrayList<>();
+    eventBus.subscribe(ConfigEvent.class, event -> received.add(event.value));
+
+    assertTrue(received.isEmpty());
+    assertNull(eventBus.getStickyEvent(ConfigEvent.class));
+  }
+
+  @Test
+  void removedStickyEventsAreNotReplayed() {
+    EventBus eventBus = new EventBus();
+    eventBus.postSticky(new ConfigEvent("config"));
+    assertTrue(eventBus.removeStickyEvents(ConfigEvent.class));
+
+    List<String> received = new ArrayList<>();
+    eventBus.subscribe(ConfigEvent.class, event -> received.add(event.value));
+
+    assertTrue(received.isEmpty());
+  }
+
+  @Test
+  void ordinaryPostsAreNotSticky() {
+    EventBus eventBus = new EventBus();
+    eventBus.post(new ConfigEvent("config"));
+
+    assertNull(eventBus.getStickyEvent(ConfigEvent.class));
+  }
+
+  static class ConfigEvent {
+    private final String value;
+
+    ConfigEvent(String value) {
+      this.value = value;
+    }
+  }
+
+  public static class ConfigListener {
+    private final List<String> received = new ArrayList<>();
+
+    @Subscribe
+    public void onConfig(ConfigEvent event) {
+      received.add(event.value);
+    }
+  }
+}
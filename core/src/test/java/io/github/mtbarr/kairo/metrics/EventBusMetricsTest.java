@@ -0,0 +1,136 @@
+package io.github.mtbarr.kairo.metrics;
+
+import io.github.mtbarr.kairo.EventBus;
+import io.github.mtbarr.kairo.EventBusBuilder;
+import io.github.mtbarr.kairo.Subscription;
+import io.github.mtbarr.kairo.cancellable.CancellableEvent;
+import io.github.mtbarr.kairo.subscriber.SubscriberMethod;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EventBusMetricsTest {
+
+  @Test
+  void postsAndCancellationsAreCountedPerEventType() {
+    EventBusMetrics metrics = new EventBusMetrics();
+    EventBus eventBus = EventBusBuilder.create().withMetrics(metrics).build();
+    eventBus.subscribe(TestEvent.class, event -> event.setCancelled(event.cancel));
+
+    eventBus.post(new TestEvent(true));
+    eventBus.post(new TestEvent(false));
+    eventBus.post(new TestEvent(false));
+    eventBus.post(new TestEvent(true));
+    eventBus.post("no subscribers");
+
+    EventTypeSnapshot snapshot = metrics.snapshot().getEventTypes().get(TestEvent.class);
+    assertEquals(4, snapshot.getPosts());
+    assertEquals(2, snapshot.getCancellations());
+    assertEquals(0.5, snapshot.getCancellationRate());
+    assertEquals(1, metrics.snapshot().getEventTypes().get(String.class).getPosts());
+  }
+
+  @Test
+  void invocationsAndExceptionsAreCountedPerSubscriber() {
+    EventBusMetrics metrics = new EventBusMetrics();
+    EventBus eventBus = EventBusBuilder.create()
+      .withMetrics(metrics)
+      .withExceptionHandler((subscriberMethod, event, exception) -> {
+      })
+      .build();
+
+    eventBus.subscribe(TestEvent.class, event -> {
+      if (event.cancel) {
+        throw new IllegalStateException();
+      }
+    });
+
+    eventBus.post(new TestEvent(false));
+    eventBus.post(new TestEvent(true));
+    eventBus.post(new TestEvent(false));
+
+    SubscriberSnapshot snapshot = metrics.snapshot().getSubscribers().values().iterator().next();
+    assertEquals(3, snapshot.getInvocations());
+    assertEquals(1, snapshot.getExceptions());
+    assertEquals(3, snapshot.getLatency().getCount());
+    assertTrue(snapshot.getLatency().getValueAtPercentile(100) <= snapshot.getLatency().getMax());
+  }
+
+  @Test
+  void slowSubscribersAreReported() {
+    List<SubscriberMethod> slowSubscribers = new ArrayList<>();
+    EventBusMetrics metrics = new EventBusMetrics(Duration.ZERO, (subscriberMethod, event, durationNanos) -> slowSubscribers.add(subscriberMethod));
+    EventBus eventBus = EventBusBuilder.create().withMetrics(metrics).build();
+    eventBus.subscribe(TestEvent.class, event -> {
+    });
+
+    eventBus.post(new TestEvent(false));
+
+    assertEquals(1, slowSubscribers.size());
+    assertEquals(TestEvent.class, slowSubscribers.get(0).eventClass());
+  }
+
+  @Test
+  void unsubscribedSubscribersAreDiscarded() {
+    EventBusMetrics metrics = new EventBusMetrics();
+    EventBus eventBus = EventBusBuilder.create().withMetrics(metrics).build();
+    Subscription subscription = eventBus.subscribe(TestEvent.class, event -> {
+    });
+
+    eventBus.post(new TestEvent(false));
+    assertEquals(1, metrics.snapshot().getSubscribers().size());
+
+    subscription.unsubscribe();
+    assertTrue(metrics.snapshot().getSubscribers().isEmpty());
+  }
+
+  @Test
+  void histogramPercentilesStayWithinBucketPrecision() {
+    LatencyHistogram histogram = new LatencyHistogram();
+    for (long value = 1; value <= 1000; value++) {
+      histogram.record(value * 1000);
+    }
+
+    HistogramSnapshot snapshot = histogram.snapshot();
+    assertEquals(1000, snapshot.getCount());
+    assertEquals(1_000_000, snapshot.getMax());
+    assertEquals(500_500.0, snapshot.getMean());
+
+    long median = snapshot.getValueAtPercentile(50);
+    assertTrue(median >= 500_000 && median <= 500_000 * 1.125, "median " + median);
+    assertEquals(1_000_000, snapshot.getValueAtPercentile(100));
+  }
+
+  @Test
+  void histogramBucketsAreContiguous() {
+    for (long value = 0; value < 1 << 16; value++) {
+      int index = LatencyHistogram.bucketIndex(value);
+      assertTrue(value <= LatencyHistogram.bucketUpperBound(index));
+      assertTrue(index == 0 || value > LatencyHistogram.bucketUpperBound(index - 1));
+    }
+    assertEquals(LatencyHistogram.BUCKETS - 1, LatencyHistogram.bucketIndex(Long.MAX_VALUE));
+  }
+
+  static class TestEvent implements CancellableEvent {
+    private final boolean cancel;
+    private boolean cancelled;
+
+    TestEvent(boolean cancel) {
+      this.cancel = cancel;
+    }
+
+    @Override
+    public void setCancelled(boolean cancelled) {
+      this.cancelled = cancelled;
+    }
+
+    @Override
+    public boolean isCancelled() {
+      return cancelled;
+    }
+  }
+}
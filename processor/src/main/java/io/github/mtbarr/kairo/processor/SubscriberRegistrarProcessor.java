@@ -0,0 +1,331 @@
+package io.github.mtbarr.kairo.processor;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.*;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.type.WildcardType;
+import javax.lang.model.util.ElementFilter;
+import javax.lang.model.util.Types;
+import javax.tools.Diagnostic;
+import javax.tools.JavaFileObject;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.*;
+
+/**
+ * Generates a {@code SubscriberRegistrar} for every class declaring methods annotated with {@code @Subscribe},
+ * so the event bus can subscribe its instances without reflection.
+ * The registrar also covers the subscriber methods inherited from superclasses, unless a subclass overrides them.
+ * <p>
+ * Classes the registrar cannot call directly, such as private classes or classes with private subscriber methods,
+ * are skipped with a note and keep being subscribed through reflection at runtime. Classes with subscriber methods the
+ * event bus rejects anyway, such as methods without exactly one parameter, are skipped with a warning.
+ *
+ * @author Matheus Barreto <a href="https://github.com/mtbarr">mtbarr</a>
+ */
+public class SubscriberRegistrarProcessor extends AbstractProcessor {
+
+  static final String SUBSCRIBE = "io.github.mtbarr.kairo.annotation.Subscribe";
+  static final String SUFFIX = "_KairoRegistrar";
+  static final String GENERIC_EVENT = "io.github.mtbarr.kairo.generic.GenericEvent";
+
+  @Override
+  public Set<String> getSupportedAnnotationTypes() {
+    return Collections.singleton(SUBSCRIBE);
+  }
+
+  @Override
+  public SourceVersion getSupportedSourceVersion() {
+    return SourceVersion.latestSupported();
+  }
+
+  @Override
+  public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+    TypeElement subscribe = processingEnv.getElementUtils().getTypeElement(SUBSCRIBE);
+    if (subscribe == null) {
+      return false;
+    }
+
+    Map<TypeElement, List<ExecutableElement>> methodsByType = new LinkedHashMap<>();
+    for (Element element : roundEnv.getElementsAnnotatedWith(subscribe)) {
+      if (element.getKind() == ElementKind.METHOD) {
+        methodsByType.computeIfAbsent((TypeElement) element.getEnclosingElement(), k -> new ArrayList<>()).add((ExecutableElement) element);
+      }
+    }
+
+    for (Map.Entry<TypeElement, List<ExecutableElement>> entry : methodsByType.entrySet()) {
+      TypeElement type = entry.getKey();
+      entry.getValue().addAll(this.inheritedMethods(type, subscribe));
+
+      String invalid = this.findInvalidMethod(entry.getValue(), subscribe);
+      if (invalid != null) {
+        processingEnv.getMessager().printMessage(Diagnostic.Kind.WARNING,
+          "No subscriber registrar generated, " + type.getQualifiedName() + " will be rejected when subscribed: " + invalid, type);
+        continue;
+      }
+
+      String problem = this.findProblem(type, entry.getValue(), subscribe);
+      if (problem != null) {
+        processingEnv.getMessager().printMessage(Diagnostic.Kind.NOTE,
+          "No subscriber registrar generated, " + type.getQualifiedName() + " will be subscribed through reflection: " + problem, type);
+        continue;
+      }
+
+      this.writeRegistrar(type, entry.getValue(), subscribe);
+    }
+
+    return false;
+  }
+
+  /**
+   * Checks whether generated code in the package of the type can call its subscriber methods directly.
+   *
+   * @return a description of the problem, or null if a registrar can be generated.
+   */
+  private String findProblem(TypeElement type, List<ExecutableElement> methods, TypeElement subscribe) {
+    if (type.getKind() != ElementKind.CLASS && type.getKind() != ElementKind.ENUM && type.getKind() != ElementKind.RECORD) {
+      return "subscriber methods must be declared in a class";
+    }
+
+    for (Element current = type; current instanceof TypeElement; current = current.getEnclosingElement()) {
+      NestingKind nesting = ((TypeElement) current).getNestingKind();
+      if (nesting == NestingKind.LOCAL || nesting == NestingKind.ANONYMOUS) {
+        return "local and anonymous classes are not supported";
+      }
+      if (current.getModifiers().contains(Modifier.PRIVATE)) {
+        return current.getSimpleName() + " is private";
+      }
+    }
+
+    PackageElement typePackage = processingEnv.getElementUtils().getPackageOf(type);
+    for (ExecutableElement method : methods) {
+      if (method.getModifiers().contains(Modifier.PRIVATE)) {
+        return method.getSimpleName() + " is private";
+      }
+      if (!method.getModifiers().contains(Modifier.PUBLIC)
+        && !processingEnv.getElementUtils().getPackageOf(method).equals(typePackage)) {
+        return method.getSimpleName() + " is not accessible from " + typePackage.getQualifiedName();
+      }
+      if (method.getModifiers().contains(Modifier.STATIC)) {
+        return method.getSimpleName() + " is static";
+      }
+      if (method.getParameters().get(0).asType().getKind().isPrimitive()) {
+        return method.getSimpleName() + " must take an object parameter";
+      }
+    }
+
+    return null;
+  }
+
+  /**
+   * Checks the subscriber methods the event bus rejects at runtime whichever way the type is subscribed.
+   *
+   * @return a description of the invalid method, or null if every method has a valid signature.
+   */
+  private String findInvalidMethod(List<ExecutableElement> methods, TypeElement subscribe) {
+    for (ExecutableElement method : methods) {
+      if (method.getParameters().size() != 1) {
+        return method.getSimpleName() + " must have exactly one parameter";
+      }
+      if (Boolean.TRUE.equals(this.annotationValues(method, subscribe).get("batch")) && this.batchEventType(method) == null) {
+        return method.getSimpleName() + " must take a List of events";
+      }
+    }
+
+    return null;
+  }
+
+  /**
+   * Returns the subscriber methods the type inherits from its superclasses, skipping the ones overridden on the way.
+   */
+  private List<ExecutableElement> inheritedMethods(TypeElement type, TypeElement subscribe) {
+    List<ExecutableElement> inherited = new ArrayList<>();
+    List<TypeElement> subclasses = new ArrayList<>();
+    subclasses.add(type);
+
+    for (TypeElement current = this.superclassOf(type); current != null; current = this.superclassOf(current)) {
+      for (ExecutableElement method : ElementFilter.methodsIn(current.getEnclosedElements())) {
+        if (this.isAnnotated(method, subscribe) && !this.isOverridden(method, subclasses)) {
+          inherited.add(method);
+        }
+      }
+      subclasses.add(current);
+    }
+
+    return inherited;
+  }
+
+  private boolean isOverridden(ExecutableElement method, List<TypeElement> subclasses) {
+    for (TypeElement subclass : subclasses) {
+      for (ExecutableElement candidate : ElementFilter.methodsIn(subclass.getEnclosedElements())) {
+        if (processingEnv.getElementUtils().overrides(candidate, method, subclass)) {
+          return true;
+        }
+      }
+    }
+    return false;
+  }
+
+  private boolean isAnnotated(ExecutableElement method, TypeElement subscribe) {
+    for (AnnotationMirror mirror : method.getAnnotationMirrors()) {
+      if (mirror.getAnnotationType().asElement().equals(subscribe)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private TypeElement superclassOf(TypeElement type) {
+    TypeMirror superclass = type.getSuperclass();
+    if (superclass.getKind() != TypeKind.DECLARED) {
+      return null;
+    }
+
+    TypeElement element = (TypeElement) processingEnv.getTypeUtils().asElement(superclass);
+    return element.getQualifiedName().contentEquals("java.lang.Object") ? null : element;
+  }
+
+  private void writeRegistrar(TypeElement type, List<ExecutableElement> methods, TypeElement subscribe) {
+    String packageName = processingEnv.getElementUtils().getPackageOf(type).getQualifiedName().toString();
+    String binaryName = processingEnv.getElementUtils().getBinaryName(type).toString();
+    String simpleBinaryName = packageName.isEmpty() ? binaryName : binaryName.substring(packageName.length() + 1);
+    String registrarName = simpleBinaryName.replace('$', '_') + SUFFIX;
+    String listenerType = this.erasure(type.asType());
+
+    StringBuilder source = new StringBuilder();
+    if (!packageName.isEmpty()) {
+      source.append("package ").append(packageName).append(";\n\n");
+    }
+
+    source.append("/**\n")
+      .append(" * Subscriber registrar of {@link ").append(listenerType).append("}, generated by the kairo annotation processor.\n")
+      .append(" */\n")
+      .append("@SuppressWarnings({\"unchecked\", \"rawtypes\"})\n")
+      .append("public final class ").append(registrarName).append(" implements io.github.mtbarr.kairo.subscriber.SubscriberRegistrar {\n\n")
+      .append("  private static final java.util.List<io.github.mtbarr.kairo.subscriber.SubscriberDescriptor> SUBSCRIBERS = java.util.List.of(");
+
+    for (int i = 0; i < methods.size(); i++) {
+      ExecutableElement method = methods.get(i);
+      Map<String, Object> values = this.annotationValues(method, subscribe);
+      boolean batch = Boolean.TRUE.equals(values.get("batch"));
+      String parameterType = this.erasure(method.getParameters().get(0).asType());
+      TypeMirror declaredEventType = batch ? this.batchEventType(method) : method.getParameters().get(0).asType();
+      String eventType = this.erasure(declaredEventType);
+      String payloadType = this.payloadType(declaredEventType);
+
+      source.append(i == 0 ? "\n" : ",\n")
+        .append("    new io.github.mtbarr.kairo.subscriber.SubscriberDescriptor(")
+        .append(eventType).append(".class, ")
+        .append("(listener, event) -> ((").append(listenerType).append(") listener).")
+        .append(method.getSimpleName()).append("((").append(parameterType).append(") event), ")
+        .append(values.get("ignoreCancelled")).append(", ")
+        .append(values.get("priority")).append(", ")
+        .append(values.get("async")).append(", ")
+        .append(batch).append(", ")
+        .append(values.get("keyed"));
+      if (payloadType != null) {
+        source.append(", ").append(payloadType).append(".class");
+      }
+      source.append(")");
+    }
+
+    source.append("\n  );\n\n")
+      .append("  @Override\n")
+      .append("  public java.util.List<io.github.mtbarr.kairo.subscriber.SubscriberDescriptor> subscribers() {\n")
+      .append("    return SUBSCRIBERS;\n")
+      .append("  }\n")
+      .append("}\n");
+
+    String qualifiedName = packageName.isEmpty() ? registrarName : packageName + "." + registrarName;
+    try {
+      JavaFileObject file = processingEnv.getFiler().createSourceFile(qualifiedName, type);
+      try (Writer writer = file.openWriter()) {
+        writer.write(source.toString());
+      }
+    } catch (IOException e) {
+      processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, "Failed to write subscriber registrar: " + e.getMessage(), type);
+    }
+  }
+
+  /**
+   * Returns the values of the {@code @Subscribe} annotation of a method, including defaults.
+   */
+  private Map<String, Object> annotationValues(ExecutableElement method, TypeElement subscribe) {
+    Map<String, Object> values = new HashMap<>();
+    for (AnnotationMirror mirror : method.getAnnotationMirrors()) {
+      if (!mirror.getAnnotationType().asElement().equals(subscribe)) {
+        continue;
+      }
+
+      for (Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> entry :
+        processingEnv.getElementUtils().getElementValuesWithDefaults(mirror).entrySet()) {
+        values.put(entry.getKey().getSimpleName().toString(), entry.getValue().getValue());
+      }
+    }
+
+    return values;
+  }
+
+  /**
+   * Returns the element type of the {@code List<E>} parameter of a batch subscriber method.
+   *
+   * @return the event type, or null if the parameter is not a list of a declared type.
+   */
+  private TypeMirror batchEventType(ExecutableElement method) {
+    TypeMirror parameterType = method.getParameters().get(0).asType();
+    if (parameterType.getKind() != TypeKind.DECLARED) {
+      return null;
+    }
+
+    DeclaredType declaredType = (DeclaredType) parameterType;
+    TypeElement listType = (TypeElement) declaredType.asElement();
+    if (!listType.getQualifiedName().contentEquals("java.util.List") || declaredType.getTypeArguments().size() != 1) {
+      return null;
+    }
+
+    TypeMirror eventType = declaredType.getTypeArguments().get(0);
+    return eventType.getKind() == TypeKind.DECLARED ? eventType : null;
+  }
+
+  /**
+   * Returns the payload type of a parameterized {@code GenericEvent} type, such as {@code OrderCreated}
+   * for {@code Envelope<OrderCreated>}.
+   *
+   * @return the erased payload type, or null if the event type does not filter events by payload.
+   */
+  private String payloadType(TypeMirror eventType) {
+    TypeElement genericEvent = processingEnv.getElementUtils().getTypeElement(GENERIC_EVENT);
+    if (genericEvent == null || eventType.getKind() != TypeKind.DECLARED) {
+      return null;
+    }
+
+    Types types = processingEnv.getTypeUtils();
+    List<? extends TypeMirror> arguments = ((DeclaredType) eventType).getTypeArguments();
+    if (!types.isAssignable(types.erasure(eventType), types.erasure(genericEvent.asType())) || arguments.size() != 1) {
+      return null;
+    }
+
+    TypeMirror payloadType = arguments.get(0);
+    if (payloadType.getKind() == TypeKind.WILDCARD) {
+      payloadType = ((WildcardType) payloadType).getExtendsBound();
+    }
+    if (payloadType == null || (payloadType.getKind() != TypeKind.DECLARED && payloadType.getKind() != TypeKind.TYPEVAR)) {
+      return null;
+    }
+
+    String erasure = this.erasure(payloadType);
+    return erasure.equals("java.lang.Object") ? null : erasure;
+  }
+
+  private String erasure(TypeMirror type) {
+    TypeMirror erased = processingEnv.getTypeUtils().erasure(type);
+    if (erased.getKind() == TypeKind.DECLARED) {
+      return ((TypeElement) processingEnv.getTypeUtils().asElement(erased)).getQualifiedName().toString();
+    }
+    return erased.toString();
+  }
+}